@@ -0,0 +1,47 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds service stand-ins from plain classes that only define the methods a benchmark uses.
+ * Interface methods are forwarded to the method of the same name and parameter types on the stand-in;
+ * any other method throws {@link UnsupportedOperationException}. Services can therefore gain methods
+ * without the benchmarks having to change.
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    static <T> T of(Class<T> service, Object target) {
+        Map<Method, Method> targets = new HashMap<>();
+        for (Method method : service.getMethods()) {
+            try {
+                Method targetMethod = target.getClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+                targetMethod.setAccessible(true);
+                targets.put(method, targetMethod);
+            } catch (NoSuchMethodException e) {
+                // not used by the benchmarks
+            }
+        }
+        Object proxy = Proxy.newProxyInstance(service.getClassLoader(), new Class<?>[]{service}, (instance, method, args) -> {
+            Method targetMethod = targets.get(method);
+            if (targetMethod != null) {
+                try {
+                    return targetMethod.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            throw new UnsupportedOperationException(service.getSimpleName() + "." + method.getName());
+        });
+        return service.cast(proxy);
+    }
+}
@@ -0,0 +1,28 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.service.MatchService;
+
+/**
+ * In-memory stand-in for {@link MatchService} backed by the synthetic match history.
+ * Only the read operations used by the pairing algorithms are defined; see {@link Fakes}.
+ */
+final class InMemoryMatchService {
+
+    private final SyntheticDivision division;
+
+    private InMemoryMatchService(SyntheticDivision division) {
+        this.division = division;
+    }
+
+    static MatchService of(SyntheticDivision division) {
+        return Fakes.of(MatchService.class, new InMemoryMatchService(division));
+    }
+
+    Long getNumberOfMatchesBetweenPlayers(Long player1Id, Long player2Id) {
+        return division.headToHead.getMatchCount(player1Id, player2Id);
+    }
+
+    int calculateRecentPerformance(Long userId) {
+        return 25 * division.recentForm.getRecentWins(userId);
+    }
+}
@@ -0,0 +1,51 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.service.UserService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory stand-in for {@link UserService} serving one synthetic division.
+ * Only the read operations used by the pairing algorithms are defined; see {@link Fakes}.
+ */
+final class InMemoryUserService {
+
+    private final SyntheticDivision division;
+
+    private InMemoryUserService(SyntheticDivision division) {
+        this.division = division;
+    }
+
+    static UserService of(SyntheticDivision division) {
+        return Fakes.of(UserService.class, new InMemoryUserService(division));
+    }
+
+    Optional<User> findUserById(Long id) {
+        return id >= 1 && id <= division.players.size()
+                ? Optional.of(division.players.get((int) (id - 1)))
+                : Optional.empty();
+    }
+
+    List<User> findUsersByIds(Collection<Long> ids) {
+        List<User> users = new ArrayList<>();
+        for (Long id : ids) {
+            findUserById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+
+    List<User> getAllSignedInUsersInDivision(long divisionId) {
+        return divisionId == SyntheticDivision.DIVISION_ID ? new ArrayList<>(division.players) : new ArrayList<>();
+    }
+
+    List<User> findUsersInDivisionSortedByEloDescending(Long divisionId) {
+        List<User> users = getAllSignedInUsersInDivision(divisionId);
+        users.sort(Comparator.comparingInt(User::getEloRating).reversed());
+        return users;
+    }
+}
@@ -0,0 +1,56 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.service.DivisionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the division pairing algorithms on synthetic divisions.
+ * The pairing quality of the last invocation of each trial is printed on tear-down.
+ * The greedy OPTIMAL strategy is quadratic; restrict it with {@code -p divisionSize=100,1000,10000} if needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml",
+        "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class PairingBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    int divisionSize;
+
+    @Param({"NEAREST", "WEIGHTED", "OPTIMAL", "EXACT"})
+    PairingStrategy strategy;
+
+    private SyntheticDivision division;
+    private DivisionServiceImpl divisionService;
+    private List<Pair> lastPairing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        division = SyntheticDivision.generate(divisionSize, 42L);
+        divisionService = new DivisionServiceImpl(null, InMemoryUserService.of(division),
+                InMemoryMatchService.of(division), division.headToHead, null);
+    }
+
+    @Benchmark
+    public List<Pair> pairDivision() {
+        lastPairing = divisionService.matchPlayers(SyntheticDivision.DIVISION_ID, strategy);
+        return lastPairing;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportQuality() {
+        if (lastPairing != null) {
+            System.out.printf("%n[quality] strategy=%s, divisionSize=%d, historyMatches=%d: %s%n",
+                    strategy, divisionSize, division.matchCount, PairingQuality.of(lastPairing, division));
+        }
+    }
+}
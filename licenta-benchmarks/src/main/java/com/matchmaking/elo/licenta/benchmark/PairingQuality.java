@@ -0,0 +1,51 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.model.Pair;
+
+import java.util.List;
+
+/**
+ * Quality metrics of a pairing: how far apart the paired ratings are and how many pairs are rematches.
+ */
+final class PairingQuality {
+
+    final int pairs;
+    final int unpaired;
+    final long totalEloGap;
+    final int maxEloGap;
+    final int rematches;
+
+    private PairingQuality(int pairs, int unpaired, long totalEloGap, int maxEloGap, int rematches) {
+        this.pairs = pairs;
+        this.unpaired = unpaired;
+        this.totalEloGap = totalEloGap;
+        this.maxEloGap = maxEloGap;
+        this.rematches = rematches;
+    }
+
+    static PairingQuality of(List<Pair> pairing, SyntheticDivision division) {
+        long totalEloGap = 0;
+        int maxEloGap = 0;
+        int rematches = 0;
+        for (Pair pair : pairing) {
+            int gap = Math.abs(division.ratingOf(pair.getUser1Id()) - division.ratingOf(pair.getUser2Id()));
+            totalEloGap += gap;
+            maxEloGap = Math.max(maxEloGap, gap);
+            if (division.headToHead.getMatchCount(pair.getUser1Id(), pair.getUser2Id()) > 0) {
+                rematches++;
+            }
+        }
+        return new PairingQuality(pairing.size(), division.players.size() - 2 * pairing.size(), totalEloGap,
+                maxEloGap, rematches);
+    }
+
+    double meanEloGap() {
+        return pairs == 0 ? 0 : (double) totalEloGap / pairs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pairs=%d, unpaired=%d, totalEloGap=%d, meanEloGap=%.1f, maxEloGap=%d, rematches=%d",
+                pairs, unpaired, totalEloGap, meanEloGap(), maxEloGap, rematches);
+    }
+}
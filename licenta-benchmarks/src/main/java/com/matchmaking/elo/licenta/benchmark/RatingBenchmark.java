@@ -0,0 +1,167 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.EloKernel;
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
+import com.matchmaking.elo.licenta.service.MatchServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of Elo rating, per match, over a replay of synthetic matches.
+ * <ul>
+ *     <li>{@code legacy*}: the rating methods as they were before the kernel, with {@link Math#pow} and the
+ *     per-call logging, which is disabled here but still boxes its arguments</li>
+ *     <li>{@code service*}: the methods of {@link MatchServiceImpl}, backed by the rating engine</li>
+ *     <li>{@code kernel*}: {@link EloKernel} on primitive arrays</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g",
+        "-Dlogback.configurationFile=logback-benchmark.xml",
+        "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@OperationsPerInvocation(RatingBenchmark.MATCHES)
+public class RatingBenchmark {
+
+    static final int MATCHES = 100_000;
+    private static final int PLAYERS = 10_000;
+    private static final double RATING_DEVIATION = 200;
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingBenchmark.class);
+
+    private int[] initialRatings;
+    private int[] player1;
+    private int[] player2;
+    private int[] player1Scores;
+    private int[] player2Scores;
+    private byte[] player1HalfPoints;
+
+    private int[] ratings;
+    private int[] player1After;
+    private int[] player2After;
+    private int[] player1Ratings;
+    private int[] player2Ratings;
+    private double[] expected;
+
+    private MatchServiceImpl matchService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42L);
+        initialRatings = new int[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            initialRatings[i] = (int) Math.round(User.DEFAULT_ELO_RATING + random.nextGaussian() * RATING_DEVIATION);
+        }
+        player1 = new int[MATCHES];
+        player2 = new int[MATCHES];
+        player1Scores = new int[MATCHES];
+        player2Scores = new int[MATCHES];
+        player1HalfPoints = new byte[MATCHES];
+        player1Ratings = new int[MATCHES];
+        player2Ratings = new int[MATCHES];
+        for (int i = 0; i < MATCHES; i++) {
+            player1[i] = random.nextInt(PLAYERS);
+            do {
+                player2[i] = random.nextInt(PLAYERS);
+            } while (player2[i] == player1[i]);
+            player1Scores[i] = random.nextInt(4);
+            player2Scores[i] = random.nextInt(4);
+            player1HalfPoints[i] = (byte) (player1Scores[i] > player2Scores[i] ? 2 : player1Scores[i] == player2Scores[i] ? 1 : 0);
+            player1Ratings[i] = initialRatings[player1[i]];
+            player2Ratings[i] = initialRatings[player2[i]];
+        }
+        ratings = new int[PLAYERS];
+        player1After = new int[MATCHES];
+        player2After = new int[MATCHES];
+        expected = new double[MATCHES];
+        matchService = new MatchServiceImpl(null, null, null, null, null, new EloRatingEngine(), null, null, null, null);
+    }
+
+    @Benchmark
+    public int[] legacyReplay() {
+        System.arraycopy(initialRatings, 0, ratings, 0, PLAYERS);
+        for (int i = 0; i < MATCHES; i++) {
+            int rating1 = ratings[player1[i]];
+            int rating2 = ratings[player2[i]];
+            player1After[i] = legacyNewElo(rating1, rating2, player1Scores[i], player2Scores[i]);
+            player2After[i] = legacyNewElo(rating2, rating1, player2Scores[i], player1Scores[i]);
+            ratings[player1[i]] = player1After[i];
+            ratings[player2[i]] = player2After[i];
+        }
+        return ratings;
+    }
+
+    @Benchmark
+    public int[] serviceReplay() {
+        System.arraycopy(initialRatings, 0, ratings, 0, PLAYERS);
+        for (int i = 0; i < MATCHES; i++) {
+            int rating1 = ratings[player1[i]];
+            int rating2 = ratings[player2[i]];
+            player1After[i] = matchService.calculateNewElo(rating1, rating2, player1Scores[i], player2Scores[i]);
+            player2After[i] = matchService.calculateNewElo(rating2, rating1, player2Scores[i], player1Scores[i]);
+            ratings[player1[i]] = player1After[i];
+            ratings[player2[i]] = player2After[i];
+        }
+        return ratings;
+    }
+
+    @Benchmark
+    public int[] kernelReplay() {
+        System.arraycopy(initialRatings, 0, ratings, 0, PLAYERS);
+        EloKernel.rate(ratings, player1, player2, player1HalfPoints, player1After, player2After, MATCHES,
+                EloRatingEngine.K_FACTOR);
+        return ratings;
+    }
+
+    @Benchmark
+    public double[] legacyExpectedScores() {
+        for (int i = 0; i < MATCHES; i++) {
+            expected[i] = legacyExpectedScore(player1Ratings[i], player2Ratings[i]);
+        }
+        return expected;
+    }
+
+    @Benchmark
+    public double[] serviceExpectedScores() {
+        for (int i = 0; i < MATCHES; i++) {
+            expected[i] = matchService.calculateExpectedScore(player1Ratings[i], player2Ratings[i]);
+        }
+        return expected;
+    }
+
+    @Benchmark
+    public double[] kernelExpectedScores() {
+        EloKernel.expectedScores(player1Ratings, player2Ratings, expected, MATCHES);
+        return expected;
+    }
+
+    private static int legacyNewElo(int currentElo, int opponentElo, int playerScore, int opponentScore) {
+        double expectedScore = legacyExpectedScore(currentElo, opponentElo);
+        double actualScore;
+        if (playerScore > opponentScore) {
+            actualScore = 1;
+        } else if (playerScore < opponentScore) {
+            actualScore = 0;
+        } else {
+            actualScore = 0.5;
+        }
+        int newElo = (int) (currentElo + EloRatingEngine.K_FACTOR * (actualScore - expectedScore));
+        logger.info("Calculated new ELO: currentElo={}, opponentElo={}, playerScore={}, opponentScore={}, newElo={}",
+                currentElo, opponentElo, playerScore, opponentScore, newElo);
+        return Math.max(newElo, 0);
+    }
+
+    private static double legacyExpectedScore(int playerElo, int opponentElo) {
+        double expectedScore = 1 / (1 + Math.pow(10, (opponentElo - playerElo) / 400.0));
+        logger.info("Calculated expected score: playerElo={}, opponentElo={}, expectedScore={}", playerElo, opponentElo, expectedScore);
+        return expectedScore;
+    }
+}
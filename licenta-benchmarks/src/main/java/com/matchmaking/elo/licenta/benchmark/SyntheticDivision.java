@@ -0,0 +1,85 @@
+package com.matchmaking.elo.licenta.benchmark;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.service.HeadToHeadServiceImpl;
+import com.matchmaking.elo.licenta.service.RecentFormServiceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generated division of signed-in players with a realistic match history.
+ * Ratings are normally distributed around 1500, so many players share the same rating, and past
+ * matches are mostly between players of similar rating, so rematches are common among neighbours.
+ */
+final class SyntheticDivision {
+
+    static final long DIVISION_ID = 1L;
+    static final long LEAGUE_ID = 1L;
+
+    private static final int MATCHES_PER_PLAYER = 30;
+    private static final double RATING_DEVIATION = 200;
+    private static final double OPPONENT_SPREAD = 8;
+
+    final List<User> players;
+    final HeadToHeadServiceImpl headToHead;
+    final RecentFormServiceImpl recentForm;
+    final int matchCount;
+
+    private SyntheticDivision(List<User> players, HeadToHeadServiceImpl headToHead, RecentFormServiceImpl recentForm,
+                              int matchCount) {
+        this.players = players;
+        this.headToHead = headToHead;
+        this.recentForm = recentForm;
+        this.matchCount = matchCount;
+    }
+
+    static SyntheticDivision generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<User> players = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int rating = (int) Math.round(1500 + random.nextGaussian() * RATING_DEVIATION);
+            User user = User.createUser((long) i + 1, "Player" + (i + 1), Math.max(rating, 0), LocalDate.now(),
+                    DIVISION_ID, LEAGUE_ID, true);
+            user.setMatchCounter(random.nextInt(MATCHES_PER_PLAYER * 2));
+            players.add(user);
+        }
+
+        HeadToHeadServiceImpl headToHead = new HeadToHeadServiceImpl(null);
+        RecentFormServiceImpl recentForm = new RecentFormServiceImpl(null);
+
+        List<User> byRating = new ArrayList<>(players);
+        byRating.sort(Comparator.comparingInt(User::getEloRating));
+        int matchCount = 0;
+        for (int i = 0; i < size && size > 1; i++) {
+            for (int m = 0; m < MATCHES_PER_PLAYER / 2; m++) {
+                int j = (int) Math.round(i + random.nextGaussian() * OPPONENT_SPREAD);
+                j = Math.max(0, Math.min(size - 1, j));
+                if (j == i) {
+                    continue;
+                }
+                User player1 = byRating.get(i);
+                User player2 = byRating.get(j);
+                double player1Expected = 1 / (1 + Math.pow(10, (player2.getEloRating() - player1.getEloRating()) / 400.0));
+
+                Match match = new Match(player1.getId(), player2.getId());
+                boolean player1Won = random.nextDouble() < player1Expected;
+                match.setWinnerId(player1Won ? player1.getId() : player2.getId());
+                match.setLoserId(player1Won ? player2.getId() : player1.getId());
+
+                headToHead.recordMatch(player1.getId(), player2.getId());
+                recentForm.recordMatch(match);
+                matchCount++;
+            }
+        }
+        return new SyntheticDivision(players, headToHead, recentForm, matchCount);
+    }
+
+    int ratingOf(long userId) {
+        return players.get((int) userId - 1).getEloRating();
+    }
+}
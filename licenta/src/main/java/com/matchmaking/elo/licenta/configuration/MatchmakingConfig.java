@@ -0,0 +1,61 @@
+package com.matchmaking.elo.licenta.configuration;
+
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
+import com.matchmaking.elo.licenta.rating.Glicko2RatingEngine;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuration class for the matchmaking thread pools.
+ */
+@Configuration
+public class MatchmakingConfig {
+
+    /**
+     * Bounded pool used to pair the divisions of a league in parallel.
+     * Each task reads from the database, so the pool should stay below the connection pool size.
+     *
+     * @param threads the number of pairing threads
+     * @return the pairing executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pairingExecutor(@Value("${matchmaking.pairing.threads:8}") int threads) {
+        return Executors.newFixedThreadPool(threads, namedThreads("pairing-"));
+    }
+
+    /**
+     * The rating engine used to rate matches, chosen by name.
+     *
+     * @param engine the name of the engine, "elo" or "glicko2"
+     * @param tau the Glicko-2 system constant
+     * @return the rating engine
+     */
+    @Bean
+    public RatingEngine ratingEngine(@Value("${matchmaking.rating.engine:elo}") String engine,
+                                     @Value("${matchmaking.rating.glicko2.tau:0.5}") double tau) {
+        switch (engine) {
+            case EloRatingEngine.NAME:
+                return new EloRatingEngine();
+            case Glicko2RatingEngine.NAME:
+                return new Glicko2RatingEngine(tau);
+            default:
+                throw new IllegalArgumentException("Unknown rating engine: " + engine);
+        }
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
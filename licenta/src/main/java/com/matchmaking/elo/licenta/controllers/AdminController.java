@@ -0,0 +1,211 @@
+package com.matchmaking.elo.licenta.controllers;
+
+import com.matchmaking.elo.licenta.model.EloReplayStatus;
+import com.matchmaking.elo.licenta.model.ImportStatus;
+import com.matchmaking.elo.licenta.model.MatchPartition;
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import com.matchmaking.elo.licenta.model.RatingPeriod;
+import com.matchmaking.elo.licenta.service.EloReplayService;
+import com.matchmaking.elo.licenta.service.ImportService;
+import com.matchmaking.elo.licenta.service.MatchArchiveService;
+import com.matchmaking.elo.licenta.service.PlayerResultsService;
+import com.matchmaking.elo.licenta.service.RatingCheckpointService;
+import com.matchmaking.elo.licenta.service.RatingPeriodService;
+import com.matchmaking.elo.licenta.service.RatingSeriesService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller for maintenance operations.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final EloReplayService eloReplayService;
+    private final RatingPeriodService ratingPeriodService;
+    private final PlayerResultsService playerResultsService;
+    private final RatingCheckpointService ratingCheckpointService;
+    private final RatingSeriesService ratingSeriesService;
+    private final MatchArchiveService matchArchiveService;
+    private final ImportService importService;
+
+    /**
+     * Constructs an AdminController with the specified services.
+     *
+     * @param eloReplayService the service for recomputing ELO ratings
+     * @param ratingPeriodService the service for rating periods
+     * @param playerResultsService the service for the result counts of players
+     * @param ratingCheckpointService the service for rating checkpoints
+     * @param ratingSeriesService the service for the rating histories of players
+     * @param matchArchiveService the service for archiving matches
+     * @param importService the service for bulk imports
+     */
+    public AdminController(EloReplayService eloReplayService, RatingPeriodService ratingPeriodService,
+                           PlayerResultsService playerResultsService, RatingCheckpointService ratingCheckpointService,
+                           RatingSeriesService ratingSeriesService, MatchArchiveService matchArchiveService,
+                           ImportService importService) {
+        this.eloReplayService = eloReplayService;
+        this.ratingPeriodService = ratingPeriodService;
+        this.playerResultsService = playerResultsService;
+        this.ratingCheckpointService = ratingCheckpointService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.matchArchiveService = matchArchiveService;
+        this.importService = importService;
+    }
+
+    /**
+     * Starts recomputing all ELO ratings from the match history in the background.
+     *
+     * @return the status of the started replay, or a bad request if one is already running or match writes are
+     * suspended
+     */
+    @PostMapping("/elo/replay")
+    public ResponseEntity<?> startEloReplay() {
+        try {
+            EloReplayStatus status = eloReplayService.startReplay();
+            return ResponseEntity.accepted().body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the progress of the running ELO replay, or the result of the last one.
+     *
+     * @return the status of the replay
+     */
+    @GetMapping("/elo/replay/status")
+    public ResponseEntity<EloReplayStatus> getEloReplayStatus() {
+        return ResponseEntity.ok(eloReplayService.getStatus());
+    }
+
+    /**
+     * Closes the open rating period now instead of waiting for the schedule.
+     *
+     * @return the closed period, or a bad request if the rating engine has no rating periods
+     */
+    @PostMapping("/rating/period/close")
+    public ResponseEntity<?> closeRatingPeriod() {
+        try {
+            RatingPeriod period = ratingPeriodService.closePeriod();
+            return ResponseEntity.ok(period);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the last closed rating period.
+     *
+     * @return the last period, or not found if none was closed yet
+     */
+    @GetMapping("/rating/period/last")
+    public ResponseEntity<RatingPeriod> getLastRatingPeriod() {
+        return ratingPeriodService.getLastPeriod().map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Recounts the wins, losses and draws of all players from the match history.
+     *
+     * @return the number of result rows written
+     */
+    @PostMapping("/player-results/rebuild")
+    public ResponseEntity<Integer> rebuildPlayerResults() {
+        return ResponseEntity.ok(playerResultsService.rebuild());
+    }
+
+    /**
+     * Rebuilds the rating histories of all players from the match history.
+     *
+     * @return the number of points written
+     */
+    @PostMapping("/rating-series/rebuild")
+    public ResponseEntity<Integer> rebuildRatingSeries() {
+        return ResponseEntity.ok(ratingSeriesService.rebuildAll());
+    }
+
+    /**
+     * Takes a rating checkpoint now instead of waiting for enough matches.
+     *
+     * @return the new checkpoint
+     */
+    @PostMapping("/rating/checkpoint")
+    public ResponseEntity<RatingCheckpoint> createRatingCheckpoint() {
+        return ResponseEntity.ok(ratingCheckpointService.createCheckpoint());
+    }
+
+    /**
+     * Gets the latest rating checkpoint.
+     *
+     * @return the latest checkpoint, or not found if none was taken yet
+     */
+    @GetMapping("/rating/checkpoint/last")
+    public ResponseEntity<RatingCheckpoint> getLastRatingCheckpoint() {
+        return ratingCheckpointService.getLastCheckpoint().map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Moves the matches played before a date out of the MATCHES table into archive files.
+     *
+     * @param before the date to archive up to, exclusive
+     * @return the new partitions, or a bad request if the date is after the start of an open season
+     */
+    @PostMapping("/matches/archive")
+    public ResponseEntity<?> archiveMatches(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before) {
+        try {
+            List<MatchPartition> partitions = matchArchiveService.archiveBefore(before);
+            return ResponseEntity.ok(partitions);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the archived match partitions, oldest first.
+     *
+     * @return the archived partitions
+     */
+    @GetMapping("/matches/partitions")
+    public ResponseEntity<List<MatchPartition>> getMatchPartitions() {
+        return ResponseEntity.ok(matchArchiveService.getPartitions());
+    }
+
+    /**
+     * Starts importing historical players and matches from files in the import directory, in the background.
+     * Starting it again with the same files after a failure resumes it.
+     *
+     * @param players the players file, CSV or NDJSON, optionally gzipped
+     * @param matches the matches file, CSV or NDJSON, optionally gzipped
+     * @param replay whether to recompute all ELO ratings once the matches are imported
+     * @return the status of the started import, or a bad request if a file cannot be imported or an import
+     * is already running
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> startImport(@RequestParam(required = false) String players,
+                                         @RequestParam(required = false) String matches,
+                                         @RequestParam(defaultValue = "true") boolean replay) {
+        try {
+            ImportStatus status = importService.startImport(players, matches, replay);
+            return ResponseEntity.accepted().body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the progress of the running import, or the result of the last one.
+     *
+     * @return the status of the import
+     */
+    @GetMapping("/import/status")
+    public ResponseEntity<ImportStatus> getImportStatus() {
+        return ResponseEntity.ok(importService.getStatus());
+    }
+}
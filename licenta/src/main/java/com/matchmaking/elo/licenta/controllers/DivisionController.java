@@ -1,12 +1,21 @@
 package com.matchmaking.elo.licenta.controllers;
 
 import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
+import com.matchmaking.elo.licenta.model.IncrementalPairing;
 import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingDelta;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.Round;
 import com.matchmaking.elo.licenta.model.User;
 import com.matchmaking.elo.licenta.service.DivisionService;
+import com.matchmaking.elo.licenta.service.IncrementalPairingService;
+import com.matchmaking.elo.licenta.service.RoundService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,13 +27,22 @@ public class DivisionController {
 
     private final DivisionService divisionService;
 
+    private final IncrementalPairingService incrementalPairingService;
+
+    private final RoundService roundService;
+
     /**
-     * Constructs a DivisionController with the specified DivisionService.
+     * Constructs a DivisionController with the specified services.
      *
      * @param divisionService the service for managing divisions
+     * @param incrementalPairingService the service for incremental pairing
+     * @param roundService the service for pairing rounds
      */
-    public DivisionController(DivisionService divisionService) {
+    public DivisionController(DivisionService divisionService, IncrementalPairingService incrementalPairingService,
+                              RoundService roundService) {
         this.divisionService = divisionService;
+        this.incrementalPairingService = incrementalPairingService;
+        this.roundService = roundService;
     }
 
     /**
@@ -62,15 +80,17 @@ public class DivisionController {
     }
 
     /**
-     * Matches players optimally within a division.
+     * Matches players within a division, optimally by default.
      *
      * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm to use
      * @return the list of matched pairs
      */
     @PostMapping("/pair/{divisionId}")
-    public ResponseEntity<?> matchPlayersInDivision(@PathVariable long divisionId) {
+    public ResponseEntity<?> matchPlayersInDivision(@PathVariable long divisionId,
+                                                    @RequestParam(defaultValue = "OPTIMAL") PairingStrategy strategy) {
         try {
-            List<Pair> pairs = divisionService.matchPlayersOptimally(divisionId);
+            List<Pair> pairs = divisionService.matchPlayers(divisionId, strategy);
             return ResponseEntity.ok(pairs);
         } catch (IllegalStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -78,15 +98,107 @@ public class DivisionController {
     }
 
     /**
-     * Gets pairs of players in a division.
+     * Starts incremental pairing for a division. After the initial pairing, players signing in or out
+     * only cause local repairs, which are published as deltas.
+     *
+     * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm used for the initial pairing
+     * @return the initial pairing
+     */
+    @PostMapping("/pair/incremental/{divisionId}")
+    public ResponseEntity<?> startIncrementalPairing(@PathVariable long divisionId,
+                                                     @RequestParam(defaultValue = "OPTIMAL") PairingStrategy strategy) {
+        try {
+            IncrementalPairing pairing = incrementalPairingService.start(divisionId, strategy);
+            return ResponseEntity.ok(pairing);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Stops incremental pairing for a division.
+     *
+     * @param divisionId the ID of the division
+     * @return a response entity indicating the result of the operation
+     */
+    @DeleteMapping("/pair/incremental/{divisionId}")
+    public ResponseEntity<Void> stopIncrementalPairing(@PathVariable long divisionId) {
+        if (incrementalPairingService.stop(divisionId)) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Gets the current incremental pairing of a division.
+     *
+     * @param divisionId the ID of the division
+     * @return the current pairing, or a not found response if incremental pairing is not started
+     */
+    @GetMapping("/get/pairs/incremental/{divisionId}")
+    public ResponseEntity<IncrementalPairing> getIncrementalPairing(@PathVariable long divisionId) {
+        return incrementalPairingService.getPairing(divisionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the changes made to the incremental pairing of a division after a given version.
+     *
+     * @param divisionId the ID of the division
+     * @param since the last version the caller has seen
+     * @return the newer changes, oldest first
+     */
+    @GetMapping("/get/pairs/incremental/{divisionId}/deltas")
+    public ResponseEntity<List<PairingDelta>> getIncrementalPairingDeltas(@PathVariable long divisionId,
+                                                                         @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(incrementalPairingService.getDeltas(divisionId, since));
+    }
+
+    /**
+     * Gets the pairs of the current round of a division. Rounds are created with {@code POST /round/{divisionId}}.
      *
      * @param divisionId the ID of the division
-     * @return the list of pairs
+     * @return the list of pairs, or 404 if the division has no round yet
      */
     @GetMapping("/get/pairs/{divisionId}")
     public ResponseEntity<List<Pair>> getPairsInDivision(@PathVariable long divisionId) {
-        List<Pair> pairs = divisionService.matchPlayersInDivision(divisionId);
-        return ResponseEntity.ok(pairs);
+        return roundService.getCurrentRound(divisionId)
+                .map(round -> ResponseEntity.ok(round.getPairs()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the current round of a division. Rounds are created with {@code POST /round/{divisionId}}.
+     *
+     * @param divisionId the ID of the division
+     * @return the current round, or 404 if the division has no round yet
+     */
+    @GetMapping("/get/round/{divisionId}")
+    public ResponseEntity<Round> getCurrentRound(@PathVariable long divisionId) {
+        return roundService.getCurrentRound(divisionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Creates a new round for a division, replacing the current one.
+     *
+     * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm to use
+     * @return the new round
+     */
+    @PostMapping("/round/{divisionId}")
+    public ResponseEntity<?> createRound(@PathVariable long divisionId,
+                                         @RequestParam(defaultValue = "NEAREST") PairingStrategy strategy) {
+        try {
+            Round round = roundService.createRound(divisionId, strategy);
+            return ResponseEntity.ok(round);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -113,6 +225,19 @@ public class DivisionController {
         return ResponseEntity.ok(standings);
     }
 
+    /**
+     * Gets the standings of a division as they were at a past date.
+     *
+     * @param divisionId the ID of the division
+     * @param dateTime the date, in ISO format
+     * @return the current players of the division sorted by their ELO at that date
+     */
+    @GetMapping("/get/standings/{divisionId}/at")
+    public ResponseEntity<List<HistoricalStanding>> getDivisionStandingsAt(@PathVariable long divisionId,
+                                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime) {
+        return ResponseEntity.ok(divisionService.getDivisionStandingsAt(divisionId, dateTime));
+    }
+
     /**
      * Gets all signed-in players in a division.
      *
@@ -190,13 +190,31 @@ public class LeagueController {
         return ResponseEntity.ok(leagueService.getLeagueById(leagueId));
     }
 
+    /**
+     * Pairs the players of all divisions in a specified league in parallel.
+     *
+     * @param leagueId the ID of the league
+     * @param strategy the pairing algorithm to use in each division
+     * @return the pairings grouped by division, with per-division timings
+     */
+    @PostMapping("/pair/{leagueId}")
+    public ResponseEntity<?> pairLeague(@PathVariable long leagueId,
+                                        @RequestParam(defaultValue = "OPTIMAL") PairingStrategy strategy) {
+        try {
+            LeaguePairing leaguePairing = leagueService.pairLeague(leagueId, strategy);
+            return ResponseEntity.ok(leaguePairing);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/generate-matches/{divisionId}")
     public ResponseEntity<String> generateMatches(@PathVariable long divisionId, @RequestParam int rounds) {
         Random random = new Random();
 
         for (int round = 0; round < rounds; round++) {
-            ResponseEntity<Pair[]> response = restTemplate.getForEntity("http://localhost:8088/api/division/get/pairs/" + divisionId, Pair[].class);
-            List<Pair> pairs = List.of(response.getBody());
+            ResponseEntity<Round> response = restTemplate.postForEntity("http://localhost:8088/api/division/round/" + divisionId, null, Round.class);
+            List<Pair> pairs = response.getBody().getPairs();
 
             for (Pair pair : pairs) {
                 int player1Score = random.nextInt(100);
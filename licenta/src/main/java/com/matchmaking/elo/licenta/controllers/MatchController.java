@@ -1,10 +1,24 @@
 package com.matchmaking.elo.licenta.controllers;
 
+import com.matchmaking.elo.licenta.model.ExportFormat;
 import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchExportFilter;
+import com.matchmaking.elo.licenta.model.MatchHistoryPage;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchResultOutcome;
+import com.matchmaking.elo.licenta.model.MatchSubmission;
+import com.matchmaking.elo.licenta.model.RatingPipelineStatus;
+import com.matchmaking.elo.licenta.service.ExportService;
 import com.matchmaking.elo.licenta.service.MatchService;
+import com.matchmaking.elo.licenta.service.RatingPipelineService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -18,14 +32,21 @@ public class MatchController {
 
 
     private final MatchService matchService;
+    private final RatingPipelineService ratingPipelineService;
+    private final ExportService exportService;
 
     /**
-     * Constructs a MatchController with the specified MatchService.
+     * Constructs a MatchController with the specified services.
      *
      * @param matchService the service for managing matches
+     * @param ratingPipelineService the service for rating matches asynchronously
+     * @param exportService the service for bulk exports
      */
-    public MatchController(MatchService matchService) {
+    public MatchController(MatchService matchService, RatingPipelineService ratingPipelineService,
+                           ExportService exportService) {
         this.matchService = matchService;
+        this.ratingPipelineService = ratingPipelineService;
+        this.exportService = exportService;
     }
 
     /**
@@ -37,30 +58,91 @@ public class MatchController {
      * @return the created match
      */
     @PostMapping("/create")
-    public ResponseEntity<Match> createMatch(@RequestBody Match match, @RequestParam int player1Score, @RequestParam int player2Score) {
-        match.setPlayer1Score(player1Score);
-        match.setPlayer2Score(player2Score);
-        match.setWinnerAndLoser();
-        match.setMatchDateTime(LocalDateTime.now());
-        matchService.updatePlayersEloRating(match);
-
-        Match createdMatch = matchService.saveMatch(match);
-        return ResponseEntity.ok(createdMatch);
+    public ResponseEntity<?> createMatch(@RequestBody Match match, @RequestParam int player1Score, @RequestParam int player2Score) {
+        MatchResult result = new MatchResult();
+        result.setPlayer1Id(match.getPlayer1Id());
+        result.setPlayer2Id(match.getPlayer2Id());
+        result.setPlayer1Score(player1Score);
+        result.setPlayer2Score(player2Score);
+        try {
+            Match createdMatch = matchService.recordResult(result);
+            return ResponseEntity.ok(createdMatch);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Creates matches from a batch of results, applied in play order in one transaction.
+     *
+     * @param results the match results
+     * @return the outcome of every result, in the given order
+     */
+    @PostMapping("/create/batch")
+    public ResponseEntity<?> createMatches(@RequestBody List<MatchResult> results) {
+        try {
+            List<MatchResultOutcome> outcomes = matchService.saveMatches(results);
+            return ResponseEntity.ok(outcomes);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Queues a match result to be rated and saved asynchronously.
+     *
+     * @param result the match result
+     * @return the acknowledgement of the submission
+     */
+    @PostMapping("/create/async")
+    public ResponseEntity<?> submitMatch(@RequestBody MatchResult result) {
+        try {
+            MatchSubmission submission = ratingPipelineService.submit(result);
+            return ResponseEntity.accepted().body(submission);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the progress of the asynchronous rating pipeline.
+     *
+     * @return the status of the pipeline, including its lag
+     */
+    @GetMapping("/pipeline/status")
+    public ResponseEntity<RatingPipelineStatus> getPipelineStatus() {
+        return ResponseEntity.ok(ratingPipelineService.getStatus());
+    }
+
+    /**
+     * Gets the most recent match results the asynchronous rating pipeline could not write, so they can be
+     * submitted again.
+     *
+     * @return the failed match results, oldest first
+     */
+    @GetMapping("/pipeline/failed")
+    public ResponseEntity<List<MatchResult>> getFailedPipelineResults() {
+        return ResponseEntity.ok(ratingPipelineService.getFailedResults());
     }
 
     /**
      * Deletes a match by its ID.
      *
      * @param id the ID of the match to delete
-     * @return a response entity indicating the result of the operation
+     * @return a response entity indicating the result of the operation, or a bad request if the ratings
+     * it affected can no longer be corrected or match writes are suspended
      */
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<Void> deleteMatch(@PathVariable Long id) {
-        boolean deleted = matchService.deleteMatch(id);
-        if (deleted) {
-            return ResponseEntity.ok().build();
-        } else {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<?> deleteMatch(@PathVariable Long id) {
+        try {
+            boolean deleted = matchService.deleteMatch(id);
+            if (deleted) {
+                return ResponseEntity.ok().build();
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
@@ -75,6 +157,41 @@ public class MatchController {
         return ResponseEntity.ok(matches);
     }
 
+    /**
+     * Streams matches as a file, in play order, without loading them into memory.
+     * Use this instead of /get/all for large exports. A league's export has the matches of the players in
+     * the league now, including those they played in another league. The file is cut short if matches are
+     * archived while it is written.
+     *
+     * @param format the format of the rows, NDJSON or CSV
+     * @param leagueId the ID of the league whose current players' matches to export, or all leagues if absent
+     * @param seasonId the ID of the season to export, or all seasons if absent
+     * @param from the earliest match date to include
+     * @param to the match date to stop before
+     * @param gzip whether to compress the file
+     * @return the file, or a bad request if the filter is invalid
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMatches(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                               @RequestParam(required = false) Long leagueId,
+                                                               @RequestParam(required = false) Long seasonId,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                               @RequestParam(defaultValue = "true") boolean gzip) {
+        MatchExportFilter filter;
+        try {
+            filter = exportService.resolveMatchFilter(leagueId, seasonId, from, to);
+        } catch (IllegalStateException e) {
+            byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+        }
+        String fileName = "matches." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getMediaType()))
+                .body(out -> exportService.exportMatches(filter, format, gzip, out));
+    }
+
     /**
      * Gets a match by its ID.
      *
@@ -90,14 +207,25 @@ public class MatchController {
 
 
     /**
-     * Gets matches by user ID.
+     * Gets one page of the matches of a user, oldest first.
+     * The next page is requested by passing the returned cursor as afterDateTime and afterId.
      *
      * @param userId the ID of the user
-     * @return the list of matches involving the specified user
+     * @param from the earliest match date to include
+     * @param to the match date to stop before
+     * @param afterDateTime the match date of the last match already seen
+     * @param afterId the ID of the last match already seen
+     * @param limit the maximum number of matches to return
+     * @return the page of matches involving the specified user and the cursor of the next page
      */
     @GetMapping("/get/matches/user/{userId}")
-    public ResponseEntity<List<Match>> getMatchesByUserId(@PathVariable Long userId) {
-        List<Match> matches = matchService.getMatchesByUserId(userId);
-        return ResponseEntity.ok(matches);
+    public ResponseEntity<MatchHistoryPage> getMatchesByUserId(@PathVariable Long userId,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDateTime,
+                                                               @RequestParam(required = false) Long afterId,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        MatchHistoryPage page = matchService.getMatchHistory(userId, from, to, afterDateTime, afterId, limit);
+        return ResponseEntity.ok(page);
     }
 }
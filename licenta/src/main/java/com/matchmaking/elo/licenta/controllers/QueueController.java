@@ -0,0 +1,94 @@
+package com.matchmaking.elo.licenta.controllers;
+
+import com.matchmaking.elo.licenta.model.QueueStats;
+import com.matchmaking.elo.licenta.model.QueueTicket;
+import com.matchmaking.elo.licenta.service.MatchmakingQueueService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for the real-time matchmaking queue.
+ */
+@RestController
+@RequestMapping("/api/queue")
+public class QueueController {
+
+    private final MatchmakingQueueService matchmakingQueueService;
+
+    /**
+     * Constructs a QueueController with the specified MatchmakingQueueService.
+     *
+     * @param matchmakingQueueService the service for the matchmaking queue
+     */
+    public QueueController(MatchmakingQueueService matchmakingQueueService) {
+        this.matchmakingQueueService = matchmakingQueueService;
+    }
+
+    /**
+     * Adds a player to the matchmaking queue of their division.
+     *
+     * @param userId the ID of the player
+     * @return the player's queue ticket
+     */
+    @PostMapping("/join/{userId}")
+    public ResponseEntity<?> joinQueue(@PathVariable long userId) {
+        try {
+            QueueTicket ticket = matchmakingQueueService.join(userId);
+            return ResponseEntity.ok(ticket);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Removes a player from the matchmaking queue.
+     *
+     * @param userId the ID of the player
+     * @return a response entity indicating the result of the operation
+     */
+    @PostMapping("/leave/{userId}")
+    public ResponseEntity<Void> leaveQueue(@PathVariable long userId) {
+        boolean left = matchmakingQueueService.leave(userId);
+        if (left) {
+            return ResponseEntity.ok().build();
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Gets the queue ticket of a player, including the opponent once matched.
+     *
+     * @param userId the ID of the player
+     * @return the player's ticket, or a not found response if the player is not queued
+     */
+    @GetMapping("/get/{userId}")
+    public ResponseEntity<QueueTicket> getTicket(@PathVariable long userId) {
+        return matchmakingQueueService.getTicket(userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets the queue depth and time-to-match statistics of a division.
+     *
+     * @param divisionId the ID of the division
+     * @return the queue statistics of the division
+     */
+    @GetMapping("/get/stats/{divisionId}")
+    public ResponseEntity<QueueStats> getStats(@PathVariable long divisionId) {
+        return ResponseEntity.ok(matchmakingQueueService.getStats(divisionId));
+    }
+
+    /**
+     * Gets the queue statistics of all divisions.
+     *
+     * @return the queue statistics per division
+     */
+    @GetMapping("/get/stats")
+    public ResponseEntity<List<QueueStats>> getAllStats() {
+        return ResponseEntity.ok(matchmakingQueueService.getAllStats());
+    }
+}
@@ -0,0 +1,60 @@
+package com.matchmaking.elo.licenta.controllers;
+
+import com.matchmaking.elo.licenta.model.SwissRound;
+import com.matchmaking.elo.licenta.model.SwissStanding;
+import com.matchmaking.elo.licenta.service.SwissService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for Swiss-system rounds and standings.
+ */
+@RestController
+@RequestMapping("/api/swiss")
+public class SwissController {
+
+    private final SwissService swissService;
+
+    /**
+     * Constructs a SwissController with the specified SwissService.
+     *
+     * @param swissService the service for Swiss-system rounds
+     */
+    public SwissController(SwissService swissService) {
+        this.swissService = swissService;
+    }
+
+    /**
+     * Generates the next Swiss round for the signed-in players of a division.
+     *
+     * @param divisionId the ID of the division
+     * @return the pairs of the round and the player receiving the bye, if any
+     */
+    @PostMapping("/round/{divisionId}")
+    public ResponseEntity<?> generateRound(@PathVariable long divisionId) {
+        try {
+            SwissRound round = swissService.generateRound(divisionId);
+            return ResponseEntity.ok(round);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the Swiss standings of a division for the current season.
+     *
+     * @param divisionId the ID of the division
+     * @return the standings, ordered by points and then by ELO rating
+     */
+    @GetMapping("/get/standings/{divisionId}")
+    public ResponseEntity<?> getStandings(@PathVariable long divisionId) {
+        try {
+            List<SwissStanding> standings = swissService.getStandings(divisionId);
+            return ResponseEntity.ok(standings);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package com.matchmaking.elo.licenta.controllers;
 
+import com.matchmaking.elo.licenta.model.ExportFormat;
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import com.matchmaking.elo.licenta.model.RatingSeries;
 import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.service.ExportService;
 import com.matchmaking.elo.licenta.service.MatchService;
+import com.matchmaking.elo.licenta.service.PlayerResultsService;
+import com.matchmaking.elo.licenta.service.RatingSeriesService;
 import com.matchmaking.elo.licenta.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -20,15 +31,29 @@ public class UserController {
 
     private final MatchService matchService;
 
+    private final PlayerResultsService playerResultsService;
+
+    private final RatingSeriesService ratingSeriesService;
+
+    private final ExportService exportService;
+
     /**
-     * Constructs a UserController with the specified UserService and MatchService.
+     * Constructs a UserController with the specified services.
      *
      * @param userService the service for managing users
      * @param matchService the service for managing matches
+     * @param playerResultsService the service for the result counts of players
+     * @param ratingSeriesService the service for the rating histories of players
+     * @param exportService the service for bulk exports
      */
-    public UserController(UserService userService, MatchService matchService) {
+    public UserController(UserService userService, MatchService matchService,
+                          PlayerResultsService playerResultsService, RatingSeriesService ratingSeriesService,
+                          ExportService exportService) {
         this.userService = userService;
         this.matchService = matchService;
+        this.playerResultsService = playerResultsService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.exportService = exportService;
     }
 
     /**
@@ -42,6 +67,26 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Streams users as a file, in ID order, without loading them into memory.
+     * Use this instead of /get/all for large exports.
+     *
+     * @param format the format of the rows, NDJSON or CSV
+     * @param leagueId the ID of the league to export, or all users if absent
+     * @param gzip whether to compress the file
+     * @return the file
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                             @RequestParam(required = false) Long leagueId,
+                                                             @RequestParam(defaultValue = "true") boolean gzip) {
+        String fileName = "users." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getMediaType()))
+                .body(out -> exportService.exportUsers(leagueId, format, gzip, out));
+    }
+
     /**
      * Gets all signed-in users.
      *
@@ -183,6 +228,52 @@ public class UserController {
         return ResponseEntity.ok(matchService.getNumberOfPlayerLosses(userId));
     }
 
+    /**
+     * Gets the number of draws for a user.
+     *
+     * @param userId the ID of the user
+     * @return the number of draws for the specified user
+     */
+    @GetMapping("/get/draws/{userId}")
+    public ResponseEntity<Long> getUserDraws(@PathVariable Long userId) {
+        return ResponseEntity.ok(playerResultsService.getResults(userId, null).getDraws());
+    }
+
+    /**
+     * Gets the wins, losses and draws of a user, for all time or for one season.
+     *
+     * @param userId the ID of the user
+     * @param seasonId the ID of the season, or none for all time
+     * @return the result counts of the specified user
+     */
+    @GetMapping("/get/results/{userId}")
+    public ResponseEntity<PlayerResults> getUserResults(@PathVariable Long userId,
+                                                        @RequestParam(required = false) Long seasonId) {
+        return ResponseEntity.ok(playerResultsService.getResults(userId, seasonId));
+    }
+
+    /**
+     * Gets the rating history of a user over a date range, reduced to at most the requested number of points.
+     *
+     * @param userId the ID of the user
+     * @param from the start of the range, or none for the first rating
+     * @param to the end of the range, or none for the last rating
+     * @param maxPoints the maximum number of points to return
+     * @return the rating history, or a bad request if the number of points is out of range
+     */
+    @GetMapping("/get/rating-series/{userId}")
+    public ResponseEntity<?> getUserRatingSeries(@PathVariable Long userId,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(defaultValue = "500") int maxPoints) {
+        try {
+            RatingSeries series = ratingSeriesService.getSeries(userId, from, to, maxPoints);
+            return ResponseEntity.ok(series);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Gets the ID of a user by their username.
      *
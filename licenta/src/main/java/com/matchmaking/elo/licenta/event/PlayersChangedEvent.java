@@ -0,0 +1,96 @@
+package com.matchmaking.elo.licenta.event;
+
+import com.matchmaking.elo.licenta.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when the ratings, divisions or presence of players were written.
+ * A change either carries the full state of the player, or only their new rating when the writer does not
+ * know the rest. When too many players changed to list them, the event says that every player may have changed.
+ */
+public class PlayersChangedEvent {
+    private final Object source;
+    private final List<Change> changes;
+
+    private PlayersChangedEvent(Object source, List<Change> changes) {
+        this.source = source;
+        this.changes = changes;
+    }
+
+    /**
+     * Creates an event with the full state of the given players, as it is when the event is created.
+     * Players without an ID were never stored and are left out.
+     *
+     * @param users the changed players
+     * @return the event
+     */
+    public static PlayersChangedEvent of(Collection<User> users) {
+        List<Change> changes = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getId() == null) {
+                continue;
+            }
+            changes.add(new Change(user.getId(), user.getEloRating(), true, user.getDivisionId(), user.isSignedIn()));
+        }
+        return new PlayersChangedEvent(null, changes);
+    }
+
+    /**
+     * Creates an event for players whose rating changed and nothing else.
+     *
+     * @param source the component that changed the ratings, so it can recognise its own events
+     * @param ratings the new ratings by player ID
+     * @return the event
+     */
+    public static PlayersChangedEvent ratings(Object source, Map<Long, Integer> ratings) {
+        List<Change> changes = new ArrayList<>(ratings.size());
+        ratings.forEach((userId, rating) -> changes.add(new Change(userId, rating, false, null, false)));
+        return new PlayersChangedEvent(source, changes);
+    }
+
+    /**
+     * Creates an event for a player who was deleted.
+     *
+     * @param userId the ID of the player
+     * @return the event
+     */
+    public static PlayersChangedEvent removed(long userId) {
+        return new PlayersChangedEvent(null, List.of(new Change(userId, 0, true, null, false)));
+    }
+
+    /**
+     * Creates an event saying that any player may have changed.
+     *
+     * @return the event
+     */
+    public static PlayersChangedEvent all() {
+        return new PlayersChangedEvent(null, null);
+    }
+
+    /**
+     * Gets the component that published the event, if it said so.
+     *
+     * @return the source, or null
+     */
+    public Object getSource() {
+        return source;
+    }
+
+    public boolean isAll() {
+        return changes == null;
+    }
+
+    public List<Change> getChanges() {
+        return changes == null ? List.of() : changes;
+    }
+
+    /**
+     * The new state of one player. When {@code placed} is false only the rating is known.
+     */
+    public record Change(long userId, int eloRating, boolean placed, Long divisionId, boolean signedIn) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.matchmaking.elo.licenta.event;
+
+/**
+ * Published when a player signs in or out.
+ */
+public class PresenceChangedEvent {
+    private final long userId;
+    private final Long divisionId;
+    private final int eloRating;
+    private final boolean signedIn;
+
+    public PresenceChangedEvent(long userId, Long divisionId, int eloRating, boolean signedIn) {
+        this.userId = userId;
+        this.divisionId = divisionId;
+        this.eloRating = eloRating;
+        this.signedIn = signedIn;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Long getDivisionId() {
+        return divisionId;
+    }
+
+    public int getEloRating() {
+        return eloRating;
+    }
+
+    public boolean isSignedIn() {
+        return signedIn;
+    }
+}
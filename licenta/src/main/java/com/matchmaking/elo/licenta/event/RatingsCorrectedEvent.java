@@ -0,0 +1,18 @@
+package com.matchmaking.elo.licenta.event;
+
+import java.util.Set;
+
+/**
+ * Published when the ratings of players were recomputed after a match was deleted or edited.
+ */
+public class RatingsCorrectedEvent {
+    private final Set<Long> userIds;
+
+    public RatingsCorrectedEvent(Set<Long> userIds) {
+        this.userIds = userIds;
+    }
+
+    public Set<Long> getUserIds() {
+        return userIds;
+    }
+}
@@ -0,0 +1,192 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Ordered index of players by ELO rating, used for nearest-opponent pairing.
+ * Players are ordered by rating and then by ID, so players with equal ratings are all kept.
+ * Lookups of neighbours, insertion, removal and rating updates are O(log n), so one index can be kept
+ * per division and updated in place. The index is not thread-safe.
+ */
+public final class EloIndex {
+
+    private final TreeSet<Key> ordered = new TreeSet<>();
+    private final Map<Long, Key> keysById = new HashMap<>();
+
+    /**
+     * Adds a player, or moves them if they are already indexed with another rating.
+     *
+     * @param id     the ID of the player
+     * @param rating the ELO rating of the player
+     * @return true if the player was not indexed before
+     */
+    public boolean add(long id, int rating) {
+        Key key = new Key(rating, id);
+        Key previous = keysById.put(id, key);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(key);
+        return previous == null;
+    }
+
+    /**
+     * Removes a player.
+     *
+     * @param id the ID of the player
+     * @return true if the player was indexed
+     */
+    public boolean remove(long id) {
+        Key key = keysById.remove(id);
+        if (key == null) {
+            return false;
+        }
+        ordered.remove(key);
+        return true;
+    }
+
+    /**
+     * Updates the rating of an indexed player in place.
+     *
+     * @param id     the ID of the player
+     * @param rating the new ELO rating
+     * @return true if the player was indexed, false if nothing was changed
+     */
+    public boolean updateRating(long id, int rating) {
+        if (!keysById.containsKey(id)) {
+            return false;
+        }
+        add(id, rating);
+        return true;
+    }
+
+    /**
+     * Copies the index, so the copy can be consumed while this index keeps being updated.
+     *
+     * @return an index with the same players and ratings
+     */
+    public EloIndex copy() {
+        EloIndex copy = new EloIndex();
+        copy.ordered.addAll(ordered);
+        copy.keysById.putAll(keysById);
+        return copy;
+    }
+
+    public boolean contains(long id) {
+        return keysById.containsKey(id);
+    }
+
+    /**
+     * Gets the indexed rating of a player.
+     *
+     * @param id the ID of the player
+     * @return the rating, or null if the player is not indexed
+     */
+    public Integer getRating(long id) {
+        Key key = keysById.get(id);
+        return key == null ? null : key.rating;
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    public boolean isEmpty() {
+        return keysById.isEmpty();
+    }
+
+    /**
+     * Gets the player with the lowest rating.
+     *
+     * @return the ID of the player, or null if the index is empty
+     */
+    public Long first() {
+        return ordered.isEmpty() ? null : ordered.first().id;
+    }
+
+    /**
+     * Removes and returns the player with the lowest rating.
+     *
+     * @return the ID of the player, or null if the index is empty
+     */
+    public Long pollFirst() {
+        Key key = ordered.pollFirst();
+        if (key == null) {
+            return null;
+        }
+        keysById.remove(key.id);
+        return key.id;
+    }
+
+    /**
+     * Gets the player ordered directly below a position, which does not need to be indexed.
+     *
+     * @param rating the rating of the position
+     * @param id     the ID of the position
+     * @return the ID of the player below, or null if there is none
+     */
+    public Long lower(int rating, long id) {
+        Key key = ordered.lower(new Key(rating, id));
+        return key == null ? null : key.id;
+    }
+
+    /**
+     * Gets the player ordered directly above a position, which does not need to be indexed.
+     *
+     * @param rating the rating of the position
+     * @param id     the ID of the position
+     * @return the ID of the player above, or null if there is none
+     */
+    public Long higher(int rating, long id) {
+        Key key = ordered.higher(new Key(rating, id));
+        return key == null ? null : key.id;
+    }
+
+    /**
+     * Gets the other player with the closest rating to an indexed player.
+     * On equal distance the lower-rated player is returned.
+     *
+     * @param id the ID of the player
+     * @return the ID of the nearest player, or null if the player is not indexed or is alone
+     */
+    public Long nearest(long id) {
+        Key key = keysById.get(id);
+        if (key == null) {
+            return null;
+        }
+        Key lower = ordered.lower(key);
+        Key higher = ordered.higher(key);
+        if (lower == null) {
+            return higher == null ? null : higher.id;
+        }
+        if (higher == null) {
+            return lower.id;
+        }
+        return key.rating - lower.rating <= higher.rating - key.rating ? lower.id : higher.id;
+    }
+
+    /**
+     * Lists all players in ascending rating order.
+     *
+     * @return the IDs of the indexed players
+     */
+    public List<Long> idsInRatingOrder() {
+        List<Long> ids = new ArrayList<>(ordered.size());
+        for (Key key : ordered) {
+            ids.add(key.id);
+        }
+        return ids;
+    }
+
+    private record Key(int rating, long id) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byRating = Integer.compare(rating, other.rating);
+            return byRating != 0 ? byRating : Long.compare(id, other.id);
+        }
+    }
+}
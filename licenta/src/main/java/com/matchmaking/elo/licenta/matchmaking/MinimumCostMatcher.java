@@ -0,0 +1,135 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import java.util.Arrays;
+
+/**
+ * Exact minimum-cost perfect matching over players sorted by their matchmaking score.
+ * <p>
+ * Each player may be paired with any of the next {@code window} players in sorted order, which is
+ * the k-nearest candidate graph of a one-dimensional score. Over that graph the matching is solved
+ * exactly with a dynamic program whose state is the set of already-paired players inside the window,
+ * so the cost is O(n * 2^window * window) time and O(n * 2^window) bytes. With no rematch penalties
+ * the optimum is always adjacent pairing; the window lets the solver route around rematches.
+ * If the number of players is odd, exactly one player receives a bye, chosen to minimise total cost.
+ */
+public final class MinimumCostMatcher {
+
+    public static final int DEFAULT_WINDOW = 6;
+
+    public static final int MAX_WINDOW = 10;
+
+    public static final int BYE = -1;
+
+    /**
+     * Cost of pairing the players at two positions of the sorted order.
+     */
+    @FunctionalInterface
+    public interface PairCost {
+        double cost(int i, int j);
+    }
+
+    private final int window;
+
+    public MinimumCostMatcher() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public MinimumCostMatcher(int window) {
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Window must be between 1 and " + MAX_WINDOW + ": " + window);
+        }
+        this.window = window;
+    }
+
+    /**
+     * Computes a minimum-cost pairing of {@code n} players.
+     *
+     * @param n        the number of players, sorted by score
+     * @param pairCost the cost of pairing two positions
+     * @return the partner position of every player, or {@link #BYE} for the player left out
+     */
+    public int[] match(int n, PairCost pairCost) {
+        int[] partner = new int[n];
+        Arrays.fill(partner, BYE);
+        if (n < 2) {
+            return partner;
+        }
+
+        int w = window;
+        boolean odd = (n & 1) == 1;
+        int maskCount = 1 << (w + 1);
+        int stateCount = maskCount << 1;
+        byte byeChoice = (byte) (w + 1);
+
+        double[] costs = new double[n * w];
+        for (int i = 0; i < n; i++) {
+            for (int d = 1; d <= w; d++) {
+                costs[i * w + d - 1] = i + d < n ? pairCost.cost(i, i + d) : Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // next[state] holds the best cost to finish from position i + 1, current[state] from position i
+        double[] next = new double[stateCount];
+        double[] current = new double[stateCount];
+        byte[] choices = new byte[n * stateCount];
+
+        Arrays.fill(next, Double.POSITIVE_INFINITY);
+        next[odd ? 1 : 0] = 0;
+
+        for (int i = n - 1; i >= 0; i--) {
+            int choiceOffset = i * stateCount;
+            int costOffset = i * w;
+            for (int mask = 0; mask < maskCount; mask++) {
+                for (int bye = 0; bye < 2; bye++) {
+                    int state = (mask << 1) | bye;
+                    double best;
+                    byte choice = 0;
+                    if ((mask & 1) != 0) {
+                        best = next[((mask >> 1) << 1) | bye];
+                    } else {
+                        best = Double.POSITIVE_INFINITY;
+                        for (int d = 1; d <= w && i + d < n; d++) {
+                            if ((mask & (1 << d)) != 0) {
+                                continue;
+                            }
+                            double candidate = costs[costOffset + d - 1] + next[(((mask | (1 << d)) >> 1) << 1) | bye];
+                            if (candidate < best) {
+                                best = candidate;
+                                choice = (byte) d;
+                            }
+                        }
+                        if (odd && bye == 0) {
+                            double candidate = next[((mask >> 1) << 1) | 1];
+                            if (candidate < best) {
+                                best = candidate;
+                                choice = byeChoice;
+                            }
+                        }
+                    }
+                    current[state] = best;
+                    choices[choiceOffset + state] = choice;
+                }
+            }
+            double[] swap = next;
+            next = current;
+            current = swap;
+        }
+
+        int mask = 0;
+        int bye = 0;
+        for (int i = 0; i < n; i++) {
+            byte choice = choices[i * stateCount + ((mask << 1) | bye)];
+            if ((mask & 1) != 0) {
+                mask >>= 1;
+            } else if (choice == byeChoice) {
+                bye = 1;
+                mask >>= 1;
+            } else {
+                partner[i] = i + choice;
+                partner[i + choice] = i;
+                mask = (mask | (1 << choice)) >> 1;
+            }
+        }
+        return partner;
+    }
+}
@@ -0,0 +1,57 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+/**
+ * Fixed-size ring buffer of a player's most recent results.
+ * A running win count is kept alongside the buffer, so reading the recent form is O(1).
+ */
+public final class RecentResultsBuffer {
+
+    private final byte[] results;
+    private int next;
+    private int size;
+    private int wins;
+
+    public RecentResultsBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.results = new byte[capacity];
+    }
+
+    /**
+     * Appends a result, evicting the oldest one once the buffer is full.
+     *
+     * @param win whether the player won the match
+     */
+    public synchronized void add(boolean win) {
+        if (size == results.length) {
+            wins -= results[next];
+        } else {
+            size++;
+        }
+        results[next] = (byte) (win ? 1 : 0);
+        wins += results[next];
+        next = (next + 1) % results.length;
+    }
+
+    /**
+     * Removes all results from the buffer.
+     */
+    public synchronized void clear() {
+        next = 0;
+        size = 0;
+        wins = 0;
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return results.length;
+    }
+}
@@ -0,0 +1,264 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Swiss-system pairing of players sorted by score and then by rating, best first.
+ * <p>
+ * Players with the same score form a score group. Groups are paired from the top down: within a group
+ * the top half is paired against the bottom half, and a player who cannot be paired without a rematch
+ * floats down into the next group. When the preferred pairing of a group contains rematches, a bounded
+ * depth-first search tries the nearest alternative partners and backtracks; if the search runs out of
+ * budget the group is paired greedily instead. If the lowest group is still left with rematches, the
+ * whole field is searched again without score groups, and rematches are only accepted when that fails
+ * too. If the number of players is odd, the lowest-ranked player who has not had a bye yet receives it.
+ */
+public final class SwissPairer {
+
+    public static final int BYE = -1;
+
+    public static final int DEFAULT_SEARCH_BUDGET = 200_000;
+
+    private static final int NONE = -2;
+    private static final int FLOAT = -3;
+
+    /**
+     * Previous pairings of the players at two positions of the sorted order.
+     */
+    public interface History {
+        boolean havePlayed(int i, int j);
+
+        boolean hadBye(int i);
+    }
+
+    private final int searchBudget;
+
+    public SwissPairer() {
+        this(DEFAULT_SEARCH_BUDGET);
+    }
+
+    public SwissPairer(int searchBudget) {
+        if (searchBudget < 1) {
+            throw new IllegalArgumentException("Search budget must be positive: " + searchBudget);
+        }
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Pairs {@code scores.length} players for the next round.
+     *
+     * @param scores  the score of every player, sorted descending; ties must already be ordered by rating
+     * @param history the previous pairings of the players
+     * @return the partner position of every player, or {@link #BYE} for the player who sits out
+     */
+    public int[] pair(double[] scores, History history) {
+        int n = scores.length;
+        int[] partner = new int[n];
+        Arrays.fill(partner, NONE);
+
+        if ((n & 1) == 1) {
+            int bye = n - 1;
+            while (bye >= 0 && history.hadBye(bye)) {
+                bye--;
+            }
+            partner[bye >= 0 ? bye : n - 1] = BYE;
+        }
+
+        List<Integer> floaters = new ArrayList<>();
+        int start = 0;
+        while (start < n) {
+            int end = start;
+            while (end < n && scores[end] == scores[start]) {
+                end++;
+            }
+
+            List<Integer> group = new ArrayList<>(floaters);
+            for (int i = start; i < end; i++) {
+                if (partner[i] == NONE) {
+                    group.add(i);
+                }
+            }
+            floaters = pairGroup(group, partner, history, end < n);
+            start = end;
+        }
+
+        if (floaters.isEmpty()) {
+            return partner;
+        }
+
+        // The lowest group cannot be paired without rematches, so search the whole field instead,
+        // giving up score groups before accepting a rematch
+        int[] field = new int[n - (n & 1)];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (partner[i] != BYE) {
+                field[size++] = i;
+            }
+        }
+        int[] choice = search(field, history, 0, 1);
+        if (choice != null) {
+            for (int p = 0; p < size; p++) {
+                partner[field[p]] = field[choice[p]];
+            }
+            return partner;
+        }
+
+        // Only players who have already met everyone left are still unpaired here
+        for (int i = 0; i + 1 < floaters.size(); i += 2) {
+            partner[floaters.get(i)] = floaters.get(i + 1);
+            partner[floaters.get(i + 1)] = floaters.get(i);
+        }
+        return partner;
+    }
+
+    /**
+     * Pairs one score group and returns the players that float down to the next group.
+     */
+    private List<Integer> pairGroup(List<Integer> group, int[] partner, History history, boolean canFloat) {
+        int m = group.size();
+        int[] members = group.stream().mapToInt(Integer::intValue).toArray();
+
+        int maxFloats = canFloat ? (m & 1) : 0;
+        int[] choice = search(members, history, maxFloats, Math.max(m / 2, 1));
+        if (choice == null && canFloat && maxFloats + 2 <= m) {
+            choice = search(members, history, maxFloats + 2, Math.max(m / 2, 1));
+        }
+        if (choice == null) {
+            choice = greedy(members, history);
+        }
+
+        List<Integer> floaters = new ArrayList<>();
+        for (int p = 0; p < m; p++) {
+            if (choice[p] == FLOAT) {
+                floaters.add(members[p]);
+            } else if (choice[p] > p) {
+                partner[members[p]] = members[choice[p]];
+                partner[members[choice[p]]] = members[p];
+            }
+        }
+        return floaters;
+    }
+
+    /**
+     * Depth-first search for a pairing of the group without rematches. Each player prefers the partner
+     * {@code offset} places below them, which pairs the top half against the bottom half for an offset
+     * of half the group. The search is iterative so large groups do not exhaust the stack.
+     *
+     * @return the partner position of every member or {@link #FLOAT}, or null if no pairing was found
+     */
+    private int[] search(int[] members, History history, int maxFloats, int offset) {
+        int m = members.length;
+        int[] choice = new int[m];
+        if (m == 0) {
+            return choice;
+        }
+        int lastStep = 2 * m;
+        boolean[] used = new boolean[m];
+        int[] position = new int[m];
+        int[] step = new int[m];
+        int[] picked = new int[m];
+        int floats = 0;
+        int depth = 0;
+        long work = 0;
+
+        while (true) {
+            int p = position[depth];
+            int target = Math.min(p + offset, m - 1);
+            int k = step[depth];
+            int partnerPosition = NONE;
+            while (k < lastStep) {
+                int j = candidate(target, k++);
+                work++;
+                if (j > p && j < m && !used[j] && !history.havePlayed(members[p], members[j])) {
+                    partnerPosition = j;
+                    break;
+                }
+            }
+            if (partnerPosition == NONE && k == lastStep && floats < maxFloats) {
+                partnerPosition = FLOAT;
+                k++;
+            }
+            step[depth] = k;
+            if (work > searchBudget) {
+                return null;
+            }
+
+            if (partnerPosition != NONE) {
+                used[p] = true;
+                if (partnerPosition == FLOAT) {
+                    floats++;
+                } else {
+                    used[partnerPosition] = true;
+                }
+                picked[depth] = partnerPosition;
+
+                int next = p + 1;
+                while (next < m && used[next]) {
+                    next++;
+                }
+                if (next == m) {
+                    break;
+                }
+                depth++;
+                position[depth] = next;
+                step[depth] = 0;
+            } else {
+                if (depth == 0) {
+                    return null;
+                }
+                depth--;
+                used[position[depth]] = false;
+                if (picked[depth] == FLOAT) {
+                    floats--;
+                } else {
+                    used[picked[depth]] = false;
+                }
+            }
+        }
+
+        for (int d = 0; d <= depth; d++) {
+            int p = position[d];
+            choice[p] = picked[d];
+            if (picked[d] >= 0) {
+                choice[picked[d]] = p;
+            }
+        }
+        return choice;
+    }
+
+    /**
+     * Pairs every member with their first acceptable candidate; members without one float.
+     */
+    private int[] greedy(int[] members, History history) {
+        int m = members.length;
+        int half = m / 2;
+        int[] choice = new int[m];
+        Arrays.fill(choice, NONE);
+        for (int p = 0; p < m; p++) {
+            if (choice[p] != NONE) {
+                continue;
+            }
+            int target = Math.min(p + Math.max(half, 1), m - 1);
+            choice[p] = FLOAT;
+            for (int k = 0; k < 2 * m; k++) {
+                int j = candidate(target, k);
+                if (j > p && j < m && choice[j] == NONE && !history.havePlayed(members[p], members[j])) {
+                    choice[p] = j;
+                    choice[j] = p;
+                    break;
+                }
+            }
+        }
+        return choice;
+    }
+
+    /**
+     * The k-th candidate position around the target: target, target + 1, target - 1, target + 2, ...
+     */
+    private static int candidate(int target, int k) {
+        int distance = (k + 1) / 2;
+        return (k & 1) == 1 ? target + distance : target - distance;
+    }
+}
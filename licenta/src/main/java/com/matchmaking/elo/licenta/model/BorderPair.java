@@ -0,0 +1,42 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * A pair of players from two adjacent divisions, made from players their own divisions left unpaired.
+ */
+public class BorderPair {
+    private long user1Id;
+    private long user1DivisionId;
+    private long user2Id;
+    private long user2DivisionId;
+    private int eloGap;
+
+    public BorderPair() {}
+
+    public BorderPair(User user1, User user2) {
+        this.user1Id = user1.getId();
+        this.user1DivisionId = user1.getDivisionId();
+        this.user2Id = user2.getId();
+        this.user2DivisionId = user2.getDivisionId();
+        this.eloGap = Math.abs(user1.getEloRating() - user2.getEloRating());
+    }
+
+    public long getUser1Id() {
+        return user1Id;
+    }
+
+    public long getUser1DivisionId() {
+        return user1DivisionId;
+    }
+
+    public long getUser2Id() {
+        return user2Id;
+    }
+
+    public long getUser2DivisionId() {
+        return user2DivisionId;
+    }
+
+    public int getEloGap() {
+        return eloGap;
+    }
+}
@@ -0,0 +1,50 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.util.List;
+
+/**
+ * The pairing computed for one division, together with how long it took.
+ */
+public class DivisionPairing {
+    private long divisionId;
+    private String divisionName;
+    private int rank;
+    private List<Pair> pairs;
+    private long elapsedMillis;
+    private String error;
+
+    public DivisionPairing() {}
+
+    public DivisionPairing(Division division, List<Pair> pairs, long elapsedMillis, String error) {
+        this.divisionId = division.getId();
+        this.divisionName = division.getName();
+        this.rank = division.getRank();
+        this.pairs = pairs;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public String getDivisionName() {
+        return divisionName;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public List<Pair> getPairs() {
+        return pairs;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
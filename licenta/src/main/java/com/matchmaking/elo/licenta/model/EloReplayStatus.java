@@ -0,0 +1,69 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a replay of all matches that recomputes the ELO ratings.
+ */
+public class EloReplayStatus {
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long matchesReplayed;
+    private int playersRated;
+    private int components;
+    private int threads;
+    private long elapsedMillis;
+    private String error;
+
+    public EloReplayStatus() {}
+
+    public EloReplayStatus(boolean running, LocalDateTime startedAt, LocalDateTime finishedAt, long matchesReplayed,
+                           int playersRated, int components, int threads, long elapsedMillis, String error) {
+        this.running = running;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.matchesReplayed = matchesReplayed;
+        this.playersRated = playersRated;
+        this.components = components;
+        this.threads = threads;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getMatchesReplayed() {
+        return matchesReplayed;
+    }
+
+    public int getPlayersRated() {
+        return playersRated;
+    }
+
+    public int getComponents() {
+        return components;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
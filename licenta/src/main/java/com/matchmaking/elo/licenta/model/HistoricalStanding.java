@@ -0,0 +1,40 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A player's ELO rating as it was at a past date.
+ * {@code ratedAt} is the date of the match or rating checkpoint the rating comes from, or null if the
+ * player had no rating yet and the default rating is shown.
+ */
+public class HistoricalStanding {
+    private long userId;
+    private String name;
+    private int eloRating;
+    private LocalDateTime ratedAt;
+
+    public HistoricalStanding() {}
+
+    public HistoricalStanding(User user, int eloRating, LocalDateTime ratedAt) {
+        this.userId = user.getId();
+        this.name = user.getName();
+        this.eloRating = eloRating;
+        this.ratedAt = ratedAt;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getEloRating() {
+        return eloRating;
+    }
+
+    public LocalDateTime getRatedAt() {
+        return ratedAt;
+    }
+}
@@ -0,0 +1,132 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The progress of importing one file. The lines read so far are saved in the transaction that writes
+ * their rows, so an import that failed resumes after the last line written.
+ */
+@Entity
+@Table(name = "IMPORT_JOBS", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_IMPORT_JOBS_FILE_NAME", columnNames = "FILE_NAME")
+})
+public class ImportJob {
+
+    public enum Kind {
+        PLAYERS,
+        MATCHES
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "FILE_NAME")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "KIND")
+    private Kind kind;
+
+    @Column(name = "FILE_SIZE")
+    private long fileSize;
+
+    @Column(name = "LINES_READ")
+    private long linesRead;
+
+    @Column(name = "ROWS_IMPORTED")
+    private long rowsImported;
+
+    @Column(name = "ROWS_SKIPPED")
+    private long rowsSkipped;
+
+    @Column(name = "ROWS_REJECTED")
+    private long rowsRejected;
+
+    @Column(name = "STARTED_AT")
+    private LocalDateTime startedAt;
+
+    @Column(name = "FINISHED_AT")
+    private LocalDateTime finishedAt;
+
+    public ImportJob() {}
+
+    public ImportJob(String fileName, Kind kind, long fileSize, LocalDateTime startedAt) {
+        this.fileName = fileName;
+        this.kind = kind;
+        this.fileSize = fileSize;
+        this.startedAt = startedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * The number of lines of the file whose rows are written, header included.
+     */
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    /**
+     * The number of rows that were already in the database, such as players that exist.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+}
@@ -0,0 +1,96 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk import of players and matches from files.
+ * The row counts are those of the file being imported, or of the last file once the import has finished,
+ * and include the rows written before a resume. The rate only counts the rows read by this run.
+ */
+public class ImportStatus {
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String fileName;
+    private long resumedFromLine;
+    private long linesRead;
+    private long rowsImported;
+    private long rowsSkipped;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private boolean replayStarted;
+    private String error;
+
+    public ImportStatus() {}
+
+    public ImportStatus(boolean running, LocalDateTime startedAt, LocalDateTime finishedAt, String fileName,
+                        long resumedFromLine, long linesRead, long rowsImported, long rowsSkipped, long rowsRejected,
+                        long elapsedMillis, long rowsPerSecond, boolean replayStarted, String error) {
+        this.running = running;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.fileName = fileName;
+        this.resumedFromLine = resumedFromLine;
+        this.linesRead = linesRead;
+        this.rowsImported = rowsImported;
+        this.rowsSkipped = rowsSkipped;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rowsPerSecond;
+        this.replayStarted = replayStarted;
+        this.error = error;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getResumedFromLine() {
+        return resumedFromLine;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public boolean isReplayStarted() {
+        return replayStarted;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,38 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.util.List;
+
+/**
+ * The current incremental pairing of a division.
+ */
+public class IncrementalPairing {
+    private long divisionId;
+    private long version;
+    private List<Pair> pairs;
+    private List<Long> unpairedPlayerIds;
+
+    public IncrementalPairing() {}
+
+    public IncrementalPairing(long divisionId, long version, List<Pair> pairs, List<Long> unpairedPlayerIds) {
+        this.divisionId = divisionId;
+        this.version = version;
+        this.pairs = pairs;
+        this.unpairedPlayerIds = unpairedPlayerIds;
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Pair> getPairs() {
+        return pairs;
+    }
+
+    public List<Long> getUnpairedPlayerIds() {
+        return unpairedPlayerIds;
+    }
+}
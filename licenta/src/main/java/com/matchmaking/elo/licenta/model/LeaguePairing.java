@@ -0,0 +1,52 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.util.List;
+
+/**
+ * The pairings computed for all divisions of a league, together with the pairs made across division
+ * borders and the players left without an opponent.
+ */
+public class LeaguePairing {
+    private long leagueId;
+    private PairingStrategy strategy;
+    private List<DivisionPairing> divisions;
+    private List<BorderPair> borderPairs;
+    private List<Long> unpairedPlayerIds;
+    private long elapsedMillis;
+
+    public LeaguePairing() {}
+
+    public LeaguePairing(long leagueId, PairingStrategy strategy, List<DivisionPairing> divisions,
+                         List<BorderPair> borderPairs, List<Long> unpairedPlayerIds, long elapsedMillis) {
+        this.leagueId = leagueId;
+        this.strategy = strategy;
+        this.divisions = divisions;
+        this.borderPairs = borderPairs;
+        this.unpairedPlayerIds = unpairedPlayerIds;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getLeagueId() {
+        return leagueId;
+    }
+
+    public PairingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public List<DivisionPairing> getDivisions() {
+        return divisions;
+    }
+
+    public List<BorderPair> getBorderPairs() {
+        return borderPairs;
+    }
+
+    public List<Long> getUnpairedPlayerIds() {
+        return unpairedPlayerIds;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
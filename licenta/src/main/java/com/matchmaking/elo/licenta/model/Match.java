@@ -9,9 +9,20 @@ import java.util.Objects;
  * Represents a match in the matchmaking system.
  */
 @Entity
-@Table(name = "MATCHES")
+@Table(name = "MATCHES", indexes = {
+        @Index(name = "IDX_MATCHES_PLAYER_1_HISTORY", columnList = "PLAYER_1_ID, MATCH_DATE_TIME, ID"),
+        @Index(name = "IDX_MATCHES_PLAYER_2_HISTORY", columnList = "PLAYER_2_ID, MATCH_DATE_TIME, ID"),
+        @Index(name = "IDX_MATCHES_PLAY_ORDER", columnList = "MATCH_DATE_TIME, ID"),
+        @Index(name = "IDX_MATCHES_RATING_PERIOD", columnList = "RATING_PERIOD")
+})
 public class Match {
 
+    /**
+     * The rating period of matches that no rating period rates, such as imported matches, which keep the
+     * ratings of their players until a replay.
+     */
+    public static final long NO_RATING_PERIOD = 0;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -44,6 +55,21 @@ public class Match {
     @Column(name = "MATCH_DATE_TIME")
     private LocalDateTime matchDateTime;
 
+    /**
+     * The number of the rating period that rated this match, or null while it is not rated by a periodic engine.
+     */
+    @Column(name = "RATING_PERIOD")
+    private Long ratingPeriod;
+
+    /**
+     * The seasons the result of each player was counted in, or null if it was counted in no season.
+     * Kept so removing the result takes it from the same seasons, even after a player changed league.
+     */
+    @Column(name = "PLAYER_1_SEASON_ID")
+    private Long player1SeasonId;
+    @Column(name = "PLAYER_2_SEASON_ID")
+    private Long player2SeasonId;
+
     public Match(Long player1Id, Long player2Id) {
         this.player1Id = player1Id;
         this.player2Id = player2Id;
@@ -150,13 +176,43 @@ public class Match {
         this.matchDateTime = matchDateTime;
     }
 
+    public Long getRatingPeriod() {
+        return ratingPeriod;
+    }
+
+    public void setRatingPeriod(Long ratingPeriod) {
+        this.ratingPeriod = ratingPeriod;
+    }
+
+    public Long getPlayer1SeasonId() {
+        return player1SeasonId;
+    }
+
+    public void setPlayer1SeasonId(Long player1SeasonId) {
+        this.player1SeasonId = player1SeasonId;
+    }
+
+    public Long getPlayer2SeasonId() {
+        return player2SeasonId;
+    }
+
+    public void setPlayer2SeasonId(Long player2SeasonId) {
+        this.player2SeasonId = player2SeasonId;
+    }
+
+    /**
+     * Sets the winner and loser from the scores. A draw has neither.
+     */
     public void setWinnerAndLoser() {
         if (player1Score > player2Score) {
             winnerId = player1Id;
             loserId = player2Id;
-        } else {
+        } else if (player1Score < player2Score) {
             winnerId = player2Id;
             loserId = player1Id;
+        } else {
+            winnerId = null;
+            loserId = null;
         }
     }
 
@@ -183,9 +239,9 @@ public class Match {
                 player2Score == match.player2Score &&
                 player1Id == match.player1Id &&
                 player2Id == match.player2Id &&
-                winnerId.equals(match.winnerId) &&
+                Objects.equals(winnerId, match.winnerId) &&
                 Objects.equals(loserId, match.loserId) &&
-                matchDateTime.equals(match.matchDateTime);
+                Objects.equals(matchDateTime, match.matchDateTime);
     }
 
     @Override
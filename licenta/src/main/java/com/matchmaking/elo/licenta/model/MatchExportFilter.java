@@ -0,0 +1,33 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The matches to export: those of a league, or of all leagues, played in a date range.
+ * A null bound leaves that side of the range open.
+ */
+public class MatchExportFilter {
+    private Long leagueId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public MatchExportFilter() {}
+
+    public MatchExportFilter(Long leagueId, LocalDateTime from, LocalDateTime to) {
+        this.leagueId = leagueId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Long getLeagueId() {
+        return leagueId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+}
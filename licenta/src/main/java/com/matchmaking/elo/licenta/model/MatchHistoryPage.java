@@ -0,0 +1,38 @@
+package com.matchmaking.elo.licenta.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a player's match history, oldest first.
+ * The next page is requested with the returned cursor, which is null on the last page. The cursor date is
+ * written as an ISO date-time, the format the afterDateTime request parameter is read in.
+ */
+public class MatchHistoryPage {
+    private List<Match> matches;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private LocalDateTime nextAfterDateTime;
+    private Long nextAfterId;
+
+    public MatchHistoryPage() {}
+
+    public MatchHistoryPage(List<Match> matches, LocalDateTime nextAfterDateTime, Long nextAfterId) {
+        this.matches = matches;
+        this.nextAfterDateTime = nextAfterDateTime;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<Match> getMatches() {
+        return matches;
+    }
+
+    public LocalDateTime getNextAfterDateTime() {
+        return nextAfterDateTime;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+}
@@ -0,0 +1,86 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The matches played from {@link #getStartDateTime()}, inclusive, to {@link #getEndDateTime()}, exclusive,
+ * moved out of the MATCHES table into a compressed archive file. Partitions never overlap.
+ */
+@Entity
+@Table(name = "MATCH_PARTITIONS", indexes = {
+        @Index(name = "IDX_MATCH_PARTITIONS_RANGE", columnList = "START_DATE_TIME, END_DATE_TIME")
+})
+public class MatchPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "START_DATE_TIME")
+    private LocalDateTime startDateTime;
+
+    @Column(name = "END_DATE_TIME")
+    private LocalDateTime endDateTime;
+
+    @Column(name = "MATCH_COUNT")
+    private long matchCount;
+
+    @Column(name = "LAST_MATCH_ID")
+    private long lastMatchId;
+
+    @Column(name = "FILE_NAME")
+    private String fileName;
+
+    @Column(name = "FILE_SIZE")
+    private long fileSize;
+
+    @Column(name = "ARCHIVED_AT")
+    private LocalDateTime archivedAt;
+
+    public MatchPartition() {}
+
+    public MatchPartition(LocalDateTime startDateTime, LocalDateTime endDateTime, long matchCount, long lastMatchId,
+                          String fileName, long fileSize, LocalDateTime archivedAt) {
+        this.startDateTime = startDateTime;
+        this.endDateTime = endDateTime;
+        this.matchCount = matchCount;
+        this.lastMatchId = lastMatchId;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.archivedAt = archivedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    public long getLastMatchId() {
+        return lastMatchId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
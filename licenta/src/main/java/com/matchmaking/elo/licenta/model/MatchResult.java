@@ -0,0 +1,65 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A submitted match result, as accepted by the batch ingestion endpoint.
+ * The match date defaults to the time of ingestion.
+ */
+public class MatchResult {
+    private Long player1Id;
+    private Long player2Id;
+    private int player1Score;
+    private int player2Score;
+    private LocalDateTime matchDateTime;
+
+    public MatchResult() {}
+
+    public MatchResult(Long player1Id, Long player2Id, int player1Score, int player2Score, LocalDateTime matchDateTime) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.player1Score = player1Score;
+        this.player2Score = player2Score;
+        this.matchDateTime = matchDateTime;
+    }
+
+    public Long getPlayer1Id() {
+        return player1Id;
+    }
+
+    public void setPlayer1Id(Long player1Id) {
+        this.player1Id = player1Id;
+    }
+
+    public Long getPlayer2Id() {
+        return player2Id;
+    }
+
+    public void setPlayer2Id(Long player2Id) {
+        this.player2Id = player2Id;
+    }
+
+    public int getPlayer1Score() {
+        return player1Score;
+    }
+
+    public void setPlayer1Score(int player1Score) {
+        this.player1Score = player1Score;
+    }
+
+    public int getPlayer2Score() {
+        return player2Score;
+    }
+
+    public void setPlayer2Score(int player2Score) {
+        this.player2Score = player2Score;
+    }
+
+    public LocalDateTime getMatchDateTime() {
+        return matchDateTime;
+    }
+
+    public void setMatchDateTime(LocalDateTime matchDateTime) {
+        this.matchDateTime = matchDateTime;
+    }
+}
@@ -0,0 +1,54 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * The outcome of one submitted match result: the created match, or the reason it was rejected.
+ */
+public class MatchResultOutcome {
+    private int index;
+    private Long matchId;
+    private Integer player1EloAfterMatch;
+    private Integer player2EloAfterMatch;
+    private String error;
+
+    public MatchResultOutcome() {}
+
+    private MatchResultOutcome(int index, Long matchId, Integer player1EloAfterMatch, Integer player2EloAfterMatch, String error) {
+        this.index = index;
+        this.matchId = matchId;
+        this.player1EloAfterMatch = player1EloAfterMatch;
+        this.player2EloAfterMatch = player2EloAfterMatch;
+        this.error = error;
+    }
+
+    public static MatchResultOutcome created(int index, Match match) {
+        return new MatchResultOutcome(index, match.getId(), match.getPlayer1EloAfterMatch(), match.getPlayer2EloAfterMatch(), null);
+    }
+
+    public static MatchResultOutcome rejected(int index, String error) {
+        return new MatchResultOutcome(index, null, null, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public Integer getPlayer1EloAfterMatch() {
+        return player1EloAfterMatch;
+    }
+
+    public Integer getPlayer2EloAfterMatch() {
+        return player2EloAfterMatch;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acknowledgement of a match result accepted by the asynchronous rating pipeline.
+ */
+public class MatchSubmission {
+    private long sequence;
+    private LocalDateTime submittedAt;
+
+    public MatchSubmission() {}
+
+    public MatchSubmission(long sequence, LocalDateTime submittedAt) {
+        this.sequence = sequence;
+        this.submittedAt = submittedAt;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+}
@@ -1,7 +1,13 @@
 package com.matchmaking.elo.licenta.model;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+@Embeddable
 public final class Pair {
+    @Column(name = "USER_1_ID")
     private long user1Id;
+    @Column(name = "USER_2_ID")
     private long user2Id;
 
 
@@ -0,0 +1,53 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A change to the incremental pairing of a division: the pairs that were added and removed,
+ * and the players left without an opponent afterwards.
+ */
+public class PairingDelta {
+    private long divisionId;
+    private long version;
+    private List<Pair> addedPairs;
+    private List<Pair> removedPairs;
+    private List<Long> unpairedPlayerIds;
+    private LocalDateTime createdAt;
+
+    public PairingDelta() {}
+
+    public PairingDelta(long divisionId, long version, List<Pair> addedPairs, List<Pair> removedPairs,
+                        List<Long> unpairedPlayerIds) {
+        this.divisionId = divisionId;
+        this.version = version;
+        this.addedPairs = addedPairs;
+        this.removedPairs = removedPairs;
+        this.unpairedPlayerIds = unpairedPlayerIds;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Pair> getAddedPairs() {
+        return addedPairs;
+    }
+
+    public List<Pair> getRemovedPairs() {
+        return removedPairs;
+    }
+
+    public List<Long> getUnpairedPlayerIds() {
+        return unpairedPlayerIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
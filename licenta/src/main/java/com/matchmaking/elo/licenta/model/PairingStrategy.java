@@ -0,0 +1,23 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * The pairing algorithms available for matching players within a division.
+ */
+public enum PairingStrategy {
+    /**
+     * Pairs each player with the nearest ELO rating.
+     */
+    NEAREST,
+    /**
+     * Pairs players in order of their weighted score.
+     */
+    WEIGHTED,
+    /**
+     * Greedily pairs players by weighted score and compatibility.
+     */
+    OPTIMAL,
+    /**
+     * Minimum-cost perfect matching over weighted score and compatibility.
+     */
+    EXACT
+}
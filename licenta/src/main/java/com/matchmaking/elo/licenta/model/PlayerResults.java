@@ -0,0 +1,72 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The number of wins, losses and draws of a player, either over all time or within one season.
+ * The counts are kept up to date as matches are saved and deleted, so they never have to be counted
+ * from the MATCHES table.
+ */
+@Entity
+@Table(name = "PLAYER_RESULTS", uniqueConstraints = @UniqueConstraint(
+        name = "UK_PLAYER_RESULTS_USER_SEASON", columnNames = {"USER_ID", "SEASON_ID"}))
+public class PlayerResults {
+
+    /**
+     * The season ID of the all-time counts.
+     */
+    public static final long ALL_TIME = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "USER_ID")
+    private long userId;
+
+    @Column(name = "SEASON_ID")
+    private long seasonId;
+
+    @Column(name = "WINS")
+    private long wins;
+
+    @Column(name = "LOSSES")
+    private long losses;
+
+    @Column(name = "DRAWS")
+    private long draws;
+
+    public PlayerResults() {}
+
+    public PlayerResults(long userId, long seasonId, long wins, long losses, long draws) {
+        this.userId = userId;
+        this.seasonId = seasonId;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getSeasonId() {
+        return seasonId;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getMatchesPlayed() {
+        return wins + losses + draws;
+    }
+}
@@ -0,0 +1,42 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * Observability snapshot of the real-time matchmaking queue of one division.
+ */
+public class QueueStats {
+    private long divisionId;
+    private int queueDepth;
+    private long matchedTotal;
+    private long medianWaitMillis;
+    private long longestWaitMillis;
+
+    public QueueStats() {}
+
+    public QueueStats(long divisionId, int queueDepth, long matchedTotal, long medianWaitMillis, long longestWaitMillis) {
+        this.divisionId = divisionId;
+        this.queueDepth = queueDepth;
+        this.matchedTotal = matchedTotal;
+        this.medianWaitMillis = medianWaitMillis;
+        this.longestWaitMillis = longestWaitMillis;
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getMatchedTotal() {
+        return matchedTotal;
+    }
+
+    public long getMedianWaitMillis() {
+        return medianWaitMillis;
+    }
+
+    public long getLongestWaitMillis() {
+        return longestWaitMillis;
+    }
+}
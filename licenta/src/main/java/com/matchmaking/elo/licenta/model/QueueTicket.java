@@ -0,0 +1,71 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A player's place in the real-time matchmaking queue.
+ * Tickets are immutable; a new ticket replaces the old one when the player is matched.
+ */
+public final class QueueTicket {
+
+    public enum Status {
+        WAITING,
+        MATCHED
+    }
+
+    private final long userId;
+    private final long divisionId;
+    private final int eloRating;
+    private final Status status;
+    private final Long opponentId;
+    private final LocalDateTime enqueuedAt;
+    private final LocalDateTime matchedAt;
+
+    public QueueTicket(long userId, long divisionId, int eloRating, Status status, Long opponentId,
+                       LocalDateTime enqueuedAt, LocalDateTime matchedAt) {
+        this.userId = userId;
+        this.divisionId = divisionId;
+        this.eloRating = eloRating;
+        this.status = status;
+        this.opponentId = opponentId;
+        this.enqueuedAt = enqueuedAt;
+        this.matchedAt = matchedAt;
+    }
+
+    public static QueueTicket waiting(User user) {
+        return new QueueTicket(user.getId(), user.getDivisionId(), user.getEloRating(), Status.WAITING, null,
+                LocalDateTime.now(), null);
+    }
+
+    public QueueTicket matchedWith(long opponentId) {
+        return new QueueTicket(userId, divisionId, eloRating, Status.MATCHED, opponentId, enqueuedAt, LocalDateTime.now());
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public int getEloRating() {
+        return eloRating;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getOpponentId() {
+        return opponentId;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public LocalDateTime getMatchedAt() {
+        return matchedAt;
+    }
+}
@@ -0,0 +1,67 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ratings of all players as they were after the match with ID {@link #getLastMatchId()}.
+ * The ratings themselves are stored in RATING_CHECKPOINT_ENTRIES. Daily checkpoints are kept longer, to
+ * answer what the ratings were at a past date.
+ */
+@Entity
+@Table(name = "RATING_CHECKPOINTS")
+public class RatingCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "LAST_MATCH_ID")
+    private long lastMatchId;
+
+    @Column(name = "PLAYER_COUNT")
+    private int playerCount;
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    @Column(name = "DAILY")
+    private boolean daily;
+
+    public RatingCheckpoint() {}
+
+    public RatingCheckpoint(long lastMatchId, LocalDateTime createdAt, boolean daily) {
+        this.lastMatchId = lastMatchId;
+        this.createdAt = createdAt;
+        this.daily = daily;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getLastMatchId() {
+        return lastMatchId;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public void setPlayerCount(int playerCount) {
+        this.playerCount = playerCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isDaily() {
+        return daily;
+    }
+
+    public void setDaily(boolean daily) {
+        this.daily = daily;
+    }
+}
@@ -0,0 +1,51 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+/**
+ * The rating and match counter of one player in a {@link RatingCheckpoint}.
+ * Entries are written and read in bulk with JDBC; the entity only describes the table.
+ */
+@Entity
+@Table(name = "RATING_CHECKPOINT_ENTRIES", uniqueConstraints = @UniqueConstraint(
+        name = "UK_RATING_CHECKPOINT_ENTRIES_USER", columnNames = {"CHECKPOINT_ID", "USER_ID"}))
+public class RatingCheckpointEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "CHECKPOINT_ID")
+    private long checkpointId;
+
+    @Column(name = "USER_ID")
+    private long userId;
+
+    @Column(name = "ELO_RATING")
+    private int eloRating;
+
+    @Column(name = "MATCH_COUNTER")
+    private long matchCounter;
+
+    public RatingCheckpointEntry() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getCheckpointId() {
+        return checkpointId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public int getEloRating() {
+        return eloRating;
+    }
+
+    public long getMatchCounter() {
+        return matchCounter;
+    }
+}
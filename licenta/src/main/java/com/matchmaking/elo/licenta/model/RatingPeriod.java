@@ -0,0 +1,76 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed rating period of a periodic rating engine. A period covers the matches that carry its number,
+ * which are the matches committed since the previous period closed. Its last match is the highest ID among them.
+ */
+@Entity
+@Table(name = "RATING_PERIODS")
+public class RatingPeriod {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "NUMBER")
+    private long number;
+
+    @Column(name = "ENGINE")
+    private String engine;
+
+    @Column(name = "LAST_MATCH_ID")
+    private long lastMatchId;
+
+    @Column(name = "MATCH_COUNT")
+    private int matchCount;
+
+    @Column(name = "PLAYER_COUNT")
+    private int playerCount;
+
+    @Column(name = "CLOSED_AT")
+    private LocalDateTime closedAt;
+
+    public RatingPeriod() {}
+
+    public RatingPeriod(long number, String engine, long lastMatchId, int matchCount, int playerCount,
+                        LocalDateTime closedAt) {
+        this.number = number;
+        this.engine = engine;
+        this.lastMatchId = lastMatchId;
+        this.matchCount = matchCount;
+        this.playerCount = playerCount;
+        this.closedAt = closedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public long getLastMatchId() {
+        return lastMatchId;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * Progress of the asynchronous rating pipeline.
+ * The lag is how long the oldest match result still waiting to be rated has been queued.
+ */
+public class RatingPipelineStatus {
+    private int partitions;
+    private long submitted;
+    private long applied;
+    private long persisted;
+    private long rejected;
+    private long failed;
+    private long queued;
+    private long lagMillis;
+
+    public RatingPipelineStatus() {}
+
+    public RatingPipelineStatus(int partitions, long submitted, long applied, long persisted, long rejected,
+                                long failed, long queued, long lagMillis) {
+        this.partitions = partitions;
+        this.submitted = submitted;
+        this.applied = applied;
+        this.persisted = persisted;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.queued = queued;
+        this.lagMillis = lagMillis;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getPersisted() {
+        return persisted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getQueued() {
+        return queued;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
@@ -0,0 +1,40 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A player's rating history over a date range, reduced to at most the requested number of points.
+ * The times and ratings are parallel lists, which keeps the JSON small.
+ */
+public class RatingSeries {
+    private long userId;
+    private int totalPoints;
+    private List<LocalDateTime> times;
+    private int[] ratings;
+
+    public RatingSeries() {}
+
+    public RatingSeries(long userId, int totalPoints, List<LocalDateTime> times, int[] ratings) {
+        this.userId = userId;
+        this.totalPoints = totalPoints;
+        this.times = times;
+        this.ratings = ratings;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public int getTotalPoints() {
+        return totalPoints;
+    }
+
+    public List<LocalDateTime> getTimes() {
+        return times;
+    }
+
+    public int[] getRatings() {
+        return ratings;
+    }
+}
@@ -0,0 +1,103 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A run of consecutive points of a player's rating history, encoded with
+ * {@link com.matchmaking.elo.licenta.rating.RatingSeriesCodec}. The first and last points are also kept as
+ * columns: the first is where decoding starts, the last is what the next point is encoded against.
+ * A player's chunks are read in ID order.
+ */
+@Entity
+@Table(name = "RATING_SERIES_CHUNKS", indexes = {
+        @Index(name = "IDX_RATING_SERIES_CHUNKS_USER", columnList = "USER_ID, ID")
+})
+public class RatingSeriesChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "USER_ID")
+    private long userId;
+
+    @Column(name = "FIRST_TIME")
+    private LocalDateTime firstTime;
+
+    @Column(name = "FIRST_RATING")
+    private int firstRating;
+
+    @Column(name = "LAST_TIME")
+    private LocalDateTime lastTime;
+
+    @Column(name = "LAST_RATING")
+    private int lastRating;
+
+    @Column(name = "POINT_COUNT")
+    private int pointCount;
+
+    @Column(name = "DATA")
+    private byte[] data;
+
+    public RatingSeriesChunk() {}
+
+    public RatingSeriesChunk(long userId, LocalDateTime firstTime, int firstRating) {
+        this.userId = userId;
+        this.firstTime = firstTime;
+        this.firstRating = firstRating;
+        this.lastTime = firstTime;
+        this.lastRating = firstRating;
+        this.pointCount = 1;
+        this.data = new byte[0];
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getFirstTime() {
+        return firstTime;
+    }
+
+    public int getFirstRating() {
+        return firstRating;
+    }
+
+    public LocalDateTime getLastTime() {
+        return lastTime;
+    }
+
+    public void setLastTime(LocalDateTime lastTime) {
+        this.lastTime = lastTime;
+    }
+
+    public int getLastRating() {
+        return lastRating;
+    }
+
+    public void setLastRating(int lastRating) {
+        this.lastRating = lastRating;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public void setPointCount(int pointCount) {
+        this.pointCount = pointCount;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,97 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a round of pairings in a division. The pairs of a round are computed once, when the
+ * round is created, and stay the same until a new round is created.
+ */
+@Entity
+@Table(name = "ROUNDS", uniqueConstraints = @UniqueConstraint(
+        name = "UK_ROUNDS_DIVISION_NUMBER", columnNames = {"DIVISION_ID", "NUMBER"}))
+public class Round {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "DIVISION_ID")
+    private Long divisionId;
+
+    @Column(name = "NUMBER")
+    private int number;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STRATEGY")
+    private PairingStrategy strategy;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "ROUND_PAIRS", joinColumns = @JoinColumn(name = "ROUND_ID"))
+    @OrderColumn(name = "PAIR_INDEX")
+    private List<Pair> pairs = new ArrayList<>();
+
+    @Column(name = "CREATED_AT")
+    private LocalDateTime createdAt;
+
+    public Round() {}
+
+    public Round(Long divisionId, int number, PairingStrategy strategy, List<Pair> pairs) {
+        this.divisionId = divisionId;
+        this.number = number;
+        this.strategy = strategy;
+        this.pairs = new ArrayList<>(pairs);
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDivisionId() {
+        return divisionId;
+    }
+
+    public void setDivisionId(Long divisionId) {
+        this.divisionId = divisionId;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public PairingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(PairingStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public List<Pair> getPairs() {
+        return pairs;
+    }
+
+    public void setPairs(List<Pair> pairs) {
+        this.pairs = pairs;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
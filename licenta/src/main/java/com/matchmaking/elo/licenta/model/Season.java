@@ -0,0 +1,91 @@
+package com.matchmaking.elo.licenta.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a season of a league. A season is open until the league's season is ended.
+ */
+@Entity
+@Table(name = "SEASONS")
+public class Season {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "LEAGUE_ID")
+    private Long leagueId;
+
+    @Column(name = "NUMBER")
+    private int number;
+
+    @Column(name = "START_DATE_TIME")
+    private LocalDateTime startDateTime;
+
+    @Column(name = "END_DATE_TIME")
+    private LocalDateTime endDateTime;
+
+    public Season() {}
+
+    public Season(Long leagueId, int number, LocalDateTime startDateTime) {
+        this.leagueId = leagueId;
+        this.number = number;
+        this.startDateTime = startDateTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getLeagueId() {
+        return leagueId;
+    }
+
+    public void setLeagueId(Long leagueId) {
+        this.leagueId = leagueId;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    public void setStartDateTime(LocalDateTime startDateTime) {
+        this.startDateTime = startDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+
+    public boolean isOpen() {
+        return endDateTime == null;
+    }
+
+    /**
+     * Checks whether a point in time falls within this season.
+     *
+     * @param dateTime the point in time
+     * @return true if the season started at or before the time and had not ended yet
+     */
+    public boolean contains(LocalDateTime dateTime) {
+        return !dateTime.isBefore(startDateTime) && (endDateTime == null || dateTime.isBefore(endDateTime));
+    }
+}
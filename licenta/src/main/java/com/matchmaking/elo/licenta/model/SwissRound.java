@@ -0,0 +1,57 @@
+package com.matchmaking.elo.licenta.model;
+
+import java.util.List;
+
+/**
+ * A Swiss-system round generated for one division within a season.
+ */
+public class SwissRound {
+    private long divisionId;
+    private long seasonId;
+    private int roundNumber;
+    private List<Pair> pairs;
+    private Long byePlayerId;
+    private int rematches;
+    private long elapsedMillis;
+
+    public SwissRound() {}
+
+    public SwissRound(long divisionId, long seasonId, int roundNumber, List<Pair> pairs, Long byePlayerId,
+                      int rematches, long elapsedMillis) {
+        this.divisionId = divisionId;
+        this.seasonId = seasonId;
+        this.roundNumber = roundNumber;
+        this.pairs = pairs;
+        this.byePlayerId = byePlayerId;
+        this.rematches = rematches;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getDivisionId() {
+        return divisionId;
+    }
+
+    public long getSeasonId() {
+        return seasonId;
+    }
+
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+
+    public List<Pair> getPairs() {
+        return pairs;
+    }
+
+    public Long getByePlayerId() {
+        return byePlayerId;
+    }
+
+    public int getRematches() {
+        return rematches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,49 @@
+package com.matchmaking.elo.licenta.model;
+
+/**
+ * A player's Swiss-system score within the current season.
+ * A win is worth one point, a draw half a point and a bye one point.
+ */
+public class SwissStanding {
+    private long userId;
+    private String name;
+    private int eloRating;
+    private double points;
+    private int matchesPlayed;
+    private int byes;
+
+    public SwissStanding() {}
+
+    public SwissStanding(User user, double points, int matchesPlayed, int byes) {
+        this.userId = user.getId();
+        this.name = user.getName();
+        this.eloRating = user.getEloRating();
+        this.points = points;
+        this.matchesPlayed = matchesPlayed;
+        this.byes = byes;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getEloRating() {
+        return eloRating;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    public int getMatchesPlayed() {
+        return matchesPlayed;
+    }
+
+    public int getByes() {
+        return byes;
+    }
+}
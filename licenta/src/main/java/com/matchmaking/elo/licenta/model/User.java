@@ -12,6 +12,8 @@ import java.util.Objects;
 @Table(name = "USERS")
 public class User {
     public static final int DEFAULT_ELO_RATING = 1500;
+    public static final double DEFAULT_RATING_DEVIATION = 350;
+    public static final double DEFAULT_RATING_VOLATILITY = 0.06;
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +28,15 @@ public class User {
     @Column(name = "ELO_RATING")
     private int eloRating;
 
+    @Column(name = "RATING_DEVIATION")
+    private Double ratingDeviation;
+
+    @Column(name = "RATING_VOLATILITY")
+    private Double ratingVolatility;
+
+    @Column(name = "RATING_PERIOD")
+    private Long ratingPeriod;
+
     @Column(name = "LAST_ACTIVE_DATE")
     private LocalDate lastActiveDate;
 
@@ -109,6 +120,33 @@ public class User {
         this.eloRating = eloRating;
     }
 
+    public double getRatingDeviation() {
+        return ratingDeviation != null ? ratingDeviation : DEFAULT_RATING_DEVIATION;
+    }
+
+    public void setRatingDeviation(double ratingDeviation) {
+        this.ratingDeviation = ratingDeviation;
+    }
+
+    public double getRatingVolatility() {
+        return ratingVolatility != null ? ratingVolatility : DEFAULT_RATING_VOLATILITY;
+    }
+
+    public void setRatingVolatility(double ratingVolatility) {
+        this.ratingVolatility = ratingVolatility;
+    }
+
+    /**
+     * The number of the last rating period the user was rated in, or null if they never were.
+     */
+    public Long getRatingPeriod() {
+        return ratingPeriod;
+    }
+
+    public void setRatingPeriod(Long ratingPeriod) {
+        this.ratingPeriod = ratingPeriod;
+    }
+
     public boolean isSignedIn() {
         return signedIn;
     }
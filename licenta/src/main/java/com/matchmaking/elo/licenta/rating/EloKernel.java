@@ -0,0 +1,99 @@
+package com.matchmaking.elo.licenta.rating;
+
+/**
+ * Allocation-free Elo arithmetic on primitive arrays, for replays, simulations and matchmaking loops.
+ * <p>
+ * Ratings are whole numbers, so the expected score only depends on the integer rating difference and is
+ * read from a table computed once, instead of calling {@link Math#pow} for every match. Differences beyond
+ * the table are clamped to its ends, where the expected score is within 10<sup>-10</sup> of 0 or 1.
+ * Results are given as half points: 2 for a win, 1 for a draw and 0 for a loss.
+ * <p>
+ * The results are the same as {@link EloRatingEngine}: new ratings are rounded towards zero and never negative.
+ */
+public final class EloKernel {
+
+    public static final int MAX_DIFFERENCE = 4000;
+
+    private static final double[] EXPECTED = new double[2 * MAX_DIFFERENCE + 1];
+
+    static {
+        for (int d = -MAX_DIFFERENCE; d <= MAX_DIFFERENCE; d++) {
+            EXPECTED[d + MAX_DIFFERENCE] = 1 / (1 + Math.pow(10, -d / 400.0));
+        }
+    }
+
+    private EloKernel() {
+    }
+
+    /**
+     * The expected score of a player against an opponent.
+     */
+    public static double expectedScore(int playerRating, int opponentRating) {
+        int difference = playerRating - opponentRating;
+        if (difference > MAX_DIFFERENCE) {
+            difference = MAX_DIFFERENCE;
+        } else if (difference < -MAX_DIFFERENCE) {
+            difference = -MAX_DIFFERENCE;
+        }
+        return EXPECTED[difference + MAX_DIFFERENCE];
+    }
+
+    /**
+     * The new rating of a player after one game.
+     *
+     * @param rating the player's rating
+     * @param opponentRating the opponent's rating
+     * @param halfPoints the player's result in half points
+     * @param kFactor the K-factor
+     */
+    public static int newRating(int rating, int opponentRating, int halfPoints, int kFactor) {
+        int newRating = (int) (rating + kFactor * (halfPoints * 0.5 - expectedScore(rating, opponentRating)));
+        return Math.max(newRating, 0);
+    }
+
+    /**
+     * Computes the expected scores of independent games.
+     *
+     * @param playerRatings the ratings of the players
+     * @param opponentRatings the ratings of their opponents
+     * @param expected receives the expected score of every player
+     * @param count the number of games
+     */
+    public static void expectedScores(int[] playerRatings, int[] opponentRatings, double[] expected, int count) {
+        for (int i = 0; i < count; i++) {
+            expected[i] = expectedScore(playerRatings[i], opponentRatings[i]);
+        }
+    }
+
+    /**
+     * Rates a sequence of matches in order, updating the ratings in place.
+     * Each match is rated against the ratings left by the previous ones.
+     *
+     * @param ratings the rating of every player, by position
+     * @param player1 the position of player 1 of every match
+     * @param player2 the position of player 2 of every match
+     * @param player1HalfPoints the result of player 1 of every match, in half points
+     * @param player1After receives the rating of player 1 after every match, or null
+     * @param player2After receives the rating of player 2 after every match, or null
+     * @param count the number of matches
+     * @param kFactor the K-factor
+     */
+    public static void rate(int[] ratings, int[] player1, int[] player2, byte[] player1HalfPoints,
+                            int[] player1After, int[] player2After, int count, int kFactor) {
+        for (int i = 0; i < count; i++) {
+            int p1 = player1[i];
+            int p2 = player2[i];
+            int rating1 = ratings[p1];
+            int rating2 = ratings[p2];
+            int halfPoints = player1HalfPoints[i];
+            int new1 = newRating(rating1, rating2, halfPoints, kFactor);
+            int new2 = newRating(rating2, rating1, 2 - halfPoints, kFactor);
+            ratings[p1] = new1;
+            ratings[p2] = new2;
+            if (player1After != null) {
+                player1After[i] = new1;
+                player2After[i] = new2;
+            }
+        }
+    }
+}
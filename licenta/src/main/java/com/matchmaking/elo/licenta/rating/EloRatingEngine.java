@@ -0,0 +1,63 @@
+package com.matchmaking.elo.licenta.rating;
+
+import com.matchmaking.elo.licenta.model.User;
+
+import java.util.List;
+
+/**
+ * The Elo rating system with a fixed K-factor, applied after every match.
+ * Ratings are whole numbers, rounded towards zero, and never negative. The arithmetic is done by
+ * {@link EloKernel}.
+ */
+public class EloRatingEngine implements RatingEngine {
+
+    public static final String NAME = "elo";
+
+    public static final int K_FACTOR = 32;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isPeriodic() {
+        return false;
+    }
+
+    @Override
+    public Rating initialRating() {
+        return new Rating(User.DEFAULT_ELO_RATING);
+    }
+
+    @Override
+    public double expectedScore(Rating player, Rating opponent) {
+        return expectedScore(player.rating(), opponent.rating());
+    }
+
+    @Override
+    public double expectedScore(int playerRating, int opponentRating) {
+        return EloKernel.expectedScore(playerRating, opponentRating);
+    }
+
+    @Override
+    public Rating rate(Rating player, List<GameResult> results) {
+        double change = 0;
+        for (GameResult result : results) {
+            change += K_FACTOR * (result.score() - expectedScore(player.rating(), result.opponent().rating()));
+        }
+        return new Rating(Math.max((int) (player.rating() + change), 0));
+    }
+
+    @Override
+    public int rate(int rating, int opponentRating, double score) {
+        return EloKernel.newRating(rating, opponentRating, (int) (score * 2), K_FACTOR);
+    }
+
+    private static double expectedScore(double playerRating, double opponentRating) {
+        if (playerRating == (int) playerRating && opponentRating == (int) opponentRating) {
+            return EloKernel.expectedScore((int) playerRating, (int) opponentRating);
+        }
+        return 1 / (1 + Math.pow(10, (opponentRating - playerRating) / 400.0));
+    }
+}
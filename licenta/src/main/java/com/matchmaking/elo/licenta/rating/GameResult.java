@@ -0,0 +1,18 @@
+package com.matchmaking.elo.licenta.rating;
+
+/**
+ * The result of one game from a player's point of view: 1 for a win, 0.5 for a draw and 0 for a loss.
+ *
+ * @param opponent the opponent's rating before the game, or before the rating period
+ * @param score the player's result
+ */
+public record GameResult(Rating opponent, double score) {
+
+    public static GameResult of(Rating opponent, int playerScore, int opponentScore) {
+        return new GameResult(opponent, score(playerScore, opponentScore));
+    }
+
+    public static double score(int playerScore, int opponentScore) {
+        return playerScore > opponentScore ? 1 : playerScore < opponentScore ? 0 : 0.5;
+    }
+}
@@ -0,0 +1,153 @@
+package com.matchmaking.elo.licenta.rating;
+
+import com.matchmaking.elo.licenta.model.User;
+
+import java.util.List;
+
+/**
+ * The Glicko-2 rating system (Glickman, "Example of the Glicko-2 system"), applied once per rating period.
+ * Ratings are given on the Elo scale and converted to the Glicko-2 scale internally. The deviation of a
+ * player who does not play grows every period, up to the deviation of a new player.
+ */
+public class Glicko2RatingEngine implements RatingEngine {
+
+    public static final String NAME = "glicko2";
+
+    public static final double DEFAULT_TAU = 0.5;
+
+    private static final double SCALE = 173.7178;
+    private static final double CONVERGENCE = 0.000001;
+
+    private final double tau;
+
+    public Glicko2RatingEngine() {
+        this(DEFAULT_TAU);
+    }
+
+    /**
+     * @param tau the system constant limiting how fast volatility changes, usually between 0.3 and 1.2
+     */
+    public Glicko2RatingEngine(double tau) {
+        if (tau <= 0) {
+            throw new IllegalArgumentException("Tau must be positive: " + tau);
+        }
+        this.tau = tau;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isPeriodic() {
+        return true;
+    }
+
+    @Override
+    public Rating initialRating() {
+        return new Rating(User.DEFAULT_ELO_RATING, User.DEFAULT_RATING_DEVIATION, User.DEFAULT_RATING_VOLATILITY);
+    }
+
+    @Override
+    public double expectedScore(Rating player, Rating opponent) {
+        double phi = Math.sqrt(square(player.deviation()) + square(opponent.deviation())) / SCALE;
+        return expectation(mu(player), mu(opponent), phi);
+    }
+
+    @Override
+    public Rating rate(Rating player, List<GameResult> results) {
+        if (results.isEmpty()) {
+            return idle(player, 1);
+        }
+        double mu = mu(player);
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+
+        double inverseVariance = 0;
+        double improvement = 0;
+        for (GameResult result : results) {
+            double opponentPhi = result.opponent().deviation() / SCALE;
+            double g = g(opponentPhi);
+            double expected = expectation(mu, mu(result.opponent()), opponentPhi);
+            inverseVariance += g * g * expected * (1 - expected);
+            improvement += g * (result.score() - expected);
+        }
+        double variance = 1 / inverseVariance;
+        double delta = variance * improvement;
+
+        double newSigma = volatility(phi, sigma, variance, delta);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / variance);
+        double newMu = mu + newPhi * newPhi * improvement;
+        return new Rating(newMu * SCALE + User.DEFAULT_ELO_RATING, newPhi * SCALE, newSigma);
+    }
+
+    @Override
+    public Rating idle(Rating player, long periods) {
+        if (periods <= 0) {
+            return player;
+        }
+        double deviation = Math.sqrt(square(player.deviation()) + periods * square(player.volatility() * SCALE));
+        return new Rating(player.rating(), Math.min(deviation, User.DEFAULT_RATING_DEVIATION), player.volatility());
+    }
+
+    /**
+     * Finds the new volatility with the Illinois algorithm (step 5 of the paper).
+     */
+    private double volatility(double phi, double sigma, double variance, double delta) {
+        double a = Math.log(sigma * sigma);
+        double deltaSquared = delta * delta;
+        double phiSquared = phi * phi;
+
+        double upper;
+        if (deltaSquared > phiSquared + variance) {
+            upper = Math.log(deltaSquared - phiSquared - variance);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, a, deltaSquared, phiSquared, variance) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+        double lower = a;
+        double fLower = f(lower, a, deltaSquared, phiSquared, variance);
+        double fUpper = f(upper, a, deltaSquared, phiSquared, variance);
+
+        while (Math.abs(upper - lower) > CONVERGENCE) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fC = f(c, a, deltaSquared, phiSquared, variance);
+            if (fC * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower /= 2;
+            }
+            upper = c;
+            fUpper = fC;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private double f(double x, double a, double deltaSquared, double phiSquared, double variance) {
+        double ex = Math.exp(x);
+        double denominator = phiSquared + variance + ex;
+        return ex * (deltaSquared - phiSquared - variance - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+
+    private static double mu(Rating rating) {
+        return (rating.rating() - User.DEFAULT_ELO_RATING) / SCALE;
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double expectation(double mu, double opponentMu, double opponentPhi) {
+        return 1 / (1 + Math.exp(-g(opponentPhi) * (mu - opponentMu)));
+    }
+
+    private static double square(double x) {
+        return x * x;
+    }
+}
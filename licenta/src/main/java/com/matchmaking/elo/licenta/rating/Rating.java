@@ -0,0 +1,12 @@
+package com.matchmaking.elo.licenta.rating;
+
+/**
+ * A player's rating together with its deviation and volatility.
+ * Engines without uncertainty, such as Elo, leave the deviation and volatility at zero.
+ */
+public record Rating(double rating, double deviation, double volatility) {
+
+    public Rating(double rating) {
+        this(rating, 0, 0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.matchmaking.elo.licenta.rating;
+
+import java.util.List;
+
+/**
+ * A rating system. An engine rates a player from the results of a group of games played against
+ * opponents whose ratings are taken from before those games.
+ * <p>
+ * Per-match engines are given one game at a time, as soon as it is recorded. Periodic engines are given
+ * all the games a player played in a rating period at once, when the period is closed, and ratings do not
+ * change between periods.
+ */
+public interface RatingEngine {
+
+    String getName();
+
+    /**
+     * Whether ratings change once per rating period instead of after every match.
+     */
+    boolean isPeriodic();
+
+    Rating initialRating();
+
+    /**
+     * The expected score of the player against the opponent, between 0 and 1.
+     */
+    double expectedScore(Rating player, Rating opponent);
+
+    /**
+     * Rates a player from a group of games.
+     *
+     * @param player the player's rating before the games
+     * @param results the games, against the opponents' ratings from before the games
+     * @return the player's new rating
+     */
+    Rating rate(Rating player, List<GameResult> results);
+
+    /**
+     * The expected score between two whole-number ratings without deviations.
+     */
+    default double expectedScore(int playerRating, int opponentRating) {
+        return expectedScore(new Rating(playerRating), new Rating(opponentRating));
+    }
+
+    /**
+     * Rates a player with a whole-number rating from one game, rounding the new rating.
+     *
+     * @param rating the player's rating before the game
+     * @param opponentRating the opponent's rating before the game
+     * @param score the player's result
+     */
+    default int rate(int rating, int opponentRating, double score) {
+        return (int) Math.round(rate(new Rating(rating), List.of(new GameResult(new Rating(opponentRating), score))).rating());
+    }
+
+    /**
+     * Ages the rating of a player who did not play for a number of rating periods.
+     */
+    default Rating idle(Rating player, long periods) {
+        return player;
+    }
+}
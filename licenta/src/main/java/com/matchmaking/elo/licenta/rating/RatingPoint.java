@@ -0,0 +1,7 @@
+package com.matchmaking.elo.licenta.rating;
+
+/**
+ * A player's rating after a match, at the time of the match in seconds since the epoch.
+ */
+public record RatingPoint(long time, int rating) {
+}
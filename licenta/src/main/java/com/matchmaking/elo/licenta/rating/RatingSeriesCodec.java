@@ -0,0 +1,79 @@
+package com.matchmaking.elo.licenta.rating;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact encoding of a player's rating history.
+ * <p>
+ * A series starts from a first point kept outside the encoded data. Every following point is stored as the
+ * difference in time and in rating from the previous one, each as a zigzag varint, so a typical point takes
+ * three to five bytes instead of a whole match. Differences can be negative, e.g. for matches recorded with
+ * an earlier date.
+ */
+public final class RatingSeriesCodec {
+
+    private RatingSeriesCodec() {
+    }
+
+    /**
+     * Encodes the point after {@code previous}.
+     */
+    public static void write(ByteArrayOutputStream out, RatingPoint previous, RatingPoint point) {
+        writeVarLong(out, zigzag(point.time() - previous.time()));
+        writeVarLong(out, zigzag(point.rating() - previous.rating()));
+    }
+
+    /**
+     * Decodes a series.
+     *
+     * @param first the first point
+     * @param data the encoded points after the first one
+     * @return all points, starting with the first one
+     */
+    public static List<RatingPoint> read(RatingPoint first, byte[] data) {
+        List<RatingPoint> points = new ArrayList<>(data.length / 3 + 1);
+        points.add(first);
+        long time = first.time();
+        long rating = first.rating();
+        int[] position = {0};
+        while (position[0] < data.length) {
+            time += unzigzag(readVarLong(data, position));
+            rating += unzigzag(readVarLong(data, position));
+            points.add(new RatingPoint(time, (int) rating));
+        }
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated rating series");
+            }
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing the progress of file imports.
+ */
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    Optional<ImportJob> findByFileName(String fileName);
+}
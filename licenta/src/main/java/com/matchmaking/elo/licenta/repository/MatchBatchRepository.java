@@ -0,0 +1,32 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.Match;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Batched access to matches, added to {@link MatchRepository}.
+ */
+public interface MatchBatchRepository {
+    void insertAll(List<Match> matches);
+
+    void updateRatings(List<Match> matches);
+
+    int assignRatingPeriod(long number);
+
+    Map<Long, Match> findLastMatches(Collection<Long> userIds, LocalDateTime dateTime);
+
+    void lockForRewrite();
+
+    void lockForInsert();
+
+    long forEachMatchBetween(LocalDateTime start, LocalDateTime end, Consumer<Match> action);
+
+    long forEachMatch(Long leagueId, LocalDateTime start, LocalDateTime end, Consumer<Match> action);
+
+    int deleteBetween(LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,270 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.Match;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * JDBC implementation of {@link MatchBatchRepository}.
+ * Match IDs come from an identity column, which keeps Hibernate from batching inserts, so the IDs of
+ * a whole batch are reserved from the column's sequence in one query and the rows are inserted with
+ * JDBC batches. Runs in the caller's transaction.
+ */
+public class MatchBatchRepositoryImpl implements MatchBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String insertSql;
+    private final String updateRatingsSql;
+    private final String lastMatchesSql;
+    private final String selectSql;
+    private final String leagueSql;
+
+    public MatchBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema.isEmpty() ? "MATCHES" : schema + ".MATCHES";
+        this.insertSql = "insert into " + table + " (ID, PLAYER_1_ID, PLAYER_2_ID, PLAYER_1_ELO_AT_MATCH_TIME, " +
+                "PLAYER_2_ELO_AT_MATCH_TIME, PLAYER_1_SCORE, PLAYER_2_SCORE, WINNER_ID, LOSER_ID, " +
+                "PLAYER_1_ELO_AFTER_MATCH, PLAYER_2_ELO_AFTER_MATCH, MATCH_DATE_TIME, RATING_PERIOD, " +
+                "PLAYER_1_SEASON_ID, PLAYER_2_SEASON_ID) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        this.updateRatingsSql = "update " + table + " set PLAYER_1_ELO_AT_MATCH_TIME = ?, PLAYER_2_ELO_AT_MATCH_TIME = ?, " +
+                "PLAYER_1_ELO_AFTER_MATCH = ?, PLAYER_2_ELO_AFTER_MATCH = ?, WINNER_ID = ?, LOSER_ID = ? where ID = ?";
+        String columns = "m.ID, m.PLAYER_1_ID, m.PLAYER_2_ID, m.PLAYER_1_ELO_AFTER_MATCH, m.PLAYER_2_ELO_AFTER_MATCH, m.MATCH_DATE_TIME";
+        this.lastMatchesSql = "select u.ID, c.ID, c.PLAYER_1_ID, c.PLAYER_2_ID, c.PLAYER_1_ELO_AFTER_MATCH, " +
+                "c.PLAYER_2_ELO_AFTER_MATCH, c.MATCH_DATE_TIME from " +
+                (schema.isEmpty() ? "USERS" : schema + ".USERS") + " u cross join lateral (" +
+                "select * from ((select " + columns + " from " + table + " m where m.PLAYER_1_ID = u.ID " +
+                "and m.MATCH_DATE_TIME <= ? order by m.MATCH_DATE_TIME desc, m.ID desc limit 1) union all " +
+                "(select " + columns + " from " + table + " m where m.PLAYER_2_ID = u.ID " +
+                "and m.MATCH_DATE_TIME <= ? order by m.MATCH_DATE_TIME desc, m.ID desc limit 1)) l " +
+                "order by l.MATCH_DATE_TIME desc, l.ID desc limit 1) c where u.ID in (%s)";
+        this.selectSql = "select ID, PLAYER_1_ID, PLAYER_2_ID, PLAYER_1_ELO_AT_MATCH_TIME, PLAYER_2_ELO_AT_MATCH_TIME, " +
+                "PLAYER_1_SCORE, PLAYER_2_SCORE, WINNER_ID, LOSER_ID, PLAYER_1_ELO_AFTER_MATCH, PLAYER_2_ELO_AFTER_MATCH, " +
+                "MATCH_DATE_TIME from " + table + " where true";
+        String leaguePlayers = "(select ID from " + (schema.isEmpty() ? "USERS" : schema + ".USERS") + " where LEAGUE_ID = ?)";
+        this.leagueSql = " and (PLAYER_1_ID in " + leaguePlayers + " or PLAYER_2_ID in " + leaguePlayers + ")";
+    }
+
+    /**
+     * Inserts matches in batches and assigns their IDs.
+     *
+     * @param matches the new matches
+     */
+    @Override
+    public void insertAll(List<Match> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select nextval(pg_get_serial_sequence(?, 'id')) from generate_series(1, ?)",
+                Long.class, table, matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            matches.get(i).setId(ids.get(i));
+        }
+
+        jdbcTemplate.batchUpdate(insertSql, matches, BATCH_SIZE, (ps, match) -> {
+            ps.setLong(1, match.getId());
+            ps.setLong(2, match.getPlayer1Id());
+            ps.setLong(3, match.getPlayer2Id());
+            ps.setInt(4, match.getPlayer1EloAtMatchTime());
+            ps.setInt(5, match.getPlayer2EloAtMatchTime());
+            ps.setInt(6, match.getPlayer1Score());
+            ps.setInt(7, match.getPlayer2Score());
+            ps.setObject(8, match.getWinnerId(), Types.BIGINT);
+            ps.setObject(9, match.getLoserId(), Types.BIGINT);
+            ps.setInt(10, match.getPlayer1EloAfterMatch());
+            ps.setInt(11, match.getPlayer2EloAfterMatch());
+            ps.setTimestamp(12, Timestamp.valueOf(match.getMatchDateTime()));
+            ps.setObject(13, match.getRatingPeriod(), Types.BIGINT);
+            ps.setObject(14, match.getPlayer1SeasonId(), Types.BIGINT);
+            ps.setObject(15, match.getPlayer2SeasonId(), Types.BIGINT);
+        });
+    }
+
+    /**
+     * Rewrites the ratings and the winner and loser of existing matches in batches.
+     *
+     * @param matches the rated matches
+     */
+    @Override
+    public void updateRatings(List<Match> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(updateRatingsSql, matches, BATCH_SIZE, (ps, match) -> {
+            ps.setInt(1, match.getPlayer1EloAtMatchTime());
+            ps.setInt(2, match.getPlayer2EloAtMatchTime());
+            ps.setInt(3, match.getPlayer1EloAfterMatch());
+            ps.setInt(4, match.getPlayer2EloAfterMatch());
+            ps.setObject(5, match.getWinnerId(), Types.BIGINT);
+            ps.setObject(6, match.getLoserId(), Types.BIGINT);
+            ps.setLong(7, match.getId());
+        });
+    }
+
+    /**
+     * Assigns every committed match that no rating period rated yet to the given period. Matches committed
+     * later are left for the next period, whatever their IDs.
+     *
+     * @param number the number of the period
+     * @return the number of matches assigned
+     */
+    @Override
+    public int assignRatingPeriod(long number) {
+        return jdbcTemplate.update("update " + table + " set RATING_PERIOD = ? where RATING_PERIOD is null", number);
+    }
+
+    /**
+     * Finds the last match of each player up to a date, in play order. Each player costs one lookup in each
+     * of the two player history indexes.
+     *
+     * @param userIds the IDs of the players
+     * @param dateTime the date, inclusive
+     * @return the last match of every player who played by then, by player ID, with only the players,
+     * ratings after the match and date set
+     */
+    @Override
+    public Map<Long, Match> findLastMatches(Collection<Long> userIds, LocalDateTime dateTime) {
+        Map<Long, Match> lastMatches = new HashMap<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        Timestamp at = Timestamp.valueOf(dateTime);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(at);
+            args.add(at);
+            args.addAll(chunk);
+            String sql = String.format(lastMatchesSql, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                Match match = new Match(rs.getLong(3), rs.getLong(4));
+                match.setId(rs.getLong(2));
+                match.setPlayer1EloAfterMatch(rs.getInt(5));
+                match.setPlayer2EloAfterMatch(rs.getInt(6));
+                match.setMatchDateTime(rs.getTimestamp(7).toLocalDateTime());
+                lastMatches.put(rs.getLong(1), match);
+            }, args.toArray());
+        }
+        return lastMatches;
+    }
+
+    /**
+     * Locks the MATCHES table against writes by other transactions, and against other archives, rating
+     * corrections and checkpoints, until the end of the transaction. Reads are not blocked. Must be taken
+     * before the transaction writes a match: the lock conflicts with the one that writes hold, so taking it
+     * afterwards deadlocks with another transaction doing the same.
+     */
+    @Override
+    public void lockForRewrite() {
+        jdbcTemplate.execute("lock table " + table + " in share row exclusive mode");
+    }
+
+    /**
+     * Takes the lock that inserting matches needs anyway, up front. Writers that also lock players must take
+     * it before the player rows: rewrites take {@link #lockForRewrite()} first and the players afterwards,
+     * so a writer that locked players first and then waited for the table could deadlock with them. Other
+     * inserts are not blocked.
+     */
+    @Override
+    public void lockForInsert() {
+        jdbcTemplate.execute("lock table " + table + " in row exclusive mode");
+    }
+
+    /**
+     * Reads the matches played in a date range in play order, with a cursor, without keeping them.
+     * Must run in a transaction for the cursor to be used.
+     *
+     * @param start the start of the range, inclusive
+     * @param end the end of the range, exclusive
+     * @param action called with every match
+     * @return the number of matches read
+     */
+    @Override
+    public long forEachMatchBetween(LocalDateTime start, LocalDateTime end, Consumer<Match> action) {
+        return forEachMatch(null, start, end, action);
+    }
+
+    /**
+     * Reads the matches of a league played in a date range in play order, with a cursor, without keeping them.
+     * A match belongs to a league if either player is in it. Must run in a transaction for the cursor to be used.
+     *
+     * @param leagueId the ID of the league, or null for all leagues
+     * @param start the start of the range, inclusive, or null for no start
+     * @param end the end of the range, exclusive, or null for no end
+     * @param action called with every match
+     * @return the number of matches read
+     */
+    @Override
+    public long forEachMatch(Long leagueId, LocalDateTime start, LocalDateTime end, Consumer<Match> action) {
+        StringBuilder sql = new StringBuilder(selectSql);
+        List<Object> args = new ArrayList<>();
+        if (start != null) {
+            sql.append(" and MATCH_DATE_TIME >= ?");
+            args.add(Timestamp.valueOf(start));
+        }
+        if (end != null) {
+            sql.append(" and MATCH_DATE_TIME < ?");
+            args.add(Timestamp.valueOf(end));
+        }
+        if (leagueId != null) {
+            sql.append(leagueSql);
+            args.add(leagueId);
+            args.add(leagueId);
+        }
+        sql.append(" order by MATCH_DATE_TIME, ID");
+
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            action.accept(mapMatch(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Deletes the matches played in a date range.
+     *
+     * @param start the start of the range, inclusive
+     * @param end the end of the range, exclusive
+     * @return the number of matches deleted
+     */
+    @Override
+    public int deleteBetween(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.update("delete from " + table + " where MATCH_DATE_TIME >= ? and MATCH_DATE_TIME < ?",
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private static Match mapMatch(ResultSet rs) throws SQLException {
+        Match match = new Match(rs.getLong(2), rs.getLong(3));
+        match.setId(rs.getLong(1));
+        match.setPlayer1EloAtMatchTime(rs.getInt(4));
+        match.setPlayer2EloAtMatchTime(rs.getInt(5));
+        match.setPlayer1Score(rs.getInt(6));
+        match.setPlayer2Score(rs.getInt(7));
+        match.setWinnerId(rs.getObject(8, Long.class));
+        match.setLoserId(rs.getObject(9, Long.class));
+        match.setPlayer1EloAfterMatch(rs.getInt(10));
+        match.setPlayer2EloAfterMatch(rs.getInt(11));
+        match.setMatchDateTime(rs.getTimestamp(12).toLocalDateTime());
+        return match;
+    }
+}
@@ -0,0 +1,27 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.MatchPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing archived match partitions.
+ */
+@Repository
+public interface MatchPartitionRepository extends JpaRepository<MatchPartition, Long> {
+    List<MatchPartition> findAllByOrderByStartDateTime();
+
+    Optional<MatchPartition> findFirstByOrderByEndDateTimeDesc();
+
+    List<MatchPartition> findByStartDateTimeLessThanAndEndDateTimeGreaterThanOrderByStartDateTime(LocalDateTime to,
+                                                                                                 LocalDateTime from);
+
+    @Query("select coalesce(max(p.lastMatchId), 0) from MatchPartition p where p.archivedAt > :since")
+    long findLastMatchIdArchivedAfter(@Param("since") LocalDateTime since);
+}
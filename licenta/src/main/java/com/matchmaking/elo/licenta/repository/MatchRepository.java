@@ -1,20 +1,94 @@
 package com.matchmaking.elo.licenta.repository;
 
 import com.matchmaking.elo.licenta.model.Match;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for accessing match data.
  */
 @Repository
-public interface MatchRepository extends JpaRepository<Match, Long> {
+public interface MatchRepository extends JpaRepository<Match, Long>, MatchBatchRepository {
     Long countByWinnerId(Long userId);
     Long countByPlayer1IdAndPlayer2Id(Long user1Id, Long user2Id);
 
     Long countByLoserId(Long userId);
 
+    @Query("select m.player1Id, m.player2Id, count(m) from Match m group by m.player1Id, m.player2Id")
+    List<Object[]> countMatchesGroupedByPlayers();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.player1Id, m.player2Id, m.winnerId from Match m order by m.id")
+    Stream<Object[]> streamResultsOrderById();
+
+    List<Match> findTop5ByPlayer1IdOrPlayer2IdOrderByIdDesc(Long player1Id, Long player2Id);
+
+    @Query("select m from Match m where m.player1Id = :userId and m.matchDateTime < :to " +
+            "and m.matchDateTime >= :afterDateTime " +
+            "and (m.matchDateTime > :afterDateTime or m.id > :afterId) " +
+            "order by m.matchDateTime, m.id")
+    List<Match> findPlayer1HistoryPage(@Param("userId") Long userId, @Param("afterDateTime") LocalDateTime afterDateTime,
+                                       @Param("afterId") long afterId, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @Query("select m from Match m where m.player2Id = :userId and m.matchDateTime < :to " +
+            "and m.matchDateTime >= :afterDateTime " +
+            "and (m.matchDateTime > :afterDateTime or m.id > :afterId) " +
+            "order by m.matchDateTime, m.id")
+    List<Match> findPlayer2HistoryPage(@Param("userId") Long userId, @Param("afterDateTime") LocalDateTime afterDateTime,
+                                       @Param("afterId") long afterId, @Param("to") LocalDateTime to, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.id, m.player1Id, m.player2Id, m.player1Score, m.player2Score from Match m " +
+            "where m.matchDateTime >= :since order by m.id")
+    Stream<Object[]> streamScoresPlayedSince(@Param("since") LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.id, m.player1Id, m.player2Id, m.player1Score, m.player2Score from Match m " +
+            "where m.ratingPeriod = :number order by m.id")
+    Stream<Object[]> streamScoresInPeriod(@Param("number") long number);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.id, m.player1Id, m.player2Id, m.player1Score, m.player2Score, " +
+            "m.player1EloAtMatchTime, m.player2EloAtMatchTime, m.player1EloAfterMatch, m.player2EloAfterMatch, " +
+            "m.matchDateTime from Match m where m.id > :afterId order by m.matchDateTime, m.id")
+    Stream<Object[]> streamRatingsInPlayOrderAfter(@Param("afterId") long afterId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.player1Id, m.player2Id, m.player1EloAfterMatch, m.player2EloAfterMatch, m.matchDateTime " +
+            "from Match m where m.player1Id in :userIds or m.player2Id in :userIds order by m.matchDateTime, m.id")
+    Stream<Object[]> streamRatingHistories(@Param("userIds") Collection<Long> userIds);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "10000"))
+    @Query("select m.player1Id, m.player2Id, m.player1EloAfterMatch, m.player2EloAfterMatch, m.matchDateTime " +
+            "from Match m order by m.matchDateTime, m.id")
+    Stream<Object[]> streamRatingHistories();
+
+    @Query("select min(m.matchDateTime) from Match m")
+    LocalDateTime findFirstMatchDateTime();
+
+    @Query("select coalesce(max(m.id), 0) from Match m")
+    long findLastMatchId();
+
+    long countByIdGreaterThan(long id);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "10000"))
+    @Query("select m.player1Id, m.player2Id from Match m")
+    Stream<Object[]> streamPlayers();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "10000"))
+    @Query("select m.id, m.player1Id, m.player2Id, m.player1Score, m.player2Score from Match m " +
+            "order by m.matchDateTime, m.id")
+    Stream<Object[]> streamScoresInPlayOrder();
+
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.PlayerResults;
+
+import java.util.Collection;
+
+/**
+ * Batched writes of player results, added to {@link PlayerResultsRepository}.
+ */
+public interface PlayerResultsBatchRepository {
+    void addResults(Collection<PlayerResults> changes);
+
+    int rebuildAll();
+}
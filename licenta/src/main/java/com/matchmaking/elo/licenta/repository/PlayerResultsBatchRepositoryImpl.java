@@ -0,0 +1,92 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+
+/**
+ * JDBC implementation of {@link PlayerResultsBatchRepository}. Runs in the caller's transaction.
+ */
+public class PlayerResultsBatchRepositoryImpl implements PlayerResultsBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String matches;
+    private final String users;
+    private final String seasons;
+    private final String upsertSql;
+
+    public PlayerResultsBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                            @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        this.table = prefix + "PLAYER_RESULTS";
+        this.matches = prefix + "MATCHES";
+        this.users = prefix + "USERS";
+        this.seasons = prefix + "SEASONS";
+        this.upsertSql = "insert into " + table + " as r (USER_ID, SEASON_ID, WINS, LOSSES, DRAWS) values (?, ?, ?, ?, ?) " +
+                "on conflict (USER_ID, SEASON_ID) do update set WINS = r.WINS + excluded.WINS, " +
+                "LOSSES = r.LOSSES + excluded.LOSSES, DRAWS = r.DRAWS + excluded.DRAWS";
+    }
+
+    /**
+     * Adds changes to the counts of players, creating their rows if needed. Counts can be negative,
+     * e.g. for deleted matches. Concurrent changes to the same row are applied one after the other.
+     *
+     * @param changes the changes, at most one per player and season
+     */
+    @Override
+    public void addResults(Collection<PlayerResults> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(upsertSql, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setLong(1, change.getUserId());
+            ps.setLong(2, change.getSeasonId());
+            ps.setLong(3, change.getWins());
+            ps.setLong(4, change.getLosses());
+            ps.setLong(5, change.getDraws());
+        });
+    }
+
+    /**
+     * Recounts all results from the MATCHES table with set-based queries. Draws are counted from the
+     * scores. A result counts towards the season stored on the match; matches without one are first given
+     * the season of the player's league that contains their date, if there is one.
+     *
+     * @return the number of rows written
+     */
+    @Override
+    public int rebuildAll() {
+        for (int player = 1; player <= 2; player++) {
+            jdbcTemplate.update("update " + matches + " m set PLAYER_" + player + "_SEASON_ID = (" +
+                    "select s.ID from " + users + " u " +
+                    "join " + seasons + " s on s.LEAGUE_ID = u.LEAGUE_ID and m.MATCH_DATE_TIME >= s.START_DATE_TIME " +
+                    "and (s.END_DATE_TIME is null or m.MATCH_DATE_TIME < s.END_DATE_TIME) " +
+                    "where u.ID = m.PLAYER_" + player + "_ID order by s.START_DATE_TIME desc limit 1) " +
+                    "where m.PLAYER_" + player + "_SEASON_ID is null");
+        }
+        String results = "select m.PLAYER_1_ID as USER_ID, m.PLAYER_1_SEASON_ID as SEASON_ID, " +
+                "case when m.PLAYER_1_SCORE > m.PLAYER_2_SCORE then 1 else 0 end as WON, " +
+                "case when m.PLAYER_1_SCORE < m.PLAYER_2_SCORE then 1 else 0 end as LOST, " +
+                "case when m.PLAYER_1_SCORE = m.PLAYER_2_SCORE then 1 else 0 end as DREW from " + matches + " m " +
+                "union all " +
+                "select m.PLAYER_2_ID, m.PLAYER_2_SEASON_ID, " +
+                "case when m.PLAYER_2_SCORE > m.PLAYER_1_SCORE then 1 else 0 end, " +
+                "case when m.PLAYER_2_SCORE < m.PLAYER_1_SCORE then 1 else 0 end, " +
+                "case when m.PLAYER_2_SCORE = m.PLAYER_1_SCORE then 1 else 0 end from " + matches + " m";
+
+        jdbcTemplate.update("delete from " + table);
+        int rows = jdbcTemplate.update("insert into " + table + " (USER_ID, SEASON_ID, WINS, LOSSES, DRAWS) " +
+                "select t.USER_ID, " + PlayerResults.ALL_TIME + ", sum(t.WON), sum(t.LOST), sum(t.DREW) " +
+                "from (" + results + ") t group by t.USER_ID");
+        rows += jdbcTemplate.update("insert into " + table + " (USER_ID, SEASON_ID, WINS, LOSSES, DRAWS) " +
+                "select t.USER_ID, t.SEASON_ID, sum(t.WON), sum(t.LOST), sum(t.DREW) " +
+                "from (" + results + ") t where t.SEASON_ID is not null group by t.USER_ID, t.SEASON_ID");
+        return rows;
+    }
+}
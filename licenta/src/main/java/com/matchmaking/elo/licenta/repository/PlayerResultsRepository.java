@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing player results.
+ */
+@Repository
+public interface PlayerResultsRepository extends JpaRepository<PlayerResults, Long>, PlayerResultsBatchRepository {
+    Optional<PlayerResults> findByUserIdAndSeasonId(long userId, long seasonId);
+}
@@ -0,0 +1,20 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk access to the entries of rating checkpoints, added to {@link RatingCheckpointRepository}.
+ */
+public interface RatingCheckpointBatchRepository {
+    int copyRatings(long checkpointId);
+
+    List<User> findRatings(long checkpointId, Collection<Long> userIds);
+
+    void deleteOldCheckpoints(int keepLatest, LocalDateTime keepDailySince);
+
+    void deleteAllCheckpoints();
+}
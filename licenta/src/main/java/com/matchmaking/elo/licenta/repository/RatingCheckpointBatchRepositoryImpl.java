@@ -0,0 +1,102 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RatingCheckpointBatchRepository}. Runs in the caller's transaction.
+ */
+public class RatingCheckpointBatchRepositoryImpl implements RatingCheckpointBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String checkpoints;
+    private final String entries;
+    private final String users;
+
+    public RatingCheckpointBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                               @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        String prefix = schema.isEmpty() ? "" : schema + ".";
+        this.checkpoints = prefix + "RATING_CHECKPOINTS";
+        this.entries = prefix + "RATING_CHECKPOINT_ENTRIES";
+        this.users = prefix + "USERS";
+    }
+
+    /**
+     * Copies the current rating and match counter of every user into a checkpoint with one query.
+     *
+     * @param checkpointId the ID of the checkpoint
+     * @return the number of users copied
+     */
+    @Override
+    public int copyRatings(long checkpointId) {
+        return jdbcTemplate.update("insert into " + entries + " (CHECKPOINT_ID, USER_ID, ELO_RATING, MATCH_COUNTER) " +
+                "select ?, ID, ELO_RATING, MATCH_COUNTER from " + users, checkpointId);
+    }
+
+    /**
+     * Reads the ratings of some players from a checkpoint.
+     *
+     * @param checkpointId the ID of the checkpoint
+     * @param userIds the IDs of the players
+     * @return the players found in the checkpoint, with only their ID, rating and match counter set
+     */
+    @Override
+    public List<User> findRatings(long checkpointId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        List<User> found = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = checkpointId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            found.addAll(jdbcTemplate.query("select USER_ID, ELO_RATING, MATCH_COUNTER from " + entries +
+                    " where CHECKPOINT_ID = ? and USER_ID in (" + placeholders + ")", (rs, row) -> {
+                User user = new User(rs.getLong(1), rs.getInt(2));
+                user.setMatchCounter(rs.getLong(3));
+                return user;
+            }, args));
+        }
+        return found;
+    }
+
+    /**
+     * Deletes the checkpoints that are neither among the latest ones nor recent daily ones, with their entries.
+     *
+     * @param keepLatest the number of latest checkpoints to keep
+     * @param keepDailySince the creation time from which daily checkpoints are kept
+     */
+    @Override
+    public void deleteOldCheckpoints(int keepLatest, LocalDateTime keepDailySince) {
+        String old = "select ID from " + checkpoints + " where ID not in (select ID from " + checkpoints +
+                " order by LAST_MATCH_ID desc, ID desc limit ?) and not (DAILY and CREATED_AT >= ?)";
+        Timestamp since = Timestamp.valueOf(keepDailySince);
+        jdbcTemplate.update("delete from " + entries + " where CHECKPOINT_ID in (" + old + ")", keepLatest, since);
+        jdbcTemplate.update("delete from " + checkpoints + " where ID in (" + old + ")", keepLatest, since);
+    }
+
+    /**
+     * Deletes all checkpoints with their entries.
+     */
+    @Override
+    public void deleteAllCheckpoints() {
+        jdbcTemplate.update("delete from " + entries);
+        jdbcTemplate.update("delete from " + checkpoints);
+    }
+}
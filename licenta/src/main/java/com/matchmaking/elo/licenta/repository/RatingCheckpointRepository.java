@@ -0,0 +1,20 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing rating checkpoints.
+ */
+@Repository
+public interface RatingCheckpointRepository extends JpaRepository<RatingCheckpoint, Long>, RatingCheckpointBatchRepository {
+    Optional<RatingCheckpoint> findFirstByOrderByLastMatchIdDescIdDesc();
+
+    Optional<RatingCheckpoint> findFirstByLastMatchIdLessThanOrderByLastMatchIdDescIdDesc(long matchId);
+
+    Optional<RatingCheckpoint> findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(LocalDateTime dateTime);
+}
@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.RatingPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing rating periods.
+ */
+@Repository
+public interface RatingPeriodRepository extends JpaRepository<RatingPeriod, Long> {
+    Optional<RatingPeriod> findFirstByOrderByNumberDesc();
+}
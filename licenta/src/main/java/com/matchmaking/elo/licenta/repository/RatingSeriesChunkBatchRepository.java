@@ -0,0 +1,12 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.RatingSeriesChunk;
+
+import java.util.List;
+
+/**
+ * Batched writes of rating history chunks, added to {@link RatingSeriesChunkRepository}.
+ */
+public interface RatingSeriesChunkBatchRepository {
+    void insertAll(List<RatingSeriesChunk> chunks);
+}
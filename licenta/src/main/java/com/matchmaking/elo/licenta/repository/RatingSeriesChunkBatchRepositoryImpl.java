@@ -0,0 +1,50 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.RatingSeriesChunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link RatingSeriesChunkBatchRepository}. Runs in the caller's transaction.
+ * The chunks are not kept by the persistence context, so a rebuild of every history can write them as it goes.
+ */
+public class RatingSeriesChunkBatchRepositoryImpl implements RatingSeriesChunkBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    public RatingSeriesChunkBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                                @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        String table = schema.isEmpty() ? "RATING_SERIES_CHUNKS" : schema + ".RATING_SERIES_CHUNKS";
+        this.insertSql = "insert into " + table + " (USER_ID, FIRST_TIME, FIRST_RATING, LAST_TIME, LAST_RATING, " +
+                "POINT_COUNT, DATA) values (?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    /**
+     * Inserts new chunks in batches, in list order, so the chunks of a player get increasing IDs in the order
+     * they are given. Their IDs are not read back.
+     *
+     * @param chunks the new chunks
+     */
+    @Override
+    public void insertAll(List<RatingSeriesChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(insertSql, chunks, BATCH_SIZE, (ps, chunk) -> {
+            ps.setLong(1, chunk.getUserId());
+            ps.setTimestamp(2, Timestamp.valueOf(chunk.getFirstTime()));
+            ps.setInt(3, chunk.getFirstRating());
+            ps.setTimestamp(4, Timestamp.valueOf(chunk.getLastTime()));
+            ps.setInt(5, chunk.getLastRating());
+            ps.setInt(6, chunk.getPointCount());
+            ps.setBytes(7, chunk.getData());
+        });
+    }
+}
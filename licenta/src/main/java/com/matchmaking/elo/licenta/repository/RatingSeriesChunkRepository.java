@@ -0,0 +1,33 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.RatingSeriesChunk;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for accessing the rating histories of players.
+ */
+@Repository
+public interface RatingSeriesChunkRepository extends JpaRepository<RatingSeriesChunk, Long>,
+        RatingSeriesChunkBatchRepository {
+    List<RatingSeriesChunk> findByUserIdOrderById(long userId);
+
+    List<RatingSeriesChunk> findByUserIdInOrderById(Collection<Long> userIds);
+
+    void deleteByUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Reads the last chunk of each player and locks it until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from RatingSeriesChunk c where c.userId in :userIds and c.id = " +
+            "(select max(l.id) from RatingSeriesChunk l where l.userId = c.userId) order by c.userId")
+    List<RatingSeriesChunk> findLastChunksForUpdate(@Param("userIds") Collection<Long> userIds);
+}
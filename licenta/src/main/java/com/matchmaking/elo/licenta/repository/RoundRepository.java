@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.Round;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing round data.
+ */
+@Repository
+public interface RoundRepository extends JpaRepository<Round, Long> {
+    Optional<Round> findFirstByDivisionIdOrderByNumberDesc(Long divisionId);
+}
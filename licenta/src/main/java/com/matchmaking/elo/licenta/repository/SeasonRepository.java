@@ -0,0 +1,28 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.Season;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for accessing season data.
+ */
+@Repository
+public interface SeasonRepository extends JpaRepository<Season, Long> {
+    Optional<Season> findFirstByLeagueIdAndEndDateTimeIsNullOrderByNumberDesc(Long leagueId);
+
+    Optional<Season> findFirstByLeagueIdOrderByNumberDesc(Long leagueId);
+
+    List<Season> findByLeagueIdOrderByNumberAsc(Long leagueId);
+
+    Optional<Season> findFirstByLeagueIdAndStartDateTimeLessThanEqualOrderByStartDateTimeDesc(Long leagueId,
+                                                                                            LocalDateTime dateTime);
+
+    @Query("select min(s.startDateTime) from Season s where s.endDateTime is null")
+    LocalDateTime findEarliestOpenSeasonStart();
+}
@@ -0,0 +1,27 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Batched access to users, added to {@link UserRepository}.
+ */
+public interface UserBatchRepository {
+    void insertAll(List<User> users);
+
+    void addRatingChanges(Collection<RatingChange> changes);
+
+    void replaceRatings(Collection<User> users, int defaultEloRating);
+
+    long forEachUser(Long leagueId, Consumer<User> action);
+
+    /**
+     * A change to the rating of a user: the rating moves by the given amount and the given number of
+     * matches is added to the match counter.
+     */
+    record RatingChange(long userId, int eloRatingDelta, int matches) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.matchmaking.elo.licenta.repository;
+
+import com.matchmaking.elo.licenta.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC implementation of {@link UserBatchRepository}.
+ * Rating changes are written as increments of the stored values, so changes written out of order or
+ * next to other writers of the same users are all kept.
+ * User IDs come from an identity column, so the IDs of new users are reserved from its sequence in one
+ * query and the rows are inserted with JDBC batches, as for matches.
+ */
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String insertSql;
+    private final String updateSql;
+    private final String resetSql;
+    private final String replaceSql;
+    private final String selectSql;
+
+    public UserBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema.isEmpty() ? "USERS" : schema + ".USERS";
+        this.insertSql = "insert into " + table + " (ID, NAME, ELO_RATING, MATCH_COUNTER, LAST_ACTIVE_DATE, " +
+                "DIVISION_ID, LEAGUE_ID, SIGNED_ID) values (?, ?, ?, ?, ?, ?, ?, ?)";
+        this.updateSql = "update " + table + " set ELO_RATING = ELO_RATING + ?, MATCH_COUNTER = MATCH_COUNTER + ? where ID = ?";
+        this.resetSql = "update " + table + " set ELO_RATING = ?, MATCH_COUNTER = 0";
+        this.replaceSql = "update " + table + " set ELO_RATING = ?, MATCH_COUNTER = ? where ID = ?";
+        this.selectSql = "select ID, NAME, ELO_RATING, RATING_DEVIATION, RATING_VOLATILITY, RATING_PERIOD, MATCH_COUNTER, " +
+                "LAST_ACTIVE_DATE, DIVISION_ID, LEAGUE_ID, SIGNED_ID from " + table;
+    }
+
+    /**
+     * Inserts users in batches and assigns their IDs. Only the name, rating, match counter, last active date,
+     * division, league and signed-in flag are written.
+     *
+     * @param users the new users
+     */
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select nextval(pg_get_serial_sequence(?, 'id')) from generate_series(1, ?)",
+                Long.class, table, users.size());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(ids.get(i));
+        }
+
+        jdbcTemplate.batchUpdate(insertSql, users, BATCH_SIZE, (ps, user) -> {
+            ps.setLong(1, user.getId());
+            ps.setString(2, user.getName());
+            ps.setInt(3, user.getEloRating());
+            ps.setLong(4, user.getMatchCounter());
+            ps.setObject(5, user.getLastActiveDate() != null ? Date.valueOf(user.getLastActiveDate()) : null, Types.DATE);
+            ps.setObject(6, user.getDivisionId(), Types.BIGINT);
+            ps.setObject(7, user.getLeagueId(), Types.BIGINT);
+            ps.setBoolean(8, user.isSignedIn());
+        });
+    }
+
+    /**
+     * Adds rating changes to the ELO ratings and match counters of users in batches.
+     *
+     * @param changes the changes, at most one per user
+     */
+    @Override
+    public void addRatingChanges(Collection<RatingChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(updateSql, changes, BATCH_SIZE, (ps, change) -> {
+            ps.setInt(1, change.eloRatingDelta());
+            ps.setInt(2, change.matches());
+            ps.setLong(3, change.userId());
+        });
+    }
+
+    /**
+     * Replaces the ratings of all users: users not given are reset to the default rating and no matches,
+     * the given ones get their rating and match counter regardless of the stored values.
+     * Should run in a transaction, so the reset is never visible on its own.
+     *
+     * @param users the users with their new rating and match counter
+     * @param defaultEloRating the rating of users without matches
+     */
+    @Override
+    public void replaceRatings(Collection<User> users, int defaultEloRating) {
+        jdbcTemplate.update(resetSql, defaultEloRating);
+        jdbcTemplate.batchUpdate(replaceSql, users, BATCH_SIZE, (ps, user) -> {
+            ps.setInt(1, user.getEloRating());
+            ps.setLong(2, user.getMatchCounter());
+            ps.setLong(3, user.getId());
+        });
+    }
+
+    /**
+     * Reads the users of a league in ID order, with a cursor, without keeping them.
+     * Must run in a transaction for the cursor to be used.
+     *
+     * @param leagueId the ID of the league, or null for all users
+     * @param action called with every user
+     * @return the number of users read
+     */
+    @Override
+    public long forEachUser(Long leagueId, Consumer<User> action) {
+        String sql = selectSql + (leagueId != null ? " where LEAGUE_ID = ?" : "") + " order by ID";
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            if (leagueId != null) {
+                ps.setLong(1, leagueId);
+            }
+            return ps;
+        }, rs -> {
+            action.accept(mapUser(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong(1));
+        user.setName(rs.getString(2));
+        user.setEloRating(rs.getInt(3));
+        Double ratingDeviation = rs.getObject(4, Double.class);
+        if (ratingDeviation != null) {
+            user.setRatingDeviation(ratingDeviation);
+        }
+        Double ratingVolatility = rs.getObject(5, Double.class);
+        if (ratingVolatility != null) {
+            user.setRatingVolatility(ratingVolatility);
+        }
+        user.setRatingPeriod(rs.getObject(6, Long.class));
+        user.setMatchCounter(rs.getLong(7));
+        Date lastActiveDate = rs.getDate(8);
+        user.setLastActiveDate(lastActiveDate != null ? lastActiveDate.toLocalDate() : null);
+        user.setDivisionId(rs.getObject(9, Long.class));
+        user.setLeagueId(rs.getObject(10, Long.class));
+        user.setSignedIn(rs.getBoolean(11));
+        return user;
+    }
+}
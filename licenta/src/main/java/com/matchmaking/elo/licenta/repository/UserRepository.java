@@ -1,9 +1,14 @@
 package com.matchmaking.elo.licenta.repository;
 
 import com.matchmaking.elo.licenta.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +16,7 @@ import java.util.Optional;
  * Repository interface for accessing user data.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository {
 
     List<User> findByLeagueId(Long leagueId);
     List<User> findByDivisionId(Long divisionId);
@@ -22,4 +27,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findBySignedInTrue();
 
     User findUserByName(String name);
+
+    @Query("select u.id from User u where u.leagueId = :leagueId")
+    List<Long> findIdsByLeagueId(@Param("leagueId") Long leagueId);
+
+    /**
+     * Reads users and locks their rows until the end of the transaction.
+     * The rows are locked in ID order, so two transactions locking the same users cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id in :ids order by u.id")
+    List<User> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,59 @@
+package com.matchmaking.elo.licenta.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quoting and splitting of comma-separated fields. A field is quoted when it contains a comma, a quote or
+ * a line break, with quotes inside it doubled. Every record is one line, so quoted line breaks are only
+ * written, never read.
+ */
+final class Csv {
+
+    private Csv() {
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unclosed quote in line: " + line);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
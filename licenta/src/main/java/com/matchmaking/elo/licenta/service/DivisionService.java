@@ -1,9 +1,12 @@
 package com.matchmaking.elo.licenta.service;
 
 import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
 import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
 import com.matchmaking.elo.licenta.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,8 @@ public interface DivisionService {
 
     List<User> getDivisionStandings(long divisionId);
 
+    List<HistoricalStanding> getDivisionStandingsAt(long divisionId, LocalDateTime dateTime);
+
     List<Pair> matchPlayersInDivision(long divisionId);
 
     List<User> getSignedInUsersInDivision(long divisionId);
@@ -29,6 +34,12 @@ public interface DivisionService {
 
     List<Pair> matchPlayersOptimally(Long divisionId);
 
+    List<Pair> matchPlayersExactly(long divisionId);
+
+    List<Pair> matchPlayers(long divisionId, PairingStrategy strategy);
+
+    List<Pair> matchPlayers(long divisionId, List<User> signedInUsers, PairingStrategy strategy);
+
     Division save(Division division);
 
     List<Division> getAllDivisionsInLeague(Long leagueId);
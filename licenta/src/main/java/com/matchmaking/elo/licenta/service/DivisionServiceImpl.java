@@ -1,15 +1,25 @@
 package com.matchmaking.elo.licenta.service;
 
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
+import com.matchmaking.elo.licenta.matchmaking.EloIndex;
+import com.matchmaking.elo.licenta.matchmaking.MinimumCostMatcher;
 import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
 import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
 import com.matchmaking.elo.licenta.model.User;
 import com.matchmaking.elo.licenta.repository.DivisionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service implementation for managing divisions.
@@ -27,12 +37,22 @@ public class DivisionServiceImpl implements DivisionService {
 
     private final MatchService matchService;
 
+    private final HeadToHeadService headToHeadService;
+
+    private final RatingHistoryService ratingHistoryService;
+
+    private final Map<Long, EloIndex> signedInIndexes = new ConcurrentHashMap<>();
+
+    private final AtomicLong indexChanges = new AtomicLong();
 
     @Autowired
-    public DivisionServiceImpl(DivisionRepository divisionRepository, UserService userService, MatchService matchService) {
+    public DivisionServiceImpl(DivisionRepository divisionRepository, UserService userService, MatchService matchService,
+                               HeadToHeadService headToHeadService, RatingHistoryService ratingHistoryService) {
         this.divisionRepository = divisionRepository;
         this.userService = userService;
         this.matchService = matchService;
+        this.headToHeadService = headToHeadService;
+        this.ratingHistoryService = ratingHistoryService;
     }
 
     /**
@@ -97,6 +117,19 @@ public class DivisionServiceImpl implements DivisionService {
 
     }
 
+    /**
+     * Retrieves the standings of a division as they were at a past date, sorted by the ELO rating at that
+     * date in descending order. The players are the current members of the division.
+     *
+     * @param divisionId the ID of the division
+     * @param dateTime the date
+     * @return the players of the division with their ratings at that date
+     */
+    @Override
+    public List<HistoricalStanding> getDivisionStandingsAt(long divisionId, LocalDateTime dateTime) {
+        return ratingHistoryService.getStandingsAt(userService.findUsersInDivisionSortedByEloDescending(divisionId), dateTime);
+    }
+
     /**
      * Retrieves all signed-in users in a division.
      *
@@ -111,6 +144,9 @@ public class DivisionServiceImpl implements DivisionService {
     /**
      * Matches players in a division based on their ELO ratings.
      * This method is less efficient and is intended for use with the Hungarian algorithm(TO BE IMPLEMENTED).
+     * Players are kept in an {@link EloIndex}, so players with equal ratings are all paired. The index of
+     * the signed-in players is kept per division and updated as players sign in and out or change rating,
+     * so pairing works on a copy of it instead of reading the division again.
      *
      * @param divisionId the ID of the division
      * @return a list of matched pairs of users
@@ -118,23 +154,24 @@ public class DivisionServiceImpl implements DivisionService {
      */
     @Override
     public List<Pair> matchPlayersInDivision(long divisionId) {
-        List<User> signedInUsers = getSignedInUsersInDivision(divisionId);
-        TreeSet<User> sortedUsers = new TreeSet<>(Comparator.comparing(User::getEloRating));
-        sortedUsers.addAll(signedInUsers);
+        return pairNearest(divisionId, getSignedInIndex(divisionId));
+    }
 
-        if (signedInUsers.size() < 2) {
+    private List<Pair> pairNearest(long divisionId, EloIndex sortedUsers) {
+        if (sortedUsers.size() < 2) {
             throw new IllegalStateException("Not enough players signed in for matchmaking in division " + divisionId);
         }
 
         List<Pair> pairs = new ArrayList<>();
 
         while (sortedUsers.size() > 1) {
-            User user1 = sortedUsers.pollFirst(); // Scoate primul user
-            User user2 = findOptimalPlayerPair(user1, sortedUsers);
+            int user1Rating = sortedUsers.getRating(sortedUsers.first());
+            long user1 = sortedUsers.pollFirst(); // Scoate primul user
+            Long user2 = findOptimalPlayerPair(user1, user1Rating, sortedUsers);
             if (user2 != null) {
-                pairs.add(new Pair(user1.getId(), user2.getId()));
+                pairs.add(new Pair(user1, user2));
                 sortedUsers.remove(user2);
-                logger.info("Matched players: user1={}, user2={}", user1.getId(), user2.getId());
+                logger.info("Matched players: user1={}, user2={}", user1, user2);
 
             }
         }
@@ -143,9 +180,82 @@ public class DivisionServiceImpl implements DivisionService {
         return pairs;
     }
 
-    private User findOptimalPlayerPair(User user, TreeSet<User> sortedUsers) {
-        User lower = sortedUsers.lower(user);
-        User higher = sortedUsers.higher(user);
+    /**
+     * Copies the maintained index of the signed-in players of a division, building it on first use.
+     * A build is only kept if no player changed while it was read, otherwise it could miss that change.
+     */
+    private EloIndex getSignedInIndex(long divisionId) {
+        EloIndex index = signedInIndexes.get(divisionId);
+        if (index == null) {
+            long changes = indexChanges.get();
+            index = new EloIndex();
+            for (User user : getSignedInUsersInDivision(divisionId)) {
+                index.add(user.getId(), user.getEloRating());
+            }
+            if (indexChanges.get() != changes) {
+                return index;
+            }
+            EloIndex current = signedInIndexes.putIfAbsent(divisionId, index);
+            if (current != null) {
+                index = current;
+            }
+        }
+        synchronized (index) {
+            return index.copy();
+        }
+    }
+
+    /**
+     * Adds a player who signed in to the index of their division, or removes a player who signed out.
+     *
+     * @param event the presence change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        indexChanges.incrementAndGet();
+        signedInIndexes.forEach((divisionId, index) -> {
+            synchronized (index) {
+                if (event.isSignedIn() && divisionId.equals(event.getDivisionId())) {
+                    index.add(event.getUserId(), event.getEloRating());
+                } else {
+                    index.remove(event.getUserId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Updates the division indexes after players were written. Changed ratings are updated in place and
+     * players are moved between divisions; when every player may have changed, the indexes are dropped
+     * and built again on next use.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayersChanged(PlayersChangedEvent event) {
+        indexChanges.incrementAndGet();
+        if (event.isAll()) {
+            signedInIndexes.clear();
+            return;
+        }
+        signedInIndexes.forEach((divisionId, index) -> {
+            synchronized (index) {
+                for (PlayersChangedEvent.Change change : event.getChanges()) {
+                    if (!change.placed()) {
+                        index.updateRating(change.userId(), change.eloRating());
+                    } else if (change.signedIn() && divisionId.equals(change.divisionId())) {
+                        index.add(change.userId(), change.eloRating());
+                    } else {
+                        index.remove(change.userId());
+                    }
+                }
+            }
+        });
+    }
+
+    private Long findOptimalPlayerPair(long userId, int rating, EloIndex sortedUsers) {
+        Long lower = sortedUsers.lower(rating, userId);
+        Long higher = sortedUsers.higher(rating, userId);
 
         if (lower == null && higher == null) {
             return null;
@@ -155,8 +265,8 @@ public class DivisionServiceImpl implements DivisionService {
             return lower;
         }
 
-        double lowerDiff = Math.pow(user.getEloRating() - lower.getEloRating(), 2) + calculateCompatibilityScore(user.getId(), lower.getId());
-        double higherDiff = Math.pow(user.getEloRating() - higher.getEloRating(), 2) + calculateCompatibilityScore(user.getId(), higher.getId());
+        double lowerDiff = Math.pow(rating - sortedUsers.getRating(lower), 2) + calculateCompatibilityScore(userId, lower);
+        double higherDiff = Math.pow(rating - sortedUsers.getRating(higher), 2) + calculateCompatibilityScore(userId, higher);
 
         return lowerDiff < higherDiff ? lower : higher;
     }
@@ -171,12 +281,16 @@ public class DivisionServiceImpl implements DivisionService {
      */
     @Override
     public List<Pair> matchPlayersInDivisionWeighted(long divisionId) {
-        List<User> signedInUsers = getSignedInUsersInDivision(divisionId);
+        return pairWeighted(divisionId, getSignedInUsersInDivision(divisionId));
+    }
+
+    private List<Pair> pairWeighted(long divisionId, List<User> signedInUsers) {
         if (signedInUsers.size() < 2) {
             throw new IllegalStateException("Not enough players signed in for matchmaking in division " + divisionId);
         }
 
-        signedInUsers.sort(Comparator.comparingDouble(this::calculateWeightedScore).reversed());
+        Map<Long, Double> weightedScores = calculateWeightedScores(signedInUsers);
+        signedInUsers.sort(Comparator.comparingDouble((User user) -> weightedScores.get(user.getId())).reversed());
 
         List<Pair> pairs = new ArrayList<>();
         Iterator<User> iterator = signedInUsers.iterator();
@@ -207,8 +321,16 @@ public class DivisionServiceImpl implements DivisionService {
      */
     @Override
     public List<Pair> matchPlayersOptimally(Long divisionId) {
-        List<User> signedInUsers = getSignedInUsersInDivision(divisionId);
-        signedInUsers.sort(Comparator.comparingDouble(this::calculateWeightedScore));
+        return pairOptimally(divisionId, getSignedInUsersInDivision(divisionId));
+    }
+
+    private List<Pair> pairOptimally(long divisionId, List<User> signedInUsers) {
+        Map<Long, Double> weightedScores = calculateWeightedScores(signedInUsers);
+        signedInUsers.sort(Comparator.comparingDouble(user -> weightedScores.get(user.getId())));
+        double[] scores = new double[signedInUsers.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = weightedScores.get(signedInUsers.get(i).getId());
+        }
         List<Pair> pairs = new ArrayList<>();
         boolean[] used = new boolean[signedInUsers.size()];
 
@@ -219,7 +341,7 @@ public class DivisionServiceImpl implements DivisionService {
 
                 for (int j = i + 1; j < signedInUsers.size(); j++) {
                     if (!used[j]) {
-                        double difference = Math.abs(calculateWeightedScore(signedInUsers.get(i)) - calculateWeightedScore(signedInUsers.get(j)));
+                        double difference = Math.abs(scores[i] - scores[j]);
                         difference += calculateCompatibilityScore(signedInUsers.get(i).getId(), signedInUsers.get(j).getId());
                         if (difference < minDifference) {
                             minDifference = difference;
@@ -241,6 +363,99 @@ public class DivisionServiceImpl implements DivisionService {
         return pairs;
     }
 
+    /**
+     * Matches players in a division with a minimum-cost perfect matching.
+     * The cost of a pair is the same as in {@link #matchPlayersOptimally(Long)}: the difference of the
+     * weighted scores plus the compatibility score. Each player is considered against the nearest
+     * players by weighted score, and the pairing is optimal over those candidates. With an odd number
+     * of players, the player whose bye keeps the total cost lowest is left unpaired.
+     *
+     * @param divisionId the ID of the division
+     * @return a list of matched pairs of users
+     * @throws IllegalStateException if there are not enough players signed in for matchmaking
+     */
+    @Override
+    public List<Pair> matchPlayersExactly(long divisionId) {
+        return pairExactly(divisionId, getSignedInUsersInDivision(divisionId));
+    }
+
+    private List<Pair> pairExactly(long divisionId, List<User> signedInUsers) {
+        if (signedInUsers.size() < 2) {
+            throw new IllegalStateException("Not enough players signed in for matchmaking in division " + divisionId);
+        }
+
+        int n = signedInUsers.size();
+        Map<Long, Double> weightedScores = calculateWeightedScores(signedInUsers);
+        signedInUsers.sort(Comparator.comparingDouble(user -> weightedScores.get(user.getId())));
+
+        double[] scores = new double[n];
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = signedInUsers.get(i).getId();
+            scores[i] = weightedScores.get(ids[i]);
+        }
+
+        int[] partner = new MinimumCostMatcher().match(n,
+                (i, j) -> Math.abs(scores[i] - scores[j]) + calculateCompatibilityScore(ids[i], ids[j]));
+
+        List<Pair> pairs = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (partner[i] == MinimumCostMatcher.BYE) {
+                logger.info("Bye for player {} in division {}", ids[i], divisionId);
+            } else if (partner[i] > i) {
+                pairs.add(new Pair(ids[i], ids[partner[i]]));
+            }
+        }
+
+        logger.info("Completed exact matchmaking for division {}: {}", divisionId, pairs);
+        return pairs;
+    }
+
+    /**
+     * Matches players in a division with the given pairing strategy.
+     *
+     * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm to use
+     * @return a list of matched pairs of users
+     * @throws IllegalStateException if there are not enough players signed in for matchmaking
+     */
+    @Override
+    public List<Pair> matchPlayers(long divisionId, PairingStrategy strategy) {
+        return switch (strategy) {
+            case NEAREST -> matchPlayersInDivision(divisionId);
+            case WEIGHTED -> matchPlayersInDivisionWeighted(divisionId);
+            case OPTIMAL -> matchPlayersOptimally(divisionId);
+            case EXACT -> matchPlayersExactly(divisionId);
+        };
+    }
+
+    /**
+     * Matches the given signed-in players of a division with the given pairing strategy, so the caller knows
+     * exactly which players the pairing considered. The list itself is not changed.
+     *
+     * @param divisionId the ID of the division
+     * @param signedInUsers the signed-in players of the division
+     * @param strategy the pairing algorithm to use
+     * @return a list of matched pairs of users
+     * @throws IllegalStateException if there are not enough players signed in for matchmaking
+     */
+    @Override
+    public List<Pair> matchPlayers(long divisionId, List<User> signedInUsers, PairingStrategy strategy) {
+        List<User> users = new ArrayList<>(signedInUsers);
+        return switch (strategy) {
+            case NEAREST -> {
+                EloIndex index = new EloIndex();
+                for (User user : users) {
+                    index.add(user.getId(), user.getEloRating());
+                }
+                yield pairNearest(divisionId, index);
+            }
+            case WEIGHTED -> pairWeighted(divisionId, users);
+            case OPTIMAL -> pairOptimally(divisionId, users);
+            case EXACT -> pairExactly(divisionId, users);
+        };
+    }
+
     /**
      * Calculates the weighted score for a user based on their ELO rating, match counter, and recent performance.
      *
@@ -250,10 +465,24 @@ public class DivisionServiceImpl implements DivisionService {
     private double calculateWeightedScore(User user) {
         int recentPerformance = matchService.calculateRecentPerformance(user.getId());
         double weightedScore = 0.6 * user.getEloRating() + 0.2 * user.getMatchCounter() + 0.2 * recentPerformance;
-        logger.info("Calculated weighted score for user {}: weightedScore={}", user.getId(), weightedScore);
+        logger.debug("Calculated weighted score for user {}: weightedScore={}", user.getId(), weightedScore);
         return weightedScore;
     }
 
+    /**
+     * Calculates the weighted score of every user once, before the users are sorted and compared.
+     *
+     * @param users the users
+     * @return the weighted scores by user ID
+     */
+    private Map<Long, Double> calculateWeightedScores(List<User> users) {
+        Map<Long, Double> weightedScores = new HashMap<>();
+        for (User user : users) {
+            weightedScores.put(user.getId(), calculateWeightedScore(user));
+        }
+        return weightedScores;
+    }
+
     /**
      * Saves a division.
      *
@@ -269,15 +498,16 @@ public class DivisionServiceImpl implements DivisionService {
 
     /**
      * Calculates the compatibility score between two players based on their match history.
+     * The match count is read from the in-memory head-to-head counts, so no query is issued per pair.
      *
      * @param player1Id the ID of the first player
      * @param player2Id the ID of the second player
      * @return the compatibility score between the two players
      */
     private double calculateCompatibilityScore(Long player1Id, Long player2Id) {
-        long matchCount = matchService.getNumberOfMatchesBetweenPlayers(player1Id, player2Id);
+        long matchCount = headToHeadService.getMatchCount(player1Id, player2Id);
         double compatibilityScore = matchCount * 200;
-        logger.info("Calculated compatibility score between players {} and {}: {}", player1Id, player2Id, compatibilityScore);
+        logger.debug("Calculated compatibility score between players {} and {}: {}", player1Id, player2Id, compatibilityScore);
         return compatibilityScore;
     }
 
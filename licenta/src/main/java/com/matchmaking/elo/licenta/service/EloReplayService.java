@@ -0,0 +1,14 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.EloReplayStatus;
+
+/**
+ * Service interface for recomputing all ELO ratings from the match history.
+ */
+public interface EloReplayService {
+    EloReplayStatus startReplay();
+
+    EloReplayStatus startReplayWithWritesSuspended();
+
+    EloReplayStatus getStatus();
+}
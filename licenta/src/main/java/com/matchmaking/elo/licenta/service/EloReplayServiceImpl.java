@@ -0,0 +1,472 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.model.EloReplayStatus;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for recomputing all ELO ratings from the match history.
+ * <p>
+ * A replay runs in the background in two passes over the MATCHES table, both read with a cursor.
+ * The first pass reads only the players of every match and groups them into connected components:
+ * players who never met, directly or through other players, cannot affect each other's ratings.
+ * The components are spread over the worker threads by match count. The second pass reads the matches
+ * in chronological order and hands each one to the worker of its component, so every component is
+ * replayed in order while different components are replayed in parallel. Workers rate each match with
+ * the current formula and rewrite its ratings and result in JDBC batches. The users are written in one
+ * transaction at the end.
+ * <p>
+ * Archived matches are read from the archive files before the table, in both passes. They are rated like
+ * the others, but their files keep the ratings they were archived with.
+ * <p>
+ * Memory is bounded by the number of players and the worker queues, not by the number of matches.
+ * Match writes are suspended from the start of a replay until it finishes, so no match is recorded against
+ * ratings that are being rewritten. A replay that failed half-way is fixed by running it again.
+ */
+@Service
+public class EloReplayServiceImpl implements EloReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EloReplayServiceImpl.class);
+
+    static final int BATCH_SIZE = 1000;
+    static final String REPLAY_ACTIVITY = "ratings are replayed";
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final ReplayRow END = new ReplayRow(0, 0, 0, 0, 0, 0, 0);
+
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final MatchService matchService;
+    private final RecentFormService recentFormService;
+    private final RatingPipelineService ratingPipelineService;
+    private final RatingCheckpointService ratingCheckpointService;
+    private final RatingSeriesService ratingSeriesService;
+    private final MatchArchiveService matchArchiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final RatingEngine ratingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong matchesReplayed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long elapsedMillis;
+    private volatile int playersRated;
+    private volatile int componentCount;
+    private volatile String error;
+    private volatile RuntimeException failure;
+
+    @Autowired
+    public EloReplayServiceImpl(MatchRepository matchRepository, UserRepository userRepository,
+                                MatchService matchService, RecentFormService recentFormService,
+                                RatingPipelineService ratingPipelineService,
+                                RatingCheckpointService ratingCheckpointService,
+                                RatingSeriesService ratingSeriesService, MatchArchiveService matchArchiveService,
+                                PlatformTransactionManager transactionManager, RatingEngine ratingEngine,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${matchmaking.replay.threads:4}") int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Replay threads must be positive: " + threads);
+        }
+        this.matchRepository = matchRepository;
+        this.userRepository = userRepository;
+        this.matchService = matchService;
+        this.recentFormService = recentFormService;
+        this.ratingPipelineService = ratingPipelineService;
+        this.ratingCheckpointService = ratingCheckpointService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.matchArchiveService = matchArchiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.ratingEngine = ratingEngine;
+        this.eventPublisher = eventPublisher;
+        this.threads = threads;
+    }
+
+    /**
+     * Starts recomputing all ratings in the background. Match writes are suspended until the replay finishes.
+     *
+     * @return the status of the started replay
+     * @throws IllegalStateException if a replay is already running, the rating engine is periodic or match
+     * writes are suspended for something else
+     */
+    @Override
+    public EloReplayStatus startReplay() {
+        return start(true);
+    }
+
+    /**
+     * Starts recomputing all ratings in the background while the caller holds match writes suspended, for
+     * example right after an import. The replay takes the suspension over and resumes match writes when it
+     * finishes; if it cannot be started, the suspension stays with the caller.
+     *
+     * @return the status of the started replay
+     * @throws IllegalStateException if a replay is already running or the rating engine is periodic
+     */
+    @Override
+    public EloReplayStatus startReplayWithWritesSuspended() {
+        return start(false);
+    }
+
+    private EloReplayStatus start(boolean suspendWrites) {
+        if (ratingEngine.isPeriodic()) {
+            throw new IllegalStateException("The " + ratingEngine.getName() + " rating engine is rated by rating periods, not replayed");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An ELO replay is already running");
+        }
+        if (suspendWrites) {
+            try {
+                matchService.suspendWrites(REPLAY_ACTIVITY);
+            } catch (RuntimeException e) {
+                running.set(false);
+                throw e;
+            }
+        }
+        matchesReplayed.set(0);
+        startedAt = LocalDateTime.now();
+        startNanos = System.nanoTime();
+        finishedAt = null;
+        elapsedMillis = 0;
+        playersRated = 0;
+        componentCount = 0;
+        error = null;
+        failure = null;
+
+        Thread thread = new Thread(this::replay, "elo-replay");
+        thread.setDaemon(true);
+        thread.start();
+        return getStatus();
+    }
+
+    /**
+     * Reports the progress of the running replay, or the result of the last one.
+     *
+     * @return the status of the replay
+     */
+    @Override
+    public EloReplayStatus getStatus() {
+        boolean active = running.get();
+        long elapsed = active && startedAt != null ? (System.nanoTime() - startNanos) / 1_000_000 : elapsedMillis;
+        return new EloReplayStatus(active, startedAt, finishedAt, matchesReplayed.get(), playersRated,
+                componentCount, threads, elapsed, error);
+    }
+
+    private void replay() {
+        try {
+            Components components = readComponents();
+            componentCount = components.count();
+            int[] workerOf = components.assignWorkers(threads);
+            logger.info("ELO replay found {} players in {} components", components.size, componentCount);
+
+            int[] ratings = new int[components.size];
+            int[] matchCounts = new int[components.size];
+            Arrays.fill(ratings, User.DEFAULT_ELO_RATING);
+            replayMatches(components, workerOf, ratings, matchCounts);
+
+            List<User> users = new ArrayList<>(components.size);
+            for (int i = 0; i < components.size; i++) {
+                User user = new User(components.ids[i], ratings[i]);
+                user.setMatchCounter(matchCounts[i]);
+                users.add(user);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.replaceRatings(users, User.DEFAULT_ELO_RATING);
+                eventPublisher.publishEvent(PlayersChangedEvent.all());
+            });
+            playersRated = users.size();
+            ratingCheckpointService.reset();
+            ratingSeriesService.rebuildAll();
+
+            recentFormService.reload();
+            ratingPipelineService.reload();
+            logger.info("ELO replay rated {} matches of {} players in {} ms",
+                    matchesReplayed.get(), users.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.error("ELO replay failed after {} matches", matchesReplayed.get(), e);
+        } finally {
+            matchService.resumeWrites();
+            elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * First pass: groups the players of all matches into connected components.
+     */
+    private Components readComponents() {
+        Components components = new Components();
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = Stream.concat(
+                    matchArchiveService.streamArchivedMatches().map(m -> new Object[]{m.getPlayer1Id(), m.getPlayer2Id()}),
+                    matchRepository.streamPlayers())) {
+                rows.forEach(row -> components.union(
+                        components.index(((Number) row[0]).longValue()),
+                        components.index(((Number) row[1]).longValue())));
+            }
+        });
+        return components;
+    }
+
+    /**
+     * Second pass: streams the matches in chronological order to the workers of their components.
+     */
+    private void replayMatches(Components components, int[] workerOf, int[] ratings, int[] matchCounts) {
+        List<BlockingQueue<ReplayRow>> queues = new ArrayList<>(threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "elo-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try {
+            for (int w = 0; w < threads; w++) {
+                BlockingQueue<ReplayRow> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+                queues.add(queue);
+                workers.add(executor.submit(() -> replayQueue(queue, ratings, matchCounts)));
+            }
+
+            try {
+                readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = Stream.concat(
+                            matchArchiveService.streamArchivedMatches().map(m -> new Object[]{m.getId(),
+                                    m.getPlayer1Id(), m.getPlayer2Id(), m.getPlayer1Score(), m.getPlayer2Score()}),
+                            matchRepository.streamScoresInPlayOrder())) {
+                        Iterator<Object[]> iterator = rows.iterator();
+                        while (iterator.hasNext() && failure == null) {
+                            Object[] row = iterator.next();
+                            int player1 = components.indexOf(((Number) row[1]).longValue());
+                            int player2 = components.indexOf(((Number) row[2]).longValue());
+                            put(queues.get(workerOf[player1]), new ReplayRow(((Number) row[0]).longValue(),
+                                    components.ids[player1], components.ids[player2], player1, player2,
+                                    ((Number) row[3]).intValue(), ((Number) row[4]).intValue()));
+                        }
+                    }
+                });
+            } finally {
+                for (BlockingQueue<ReplayRow> queue : queues) {
+                    put(queue, END);
+                }
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ELO replay was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ELO replay worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Rates the matches of the components owned by one worker and rewrites them in batches.
+     * After a failure anywhere the remaining matches are only drained, so the reader never blocks.
+     */
+    private void replayQueue(BlockingQueue<ReplayRow> queue, int[] ratings, int[] matchCounts) {
+        List<Match> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                ReplayRow row = queue.take();
+                if (row == END) {
+                    break;
+                }
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    batch.add(rate(row, ratings, matchCounts));
+                    if (batch.size() >= BATCH_SIZE) {
+                        write(batch);
+                    }
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if (failure == null) {
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private Match rate(ReplayRow row, int[] ratings, int[] matchCounts) {
+        Match match = new Match(row.player1Id(), row.player2Id());
+        match.setId(row.matchId());
+        match.setPlayer1Score(row.player1Score());
+        match.setPlayer2Score(row.player2Score());
+        match.setWinnerAndLoser();
+        matchService.rateMatch(match, ratings[row.player1()], ratings[row.player2()]);
+        ratings[row.player1()] = match.getPlayer1EloAfterMatch();
+        ratings[row.player2()] = match.getPlayer2EloAfterMatch();
+        matchCounts[row.player1()]++;
+        matchCounts[row.player2()]++;
+        return match;
+    }
+
+    private void write(List<Match> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> matchRepository.updateRatings(batch));
+        matchesReplayed.addAndGet(batch.size());
+        batch.clear();
+    }
+
+    private static void put(BlockingQueue<ReplayRow> queue, ReplayRow row) {
+        try {
+            queue.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ELO replay was interrupted", e);
+        }
+    }
+
+    /**
+     * A match as read by the second pass, with the positions of its players.
+     */
+    private record ReplayRow(long matchId, long player1Id, long player2Id, int player1, int player2,
+                             int player1Score, int player2Score) {
+    }
+
+    /**
+     * Union-find over the players of all matches. Players are numbered in the order they are first seen.
+     */
+    private static final class Components {
+        final Map<Long, Integer> indexes = new HashMap<>();
+        long[] ids = new long[1024];
+        int[] parent = new int[1024];
+        int[] matchCounts = new int[1024];
+        int size;
+
+        int index(long userId) {
+            Integer index = indexes.get(userId);
+            if (index != null) {
+                return index;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                parent = Arrays.copyOf(parent, size * 2);
+                matchCounts = Arrays.copyOf(matchCounts, size * 2);
+            }
+            ids[size] = userId;
+            parent[size] = size;
+            indexes.put(userId, size);
+            return size++;
+        }
+
+        int indexOf(long userId) {
+            Integer index = indexes.get(userId);
+            if (index == null) {
+                throw new IllegalStateException("Player " + userId + " appeared after the replay started");
+            }
+            return index;
+        }
+
+        int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+
+        void union(int a, int b) {
+            matchCounts[a]++;
+            matchCounts[b]++;
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA != rootB) {
+                parent[rootB] = rootA;
+            }
+        }
+
+        int count() {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (parent[i] == i) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Assigns whole components to workers, largest first to the least loaded worker.
+         *
+         * @return the worker of every player
+         */
+        int[] assignWorkers(int workers) {
+            long[] weight = new long[size];
+            for (int i = 0; i < size; i++) {
+                weight[find(i)] += matchCounts[i];
+            }
+            List<Integer> roots = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (parent[i] == i) {
+                    roots.add(i);
+                }
+            }
+            roots.sort(Comparator.comparingLong((Integer root) -> weight[root]).reversed());
+
+            long[] load = new long[workers];
+            int[] workerOfRoot = new int[size];
+            for (int root : roots) {
+                int least = 0;
+                for (int w = 1; w < workers; w++) {
+                    if (load[w] < load[least]) {
+                        least = w;
+                    }
+                }
+                workerOfRoot[root] = least;
+                load[least] += weight[root];
+            }
+
+            int[] workerOf = new int[size];
+            for (int i = 0; i < size; i++) {
+                workerOf[i] = workerOfRoot[find(i)];
+            }
+            return workerOf;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.ExportFormat;
+import com.matchmaking.elo.licenta.model.MatchExportFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Service interface for streaming bulk exports of matches and users.
+ */
+public interface ExportService {
+    MatchExportFilter resolveMatchFilter(Long leagueId, Long seasonId, LocalDateTime from, LocalDateTime to);
+
+    long exportMatches(MatchExportFilter filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException;
+
+    long exportUsers(Long leagueId, ExportFormat format, boolean gzip, OutputStream out) throws IOException;
+}
@@ -0,0 +1,242 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.matchmaking.elo.licenta.model.ExportFormat;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchExportFilter;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service implementation for streaming bulk exports of matches and users.
+ * Rows are read from a database cursor and written to the output one at a time, so an export holds no
+ * more than one fetch of rows in memory whatever its size. Archived matches are read from their files
+ * ahead of the MATCHES table, keeping the export in play order. Dates are ISO-8601 in both formats.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final SeasonService seasonService;
+    private final MatchArchiveService matchArchiveService;
+    private final ObjectWriter jsonWriter;
+
+    @Autowired
+    public ExportServiceImpl(MatchRepository matchRepository, UserRepository userRepository,
+                             SeasonService seasonService, MatchArchiveService matchArchiveService) {
+        this.matchRepository = matchRepository;
+        this.userRepository = userRepository;
+        this.seasonService = seasonService;
+        this.matchArchiveService = matchArchiveService;
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    /**
+     * Narrows the date range of a match export to a season, if one is given.
+     * Called before the export starts, so an invalid filter can still be answered with an error.
+     *
+     * @param leagueId the ID of the league, or null for all leagues
+     * @param seasonId the ID of the season, or null for any season
+     * @param from the earliest match date to include, or null
+     * @param to the match date to stop before, or null
+     * @return the league and date range to export
+     * @throws IllegalStateException if the range is empty, the season does not exist or is not a season of the league
+     */
+    @Override
+    public MatchExportFilter resolveMatchFilter(Long leagueId, Long seasonId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalStateException("The start of the export range must be before its end.");
+        }
+        if (seasonId == null) {
+            return new MatchExportFilter(leagueId, from, to);
+        }
+        Season season = seasonService.getSeason(seasonId)
+                .orElseThrow(() -> new IllegalStateException("Season " + seasonId + " does not exist."));
+        if (leagueId != null && !leagueId.equals(season.getLeagueId())) {
+            throw new IllegalStateException("Season " + seasonId + " is not a season of league " + leagueId + ".");
+        }
+        LocalDateTime start = from == null || from.isBefore(season.getStartDateTime()) ? season.getStartDateTime() : from;
+        LocalDateTime end = season.getEndDateTime();
+        if (to != null && (end == null || to.isBefore(end))) {
+            end = to;
+        }
+        return new MatchExportFilter(season.getLeagueId(), start, end);
+    }
+
+    /**
+     * Writes the matches of a filter in play order, archived matches included.
+     * A match belongs to a league if either player is in it now, not when the match was played.
+     * The archive is read up to where it ended when the export started; if matches are archived before the
+     * MATCHES table is read, they would be missing from both, so the export fails instead.
+     *
+     * @param filter the league and date range to export
+     * @param format the format of the rows
+     * @param gzip whether to compress the output
+     * @param out the stream to write to, left open
+     * @return the number of matches written
+     * @throws IOException if the output cannot be written, for example because the client went away
+     * @throws IllegalStateException if matches were archived during the export, which leaves the output incomplete
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportMatches(MatchExportFilter filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        RowWriter writer = new RowWriter(out, gzip);
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.header(MatchCsv.HEADER);
+            }
+            Consumer<Match> action = match -> writer.row(format == ExportFormat.CSV ? MatchCsv.format(match) : toJson(match));
+            LocalDateTime archivedBefore = matchArchiveService.readArchivedBefore();
+            exportArchivedMatches(filter, archivedBefore, action);
+            // The cursor reads the table as it was when its query started, so an archive that has not
+            // committed by the first row, or by the end if there is none, did not remove anything from it.
+            boolean[] checked = {false};
+            matchRepository.forEachMatch(filter.getLeagueId(), filter.getFrom(), filter.getTo(), match -> {
+                if (!checked[0]) {
+                    checkArchivedBefore(archivedBefore);
+                    checked[0] = true;
+                }
+                action.accept(match);
+            });
+            if (!checked[0]) {
+                checkArchivedBefore(archivedBefore);
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} matches as {} in {} ms", writer.getRows(), format, (System.nanoTime() - start) / 1_000_000);
+        return writer.getRows();
+    }
+
+    /**
+     * Writes the users of a league, or all users, in ID order.
+     *
+     * @param leagueId the ID of the league, or null for all users
+     * @param format the format of the rows
+     * @param gzip whether to compress the output
+     * @param out the stream to write to, left open
+     * @return the number of users written
+     * @throws IOException if the output cannot be written, for example because the client went away
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(Long leagueId, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        RowWriter writer = new RowWriter(out, gzip);
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.header(UserCsv.HEADER);
+            }
+            userRepository.forEachUser(leagueId, user -> writer.row(format == ExportFormat.CSV ? UserCsv.format(user) : toJson(user)));
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info("Exported {} users as {} in {} ms", writer.getRows(), format, (System.nanoTime() - start) / 1_000_000);
+        return writer.getRows();
+    }
+
+    /**
+     * Writes the archived matches of a filter, if its range starts before the end of the archive.
+     * The league is checked against the IDs of its players, read once.
+     */
+    private void exportArchivedMatches(MatchExportFilter filter, LocalDateTime archivedBefore, Consumer<Match> action) {
+        if (archivedBefore == null || (filter.getFrom() != null && !filter.getFrom().isBefore(archivedBefore))) {
+            return;
+        }
+        LocalDateTime to = filter.getTo() == null || filter.getTo().isAfter(archivedBefore) ? archivedBefore : filter.getTo();
+        Set<Long> players = filter.getLeagueId() != null ? new HashSet<>(userRepository.findIdsByLeagueId(filter.getLeagueId())) : null;
+        try (Stream<Match> archived = matchArchiveService.streamArchivedMatches(filter.getFrom(), to)) {
+            archived.filter(match -> players == null || players.contains(match.getPlayer1Id()) || players.contains(match.getPlayer2Id()))
+                    .forEach(action);
+        }
+    }
+
+    private void checkArchivedBefore(LocalDateTime archivedBefore) {
+        if (!Objects.equals(archivedBefore, matchArchiveService.readArchivedBefore())) {
+            throw new IllegalStateException("Matches were archived during the export, try again.");
+        }
+    }
+
+    private String toJson(Object row) {
+        try {
+            return jsonWriter.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes rows as UTF-8 lines through a buffer, optionally compressed. Write failures are rethrown
+     * unchecked, so rows can be written from the callbacks of a cursor.
+     */
+    private static final class RowWriter {
+        private final GZIPOutputStream gzipOut;
+        private final Writer writer;
+        private long rows;
+
+        RowWriter(OutputStream out, boolean gzip) throws IOException {
+            this.gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            this.writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        void header(String line) {
+            write(line);
+        }
+
+        void row(String line) {
+            write(line);
+            rows++;
+        }
+
+        private void write(String line) {
+            try {
+                writer.write(line);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            writer.flush();
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+        }
+
+        long getRows() {
+            return rows;
+        }
+    }
+}
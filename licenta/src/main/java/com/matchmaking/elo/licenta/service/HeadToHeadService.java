@@ -0,0 +1,14 @@
+package com.matchmaking.elo.licenta.service;
+
+/**
+ * Service interface for the in-memory head-to-head match counts used by matchmaking.
+ */
+public interface HeadToHeadService {
+    long getMatchCount(long player1Id, long player2Id);
+
+    void recordMatch(long player1Id, long player2Id);
+
+    void removeMatch(long player1Id, long player2Id);
+
+    void reload();
+}
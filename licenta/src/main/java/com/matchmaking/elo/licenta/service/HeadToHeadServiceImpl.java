@@ -0,0 +1,107 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for the head-to-head match counts.
+ * The counts are loaded once from the MATCHES table and then kept up to date as matches are
+ * recorded or deleted, so matchmaking can look them up without querying the database.
+ * Counts are keyed by the unordered pair of players, so A vs B and B vs A share one entry.
+ */
+@Service
+public class HeadToHeadServiceImpl implements HeadToHeadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeadToHeadServiceImpl.class);
+
+    private final MatchRepository matchRepository;
+
+    private final Map<PlayerPairKey, Long> matchCounts = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public HeadToHeadServiceImpl(MatchRepository matchRepository) {
+        this.matchRepository = matchRepository;
+    }
+
+    /**
+     * Loads the head-to-head counts once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Gets the number of matches played between two players, in either order.
+     *
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     * @return the number of matches between the two players
+     */
+    @Override
+    public long getMatchCount(long player1Id, long player2Id) {
+        return matchCounts.getOrDefault(PlayerPairKey.of(player1Id, player2Id), 0L);
+    }
+
+    /**
+     * Records a new match between two players.
+     *
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     */
+    @Override
+    public void recordMatch(long player1Id, long player2Id) {
+        matchCounts.merge(PlayerPairKey.of(player1Id, player2Id), 1L, Long::sum);
+    }
+
+    /**
+     * Removes a previously recorded match between two players.
+     *
+     * @param player1Id the ID of the first player
+     * @param player2Id the ID of the second player
+     */
+    @Override
+    public void removeMatch(long player1Id, long player2Id) {
+        matchCounts.computeIfPresent(PlayerPairKey.of(player1Id, player2Id),
+                (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Rebuilds all head-to-head counts from the MATCHES table with a single grouped query.
+     */
+    @Override
+    public void reload() {
+        List<Object[]> rows = matchRepository.countMatchesGroupedByPlayers();
+        Map<PlayerPairKey, Long> loadedCounts = new ConcurrentHashMap<>();
+        for (Object[] row : rows) {
+            long player1Id = ((Number) row[0]).longValue();
+            long player2Id = ((Number) row[1]).longValue();
+            long count = ((Number) row[2]).longValue();
+            loadedCounts.merge(PlayerPairKey.of(player1Id, player2Id), count, Long::sum);
+        }
+        matchCounts.clear();
+        matchCounts.putAll(loadedCounts);
+        logger.info("Loaded head-to-head counts for {} player pairs", loadedCounts.size());
+    }
+
+    /**
+     * Unordered pair of player IDs, stored with the lower ID first.
+     */
+    private record PlayerPairKey(long lowId, long highId) {
+        static PlayerPairKey of(long player1Id, long player2Id) {
+            return player1Id <= player2Id
+                    ? new PlayerPairKey(player1Id, player2Id)
+                    : new PlayerPairKey(player2Id, player1Id);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.ImportStatus;
+
+/**
+ * Service interface for bulk importing historical players and matches from files.
+ */
+public interface ImportService {
+    ImportStatus startImport(String playersFile, String matchesFile, boolean replay);
+
+    ImportStatus getStatus();
+}
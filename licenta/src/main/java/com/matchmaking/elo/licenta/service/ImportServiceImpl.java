@@ -0,0 +1,664 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.ExportFormat;
+import com.matchmaking.elo.licenta.model.ImportJob;
+import com.matchmaking.elo.licenta.model.ImportStatus;
+import com.matchmaking.elo.licenta.model.League;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.DivisionRepository;
+import com.matchmaking.elo.licenta.repository.ImportJobRepository;
+import com.matchmaking.elo.licenta.repository.LeagueRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Service implementation for bulk importing historical players and matches from files.
+ * <p>
+ * An import runs in the background and reads files from the import directory on the server, as CSV with
+ * a header line or as NDJSON, optionally gzipped. The players file is imported first: every player is
+ * a name with an optional league and division, and names that already exist are skipped. Matches name
+ * their players and are resolved against all players, read once into memory. Rows are validated one by
+ * one; rejected rows are appended with their line number and reason to a {@code .rejected} file next to
+ * the imported one.
+ * <p>
+ * Rows are written in batches of {@value #BATCH_SIZE} lines with JDBC batches, each batch in its own
+ * transaction together with the number of lines read. An import that failed is resumed by starting it
+ * again with the same files: it skips the lines already written, and the files already imported.
+ * A file is never imported twice.
+ * <p>
+ * Imported matches keep the current ratings of their players until a replay rates them, which can be
+ * started at the end; no rating period rates them. The result counts, head-to-head counts, recent form and
+ * Swiss standings are rebuilt after the matches are written. Without a replay the rating histories are rebuilt
+ * and a rating checkpoint is taken as well, which the replay does otherwise. Match writes are refused while
+ * an import of matches runs, and while the replay it starts runs. The rebuild holds the MATCHES lock, so it
+ * waits for the transactions that already wrote a match and keeps out any that are still on their way.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+
+    static final int BATCH_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final User AMBIGUOUS = new User();
+
+    private final UserRepository userRepository;
+    private final MatchRepository matchRepository;
+    private final LeagueRepository leagueRepository;
+    private final DivisionRepository divisionRepository;
+    private final ImportJobRepository importJobRepository;
+    private final MatchArchiveService matchArchiveService;
+    private final PlayerResultsService playerResultsService;
+    private final HeadToHeadService headToHeadService;
+    private final RecentFormService recentFormService;
+    private final SwissService swissService;
+    private final RatingSeriesService ratingSeriesService;
+    private final RatingCheckpointService ratingCheckpointService;
+    private final MatchService matchService;
+    private final EloReplayService eloReplayService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long elapsedMillis;
+    private volatile String fileName;
+    private volatile long resumedFromLine;
+    private volatile long linesRead;
+    private volatile long rowsRead;
+    private volatile long rowsImported;
+    private volatile long rowsSkipped;
+    private volatile long rowsRejected;
+    private volatile boolean replayStarted;
+    private volatile String error;
+
+    @Autowired
+    public ImportServiceImpl(UserRepository userRepository, MatchRepository matchRepository,
+                             LeagueRepository leagueRepository, DivisionRepository divisionRepository,
+                             ImportJobRepository importJobRepository, MatchArchiveService matchArchiveService,
+                             PlayerResultsService playerResultsService, HeadToHeadService headToHeadService,
+                             RecentFormService recentFormService, SwissService swissService,
+                             RatingSeriesService ratingSeriesService, RatingCheckpointService ratingCheckpointService,
+                             MatchService matchService, EloReplayService eloReplayService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${matchmaking.import.directory:import}") String directory) {
+        this.userRepository = userRepository;
+        this.matchRepository = matchRepository;
+        this.leagueRepository = leagueRepository;
+        this.divisionRepository = divisionRepository;
+        this.importJobRepository = importJobRepository;
+        this.matchArchiveService = matchArchiveService;
+        this.playerResultsService = playerResultsService;
+        this.headToHeadService = headToHeadService;
+        this.recentFormService = recentFormService;
+        this.swissService = swissService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.ratingCheckpointService = ratingCheckpointService;
+        this.matchService = matchService;
+        this.eloReplayService = eloReplayService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Starts importing a players file, a matches file or both in the background, or resumes an import of
+     * the same files that failed. A file that was already imported is skipped.
+     *
+     * @param playersFile the players file, relative to the import directory, or null
+     * @param matchesFile the matches file, relative to the import directory, or null
+     * @param replay whether to start an ELO replay once the matches are imported
+     * @return the status of the started import
+     * @throws IllegalStateException if a file is missing, has an unknown format or changed since its import
+     * started, if all the files were already imported, if an import is already running, or if match writes are
+     * suspended for something else
+     */
+    @Override
+    public ImportStatus startImport(String playersFile, String matchesFile, boolean replay) {
+        if (playersFile == null && matchesFile == null) {
+            throw new IllegalStateException("Give a players file, a matches file or both");
+        }
+        Path players = playersFile != null ? resolve(playersFile) : null;
+        Path matches = matchesFile != null ? resolve(matchesFile) : null;
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An import is already running");
+        }
+        try {
+            if (isFinished(players) && isFinished(matches)) {
+                throw new IllegalStateException("The import files were already imported");
+            }
+            if (matches != null) {
+                matchService.suspendWrites("matches are imported");
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        startedAt = LocalDateTime.now();
+        startNanos = System.nanoTime();
+        finishedAt = null;
+        elapsedMillis = 0;
+        fileName = null;
+        resumedFromLine = 0;
+        linesRead = 0;
+        rowsRead = 0;
+        rowsImported = 0;
+        rowsSkipped = 0;
+        rowsRejected = 0;
+        replayStarted = false;
+        error = null;
+
+        Thread thread = new Thread(() -> importFiles(players, matches, replay), "bulk-import");
+        thread.setDaemon(true);
+        thread.start();
+        return getStatus();
+    }
+
+    /**
+     * Reports the progress of the running import, or the result of the last one.
+     *
+     * @return the status of the import
+     */
+    @Override
+    public ImportStatus getStatus() {
+        boolean active = running.get();
+        long elapsed = active && startedAt != null ? (System.nanoTime() - startNanos) / 1_000_000 : elapsedMillis;
+        long rowsPerSecond = elapsed > 0 ? rowsRead * 1000 / elapsed : 0;
+        return new ImportStatus(active, startedAt, finishedAt, fileName, resumedFromLine, linesRead, rowsImported,
+                rowsSkipped, rowsRejected, elapsed, rowsPerSecond, replayStarted, error);
+    }
+
+    private void importFiles(Path playersFile, Path matchesFile, boolean replay) {
+        try {
+            Map<String, User> players = readPlayers();
+            if (playersFile != null) {
+                importFile(playersFile, ImportJob.Kind.PLAYERS, new PlayerRows(players));
+            }
+            if (matchesFile != null) {
+                importFile(matchesFile, ImportJob.Kind.MATCHES, new MatchRows(players));
+                transactionTemplate.executeWithoutResult(status -> {
+                    matchRepository.lockForRewrite();
+                    playerResultsService.rebuild();
+                    headToHeadService.reload();
+                    recentFormService.reload();
+                    swissService.reload();
+                });
+                if (replay) {
+                    // The replay resumes match writes when it finishes.
+                    eloReplayService.startReplayWithWritesSuspended();
+                    replayStarted = true;
+                } else {
+                    ratingSeriesService.rebuildAll();
+                    ratingCheckpointService.createCheckpoint();
+                }
+            }
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.error("Import of {} failed after line {}", fileName, linesRead, e);
+        } finally {
+            if (matchesFile != null && !replayStarted) {
+                matchService.resumeWrites();
+            }
+            elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reads the name of every player. A name shared by several players cannot be resolved.
+     */
+    private Map<String, User> readPlayers() {
+        Map<String, User> players = new HashMap<>();
+        readOnlyTransactionTemplate.executeWithoutResult(status -> userRepository.forEachUser(null, user -> {
+            if (user.getName() != null) {
+                players.merge(user.getName().trim(), user, (existing, duplicate) -> AMBIGUOUS);
+            }
+        }));
+        return players;
+    }
+
+    /**
+     * Imports one file from the line after the last one written by an earlier run.
+     */
+    private void importFile(Path path, ImportJob.Kind kind, Rows rows) {
+        long start = System.nanoTime();
+        long readBefore = rowsRead;
+        String name = directory.relativize(path).toString();
+        ExportFormat format = formatOf(path);
+        Path rejectedFile = path.resolveSibling(path.getFileName() + ".rejected");
+        try (BufferedReader reader = open(path)) {
+            long size = Files.size(path);
+            ImportJob job = importJobRepository.findByFileName(name)
+                    .orElseGet(() -> new ImportJob(name, kind, size, LocalDateTime.now()));
+            fileName = name;
+            resumedFromLine = job.getLinesRead();
+            publish(job);
+            if (job.isFinished()) {
+                logger.info("Skipping {}, imported on {}", name, job.getFinishedAt());
+                return;
+            }
+            if (job.getLinesRead() > 0) {
+                logger.info("Resuming import of {} after line {}", name, job.getLinesRead());
+            }
+
+            long lineNumber = 0;
+            List<String> header = null;
+            if (format == ExportFormat.CSV) {
+                String line = reader.readLine();
+                lineNumber++;
+                header = new ArrayList<>();
+                for (String column : Csv.split(line != null ? stripBom(line) : "")) {
+                    header.add(normalize(column));
+                }
+            }
+            while (lineNumber < job.getLinesRead() && reader.readLine() != null) {
+                lineNumber++;
+            }
+
+            List<String> rejections = new ArrayList<>();
+            long skipped = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1) {
+                    line = stripBom(line);
+                }
+                if (!line.isBlank()) {
+                    rowsRead++;
+                    try {
+                        Map<String, String> fields = format == ExportFormat.CSV ? csvFields(header, line) : jsonFields(line);
+                        if (!rows.add(fields)) {
+                            skipped++;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        rejections.add("line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+                if (lineNumber - job.getLinesRead() >= BATCH_SIZE) {
+                    job = commit(job, rows, lineNumber, skipped, rejections, rejectedFile, false);
+                    skipped = 0;
+                    logger.info("Imported {} up to line {}: {} rows, {} skipped, {} rejected, {} rows/s", name,
+                            lineNumber, job.getRowsImported(), job.getRowsSkipped(), job.getRowsRejected(),
+                            rate(rowsRead - readBefore, start));
+                }
+            }
+            job = commit(job, rows, lineNumber, skipped, rejections, rejectedFile, true);
+            logger.info("Imported {}: {} rows, {} skipped, {} rejected in {} ms, {} rows/s", name,
+                    job.getRowsImported(), job.getRowsSkipped(), job.getRowsRejected(),
+                    (System.nanoTime() - start) / 1_000_000, rate(rowsRead - readBefore, start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import file " + name, e);
+        }
+    }
+
+    /**
+     * Writes a batch and the lines read in one transaction, then appends the rejected rows of the batch.
+     */
+    private ImportJob commit(ImportJob job, Rows rows, long lineNumber, long skipped, List<String> rejections,
+                             Path rejectedFile, boolean last) throws IOException {
+        job.setLinesRead(lineNumber);
+        job.setRowsImported(job.getRowsImported() + rows.size());
+        job.setRowsSkipped(job.getRowsSkipped() + skipped);
+        job.setRowsRejected(job.getRowsRejected() + rejections.size());
+        if (last) {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        ImportJob saved = transactionTemplate.execute(status -> {
+            rows.write();
+            return importJobRepository.save(job);
+        });
+        rows.clear();
+        if (!rejections.isEmpty()) {
+            Files.write(rejectedFile, rejections, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            rejections.clear();
+        }
+        publish(saved);
+        return saved;
+    }
+
+    private void publish(ImportJob job) {
+        linesRead = job.getLinesRead();
+        rowsImported = job.getRowsImported();
+        rowsSkipped = job.getRowsSkipped();
+        rowsRejected = job.getRowsRejected();
+    }
+
+    private Path resolve(String file) {
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IllegalStateException("Import files must be in " + directory);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalStateException("Import file " + file + " not found in " + directory);
+        }
+        if (formatOf(path) == null) {
+            throw new IllegalStateException("Import file " + file + " must end in .csv, .ndjson or .jsonl, optionally followed by .gz");
+        }
+        return path;
+    }
+
+    /**
+     * Checks whether a file was fully imported. No file counts as imported.
+     *
+     * @throws IllegalStateException if the file changed since its import started
+     */
+    private boolean isFinished(Path path) {
+        if (path == null) {
+            return true;
+        }
+        String name = directory.relativize(path).toString();
+        Optional<ImportJob> job = importJobRepository.findByFileName(name);
+        if (job.isEmpty()) {
+            return false;
+        }
+        try {
+            if (Files.size(path) != job.get().getFileSize()) {
+                throw new IllegalStateException("Import file " + name + " changed since its import started");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import file " + name, e);
+        }
+        return job.get().isFinished();
+    }
+
+    private static ExportFormat formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if (name.endsWith(".csv")) {
+            return ExportFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ExportFormat.NDJSON;
+        }
+        return null;
+    }
+
+    private static BufferedReader open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static long rate(long rows, long startNanos) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        return millis > 0 ? rows * 1000 / millis : 0;
+    }
+
+    /**
+     * Column names are matched without case and underscores, so PLAYER_1_SCORE and player1Score are the same.
+     */
+    static String normalize(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> csvFields(List<String> header, String line) {
+        List<String> values = Csv.split(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields, found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        Map<?, ?> values;
+        try {
+            values = objectMapper.readValue(line, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not a JSON object");
+        }
+        if (values == null) {
+            throw new IllegalArgumentException("Not a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        values.forEach((key, value) -> fields.put(normalize(String.valueOf(key)), value != null ? value.toString() : null));
+        return fields;
+    }
+
+    private static String required(Map<String, String> fields, String column) {
+        String value = fields.get(normalize(column));
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is missing");
+        }
+        return value.trim();
+    }
+
+    private static Long optionalLong(Map<String, String> fields, String column) {
+        String value = fields.get(normalize(column));
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static int score(Map<String, String> fields, String column) {
+        String value = required(fields, column);
+        try {
+            int score = Integer.parseInt(value);
+            if (score < 0) {
+                throw new IllegalArgumentException(column + " is negative: " + value);
+            }
+            return score;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static LocalDateTime dateTime(Map<String, String> fields, String column) {
+        String value = required(fields, column);
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " is not an ISO-8601 date: " + value);
+        }
+    }
+
+    /**
+     * The valid rows of one batch, written together.
+     */
+    private abstract static class Rows {
+        /**
+         * Validates a row and adds it to the batch.
+         *
+         * @return false if the row is already in the database
+         * @throws IllegalArgumentException if the row is not valid
+         */
+        abstract boolean add(Map<String, String> fields);
+
+        abstract int size();
+
+        abstract void write();
+
+        abstract void clear();
+    }
+
+    /**
+     * Players, by name. New players are added to the names as soon as they are read, so a name repeated
+     * in the file is skipped, and get their IDs when the batch is written.
+     */
+    private final class PlayerRows extends Rows {
+        private final Map<String, User> players;
+        private final Set<Long> leagueIds = new HashSet<>();
+        private final Map<Long, Long> leagueOfDivision = new HashMap<>();
+        private final List<User> batch = new ArrayList<>();
+
+        PlayerRows(Map<String, User> players) {
+            this.players = players;
+            for (League league : leagueRepository.findAll()) {
+                leagueIds.add(league.getId());
+            }
+            for (Division division : divisionRepository.findAll()) {
+                leagueOfDivision.put(division.getId(), division.getLeagueId());
+            }
+        }
+
+        @Override
+        boolean add(Map<String, String> fields) {
+            String name = required(fields, "name");
+            if (name.length() > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("name is longer than " + MAX_NAME_LENGTH + " characters");
+            }
+            if (players.containsKey(name)) {
+                return false;
+            }
+            Long leagueId = optionalLong(fields, "leagueId");
+            Long divisionId = optionalLong(fields, "divisionId");
+            if (divisionId != null) {
+                Long divisionLeagueId = leagueOfDivision.get(divisionId);
+                if (divisionLeagueId == null) {
+                    throw new IllegalArgumentException("Division " + divisionId + " not found");
+                }
+                if (leagueId != null && !leagueId.equals(divisionLeagueId)) {
+                    throw new IllegalArgumentException("Division " + divisionId + " is not in league " + leagueId);
+                }
+                leagueId = divisionLeagueId;
+            } else if (leagueId != null && !leagueIds.contains(leagueId)) {
+                throw new IllegalArgumentException("League " + leagueId + " not found");
+            }
+
+            User user = new User();
+            user.setName(name);
+            user.setEloRating(User.DEFAULT_ELO_RATING);
+            user.setLastActiveDate(LocalDate.now());
+            user.setLeagueId(leagueId);
+            user.setDivisionId(divisionId);
+            batch.add(user);
+            players.put(name, user);
+            return true;
+        }
+
+        @Override
+        int size() {
+            return batch.size();
+        }
+
+        @Override
+        void write() {
+            userRepository.insertAll(batch);
+        }
+
+        @Override
+        void clear() {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Matches between players named in the file, with the result taken from the scores.
+     */
+    private final class MatchRows extends Rows {
+        private final Map<String, User> players;
+        private final LocalDateTime archivedBefore = matchArchiveService.getArchivedBefore();
+        private final List<Match> batch = new ArrayList<>();
+
+        MatchRows(Map<String, User> players) {
+            this.players = players;
+        }
+
+        @Override
+        boolean add(Map<String, String> fields) {
+            String player1Name = required(fields, "player1");
+            String player2Name = required(fields, "player2");
+            if (player1Name.equals(player2Name)) {
+                throw new IllegalArgumentException("A player cannot play against themselves");
+            }
+            User player1 = player(player1Name);
+            User player2 = player(player2Name);
+            int player1Score = score(fields, "player1Score");
+            int player2Score = score(fields, "player2Score");
+            LocalDateTime matchDateTime = dateTime(fields, "matchDateTime");
+            if (matchDateTime.isAfter(LocalDateTime.now())) {
+                throw new IllegalArgumentException("matchDateTime is in the future: " + matchDateTime);
+            }
+            if (archivedBefore != null && matchDateTime.isBefore(archivedBefore)) {
+                throw new IllegalArgumentException("Matches played before " + archivedBefore + " are archived");
+            }
+
+            Match match = new Match(player1.getId(), player2.getId());
+            match.setPlayer1Score(player1Score);
+            match.setPlayer2Score(player2Score);
+            match.setWinnerAndLoser();
+            match.setPlayer1EloAtMatchTime(player1.getEloRating());
+            match.setPlayer2EloAtMatchTime(player2.getEloRating());
+            match.setPlayer1EloAfterMatch(player1.getEloRating());
+            match.setPlayer2EloAfterMatch(player2.getEloRating());
+            match.setMatchDateTime(matchDateTime);
+            match.setRatingPeriod(Match.NO_RATING_PERIOD);
+            batch.add(match);
+            return true;
+        }
+
+        private User player(String name) {
+            User player = players.get(name);
+            if (player == null) {
+                throw new IllegalArgumentException("Player " + name + " not found");
+            }
+            if (player == AMBIGUOUS) {
+                throw new IllegalArgumentException("Player name " + name + " is not unique");
+            }
+            return player;
+        }
+
+        @Override
+        int size() {
+            return batch.size();
+        }
+
+        @Override
+        void write() {
+            matchRepository.insertAll(batch);
+        }
+
+        @Override
+        void clear() {
+            batch.clear();
+        }
+    }
+}
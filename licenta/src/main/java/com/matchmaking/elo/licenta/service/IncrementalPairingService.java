@@ -0,0 +1,24 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
+import com.matchmaking.elo.licenta.model.IncrementalPairing;
+import com.matchmaking.elo.licenta.model.PairingDelta;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for keeping a division's pairing up to date as players sign in and out.
+ */
+public interface IncrementalPairingService {
+    IncrementalPairing start(long divisionId, PairingStrategy strategy);
+
+    boolean stop(long divisionId);
+
+    Optional<IncrementalPairing> getPairing(long divisionId);
+
+    List<PairingDelta> getDeltas(long divisionId, long sinceVersion);
+
+    void onPresenceChanged(PresenceChangedEvent event);
+}
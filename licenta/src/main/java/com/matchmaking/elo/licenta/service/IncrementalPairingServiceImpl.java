@@ -0,0 +1,297 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
+import com.matchmaking.elo.licenta.matchmaking.EloIndex;
+import com.matchmaking.elo.licenta.model.IncrementalPairing;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingDelta;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for keeping a division's pairing up to date as players sign in and out.
+ * A full pairing is computed once when incremental mode is started. After that, every presence change
+ * only repairs the affected neighbourhood:
+ * <ul>
+ *     <li>a joining player is paired with the nearest unpaired player, or, if there is none in range,
+ *     takes over the nearest paired player whose partner can be paired with an unpaired player instead;</li>
+ *     <li>when a paired player leaves, their partner is paired with the nearest unpaired player, if any.</li>
+ * </ul>
+ * Each change is recorded as a versioned {@link PairingDelta} and published as an application event.
+ */
+@Service
+public class IncrementalPairingServiceImpl implements IncrementalPairingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalPairingServiceImpl.class);
+
+    private static final int MAX_DELTAS = 256;
+
+    private final DivisionService divisionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxGap;
+
+    private final Map<Long, DivisionPairingState> states = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public IncrementalPairingServiceImpl(DivisionService divisionService, ApplicationEventPublisher eventPublisher,
+                                         @Value("${matchmaking.incremental.max-gap:200}") int maxGap) {
+        this.divisionService = divisionService;
+        this.eventPublisher = eventPublisher;
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Starts incremental pairing for a division from a full pairing with the given strategy.
+     * Starting again replaces the current pairing.
+     *
+     * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm used for the initial pairing
+     * @return the initial pairing
+     * @throws IllegalStateException if there are not enough players signed in for matchmaking
+     */
+    @Override
+    public IncrementalPairing start(long divisionId, PairingStrategy strategy) {
+        List<User> signedInUsers = divisionService.getSignedInUsersInDivision(divisionId);
+        List<Pair> pairs = divisionService.matchPlayers(divisionId, strategy);
+
+        Map<Long, Integer> ratings = new HashMap<>();
+        for (User user : signedInUsers) {
+            ratings.put(user.getId(), user.getEloRating());
+        }
+
+        DivisionPairingState state = new DivisionPairingState(divisionId);
+        PairingDelta delta = state.initialise(pairs, ratings);
+        states.put(divisionId, state);
+        eventPublisher.publishEvent(delta);
+
+        logger.info("Started incremental pairing for division {} with strategy {}: {} pairs, {} unpaired",
+                divisionId, strategy, pairs.size(), delta.getUnpairedPlayerIds().size());
+        return state.snapshot();
+    }
+
+    /**
+     * Stops incremental pairing for a division.
+     *
+     * @param divisionId the ID of the division
+     * @return true if the division was being paired incrementally
+     */
+    @Override
+    public boolean stop(long divisionId) {
+        return states.remove(divisionId) != null;
+    }
+
+    /**
+     * Retrieves the current incremental pairing of a division.
+     *
+     * @param divisionId the ID of the division
+     * @return an Optional containing the pairing, or an empty Optional if incremental mode is not started
+     */
+    @Override
+    public Optional<IncrementalPairing> getPairing(long divisionId) {
+        DivisionPairingState state = states.get(divisionId);
+        return state == null ? Optional.empty() : Optional.of(state.snapshot());
+    }
+
+    /**
+     * Retrieves the changes made to a division's pairing after a given version.
+     * Only the most recent {@value #MAX_DELTAS} changes are kept.
+     *
+     * @param divisionId the ID of the division
+     * @param sinceVersion the last version the caller has seen
+     * @return the newer changes, oldest first
+     */
+    @Override
+    public List<PairingDelta> getDeltas(long divisionId, long sinceVersion) {
+        DivisionPairingState state = states.get(divisionId);
+        return state == null ? List.of() : state.deltasSince(sinceVersion);
+    }
+
+    /**
+     * Repairs the pairing of the player's division once their sign-in or sign-out has committed.
+     *
+     * @param event the presence change
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        if (event.getDivisionId() == null) {
+            return;
+        }
+        DivisionPairingState state = states.get(event.getDivisionId());
+        if (state == null) {
+            return;
+        }
+
+        PairingDelta delta = event.isSignedIn()
+                ? state.join(event.getUserId(), event.getEloRating())
+                : state.leave(event.getUserId());
+        if (delta != null) {
+            logger.info("Repaired pairing of division {} after player {} signed {}: +{} pairs, -{} pairs",
+                    event.getDivisionId(), event.getUserId(), event.isSignedIn() ? "in" : "out",
+                    delta.getAddedPairs().size(), delta.getRemovedPairs().size());
+            eventPublisher.publishEvent(delta);
+        }
+    }
+
+    /**
+     * The incremental pairing of one division. All access is synchronized on the state.
+     */
+    private final class DivisionPairingState {
+        final long divisionId;
+        final Map<Long, Long> partners = new HashMap<>();
+        final EloIndex paired = new EloIndex();
+        final EloIndex unpaired = new EloIndex();
+        final Deque<PairingDelta> deltas = new ArrayDeque<>();
+        long version;
+
+        List<Pair> added;
+        List<Pair> removed;
+
+        DivisionPairingState(long divisionId) {
+            this.divisionId = divisionId;
+        }
+
+        synchronized PairingDelta initialise(List<Pair> pairs, Map<Long, Integer> ratings) {
+            beginChange();
+            for (Pair pair : pairs) {
+                addPair(pair.getUser1Id(), ratings.getOrDefault(pair.getUser1Id(), 0),
+                        pair.getUser2Id(), ratings.getOrDefault(pair.getUser2Id(), 0));
+                ratings.remove(pair.getUser1Id());
+                ratings.remove(pair.getUser2Id());
+            }
+            ratings.forEach(unpaired::add);
+            return commitChange();
+        }
+
+        synchronized PairingDelta join(long userId, int rating) {
+            if (partners.containsKey(userId) || unpaired.contains(userId)) {
+                return null;
+            }
+            beginChange();
+
+            Long opponent = nearestWithinGap(unpaired, rating, userId);
+            if (opponent != null) {
+                int opponentRating = unpaired.getRating(opponent);
+                unpaired.remove(opponent);
+                addPair(userId, rating, opponent, opponentRating);
+                return commitChange();
+            }
+
+            Long takenOver = nearestWithinGap(paired, rating, userId);
+            if (takenOver != null) {
+                long displaced = partners.get(takenOver);
+                int displacedRating = paired.getRating(displaced);
+                Long displacedOpponent = nearestWithinGap(unpaired, displacedRating, displaced);
+                if (displacedOpponent != null) {
+                    int takenOverRating = paired.getRating(takenOver);
+                    int displacedOpponentRating = unpaired.getRating(displacedOpponent);
+                    removePair(takenOver, displaced);
+                    unpaired.remove(displacedOpponent);
+                    addPair(userId, rating, takenOver, takenOverRating);
+                    addPair(displaced, displacedRating, displacedOpponent, displacedOpponentRating);
+                    return commitChange();
+                }
+            }
+
+            unpaired.add(userId, rating);
+            return commitChange();
+        }
+
+        synchronized PairingDelta leave(long userId) {
+            if (unpaired.contains(userId)) {
+                beginChange();
+                unpaired.remove(userId);
+                return commitChange();
+            }
+            Long partner = partners.get(userId);
+            if (partner == null) {
+                return null;
+            }
+            beginChange();
+
+            int partnerRating = paired.getRating(partner);
+            removePair(userId, partner);
+            Long opponent = nearestWithinGap(unpaired, partnerRating, partner);
+            if (opponent != null) {
+                int opponentRating = unpaired.getRating(opponent);
+                unpaired.remove(opponent);
+                addPair(partner, partnerRating, opponent, opponentRating);
+            } else {
+                unpaired.add(partner, partnerRating);
+            }
+            return commitChange();
+        }
+
+        synchronized IncrementalPairing snapshot() {
+            List<Pair> pairs = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : partners.entrySet()) {
+                if (entry.getKey() < entry.getValue()) {
+                    pairs.add(new Pair(entry.getKey(), entry.getValue()));
+                }
+            }
+            return new IncrementalPairing(divisionId, version, pairs, unpaired.idsInRatingOrder());
+        }
+
+        synchronized List<PairingDelta> deltasSince(long sinceVersion) {
+            List<PairingDelta> newer = new ArrayList<>();
+            for (PairingDelta delta : deltas) {
+                if (delta.getVersion() > sinceVersion) {
+                    newer.add(delta);
+                }
+            }
+            return newer;
+        }
+
+        private Long nearestWithinGap(EloIndex index, int rating, long userId) {
+            Long lower = index.lower(rating, userId);
+            Long higher = index.higher(rating, userId);
+            int lowerGap = lower == null ? Integer.MAX_VALUE : rating - index.getRating(lower);
+            int higherGap = higher == null ? Integer.MAX_VALUE : index.getRating(higher) - rating;
+            if (Math.min(lowerGap, higherGap) > maxGap) {
+                return null;
+            }
+            return lowerGap <= higherGap ? lower : higher;
+        }
+
+        private void addPair(long user1Id, int user1Rating, long user2Id, int user2Rating) {
+            partners.put(user1Id, user2Id);
+            partners.put(user2Id, user1Id);
+            paired.add(user1Id, user1Rating);
+            paired.add(user2Id, user2Rating);
+            added.add(new Pair(user1Id, user2Id));
+        }
+
+        private void removePair(long user1Id, long user2Id) {
+            partners.remove(user1Id);
+            partners.remove(user2Id);
+            paired.remove(user1Id);
+            paired.remove(user2Id);
+            removed.add(new Pair(user1Id, user2Id));
+        }
+
+        private void beginChange() {
+            added = new ArrayList<>();
+            removed = new ArrayList<>();
+        }
+
+        private PairingDelta commitChange() {
+            PairingDelta delta = new PairingDelta(divisionId, ++version, added, removed, unpaired.idsInRatingOrder());
+            deltas.addLast(delta);
+            if (deltas.size() > MAX_DELTAS) {
+                deltas.removeFirst();
+            }
+            return delta;
+        }
+    }
+}
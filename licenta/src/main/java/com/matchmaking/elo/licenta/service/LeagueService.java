@@ -2,6 +2,8 @@ package com.matchmaking.elo.licenta.service;
 
 import com.matchmaking.elo.licenta.model.Division;
 import com.matchmaking.elo.licenta.model.League;
+import com.matchmaking.elo.licenta.model.LeaguePairing;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
 import com.matchmaking.elo.licenta.model.User;
 
 import java.util.List;
@@ -37,5 +39,7 @@ public interface LeagueService {
 
     League save(League league);
 
+    LeaguePairing pairLeague(Long leagueId, PairingStrategy strategy);
+
 
 }
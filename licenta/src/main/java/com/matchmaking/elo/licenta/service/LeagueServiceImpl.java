@@ -1,17 +1,29 @@
 package com.matchmaking.elo.licenta.service;
 
+import com.matchmaking.elo.licenta.model.BorderPair;
 import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.DivisionPairing;
 import com.matchmaking.elo.licenta.model.League;
+import com.matchmaking.elo.licenta.model.LeaguePairing;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
 import com.matchmaking.elo.licenta.model.User;
 import com.matchmaking.elo.licenta.repository.LeagueRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 import static com.matchmaking.elo.licenta.model.User.DEFAULT_ELO_RATING;
 
@@ -28,14 +40,22 @@ public class LeagueServiceImpl implements LeagueService {
     private final LeagueRepository leagueRepository;
     private final UserService userService;
     private final DivisionService divisionService;
+    private final SeasonService seasonService;
+    private final ExecutorService pairingExecutor;
+    private final int borderMaxGap;
 
 
     @Autowired
     public LeagueServiceImpl(LeagueRepository leagueRepository,
-                             UserService userService, DivisionService divisionService) {
+                             UserService userService, DivisionService divisionService, SeasonService seasonService,
+                             @Qualifier("pairingExecutor") ExecutorService pairingExecutor,
+                             @Value("${matchmaking.border.max-gap:150}") int borderMaxGap) {
         this.leagueRepository = leagueRepository;
         this.userService = userService;
         this.divisionService = divisionService;
+        this.seasonService = seasonService;
+        this.pairingExecutor = pairingExecutor;
+        this.borderMaxGap = borderMaxGap;
     }
 
     /**
@@ -113,7 +133,7 @@ public class LeagueServiceImpl implements LeagueService {
 
     /**
      * Ends the season for a league, promoting and demoting players between divisions
-     * and performing a soft reset of ELO ratings.
+     * performing a soft reset of ELO ratings and starting the next season.
      *
      * @param leagueId the ID of the league
      */
@@ -149,6 +169,7 @@ public class LeagueServiceImpl implements LeagueService {
         }
 
         softResetEloOfUsersInLeague(leagueId);
+        seasonService.startNextSeason(leagueId);
         logger.info("Completed end of season processing for league {}", leagueId);
 
     }
@@ -332,4 +353,133 @@ public class LeagueServiceImpl implements LeagueService {
         logger.info("Saved league: {}", savedLeague);
         return savedLeague;
     }
+
+    /**
+     * Pairs the players of every division in a league, running the divisions in parallel
+     * on the bounded pairing executor.
+     * A division that cannot be paired, or whose pairing fails, is reported with an error instead of failing
+     * the whole league.
+     * The players left unpaired by their divisions are then paired across division borders.
+     *
+     * @param leagueId the ID of the league
+     * @param strategy the pairing algorithm to use in each division
+     * @return the pairings and timings of all divisions, ordered by division rank, and the border pairs
+     * @throws IllegalStateException if the league is not found
+     */
+    @Override
+    public LeaguePairing pairLeague(Long leagueId, PairingStrategy strategy) {
+        getLeagueById(leagueId);
+        long start = System.nanoTime();
+
+        List<Division> divisions = divisionService.getAllDivisionsInLeague(leagueId);
+        divisions.sort(Comparator.comparing(Division::getRank));
+
+        List<CompletableFuture<DivisionResult>> futures = divisions.stream()
+                .map(division -> CompletableFuture.supplyAsync(() -> pairDivision(division, strategy), pairingExecutor))
+                .toList();
+        List<DivisionResult> results = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        List<BorderPair> borderPairs = new ArrayList<>();
+        List<Long> unpairedPlayerIds = new ArrayList<>();
+        pairAcrossBorders(results, borderPairs, unpairedPlayerIds);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Paired {} divisions of league {} with strategy {} in {} ms: {} border pairs, {} unpaired",
+                divisions.size(), leagueId, strategy, elapsedMillis, borderPairs.size(), unpairedPlayerIds.size());
+        List<DivisionPairing> divisionPairings = results.stream()
+                .map(DivisionResult::pairing)
+                .toList();
+        return new LeaguePairing(leagueId, strategy, divisionPairings, borderPairs, unpairedPlayerIds, elapsedMillis);
+    }
+
+    /**
+     * Pairs the players of one division and measures how long it takes.
+     * The signed-in players are read once; the pairing and the leftovers both come from that list, so a
+     * player who signs in or out meanwhile cannot be reported as a leftover while also being paired.
+     *
+     * @param division the division to pair
+     * @param strategy the pairing algorithm to use
+     * @return the pairing of the division, or an error if it could not be paired, and the players left unpaired;
+     * a division whose players could not be read has no leftovers
+     */
+    private DivisionResult pairDivision(Division division, PairingStrategy strategy) {
+        long start = System.nanoTime();
+        List<User> signedInUsers = List.of();
+        List<Pair> pairs;
+        String error = null;
+        try {
+            signedInUsers = divisionService.getSignedInUsersInDivision(division.getId());
+            pairs = divisionService.matchPlayers(division.getId(), signedInUsers, strategy);
+        } catch (IllegalStateException e) {
+            logger.warn("Could not pair division {}: {}", division.getId(), e.getMessage());
+            pairs = List.of();
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            logger.error("Failed to pair division {}", division.getId(), e);
+            pairs = List.of();
+            error = "Pairing failed: " + e;
+        }
+
+        Set<Long> pairedIds = new HashSet<>();
+        for (Pair pair : pairs) {
+            pairedIds.add(pair.getUser1Id());
+            pairedIds.add(pair.getUser2Id());
+        }
+        List<User> leftovers = signedInUsers.stream()
+                .filter(user -> !pairedIds.contains(user.getId()))
+                .toList();
+
+        DivisionPairing pairing = new DivisionPairing(division, pairs, (System.nanoTime() - start) / 1_000_000, error);
+        return new DivisionResult(pairing, leftovers);
+    }
+
+    /**
+     * Pairs the leftover players of divisions that are next to each other in rank order.
+     * Leftovers of a division may only be paired with leftovers of the division ranked directly below,
+     * closest ELO ratings first and never above the border gap. Players who stay unpaired are reported.
+     *
+     * @param results the per-division results, ordered by division rank
+     * @param borderPairs receives the pairs made across division borders
+     * @param unpairedPlayerIds receives the players left without an opponent
+     */
+    private void pairAcrossBorders(List<DivisionResult> results, List<BorderPair> borderPairs, List<Long> unpairedPlayerIds) {
+        List<User> above = new ArrayList<>();
+        for (DivisionResult result : results) {
+            List<User> below = new ArrayList<>(result.leftovers());
+            while (!above.isEmpty() && !below.isEmpty()) {
+                User bestAbove = null;
+                User bestBelow = null;
+                int bestGap = Integer.MAX_VALUE;
+                for (User upper : above) {
+                    for (User lower : below) {
+                        int gap = Math.abs(upper.getEloRating() - lower.getEloRating());
+                        if (gap < bestGap) {
+                            bestGap = gap;
+                            bestAbove = upper;
+                            bestBelow = lower;
+                        }
+                    }
+                }
+                if (bestGap > borderMaxGap) {
+                    break;
+                }
+                borderPairs.add(new BorderPair(bestAbove, bestBelow));
+                above.remove(bestAbove);
+                below.remove(bestBelow);
+                logger.info("Border matched players: user1={} (division {}), user2={} (division {})",
+                        bestAbove.getId(), bestAbove.getDivisionId(), bestBelow.getId(), bestBelow.getDivisionId());
+            }
+            above.forEach(user -> unpairedPlayerIds.add(user.getId()));
+            above = below;
+        }
+        above.forEach(user -> unpairedPlayerIds.add(user.getId()));
+    }
+
+    /**
+     * The pairing of one division together with its signed-in players left without an opponent.
+     */
+    private record DivisionResult(DivisionPairing pairing, List<User> leftovers) {
+    }
 }
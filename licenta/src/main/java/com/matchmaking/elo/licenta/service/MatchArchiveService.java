@@ -0,0 +1,27 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchPartition;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service interface for moving the matches of closed seasons out of the MATCHES table into archive files.
+ */
+public interface MatchArchiveService {
+    List<MatchPartition> archiveBefore(LocalDateTime before);
+
+    List<MatchPartition> getPartitions();
+
+    LocalDateTime getArchivedBefore();
+
+    LocalDateTime readArchivedBefore();
+
+    List<Match> findHistoryPage(long userId, LocalDateTime afterDateTime, long afterId, LocalDateTime to, int limit);
+
+    Stream<Match> streamArchivedMatches();
+
+    Stream<Match> streamArchivedMatches(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,341 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchPartition;
+import com.matchmaking.elo.licenta.repository.MatchPartitionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.SeasonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service implementation for the match archive.
+ * <p>
+ * The match store is split by date into partitions. The current partition is the MATCHES table; older
+ * partitions are one calendar month each, stored as a gzip-compressed CSV file in
+ * {@code matchmaking.match-archive.directory} and listed in MATCH_PARTITIONS. Only matches of closed
+ * seasons are archived: the archive never reaches past the start of a league's open season. Once a month
+ * is archived, its matches are deleted from MATCHES, so the queries behind matchmaking and match
+ * recording only touch the current seasons however long the history grows. Matches cannot be recorded
+ * with a date in the archive.
+ * <p>
+ * Archived matches stay readable: match history pages that reach into the archive read the files of the
+ * months they cover, and full recomputations such as an ELO replay read all files before the table.
+ * Archived files are not changed after they are written. Head-to-head counts and recent form only
+ * cover the matches still in the table.
+ * <p>
+ * Each month is archived in its own transaction, which holds a lock blocking match writes while the
+ * month's file is written. A checkpoint is taken afterwards, so that ratings are never corrected from a
+ * checkpoint older than the archive.
+ */
+@Service
+public class MatchArchiveServiceImpl implements MatchArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchArchiveServiceImpl.class);
+
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final MatchRepository matchRepository;
+    private final MatchPartitionRepository matchPartitionRepository;
+    private final SeasonRepository seasonRepository;
+    private final RatingCheckpointService ratingCheckpointService;
+    private final HeadToHeadService headToHeadService;
+    private final RecentFormService recentFormService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final boolean scheduled;
+    private final int minAgeDays;
+
+    private final Object archiveLock = new Object();
+    private volatile Optional<LocalDateTime> archivedBefore;
+
+
+    @Autowired
+    public MatchArchiveServiceImpl(MatchRepository matchRepository, MatchPartitionRepository matchPartitionRepository,
+                                   SeasonRepository seasonRepository, RatingCheckpointService ratingCheckpointService,
+                                   HeadToHeadService headToHeadService, RecentFormService recentFormService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${matchmaking.match-archive.directory:match-archive}") String directory,
+                                   @Value("${matchmaking.match-archive.scheduled:false}") boolean scheduled,
+                                   @Value("${matchmaking.match-archive.min-age-days:90}") int minAgeDays) {
+        if (minAgeDays < 0) {
+            throw new IllegalArgumentException("Match archive minimum age must not be negative");
+        }
+        this.matchRepository = matchRepository;
+        this.matchPartitionRepository = matchPartitionRepository;
+        this.seasonRepository = seasonRepository;
+        this.ratingCheckpointService = ratingCheckpointService;
+        this.headToHeadService = headToHeadService;
+        this.recentFormService = recentFormService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.scheduled = scheduled;
+        this.minAgeDays = minAgeDays;
+    }
+
+    /**
+     * Archives on schedule the months that ended at least {@code matchmaking.match-archive.min-age-days}
+     * ago and before the start of every open season, if scheduled archiving is enabled.
+     */
+    @Scheduled(cron = "${matchmaking.match-archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        if (!scheduled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(minAgeDays);
+        LocalDateTime openSince = seasonRepository.findEarliestOpenSeasonStart();
+        if (openSince != null && openSince.isBefore(before)) {
+            before = openSince;
+        }
+        archiveBefore(before.toLocalDate().withDayOfMonth(1).atStartOfDay());
+    }
+
+    /**
+     * Moves the matches played before a date out of the MATCHES table, one month per partition.
+     *
+     * @param before the date to archive up to, exclusive
+     * @return the new partitions, empty if there was nothing to archive
+     * @throws IllegalStateException if the date is in the future or after the start of an open season
+     */
+    @Override
+    public List<MatchPartition> archiveBefore(LocalDateTime before) {
+        LocalDateTime openSince = seasonRepository.findEarliestOpenSeasonStart();
+        if (before.isAfter(LocalDateTime.now()) || (openSince != null && before.isAfter(openSince))) {
+            throw new IllegalStateException("Only matches of closed seasons can be archived, played before "
+                    + (openSince != null ? openSince : "now"));
+        }
+
+        List<MatchPartition> partitions = new ArrayList<>();
+        synchronized (archiveLock) {
+            long start = System.nanoTime();
+            LocalDateTime from = getArchivedBefore();
+            if (from == null) {
+                LocalDateTime firstMatch = matchRepository.findFirstMatchDateTime();
+                if (firstMatch == null) {
+                    return partitions;
+                }
+                from = firstMatch.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            }
+            while (from.isBefore(before)) {
+                LocalDateTime monthEnd = from.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+                LocalDateTime to = monthEnd.isBefore(before) ? monthEnd : before;
+                LocalDateTime partitionStart = from;
+                MatchPartition partition = transactionTemplate.execute(status -> archive(partitionStart, to));
+                if (partition != null) {
+                    partitions.add(partition);
+                    archivedBefore = Optional.of(to);
+                }
+                from = to;
+            }
+            if (partitions.isEmpty()) {
+                return partitions;
+            }
+            logger.info("Archived {} matches before {} into {} partitions in {} ms",
+                    partitions.stream().mapToLong(MatchPartition::getMatchCount).sum(), before, partitions.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        ratingCheckpointService.createCheckpoint();
+        headToHeadService.reload();
+        recentFormService.reload();
+        return partitions;
+    }
+
+    /**
+     * Writes the matches of one month to a new file and deletes them from the table.
+     *
+     * @return the new partition, or null if no match was played in the range
+     */
+    private MatchPartition archive(LocalDateTime start, LocalDateTime end) {
+        matchRepository.lockForRewrite();
+        String fileName = "matches-" + FILE_DATE_FORMAT.format(start) + "-" + FILE_DATE_FORMAT.format(end) + ".csv.gz";
+        Path file = directory.resolve(fileName);
+        Path temporary = directory.resolve(fileName + ".tmp");
+        long[] lastMatchId = {0};
+        try {
+            Files.createDirectories(directory);
+            long count;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8))) {
+                writer.write(MatchCsv.HEADER);
+                writer.write('\n');
+                count = matchRepository.forEachMatchBetween(start, end, match -> {
+                    try {
+                        writer.write(MatchCsv.format(match));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    lastMatchId[0] = Math.max(lastMatchId[0], match.getId());
+                });
+            }
+            if (count == 0) {
+                Files.delete(temporary);
+                return null;
+            }
+            int deleted = matchRepository.deleteBetween(start, end);
+            if (deleted != count) {
+                throw new IllegalStateException("Archived " + count + " matches from " + start + " but deleted " + deleted);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return matchPartitionRepository.save(new MatchPartition(start, end, count, lastMatchId[0], fileName,
+                    Files.size(file), LocalDateTime.now()));
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException("Could not archive the matches from " + start + " to " + end, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves all partitions, oldest first.
+     *
+     * @return the archived partitions
+     */
+    @Override
+    public List<MatchPartition> getPartitions() {
+        return matchPartitionRepository.findAllByOrderByStartDateTime();
+    }
+
+    /**
+     * Gets the date up to which matches are archived. Every match played before it is in an archive file,
+     * every match played from it on is in the MATCHES table.
+     *
+     * @return the end of the last partition, or null if nothing was archived
+     */
+    @Override
+    public LocalDateTime getArchivedBefore() {
+        Optional<LocalDateTime> cached = archivedBefore;
+        if (cached == null) {
+            cached = matchPartitionRepository.findFirstByOrderByEndDateTimeDesc().map(MatchPartition::getEndDateTime);
+            archivedBefore = cached;
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * Reads the date up to which matches are archived from the database, without the cached value, which
+     * only changes once an archive has committed. For readers that must see an archive as soon as it commits.
+     *
+     * @return the end of the last committed partition, or null if nothing was archived
+     */
+    @Override
+    public LocalDateTime readArchivedBefore() {
+        return matchPartitionRepository.findFirstByOrderByEndDateTimeDesc().map(MatchPartition::getEndDateTime).orElse(null);
+    }
+
+    /**
+     * Reads one page of the archived matches of a player, in play order, from the files of the months the
+     * page covers.
+     *
+     * @param userId the ID of the player
+     * @param afterDateTime the match date to start from, inclusive for matches after {@code afterId}
+     * @param afterId the ID of the last match already seen at {@code afterDateTime}
+     * @param to the match date to stop before
+     * @param limit the maximum number of matches to return
+     * @return the matches, oldest first
+     */
+    @Override
+    public List<Match> findHistoryPage(long userId, LocalDateTime afterDateTime, long afterId, LocalDateTime to,
+                                       int limit) {
+        List<Match> matches = new ArrayList<>();
+        for (MatchPartition partition : matchPartitionRepository
+                .findByStartDateTimeLessThanAndEndDateTimeGreaterThanOrderByStartDateTime(to, afterDateTime)) {
+            try (Stream<Match> archived = read(partition)) {
+                Iterator<Match> iterator = archived.iterator();
+                while (iterator.hasNext()) {
+                    Match match = iterator.next();
+                    if (!match.getMatchDateTime().isBefore(to)) {
+                        break;
+                    }
+                    if ((match.getPlayer1Id() == userId || match.getPlayer2Id() == userId)
+                            && (match.getMatchDateTime().isAfter(afterDateTime)
+                            || (match.getMatchDateTime().isEqual(afterDateTime) && match.getId() > afterId))) {
+                        matches.add(match);
+                        if (matches.size() >= limit) {
+                            return matches;
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Reads all archived matches, in play order. The files are opened one at a time as the stream is
+     * consumed; the stream must be closed.
+     *
+     * @return the archived matches
+     */
+    @Override
+    public Stream<Match> streamArchivedMatches() {
+        return getPartitions().stream().flatMap(this::read);
+    }
+
+    /**
+     * Reads the archived matches played in a date range, in play order. Only the files of the months the
+     * range covers are opened, one at a time as the stream is consumed; the stream must be closed.
+     *
+     * @param from the start of the range, inclusive, or null for no start
+     * @param to the end of the range, exclusive, or null for no end
+     * @return the archived matches in the range
+     */
+    @Override
+    public Stream<Match> streamArchivedMatches(LocalDateTime from, LocalDateTime to) {
+        return getPartitions().stream()
+                .filter(partition -> (to == null || partition.getStartDateTime().isBefore(to))
+                        && (from == null || partition.getEndDateTime().isAfter(from)))
+                .flatMap(this::read)
+                .filter(match -> (from == null || !match.getMatchDateTime().isBefore(from))
+                        && (to == null || match.getMatchDateTime().isBefore(to)));
+    }
+
+    private Stream<Match> read(MatchPartition partition) {
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(directory.resolve(partition.getFileName()))),
+                    StandardCharsets.UTF_8));
+            return reader.lines().skip(1).map(MatchCsv::parse).onClose(() -> {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read match archive " + partition.getFileName(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", path, e);
+        }
+    }
+}
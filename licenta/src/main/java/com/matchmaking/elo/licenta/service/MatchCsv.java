@@ -0,0 +1,55 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+
+import java.time.LocalDateTime;
+
+/**
+ * One match per line of comma-separated values, as stored in the match archive files.
+ * A missing winner or loser, for a draw, is an empty field. Dates are ISO-8601 local date-times.
+ */
+final class MatchCsv {
+
+    static final String HEADER = "ID,PLAYER_1_ID,PLAYER_2_ID,PLAYER_1_SCORE,PLAYER_2_SCORE,WINNER_ID,LOSER_ID," +
+            "PLAYER_1_ELO_AT_MATCH_TIME,PLAYER_2_ELO_AT_MATCH_TIME,PLAYER_1_ELO_AFTER_MATCH,PLAYER_2_ELO_AFTER_MATCH," +
+            "MATCH_DATE_TIME";
+
+    private MatchCsv() {
+    }
+
+    static String format(Match match) {
+        return match.getId() + "," + match.getPlayer1Id() + "," + match.getPlayer2Id() + ","
+                + match.getPlayer1Score() + "," + match.getPlayer2Score() + ","
+                + (match.getWinnerId() != null ? match.getWinnerId() : "") + ","
+                + (match.getLoserId() != null ? match.getLoserId() : "") + ","
+                + match.getPlayer1EloAtMatchTime() + "," + match.getPlayer2EloAtMatchTime() + ","
+                + match.getPlayer1EloAfterMatch() + "," + match.getPlayer2EloAfterMatch() + ","
+                + match.getMatchDateTime();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a match
+     */
+    static Match parse(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 12) {
+            throw new IllegalArgumentException("Not a match line: " + line);
+        }
+        try {
+            Match match = new Match(Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+            match.setId(Long.parseLong(fields[0]));
+            match.setPlayer1Score(Integer.parseInt(fields[3]));
+            match.setPlayer2Score(Integer.parseInt(fields[4]));
+            match.setWinnerId(fields[5].isEmpty() ? null : Long.valueOf(fields[5]));
+            match.setLoserId(fields[6].isEmpty() ? null : Long.valueOf(fields[6]));
+            match.setPlayer1EloAtMatchTime(Integer.parseInt(fields[7]));
+            match.setPlayer2EloAtMatchTime(Integer.parseInt(fields[8]));
+            match.setPlayer1EloAfterMatch(Integer.parseInt(fields[9]));
+            match.setPlayer2EloAfterMatch(Integer.parseInt(fields[10]));
+            match.setMatchDateTime(LocalDateTime.parse(fields[11]));
+            return match;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Not a match line: " + line, e);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.matchmaking.elo.licenta.service;
 
 import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchHistoryPage;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchResultOutcome;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,7 +13,9 @@ import java.util.Optional;
  * Service interface for managing matches.
  */
 public interface MatchService {
-    Match saveMatch(Match match);
+    Match recordResult(MatchResult result);
+
+    List<MatchResultOutcome> saveMatches(List<MatchResult> results);
     Optional<Match> getMatchById(Long id);
     List<Match> getAllMatches();
     boolean deleteMatch(Long id);
@@ -17,9 +23,12 @@ public interface MatchService {
 
     void updatePlayersEloRating(Match match);
 
+    void rateMatch(Match match, int player1Elo, int player2Elo);
+
     double calculateExpectedScore(int playerElo, int opponentElo);
 
-    List<Match> getMatchesByUserId(Long userId);
+    MatchHistoryPage getMatchHistory(Long userId, LocalDateTime from, LocalDateTime to,
+                                     LocalDateTime afterDateTime, Long afterId, int limit);
 
     Long getNumberOfMatchesBetweenPlayers(Long player1Id, Long player2Id);
 
@@ -27,4 +36,10 @@ public interface MatchService {
     Long getNumberOfPlayerLosses(Long userId);
 
     int calculateRecentPerformance(Long userId);
+
+    void suspendWrites(String activity);
+
+    void resumeWrites();
+
+    void checkWritesAllowed();
 }
@@ -1,17 +1,26 @@
 package com.matchmaking.elo.licenta.service;
 
 import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchHistoryPage;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchResultOutcome;
 import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.GameResult;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
 import com.matchmaking.elo.licenta.repository.MatchRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service implementation for managing matches.
@@ -22,41 +31,105 @@ import java.util.stream.Collectors;
 public class MatchServiceImpl implements MatchService {
 
     private static final Logger logger = LoggerFactory.getLogger(MatchServiceImpl.class);
-    static final int K_FACTOR_CONSTANT = 32;
+    static final int MAX_HISTORY_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10_000;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final Comparator<Match> HISTORY_ORDER = Comparator.comparing(Match::getMatchDateTime)
+            .thenComparing(Match::getId);
     private final MatchRepository matchRepository;
     private final UserService userService;
+    private final HeadToHeadService headToHeadService;
+    private final RecentFormService recentFormService;
+    private final SwissService swissService;
+    private final RatingEngine ratingEngine;
+    private final PlayerResultsService playerResultsService;
+    private final RatingCheckpointService ratingCheckpointService;
+    private final RatingSeriesService ratingSeriesService;
+    private final MatchArchiveService matchArchiveService;
+    private final AtomicReference<String> writesSuspendedFor = new AtomicReference<>();
 
 
     @Autowired
-    public MatchServiceImpl(MatchRepository matchRepository, UserService userService) {
+    public MatchServiceImpl(MatchRepository matchRepository, UserService userService, HeadToHeadService headToHeadService,
+                            RecentFormService recentFormService, SwissService swissService, RatingEngine ratingEngine,
+                            PlayerResultsService playerResultsService, RatingCheckpointService ratingCheckpointService,
+                            RatingSeriesService ratingSeriesService, MatchArchiveService matchArchiveService) {
         this.matchRepository = matchRepository;
         this.userService = userService;
+        this.headToHeadService = headToHeadService;
+        this.recentFormService = recentFormService;
+        this.swissService = swissService;
+        this.ratingEngine = ratingEngine;
+        this.playerResultsService = playerResultsService;
+        this.ratingCheckpointService = ratingCheckpointService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.matchArchiveService = matchArchiveService;
     }
 
 
     /**
-     * Saves a new match and updates the match counter for the involved players.
+     * Records a match result in one transaction.
+     * Both players are read and locked with one query, in ID order, so concurrent results for the same
+     * player are applied one after the other instead of overwriting each other. The MATCHES table is locked
+     * for the insert before the players, the same order edits and rating corrections lock them in. The new ELO ratings,
+     * match counters and activity dates are computed together, each player is written once at commit
+     * and the match is inserted in the same transaction. The in-memory head-to-head, recent form and Swiss
+     * caches are updated once the transaction has committed.
      *
-     * @param match the match to save
+     * @param result the match result
      * @return the saved match
-     * @throws IllegalArgumentException if either player is not found
+     * @throws IllegalStateException if the players are missing, the same, or not found, or if match writes are
+     * suspended
      */
     @Override
-    public Match saveMatch(Match match) {
-        User player1 = userService.findUserById(match.getPlayer1Id())
-                .orElseThrow(() -> new IllegalArgumentException("Player 1 not found"));
-        User player2 = userService.findUserById(match.getPlayer2Id())
-                .orElseThrow(() -> new IllegalArgumentException("Player 2 not found"));
+    @Transactional
+    public Match recordResult(MatchResult result) {
+        checkWritesAllowed();
+        matchRepository.lockForInsert();
+        Map<Long, User> players = new HashMap<>();
+        if (result.getPlayer1Id() != null && result.getPlayer2Id() != null) {
+            for (User user : userService.lockUsersByIds(List.of(result.getPlayer1Id(), result.getPlayer2Id()))) {
+                players.put(user.getId(), user);
+            }
+        }
+        String error = validateResult(result, players);
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        User player1 = players.get(result.getPlayer1Id());
+        User player2 = players.get(result.getPlayer2Id());
+
+        Match match = new Match(player1.getId(), player2.getId());
+        match.setPlayer1Score(result.getPlayer1Score());
+        match.setPlayer2Score(result.getPlayer2Score());
+        match.setWinnerAndLoser();
+        if (result.getMatchDateTime() != null) {
+            match.setMatchDateTime(result.getMatchDateTime());
+        }
+        rateMatch(match, player1.getEloRating(), player2.getEloRating());
 
+        LocalDate today = LocalDate.now();
+        player1.setEloRating(match.getPlayer1EloAfterMatch());
+        player2.setEloRating(match.getPlayer2EloAfterMatch());
         player1.setMatchCounter(player1.getMatchCounter() + 1);
         player2.setMatchCounter(player2.getMatchCounter() + 1);
-
-        userService.save(player1);
-        userService.save(player2);
-
-        logger.info("Saving match: {}", match);
-
-        return matchRepository.save(match);
+        player1.setLastActiveDate(today);
+        player2.setLastActiveDate(today);
+
+        playerResultsService.recordMatches(List.of(match), players);
+        Match savedMatch = matchRepository.save(match);
+        userService.saveAll(players.values());
+        ratingSeriesService.recordMatches(List.of(savedMatch));
+        Long leagueId = player1.getLeagueId();
+        afterCommit(() -> {
+            headToHeadService.recordMatch(savedMatch.getPlayer1Id(), savedMatch.getPlayer2Id());
+            recentFormService.recordMatch(savedMatch);
+            swissService.recordMatch(savedMatch, leagueId);
+        });
+        logger.info("Recorded match {}: player1NewElo={}, player2NewElo={}",
+                savedMatch.getId(), savedMatch.getPlayer1EloAfterMatch(), savedMatch.getPlayer2EloAfterMatch());
+        return savedMatch;
     }
 
     /**
@@ -82,16 +155,31 @@ public class MatchServiceImpl implements MatchService {
     }
 
     /**
-     * Deletes a match by its ID.
+     * Deletes a match by its ID and corrects the ratings that depended on it. The matches are locked before
+     * the delete, so edits and corrections run one at a time.
      *
      * @param id the ID of the match to delete
      * @return true if the match was deleted, false if the match was not found
      */
     @Override
+    @Transactional
     public boolean deleteMatch(Long id) {
+        checkWritesAllowed();
+        matchRepository.lockForRewrite();
         Optional<Match> match = matchRepository.findById(id);
         if (match.isPresent()) {
             matchRepository.deleteById(id);
+            playerResultsService.removeMatch(match.get());
+            ratingCheckpointService.correctRatings(id, match.get().getMatchDateTime(),
+                    List.of(match.get().getPlayer1Id(), match.get().getPlayer2Id()));
+            Long player1Id = match.get().getPlayer1Id();
+            Long player2Id = match.get().getPlayer2Id();
+            afterCommit(() -> {
+                headToHeadService.removeMatch(player1Id, player2Id);
+                recentFormService.reloadPlayer(player1Id);
+                recentFormService.reloadPlayer(player2Id);
+                swissService.reload();
+            });
             logger.info("Deleted match with ID {}", id);
             return true;
         }
@@ -99,20 +187,132 @@ public class MatchServiceImpl implements MatchService {
     }
 
     /**
-     * Updates an existing match.
+     * Updates an existing match. The winner and loser are set from the new scores, the result counts move
+     * from the old result to the new one and the ratings from this match on are corrected. The matches are
+     * locked before the update, so edits and corrections run one at a time.
      *
-     * @param match the match to update
+     * @param match the match to update, with the new players and scores
      * @return the updated match
      */
     @Override
+    @Transactional
     public Match updateMatch(Match match) {
-        logger.info("Updated match: {}", match);
-        return matchRepository.save(match);
+        checkWritesAllowed();
+        matchRepository.lockForRewrite();
+        Optional<Match> previous = matchRepository.findById(match.getId()).map(MatchServiceImpl::copyResult);
+        match.setWinnerAndLoser();
+        if (previous.isEmpty()) {
+            Match savedMatch = matchRepository.save(match);
+            logger.info("Updated match: {}", savedMatch);
+            return savedMatch;
+        }
 
+        Map<Long, User> players = new HashMap<>();
+        for (User user : userService.findUsersByIds(List.of(match.getPlayer1Id(), match.getPlayer2Id()))) {
+            players.put(user.getId(), user);
+        }
+        playerResultsService.removeMatch(previous.get());
+        playerResultsService.recordMatches(List.of(match), players);
+        Match savedMatch = matchRepository.save(match);
+        logger.info("Updated match: {}", savedMatch);
+
+        Set<Long> playerIds = new HashSet<>(List.of(previous.get().getPlayer1Id(), previous.get().getPlayer2Id(),
+                savedMatch.getPlayer1Id(), savedMatch.getPlayer2Id()));
+        LocalDateTime fromDateTime = earliest(previous.get().getMatchDateTime(), savedMatch.getMatchDateTime());
+        ratingCheckpointService.correctRatings(savedMatch.getId(), fromDateTime, playerIds);
+        Match previousResult = previous.get();
+        Long player1Id = savedMatch.getPlayer1Id();
+        Long player2Id = savedMatch.getPlayer2Id();
+        afterCommit(() -> {
+            headToHeadService.removeMatch(previousResult.getPlayer1Id(), previousResult.getPlayer2Id());
+            headToHeadService.recordMatch(player1Id, player2Id);
+            playerIds.forEach(recentFormService::reloadPlayer);
+            swissService.reload();
+        });
+        return savedMatch;
+    }
+
+    /**
+     * Runs an update of the in-memory caches once the current transaction has committed, so a rolled back
+     * write never shows up in them. Without a transaction the update runs immediately.
+     *
+     * @param update the cache update
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return first.isBefore(second) ? first : second;
     }
 
     /**
-     * Calculates the new ELO rating for a player after a match.
+     * Refuses new, edited and deleted matches until {@link #resumeWrites()} is called, for example while
+     * matches are imported. Writes already under way are not waited for.
+     *
+     * @param activity what the writes are suspended for, given in the error of refused writes
+     * @throws IllegalStateException if match writes are already suspended
+     */
+    @Override
+    public void suspendWrites(String activity) {
+        if (!writesSuspendedFor.compareAndSet(null, activity)) {
+            throw new IllegalStateException("Matches cannot be written while " + writesSuspendedFor.get());
+        }
+        logger.info("Suspended match writes while {}", activity);
+    }
+
+    /**
+     * Accepts match writes again after {@link #suspendWrites(String)}.
+     */
+    @Override
+    public void resumeWrites() {
+        String activity = writesSuspendedFor.getAndSet(null);
+        if (activity != null) {
+            logger.info("Resumed match writes after {}", activity);
+        }
+    }
+
+    /**
+     * Checks that matches can be written.
+     *
+     * @throws IllegalStateException if match writes are suspended
+     */
+    @Override
+    public void checkWritesAllowed() {
+        String activity = writesSuspendedFor.get();
+        if (activity != null) {
+            throw new IllegalStateException("Matches cannot be written while " + activity);
+        }
+    }
+
+    /**
+     * Copies the players, scores, date and seasons of a match, so they survive changes to the managed entity.
+     */
+    private static Match copyResult(Match match) {
+        Match copy = new Match(match.getPlayer1Id(), match.getPlayer2Id());
+        copy.setId(match.getId());
+        copy.setPlayer1Score(match.getPlayer1Score());
+        copy.setPlayer2Score(match.getPlayer2Score());
+        copy.setMatchDateTime(match.getMatchDateTime());
+        copy.setPlayer1SeasonId(match.getPlayer1SeasonId());
+        copy.setPlayer2SeasonId(match.getPlayer2SeasonId());
+        return copy;
+    }
+
+    /**
+     * Calculates the new ELO rating for a player after a match with the rating engine.
      *
      * @param currentElo the current ELO rating of the player
      * @param opponentElo the ELO rating of the opponent
@@ -121,19 +321,7 @@ public class MatchServiceImpl implements MatchService {
      * @return the new ELO rating of the player
      */
     public int calculateNewElo(int currentElo, int opponentElo, int playerScore, int opponentScore) {
-        double expectedScore = calculateExpectedScore(currentElo, opponentElo);
-        double actualScore;
-        if(playerScore > opponentScore){
-            actualScore = 1;
-        }
-        else if(playerScore < opponentElo){
-            actualScore = 0;
-        }
-        else actualScore = 0.5;
-        int newElo = (int) (currentElo + K_FACTOR_CONSTANT * (actualScore - expectedScore));
-        logger.info("Calculated new ELO: currentElo={}, opponentElo={}, playerScore={}, opponentScore={}, newElo={}",
-                currentElo, opponentElo, playerScore, opponentScore, newElo);
-        return Math.max(newElo, 0);
+        return ratingEngine.rate(currentElo, opponentElo, GameResult.score(playerScore, opponentScore));
     }
 
     /**
@@ -149,22 +337,166 @@ public class MatchServiceImpl implements MatchService {
         User player2 = userService.findUserById(match.getPlayer2Id())
                 .orElseThrow(() -> new IllegalArgumentException("Player 2 not found"));
 
-        match.setPlayer1EloAtMatchTime(player1.getEloRating());
-        match.setPlayer2EloAtMatchTime(player2.getEloRating());
-
-        int player1NewElo = calculateNewElo(player1.getEloRating(), player2.getEloRating(), match.getPlayer1Score(), match.getPlayer2Score());
-        int player2NewElo = calculateNewElo(player2.getEloRating(), player1.getEloRating(), match.getPlayer2Score(), match.getPlayer1Score());
+        rateMatch(match, player1.getEloRating(), player2.getEloRating());
+        int player1NewElo = match.getPlayer1EloAfterMatch();
+        int player2NewElo = match.getPlayer2EloAfterMatch();
 
         userService.updatePlayerElo(player1, player1NewElo);
         userService.updatePlayerElo(player2, player2NewElo);
 
-        match.setPlayer1EloAfterMatch(player1NewElo);
-        match.setPlayer2EloAfterMatch(player2NewElo);
-
         logger.info("Updated players' ELO after match: matchId={}, player1NewElo={}, player2NewElo={}", match.getId(), player1NewElo, player2NewElo);
 
     }
 
+    /**
+     * Records the ELO ratings of both players before and after a match on the match.
+     * The players themselves are not changed. With a periodic rating engine ratings only change when the
+     * rating period is closed, so the ratings after the match are the ratings before it.
+     *
+     * @param match the match to rate
+     * @param player1Elo the ELO rating of player 1 before the match
+     * @param player2Elo the ELO rating of player 2 before the match
+     */
+    @Override
+    public void rateMatch(Match match, int player1Elo, int player2Elo) {
+        match.setPlayer1EloAtMatchTime(player1Elo);
+        match.setPlayer2EloAtMatchTime(player2Elo);
+        if (ratingEngine.isPeriodic()) {
+            match.setPlayer1EloAfterMatch(player1Elo);
+            match.setPlayer2EloAfterMatch(player2Elo);
+            return;
+        }
+        match.setPlayer1EloAfterMatch(calculateNewElo(player1Elo, player2Elo, match.getPlayer1Score(), match.getPlayer2Score()));
+        match.setPlayer2EloAfterMatch(calculateNewElo(player2Elo, player1Elo, match.getPlayer2Score(), match.getPlayer1Score()));
+    }
+
+    /**
+     * Saves a batch of match results in one transaction.
+     * The results are applied in play order, by match date with results without a date played now and
+     * ties kept in the given order: each match is rated against the ratings left by the previous ones, all
+     * in memory. The players are read and locked with one query, in ID order, like in
+     * {@link #recordResult(MatchResult)}, the matches are inserted with JDBC batches and the changed players
+     * are written back together at commit.
+     * Results with missing or unknown players are rejected without affecting the others.
+     *
+     * @param results the match results
+     * @return the outcome of every result, in the given order
+     * @throws IllegalStateException if the batch is larger than {@value #MAX_BATCH_SIZE} results, or if match
+     * writes are suspended
+     */
+    @Override
+    @Transactional
+    public List<MatchResultOutcome> saveMatches(List<MatchResult> results) {
+        checkWritesAllowed();
+        if (results.size() > MAX_BATCH_SIZE) {
+            throw new IllegalStateException("A batch can contain at most " + MAX_BATCH_SIZE + " results");
+        }
+
+        Set<Long> playerIds = new HashSet<>();
+        for (MatchResult result : results) {
+            if (result.getPlayer1Id() != null) {
+                playerIds.add(result.getPlayer1Id());
+            }
+            if (result.getPlayer2Id() != null) {
+                playerIds.add(result.getPlayer2Id());
+            }
+        }
+        matchRepository.lockForInsert();
+        Map<Long, User> players = new HashMap<>();
+        for (User user : userService.lockUsersByIds(playerIds)) {
+            players.put(user.getId(), user);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> playOrder = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            playOrder.add(i);
+        }
+        playOrder.sort(Comparator.comparing(i -> results.get(i).getMatchDateTime() != null
+                ? results.get(i).getMatchDateTime() : now));
+
+        LocalDate today = LocalDate.now();
+        MatchResultOutcome[] outcomes = new MatchResultOutcome[results.size()];
+        List<Match> matches = new ArrayList<>(results.size());
+        List<Integer> matchIndexes = new ArrayList<>(results.size());
+        Map<Long, User> changedPlayers = new HashMap<>();
+        for (int i : playOrder) {
+            MatchResult result = results.get(i);
+            String error = validateResult(result, players);
+            if (error != null) {
+                outcomes[i] = MatchResultOutcome.rejected(i, error);
+                continue;
+            }
+            User player1 = players.get(result.getPlayer1Id());
+            User player2 = players.get(result.getPlayer2Id());
+
+            Match match = new Match(player1.getId(), player2.getId());
+            match.setPlayer1Score(result.getPlayer1Score());
+            match.setPlayer2Score(result.getPlayer2Score());
+            match.setWinnerAndLoser();
+            if (result.getMatchDateTime() != null) {
+                match.setMatchDateTime(result.getMatchDateTime());
+            }
+            rateMatch(match, player1.getEloRating(), player2.getEloRating());
+
+            player1.setEloRating(match.getPlayer1EloAfterMatch());
+            player2.setEloRating(match.getPlayer2EloAfterMatch());
+            player1.setMatchCounter(player1.getMatchCounter() + 1);
+            player2.setMatchCounter(player2.getMatchCounter() + 1);
+            player1.setLastActiveDate(today);
+            player2.setLastActiveDate(today);
+            changedPlayers.put(player1.getId(), player1);
+            changedPlayers.put(player2.getId(), player2);
+
+            matches.add(match);
+            matchIndexes.add(i);
+        }
+
+        playerResultsService.recordMatches(matches, players);
+        matchRepository.insertAll(matches);
+        userService.saveAll(changedPlayers.values());
+        ratingSeriesService.recordMatches(matches);
+
+        List<Long> leagueIds = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Match match = matches.get(i);
+            leagueIds.add(players.get(match.getPlayer1Id()).getLeagueId());
+            outcomes[matchIndexes.get(i)] = MatchResultOutcome.created(matchIndexes.get(i), match);
+        }
+        afterCommit(() -> {
+            for (int i = 0; i < matches.size(); i++) {
+                Match match = matches.get(i);
+                headToHeadService.recordMatch(match.getPlayer1Id(), match.getPlayer2Id());
+                recentFormService.recordMatch(match);
+                swissService.recordMatch(match, leagueIds.get(i));
+            }
+        });
+
+        logger.info("Saved batch of {} matches for {} players, rejected {} results",
+                matches.size(), changedPlayers.size(), results.size() - matches.size());
+        return Arrays.asList(outcomes);
+    }
+
+    private String validateResult(MatchResult result, Map<Long, User> players) {
+        if (result.getPlayer1Id() == null || result.getPlayer2Id() == null) {
+            return "Both players are required";
+        }
+        if (result.getPlayer1Id().equals(result.getPlayer2Id())) {
+            return "A player cannot play against themselves";
+        }
+        if (!players.containsKey(result.getPlayer1Id())) {
+            return "Player 1 not found";
+        }
+        if (!players.containsKey(result.getPlayer2Id())) {
+            return "Player 2 not found";
+        }
+        LocalDateTime archivedBefore = matchArchiveService.getArchivedBefore();
+        if (archivedBefore != null && result.getMatchDateTime() != null && result.getMatchDateTime().isBefore(archivedBefore)) {
+            return "Matches played before " + archivedBefore + " are archived";
+        }
+        return null;
+    }
+
     /**
      * Calculates the expected score for a player based on their ELO rating and the opponent's ELO rating.
      *
@@ -174,29 +506,71 @@ public class MatchServiceImpl implements MatchService {
      */
     @Override
     public double calculateExpectedScore(int playerElo, int opponentElo) {
-        double expectedScore = 1 / (1 + Math.pow(10, (opponentElo - playerElo) / 400.0));
-        logger.info("Calculated expected score: playerElo={}, opponentElo={}, expectedScore={}", playerElo, opponentElo, expectedScore);
-        return expectedScore;
+        return ratingEngine.expectedScore(playerElo, opponentElo);
     }
 
     /**
-     * Retrieves all matches involving a specific user.
+     * Retrieves one page of the matches involving a specific user, oldest first.
+     * Pages are keyed on the match date and ID of the last match of the previous page, so every page
+     * is read from the player indexes regardless of how deep into the history it is. The matches where
+     * the user was player 1 and player 2 are read separately, each in index order, and merged. Pages that
+     * start before the archive date are read from the archive first.
      *
      * @param userId the ID of the user
-     * @return a list of matches involving the user, sorted by match date
+     * @param from the earliest match date to include, or null for no lower bound
+     * @param to the match date to stop before, or null for no upper bound
+     * @param afterDateTime the match date of the last match already seen, or null for the first page
+     * @param afterId the ID of the last match already seen
+     * @param limit the maximum number of matches to return, at most {@value #MAX_HISTORY_PAGE_SIZE}
+     * @return the page of matches and the cursor of the next page
      */
     @Override
-    public List<Match> getMatchesByUserId(Long userId) {
-        List<Match> matches = matchRepository.findAll().stream()
-                .filter(match -> match.getPlayer1Id().equals(userId) || match.getPlayer2Id().equals(userId))
-                .sorted(Comparator.comparing(Match::getMatchDateTime))
-                .collect(Collectors.toList());
-        logger.info("Fetched matches for user {}: {}", userId, matches);
-        return matches;
+    public MatchHistoryPage getMatchHistory(Long userId, LocalDateTime from, LocalDateTime to,
+                                            LocalDateTime afterDateTime, Long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        LocalDateTime start = from != null ? from : HISTORY_START;
+        long startId = -1;
+        if (afterDateTime != null && !afterDateTime.isBefore(start)) {
+            start = afterDateTime;
+            startId = afterId != null ? afterId : Long.MAX_VALUE;
+        }
+        LocalDateTime end = to != null ? to : HISTORY_END;
+
+        List<Match> matches = new ArrayList<>(size + 1);
+        LocalDateTime archivedBefore = matchArchiveService.getArchivedBefore();
+        if (archivedBefore != null && start.isBefore(archivedBefore)) {
+            matches.addAll(matchArchiveService.findHistoryPage(userId, start, startId,
+                    end.isBefore(archivedBefore) ? end : archivedBefore, size + 1));
+        }
+
+        if (matches.size() <= size) {
+            PageRequest page = PageRequest.of(0, size + 1 - matches.size());
+            List<Match> asPlayer1 = matchRepository.findPlayer1HistoryPage(userId, start, startId, end, page);
+            List<Match> asPlayer2 = matchRepository.findPlayer2HistoryPage(userId, start, startId, end, page);
+
+            int i = 0;
+            int j = 0;
+            while (matches.size() <= size && (i < asPlayer1.size() || j < asPlayer2.size())) {
+                Match next = j >= asPlayer2.size()
+                        || (i < asPlayer1.size() && HISTORY_ORDER.compare(asPlayer1.get(i), asPlayer2.get(j)) <= 0)
+                        ? asPlayer1.get(i++)
+                        : asPlayer2.get(j++);
+                if (matches.isEmpty() || !matches.get(matches.size() - 1).getId().equals(next.getId())) {
+                    matches.add(next);
+                }
+            }
+        }
+
+        if (matches.size() <= size) {
+            return new MatchHistoryPage(matches, null, null);
+        }
+        matches.remove(size);
+        Match last = matches.get(size - 1);
+        return new MatchHistoryPage(matches, last.getMatchDateTime(), last.getId());
     }
 
     /**
-     * Gets the number of matches between two players.
+     * Gets the number of matches between two players, regardless of which one was player 1.
      *
      * @param player1Id the ID of the first player
      * @param player2Id the ID of the second player
@@ -204,56 +578,44 @@ public class MatchServiceImpl implements MatchService {
      */
     @Override
     public Long getNumberOfMatchesBetweenPlayers(Long player1Id, Long player2Id) {
-        Long matchCount = matchRepository.countByPlayer1IdAndPlayer2Id(player1Id, player2Id);
+        Long matchCount = headToHeadService.getMatchCount(player1Id, player2Id);
         logger.info("Number of matches between players {} and {}: {}", player1Id, player2Id, matchCount);
         return matchCount;
     }
 
     /**
-     * Gets the number of wins for a player.
+     * Gets the number of wins for a player from the stored result counts.
      *
      * @param userId the ID of the player
      * @return the number of wins for the player
      */
     @Override
     public Long getNumberOfPlayerWins(Long userId) {
-        return matchRepository.countByWinnerId(userId);
+        return playerResultsService.getResults(userId, null).getWins();
     }
 
     /**
-     * Gets the number of losses for a player.
+     * Gets the number of losses for a player from the stored result counts.
      *
      * @param userId the ID of the player
      * @return the number of losses for the player
      */
     @Override
     public Long getNumberOfPlayerLosses(Long userId) {
-        return matchRepository.countByLoserId(userId);
+        return playerResultsService.getResults(userId, null).getLosses();
     }
 
     /**
      * Calculates the recent performance of a player based on their last 5 matches.
+     * The results are read from the in-memory recent results, so no matches are loaded.
      *
      * @param userId the ID of the player
      * @return the recent performance score of the player
      */
     @Override
     public int calculateRecentPerformance(Long userId) {
-        List<Match> allMatches = getAllMatches()
-                .stream()
-                .filter(match -> match.getPlayer1Id().equals(userId) || match.getPlayer2Id().equals(userId))
-                .sorted(Comparator.comparing(Match::getId).reversed())
-                .collect(Collectors.toList());
-
-        List<Match> recentMatches = allMatches.subList(0, Math.min(5, allMatches.size()));
-        int wins = 0;
-        for (Match match : recentMatches) {
-            if (match.getWinnerId().equals(userId)) {
-                wins++;
-            }
-        }
-        int performance = 25 * wins;
-        logger.info("Calculated recent performance for user {}: {}", userId, performance);
+        int performance = 25 * recentFormService.getRecentWins(userId);
+        logger.debug("Calculated recent performance for user {}: {}", userId, performance);
         return performance;
     }
 
@@ -0,0 +1,24 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.QueueStats;
+import com.matchmaking.elo.licenta.model.QueueTicket;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the real-time matchmaking queue.
+ */
+public interface MatchmakingQueueService {
+    QueueTicket join(long userId);
+
+    boolean leave(long userId);
+
+    Optional<QueueTicket> getTicket(long userId);
+
+    QueueStats getStats(long divisionId);
+
+    List<QueueStats> getAllStats();
+
+    void matchWaitingPlayers();
+}
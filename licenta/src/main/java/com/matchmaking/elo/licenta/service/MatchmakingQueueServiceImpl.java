@@ -0,0 +1,371 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.matchmaking.EloIndex;
+import com.matchmaking.elo.licenta.model.QueueStats;
+import com.matchmaking.elo.licenta.model.QueueTicket;
+import com.matchmaking.elo.licenta.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service implementation for the real-time matchmaking queue.
+ * Players join through a lock-free arrival queue and are paired by a single background matcher,
+ * which owns all waiting players and therefore needs no locking. Waiting players are visited oldest
+ * first, and each player's acceptable ELO gap widens with the time they have been waiting.
+ * Two players are matched only when the gap is inside both of their windows.
+ * <p>
+ * The matcher runs on its own scheduler thread rather than on the shared scheduler of the application,
+ * so the nightly jobs scheduled there cannot hold up matchmaking.
+ */
+@Service
+public class MatchmakingQueueServiceImpl implements MatchmakingQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MatchmakingQueueServiceImpl.class);
+
+    private static final int WAIT_SAMPLES = 1024;
+    private static final long MATCHED_TICKET_TTL_MINUTES = 10;
+
+    private final UserService userService;
+    private final Clock clock;
+    private final long intervalMillis;
+    private final int initialWindow;
+    private final double widenPerSecond;
+    private final int maxWindow;
+
+    private final Queue<QueueEntry> arrivals = new ConcurrentLinkedQueue<>();
+    private final Map<Long, QueueTicket> tickets = new ConcurrentHashMap<>();
+    private final Map<Long, QueueStats> stats = new ConcurrentHashMap<>();
+
+    // Only accessed by the matcher thread
+    private final Map<Long, DivisionQueue> divisionQueues = new HashMap<>();
+    private LocalDateTime lastPurge;
+
+    private ScheduledExecutorService matcher;
+
+    @Autowired
+    public MatchmakingQueueServiceImpl(UserService userService,
+                                       @Value("${matchmaking.queue.interval-ms:200}") long intervalMillis,
+                                       @Value("${matchmaking.queue.initial-window:50}") int initialWindow,
+                                       @Value("${matchmaking.queue.widen-per-second:10}") double widenPerSecond,
+                                       @Value("${matchmaking.queue.max-window:400}") int maxWindow) {
+        this(userService, Clock.systemDefaultZone(), intervalMillis, initialWindow, widenPerSecond, maxWindow);
+    }
+
+    MatchmakingQueueServiceImpl(UserService userService, Clock clock, long intervalMillis, int initialWindow,
+                                double widenPerSecond, int maxWindow) {
+        this.userService = userService;
+        this.clock = clock;
+        this.lastPurge = LocalDateTime.now(clock);
+        this.intervalMillis = intervalMillis;
+        this.initialWindow = initialWindow;
+        this.widenPerSecond = widenPerSecond;
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Starts the matcher thread once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (matcher != null) {
+            return;
+        }
+        matcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queue-matcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        matcher.scheduleWithFixedDelay(this::runMatcherPass, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Started matchmaking queue matcher every {} ms", intervalMillis);
+    }
+
+    /**
+     * Stops the matcher thread.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (matcher != null) {
+            matcher.shutdownNow();
+            matcher = null;
+        }
+    }
+
+    /**
+     * Adds a player to the matchmaking queue of their division.
+     * If the player is already waiting, their current ticket is returned.
+     *
+     * @param userId the ID of the player
+     * @return the player's queue ticket
+     * @throws IllegalStateException if the user is not found or is not in a division
+     */
+    @Override
+    public QueueTicket join(long userId) {
+        User user = userService.findUserById(userId)
+                .orElseThrow(() -> new IllegalStateException("User not found with id: " + userId));
+        if (user.getDivisionId() == null) {
+            throw new IllegalStateException("User " + userId + " is not in a division");
+        }
+
+        QueueTicket current = tickets.get(userId);
+        if (current != null && current.getStatus() == QueueTicket.Status.WAITING) {
+            return current;
+        }
+
+        QueueTicket ticket = QueueTicket.waiting(user);
+        tickets.put(userId, ticket);
+        arrivals.offer(new QueueEntry(ticket, clock.millis()));
+        logger.info("Player {} joined the matchmaking queue of division {}", userId, ticket.getDivisionId());
+        return ticket;
+    }
+
+    /**
+     * Removes a player from the matchmaking queue.
+     * The matcher drops the player's queue entry on its next pass.
+     *
+     * @param userId the ID of the player
+     * @return true if the player had a ticket, otherwise false
+     */
+    @Override
+    public boolean leave(long userId) {
+        boolean removed = tickets.remove(userId) != null;
+        if (removed) {
+            logger.info("Player {} left the matchmaking queue", userId);
+        }
+        return removed;
+    }
+
+    /**
+     * Retrieves the current queue ticket of a player.
+     *
+     * @param userId the ID of the player
+     * @return an Optional containing the ticket, or an empty Optional if the player is not queued
+     */
+    @Override
+    public Optional<QueueTicket> getTicket(long userId) {
+        return Optional.ofNullable(tickets.get(userId));
+    }
+
+    /**
+     * Retrieves the queue statistics of a division, as of the last matcher pass.
+     *
+     * @param divisionId the ID of the division
+     * @return the queue statistics of the division
+     */
+    @Override
+    public QueueStats getStats(long divisionId) {
+        return stats.getOrDefault(divisionId, new QueueStats(divisionId, 0, 0, 0, 0));
+    }
+
+    /**
+     * Retrieves the queue statistics of all divisions with queue activity.
+     *
+     * @return the queue statistics per division
+     */
+    @Override
+    public List<QueueStats> getAllStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    /**
+     * Runs one matcher pass: takes in new arrivals, then pairs waiting players in every division.
+     * Called by the matcher thread only.
+     */
+    @Override
+    public void matchWaitingPlayers() {
+        long now = clock.millis();
+
+        QueueEntry arrival;
+        while ((arrival = arrivals.poll()) != null) {
+            if (isCurrent(arrival)) {
+                divisionQueues.computeIfAbsent(arrival.ticket.getDivisionId(), DivisionQueue::new).add(arrival);
+            }
+        }
+
+        for (DivisionQueue divisionQueue : divisionQueues.values()) {
+            divisionQueue.match(now);
+            stats.put(divisionQueue.divisionId, divisionQueue.snapshot(now));
+        }
+
+        LocalDateTime currentTime = LocalDateTime.now(clock);
+        if (lastPurge.isBefore(currentTime.minusMinutes(1))) {
+            LocalDateTime purgeBefore = currentTime.minusMinutes(MATCHED_TICKET_TTL_MINUTES);
+            tickets.values().removeIf(ticket -> ticket.getStatus() == QueueTicket.Status.MATCHED
+                    && ticket.getMatchedAt().isBefore(purgeBefore));
+            lastPurge = currentTime;
+        }
+    }
+
+    /**
+     * A failed pass is logged rather than thrown, which would cancel all later passes.
+     */
+    private void runMatcherPass() {
+        try {
+            matchWaitingPlayers();
+        } catch (RuntimeException e) {
+            logger.error("Matchmaking queue pass failed", e);
+        }
+    }
+
+    private boolean isCurrent(QueueEntry entry) {
+        return tickets.get(entry.ticket.getUserId()) == entry.ticket;
+    }
+
+    private int window(QueueEntry entry, long now) {
+        double waitedSeconds = (now - entry.enqueuedMillis) / 1000.0;
+        return (int) Math.min(maxWindow, initialWindow + widenPerSecond * waitedSeconds);
+    }
+
+    /**
+     * A waiting player as seen by the matcher.
+     */
+    private static final class QueueEntry {
+        final QueueTicket ticket;
+        final long enqueuedMillis;
+
+        QueueEntry(QueueTicket ticket, long enqueuedMillis) {
+            this.ticket = ticket;
+            this.enqueuedMillis = enqueuedMillis;
+        }
+
+        long userId() {
+            return ticket.getUserId();
+        }
+
+        int elo() {
+            return ticket.getEloRating();
+        }
+    }
+
+    /**
+     * The waiting players of one division, indexed by age and by ELO rating.
+     */
+    private final class DivisionQueue {
+        final long divisionId;
+        final LinkedHashMap<Long, QueueEntry> waiting = new LinkedHashMap<>();
+        final EloIndex byElo = new EloIndex();
+        final long[] waitSamples = new long[WAIT_SAMPLES];
+        int sampleCount;
+        long matchedTotal;
+
+        DivisionQueue(long divisionId) {
+            this.divisionId = divisionId;
+        }
+
+        void add(QueueEntry entry) {
+            waiting.remove(entry.userId());
+            waiting.put(entry.userId(), entry);
+            byElo.add(entry.userId(), entry.elo());
+        }
+
+        void remove(QueueEntry entry) {
+            if (waiting.remove(entry.userId(), entry)) {
+                byElo.remove(entry.userId());
+            }
+        }
+
+        void match(long now) {
+            waiting.values().removeIf(entry -> {
+                if (isCurrent(entry)) {
+                    return false;
+                }
+                byElo.remove(entry.userId());
+                return true;
+            });
+
+            for (QueueEntry entry : new ArrayList<>(waiting.values())) {
+                if (waiting.get(entry.userId()) != entry) {
+                    continue;
+                }
+                QueueEntry opponent = findOpponent(entry, window(entry, now), now);
+                if (opponent != null) {
+                    pair(entry, opponent, now);
+                }
+            }
+        }
+
+        /**
+         * Walks outwards from the player in ELO order, nearest first, until the gap leaves the player's window.
+         */
+        QueueEntry findOpponent(QueueEntry entry, int window, long now) {
+            QueueEntry lower = waitingEntry(byElo.lower(entry.elo(), entry.userId()));
+            QueueEntry higher = waitingEntry(byElo.higher(entry.elo(), entry.userId()));
+
+            while (lower != null || higher != null) {
+                QueueEntry candidate;
+                if (higher == null || (lower != null && entry.elo() - lower.elo() <= higher.elo() - entry.elo())) {
+                    candidate = lower;
+                    lower = waitingEntry(byElo.lower(lower.elo(), lower.userId()));
+                } else {
+                    candidate = higher;
+                    higher = waitingEntry(byElo.higher(higher.elo(), higher.userId()));
+                }
+                int gap = Math.abs(candidate.elo() - entry.elo());
+                if (gap > window) {
+                    return null;
+                }
+                if (gap <= window(candidate, now)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        QueueEntry waitingEntry(Long userId) {
+            return userId == null ? null : waiting.get(userId);
+        }
+
+        void pair(QueueEntry first, QueueEntry second, long now) {
+            QueueTicket firstMatched = first.ticket.matchedWith(second.userId());
+            if (!tickets.replace(first.userId(), first.ticket, firstMatched)) {
+                remove(first);
+                return;
+            }
+            if (!tickets.replace(second.userId(), second.ticket, second.ticket.matchedWith(first.userId()))) {
+                tickets.replace(first.userId(), firstMatched, first.ticket);
+                remove(second);
+                return;
+            }
+
+            remove(first);
+            remove(second);
+            recordWait(now - first.enqueuedMillis);
+            recordWait(now - second.enqueuedMillis);
+            matchedTotal++;
+            logger.info("Queue matched players: user1={}, user2={}, division={}", first.userId(), second.userId(), divisionId);
+        }
+
+        void recordWait(long waitMillis) {
+            waitSamples[sampleCount % WAIT_SAMPLES] = waitMillis;
+            sampleCount++;
+        }
+
+        QueueStats snapshot(long now) {
+            int samples = Math.min(sampleCount, WAIT_SAMPLES);
+            long medianWaitMillis = 0;
+            if (samples > 0) {
+                long[] sorted = Arrays.copyOf(waitSamples, samples);
+                Arrays.sort(sorted);
+                medianWaitMillis = sorted[samples / 2];
+            }
+            long longestWaitMillis = waiting.isEmpty()
+                    ? 0
+                    : now - waiting.values().iterator().next().enqueuedMillis;
+            return new QueueStats(divisionId, waiting.size(), matchedTotal, medianWaitMillis, longestWaitMillis);
+        }
+    }
+}
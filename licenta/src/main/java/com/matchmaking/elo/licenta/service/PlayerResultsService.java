@@ -0,0 +1,21 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import com.matchmaking.elo.licenta.model.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Service interface for the win, loss and draw counts of players.
+ */
+public interface PlayerResultsService {
+    void recordMatches(Collection<Match> matches, Map<Long, User> players);
+
+    void removeMatch(Match match);
+
+    PlayerResults getResults(long userId, Long seasonId);
+
+    int rebuild();
+}
@@ -0,0 +1,185 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.PlayerResultsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for the win, loss and draw counts of players.
+ * Every player has an all-time row and one row per season of their league. The rows are changed in the
+ * transaction that saves or deletes the matches, with one batched upsert per transaction, so reading
+ * the counts is a single-row lookup. Each match keeps the seasons its results were counted in, so a
+ * deleted match is taken from the same rows even if a player changed league since. Results are taken from the scores, so a draw is never a win.
+ * Archiving matches does not change the counts; a rebuild counts the archived matches too.
+ */
+@Service
+public class PlayerResultsServiceImpl implements PlayerResultsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerResultsServiceImpl.class);
+
+    private static final int ARCHIVE_BATCH_SIZE = 10_000;
+
+    private final PlayerResultsRepository playerResultsRepository;
+    private final SeasonService seasonService;
+    private final UserService userService;
+    private final MatchArchiveService matchArchiveService;
+
+
+    @Autowired
+    public PlayerResultsServiceImpl(PlayerResultsRepository playerResultsRepository, SeasonService seasonService,
+                                    UserService userService, MatchArchiveService matchArchiveService) {
+        this.playerResultsRepository = playerResultsRepository;
+        this.seasonService = seasonService;
+        this.userService = userService;
+        this.matchArchiveService = matchArchiveService;
+    }
+
+    /**
+     * Adds the results of matches to the counts of their players. The season each result is counted in is
+     * set on the match, so callers call this before the matches are written.
+     *
+     * @param matches the new matches
+     * @param players the players of the matches by ID, used to find the season of each match
+     */
+    @Override
+    public void recordMatches(Collection<Match> matches, Map<Long, User> players) {
+        assignSeasons(matches, players, seasonService::findSeasonAt);
+        playerResultsRepository.addResults(changes(matches, 1));
+    }
+
+    /**
+     * Removes the result of a deleted match from the counts of its players, in the seasons it was counted in.
+     *
+     * @param match the deleted match
+     */
+    @Override
+    public void removeMatch(Match match) {
+        playerResultsRepository.addResults(changes(List.of(match), -1));
+    }
+
+    /**
+     * Retrieves the counts of a player.
+     *
+     * @param userId the ID of the user
+     * @param seasonId the ID of the season, or null for all time
+     * @return the counts, all zero if the player has no results
+     */
+    @Override
+    public PlayerResults getResults(long userId, Long seasonId) {
+        long season = seasonId != null ? seasonId : PlayerResults.ALL_TIME;
+        return playerResultsRepository.findByUserIdAndSeasonId(userId, season)
+                .orElseGet(() -> new PlayerResults(userId, season, 0, 0, 0));
+    }
+
+    /**
+     * Recounts the results of all players from the match history, replacing the stored counts.
+     * The MATCHES table is counted with set-based queries, then the archived matches are read in batches.
+     * Matches that have no stored seasons, such as imported ones, are counted in the seasons of their players'
+     * current leagues, which are stored on them.
+     *
+     * @return the number of rows written by the set-based queries
+     */
+    @Override
+    @Transactional
+    public int rebuild() {
+        long start = System.nanoTime();
+        int rows = playerResultsRepository.rebuildAll();
+        addArchivedResults();
+        logger.info("Rebuilt {} player result rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    /**
+     * Adds the results of all archived matches, with the players and seasons of each batch read once.
+     */
+    private void addArchivedResults() {
+        Map<Long, User> players = new HashMap<>();
+        Map<Long, List<Season>> seasons = new HashMap<>();
+        BiFunction<Long, LocalDateTime, Optional<Season>> seasonAt = (leagueId, dateTime) -> {
+            Season found = null;
+            for (Season season : seasons.computeIfAbsent(leagueId, seasonService::getSeasons)) {
+                if (!season.getStartDateTime().isAfter(dateTime)
+                        && (found == null || season.getStartDateTime().isAfter(found.getStartDateTime()))) {
+                    found = season;
+                }
+            }
+            return Optional.ofNullable(found);
+        };
+
+        List<Match> batch = new ArrayList<>(ARCHIVE_BATCH_SIZE);
+        try (Stream<Match> archived = matchArchiveService.streamArchivedMatches()) {
+            Iterator<Match> iterator = archived.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= ARCHIVE_BATCH_SIZE || !iterator.hasNext()) {
+                    Set<Long> missing = new HashSet<>();
+                    for (Match match : batch) {
+                        missing.add(match.getPlayer1Id());
+                        missing.add(match.getPlayer2Id());
+                    }
+                    missing.removeAll(players.keySet());
+                    for (User user : userService.findUsersByIds(missing)) {
+                        players.put(user.getId(), user);
+                    }
+                    assignSeasons(batch, players, seasonAt);
+                    playerResultsRepository.addResults(changes(batch, 1));
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the season of each player's result on the matches: the season of the player's league that
+     * contains the match date, or none.
+     */
+    private static void assignSeasons(Collection<Match> matches, Map<Long, User> players,
+                                      BiFunction<Long, LocalDateTime, Optional<Season>> seasonAt) {
+        for (Match match : matches) {
+            match.setPlayer1SeasonId(seasonOf(players.get(match.getPlayer1Id()), match, seasonAt));
+            match.setPlayer2SeasonId(seasonOf(players.get(match.getPlayer2Id()), match, seasonAt));
+        }
+    }
+
+    private static Long seasonOf(User player, Match match, BiFunction<Long, LocalDateTime, Optional<Season>> seasonAt) {
+        if (player == null || player.getLeagueId() == null || match.getMatchDateTime() == null) {
+            return null;
+        }
+        return seasonAt.apply(player.getLeagueId(), match.getMatchDateTime()).map(Season::getId).orElse(null);
+    }
+
+    /**
+     * Sums the changes per player and season, so each row is written once.
+     */
+    private static Collection<PlayerResults> changes(Collection<Match> matches, int sign) {
+        Map<List<Long>, long[]> counts = new LinkedHashMap<>();
+        for (Match match : matches) {
+            int player1Result = Integer.compare(match.getPlayer1Score(), match.getPlayer2Score());
+            add(counts, match.getPlayer1Id(), match.getPlayer1SeasonId(), player1Result, sign);
+            add(counts, match.getPlayer2Id(), match.getPlayer2SeasonId(), -player1Result, sign);
+        }
+        List<PlayerResults> changes = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> changes.add(new PlayerResults(key.get(0), key.get(1), count[0], count[1], count[2])));
+        return changes;
+    }
+
+    private static void add(Map<List<Long>, long[]> counts, long userId, Long seasonId, int result, int sign) {
+        int column = result > 0 ? 0 : result < 0 ? 1 : 2;
+        counts.computeIfAbsent(List.of(userId, PlayerResults.ALL_TIME), key -> new long[3])[column] += sign;
+        if (seasonId != null) {
+            counts.computeIfAbsent(List.of(userId, seasonId), key -> new long[3])[column] += sign;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Service interface for rating checkpoints and for correcting ratings after a match changed.
+ */
+public interface RatingCheckpointService {
+    RatingCheckpoint createCheckpoint();
+
+    RatingCheckpoint reset();
+
+    Optional<RatingCheckpoint> getLastCheckpoint();
+
+    int correctRatings(long fromMatchId, LocalDateTime fromDateTime, Collection<Long> playerIds);
+}
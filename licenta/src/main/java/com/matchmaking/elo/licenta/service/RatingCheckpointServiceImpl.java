@@ -0,0 +1,333 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.event.RatingsCorrectedEvent;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.GameResult;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchPartitionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for rating checkpoints.
+ * <p>
+ * A checkpoint copies the rating and match counter of every player, together with the ID of the last
+ * match they include. One is taken every {@code matchmaking.rating.checkpoint.interval} matches and the
+ * latest few are kept. One is also taken every day and kept for {@code matchmaking.rating.checkpoint.history-days},
+ * so past ratings can be looked up without replaying the history.
+ * <p>
+ * When a match is deleted or edited, only its players are restored from the nearest checkpoint before it
+ * and only the matches after that checkpoint are read, in play order, by date and then ID, as a full replay
+ * rates them. Before the changed match the other players are unaffected, so their ratings are taken from the
+ * match rows. From the changed match on, every opponent of a corrected player is corrected too, starting
+ * from the rating stored on the match where they met. Only matches whose ratings changed are rewritten.
+ * Ratings changed outside matches, such as decay and resets, are lost for corrected players if they
+ * happened after the checkpoint, as with a full replay.
+ * <p>
+ * Both taking a checkpoint and correcting ratings lock the MATCHES table against writes and against each other,
+ * so no matches are recorded meanwhile. Callers that edit a match take the same lock before their edit. Matches archived after a checkpoint are no longer in the table to be read again,
+ * so a correction that would start from such a checkpoint is refused.
+ */
+@Service
+public class RatingCheckpointServiceImpl implements RatingCheckpointService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingCheckpointServiceImpl.class);
+
+    private final RatingCheckpointRepository ratingCheckpointRepository;
+    private final MatchRepository matchRepository;
+    private final MatchPartitionRepository matchPartitionRepository;
+    private final UserService userService;
+    private final RatingEngine ratingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long interval;
+    private final int keep;
+    private final int historyDays;
+
+
+    @Autowired
+    public RatingCheckpointServiceImpl(RatingCheckpointRepository ratingCheckpointRepository,
+                                       MatchRepository matchRepository,
+                                       MatchPartitionRepository matchPartitionRepository, UserService userService,
+                                       RatingEngine ratingEngine, ApplicationEventPublisher eventPublisher,
+                                       @Value("${matchmaking.rating.checkpoint.interval:10000}") long interval,
+                                       @Value("${matchmaking.rating.checkpoint.keep:3}") int keep,
+                                       @Value("${matchmaking.rating.checkpoint.history-days:365}") int historyDays) {
+        if (interval < 1 || keep < 1 || historyDays < 0) {
+            throw new IllegalArgumentException("Rating checkpoint interval and count must be positive, history days not negative");
+        }
+        this.ratingCheckpointRepository = ratingCheckpointRepository;
+        this.matchRepository = matchRepository;
+        this.matchPartitionRepository = matchPartitionRepository;
+        this.userService = userService;
+        this.ratingEngine = ratingEngine;
+        this.eventPublisher = eventPublisher;
+        this.interval = interval;
+        this.keep = keep;
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * Takes the first checkpoint once the application is ready, if there is none yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void createFirstCheckpoint() {
+        if (!ratingEngine.isPeriodic() && ratingCheckpointRepository.findFirstByOrderByLastMatchIdDescIdDesc().isEmpty()) {
+            createCheckpoint();
+        }
+    }
+
+    /**
+     * Takes a checkpoint on schedule once enough matches were recorded since the last one.
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.rating.checkpoint.check-ms:60000}",
+            initialDelayString = "${matchmaking.rating.checkpoint.check-ms:60000}")
+    @Transactional
+    public void createScheduledCheckpoint() {
+        if (ratingEngine.isPeriodic()) {
+            return;
+        }
+        long lastMatchId = getLastCheckpoint().map(RatingCheckpoint::getLastMatchId).orElse(0L);
+        if (matchRepository.countByIdGreaterThan(lastMatchId) >= interval) {
+            createCheckpoint();
+        }
+    }
+
+    /**
+     * Takes the daily checkpoint on schedule.
+     */
+    @Scheduled(cron = "${matchmaking.rating.checkpoint.daily-cron:0 0 0 * * *}")
+    @Transactional
+    public void createDailyCheckpoint() {
+        if (!ratingEngine.isPeriodic()) {
+            createCheckpoint(true);
+        }
+    }
+
+    /**
+     * Copies the current ratings of all players into a new checkpoint and deletes the oldest ones.
+     *
+     * @return the new checkpoint, or the last one if no match was recorded since
+     */
+    @Override
+    @Transactional
+    public RatingCheckpoint createCheckpoint() {
+        return createCheckpoint(false);
+    }
+
+    private RatingCheckpoint createCheckpoint(boolean daily) {
+        long start = System.nanoTime();
+        matchRepository.lockForRewrite();
+        long lastMatchId = matchRepository.findLastMatchId();
+        Optional<RatingCheckpoint> last = getLastCheckpoint();
+        if (last.isPresent() && last.get().getLastMatchId() == lastMatchId) {
+            last.get().setDaily(last.get().isDaily() || daily);
+            return last.get();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RatingCheckpoint checkpoint = ratingCheckpointRepository.save(new RatingCheckpoint(lastMatchId, now, daily));
+        checkpoint.setPlayerCount(ratingCheckpointRepository.copyRatings(checkpoint.getId()));
+        ratingCheckpointRepository.deleteOldCheckpoints(keep, now.minusDays(historyDays));
+        logger.info("Created rating checkpoint {} after match {} with {} players in {} ms", checkpoint.getId(),
+                lastMatchId, checkpoint.getPlayerCount(), (System.nanoTime() - start) / 1_000_000);
+        return checkpoint;
+    }
+
+    /**
+     * Deletes all checkpoints and takes a new one, for when all ratings were recomputed.
+     *
+     * @return the new checkpoint
+     */
+    @Override
+    @Transactional
+    public RatingCheckpoint reset() {
+        ratingCheckpointRepository.deleteAllCheckpoints();
+        return createCheckpoint(true);
+    }
+
+    /**
+     * Retrieves the latest checkpoint.
+     *
+     * @return the latest checkpoint, or empty if none was taken yet
+     */
+    @Override
+    public Optional<RatingCheckpoint> getLastCheckpoint() {
+        return ratingCheckpointRepository.findFirstByOrderByLastMatchIdDescIdDesc();
+    }
+
+    /**
+     * Recomputes the ratings affected by a deleted or edited match. Must be called in the transaction that
+     * changed the match, after the change, and that transaction must have taken
+     * {@link MatchRepository#lockForRewrite()} before it.
+     *
+     * @param fromMatchId the ID of the changed match
+     * @param fromDateTime the date of the changed match, or the earlier of its dates before and after an edit
+     * @param playerIds the players of the match, before and after an edit
+     * @return the number of players whose ratings were recomputed
+     * @throws IllegalStateException if matches after the nearest checkpoint were archived since
+     */
+    @Override
+    @Transactional
+    public int correctRatings(long fromMatchId, LocalDateTime fromDateTime, Collection<Long> playerIds) {
+        if (ratingEngine.isPeriodic()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        matchRepository.lockForRewrite();
+        Optional<RatingCheckpoint> checkpoint =
+                ratingCheckpointRepository.findFirstByLastMatchIdLessThanOrderByLastMatchIdDescIdDesc(fromMatchId);
+        boolean archivedSince = checkpoint.isPresent()
+                ? matchPartitionRepository.findLastMatchIdArchivedAfter(checkpoint.get().getCreatedAt())
+                > checkpoint.get().getLastMatchId()
+                : matchPartitionRepository.count() > 0;
+        if (archivedSince) {
+            throw new IllegalStateException("Match " + fromMatchId + " was recorded before matches that are now "
+                    + "archived, so its ratings can no longer be corrected");
+        }
+
+        Map<Long, PlayerState> players = new HashMap<>();
+        for (Long playerId : playerIds) {
+            players.put(playerId, new PlayerState(User.DEFAULT_ELO_RATING, 0, true));
+        }
+        checkpoint.ifPresent(c -> {
+            for (User user : ratingCheckpointRepository.findRatings(c.getId(), players.keySet())) {
+                players.put(user.getId(), new PlayerState(user.getEloRating(), user.getMatchCounter(), true));
+            }
+        });
+
+        List<Match> changed = new ArrayList<>();
+        long afterId = checkpoint.map(RatingCheckpoint::getLastMatchId).orElse(0L);
+        try (Stream<Object[]> rows = matchRepository.streamRatingsInPlayOrderAfter(afterId)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                Match match = replay(row, fromMatchId, fromDateTime, players);
+                if (match != null) {
+                    changed.add(match);
+                }
+            }
+        }
+        matchRepository.updateRatings(changed);
+
+        List<User> users = userService.lockUsersByIds(players.keySet());
+        for (User user : users) {
+            PlayerState state = players.get(user.getId());
+            user.setEloRating(state.rating);
+            if (state.restored) {
+                user.setMatchCounter(state.matchCount);
+            }
+        }
+        eventPublisher.publishEvent(new RatingsCorrectedEvent(Set.copyOf(players.keySet())));
+        eventPublisher.publishEvent(PlayersChangedEvent.of(users));
+        logger.info("Corrected ratings of {} players from match {}: rewrote {} matches after checkpoint {} in {} ms",
+                players.size(), fromMatchId, changed.size(), checkpoint.map(RatingCheckpoint::getId).orElse(null),
+                (System.nanoTime() - start) / 1_000_000);
+        return players.size();
+    }
+
+    /**
+     * Rates one match again if it involves a corrected player.
+     *
+     * @return the match with its new ratings, or null if its ratings did not change
+     */
+    private Match replay(Object[] row, long fromMatchId, LocalDateTime fromDateTime, Map<Long, PlayerState> players) {
+        long matchId = ((Number) row[0]).longValue();
+        long player1Id = ((Number) row[1]).longValue();
+        long player2Id = ((Number) row[2]).longValue();
+        int player1Score = ((Number) row[3]).intValue();
+        int player2Score = ((Number) row[4]).intValue();
+        int player1Before = ((Number) row[5]).intValue();
+        int player2Before = ((Number) row[6]).intValue();
+        int player1After = ((Number) row[7]).intValue();
+        int player2After = ((Number) row[8]).intValue();
+        LocalDateTime matchDateTime = (LocalDateTime) row[9];
+
+        PlayerState player1 = players.get(player1Id);
+        PlayerState player2 = players.get(player2Id);
+        if (player1 == null && player2 == null) {
+            return null;
+        }
+        if (isFrom(matchDateTime, matchId, fromDateTime, fromMatchId)) {
+            if (player1 == null) {
+                player1 = new PlayerState(player1Before, 0, false);
+                players.put(player1Id, player1);
+            }
+            if (player2 == null) {
+                player2 = new PlayerState(player2Before, 0, false);
+                players.put(player2Id, player2);
+            }
+        }
+
+        int player1Elo = player1 != null ? player1.rating : player1Before;
+        int player2Elo = player2 != null ? player2.rating : player2Before;
+        int player1NewElo = player1 != null
+                ? ratingEngine.rate(player1Elo, player2Elo, GameResult.score(player1Score, player2Score)) : player1After;
+        int player2NewElo = player2 != null
+                ? ratingEngine.rate(player2Elo, player1Elo, GameResult.score(player2Score, player1Score)) : player2After;
+        if (player1 != null) {
+            player1.rating = player1NewElo;
+            player1.matchCount++;
+        }
+        if (player2 != null) {
+            player2.rating = player2NewElo;
+            player2.matchCount++;
+        }
+
+        if (player1Elo == player1Before && player2Elo == player2Before
+                && player1NewElo == player1After && player2NewElo == player2After) {
+            return null;
+        }
+        Match match = new Match(player1Id, player2Id);
+        match.setId(matchId);
+        match.setPlayer1Score(player1Score);
+        match.setPlayer2Score(player2Score);
+        match.setWinnerAndLoser();
+        match.setPlayer1EloAtMatchTime(player1Elo);
+        match.setPlayer2EloAtMatchTime(player2Elo);
+        match.setPlayer1EloAfterMatch(player1NewElo);
+        match.setPlayer2EloAfterMatch(player2NewElo);
+        return match;
+    }
+
+    /**
+     * Tells whether a match is played at or after the changed match, by date and then ID.
+     */
+    private static boolean isFrom(LocalDateTime dateTime, long id, LocalDateTime fromDateTime, long fromMatchId) {
+        if (dateTime == null || fromDateTime == null || dateTime.equals(fromDateTime)) {
+            return id >= fromMatchId;
+        }
+        return dateTime.isAfter(fromDateTime);
+    }
+
+    /**
+     * The rating of a corrected player while the matches are read. Only players restored from the
+     * checkpoint get their match counter recomputed; the count of other players does not change.
+     */
+    private static final class PlayerState {
+        int rating;
+        long matchCount;
+        final boolean restored;
+
+        PlayerState(int rating, long matchCount, boolean restored) {
+            this.rating = rating;
+            this.matchCount = matchCount;
+            this.restored = restored;
+        }
+    }
+}
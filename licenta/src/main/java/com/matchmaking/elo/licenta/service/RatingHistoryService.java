@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
+import com.matchmaking.elo.licenta.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for looking up past ratings.
+ */
+public interface RatingHistoryService {
+    List<HistoricalStanding> getStandingsAt(Collection<User> players, LocalDateTime dateTime);
+}
@@ -0,0 +1,121 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for looking up past ratings without replaying the match history.
+ * <p>
+ * The rating of a player at a date is the rating after their last match up to that date, as stored on the
+ * match, found with one lookup per player in the player history indexes. The last rating checkpoint taken
+ * by that date is read as well: if it already includes the player's last match, or the player had no match
+ * yet, the checkpoint's rating is used, so changes made outside matches such as decay and resets are seen.
+ * How far back checkpoints reach depends on {@code matchmaking.rating.checkpoint.history-days}.
+ * Players without a match in the MATCHES table by that date may have played in archived months, so their last
+ * match is looked up in the archive files up to that date, which are only read when such players exist.
+ * With a periodic rating engine matches store the ratings from the start of their rating period.
+ */
+@Service
+public class RatingHistoryServiceImpl implements RatingHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingHistoryServiceImpl.class);
+
+    private final MatchRepository matchRepository;
+    private final RatingCheckpointRepository ratingCheckpointRepository;
+    private final MatchArchiveService matchArchiveService;
+
+
+    @Autowired
+    public RatingHistoryServiceImpl(MatchRepository matchRepository, RatingCheckpointRepository ratingCheckpointRepository,
+                                    MatchArchiveService matchArchiveService) {
+        this.matchRepository = matchRepository;
+        this.ratingCheckpointRepository = ratingCheckpointRepository;
+        this.matchArchiveService = matchArchiveService;
+    }
+
+    /**
+     * Looks up the ratings of players at a past date.
+     *
+     * @param players the players
+     * @param dateTime the date, inclusive
+     * @return the players with their ratings at that date, sorted by rating in descending order
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<HistoricalStanding> getStandingsAt(Collection<User> players, LocalDateTime dateTime) {
+        long start = System.nanoTime();
+        List<Long> ids = players.stream().map(User::getId).toList();
+        Map<Long, Match> lastMatches = new HashMap<>(matchRepository.findLastMatches(ids, dateTime));
+        addLastArchivedMatches(lastMatches, ids, dateTime);
+
+        Optional<RatingCheckpoint> checkpoint =
+                ratingCheckpointRepository.findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(dateTime);
+        Map<Long, Integer> checkpointRatings = new HashMap<>();
+        checkpoint.ifPresent(c -> {
+            for (User user : ratingCheckpointRepository.findRatings(c.getId(), ids)) {
+                checkpointRatings.put(user.getId(), user.getEloRating());
+            }
+        });
+        long checkpointMatchId = checkpoint.map(RatingCheckpoint::getLastMatchId).orElse(0L);
+
+        List<HistoricalStanding> standings = new ArrayList<>(players.size());
+        for (User player : players) {
+            Match match = lastMatches.get(player.getId());
+            Integer checkpointRating = checkpointRatings.get(player.getId());
+            if (match != null && (checkpointRating == null || match.getId() > checkpointMatchId)) {
+                int rating = match.getPlayer1Id().equals(player.getId())
+                        ? match.getPlayer1EloAfterMatch() : match.getPlayer2EloAfterMatch();
+                standings.add(new HistoricalStanding(player, rating, match.getMatchDateTime()));
+            } else if (checkpointRating != null) {
+                standings.add(new HistoricalStanding(player, checkpointRating, checkpoint.get().getCreatedAt()));
+            } else {
+                standings.add(new HistoricalStanding(player, User.DEFAULT_ELO_RATING, null));
+            }
+        }
+        standings.sort(Comparator.comparingInt(HistoricalStanding::getEloRating).reversed());
+        logger.info("Looked up the ratings of {} players at {} in {} ms", players.size(), dateTime,
+                (System.nanoTime() - start) / 1_000_000);
+        return standings;
+    }
+
+    /**
+     * Finds the last archived match up to a date of the players who have no match in the table by then.
+     */
+    private void addLastArchivedMatches(Map<Long, Match> lastMatches, List<Long> ids, LocalDateTime dateTime) {
+        LocalDateTime archivedBefore = matchArchiveService.getArchivedBefore();
+        if (archivedBefore == null) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(lastMatches.keySet());
+        if (missing.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Stream<Match> archived = matchArchiveService.streamArchivedMatches(null, dateTime.plusNanos(1))) {
+            archived.forEach(match -> {
+                if (missing.contains(match.getPlayer1Id())) {
+                    lastMatches.put(match.getPlayer1Id(), match);
+                }
+                if (missing.contains(match.getPlayer2Id())) {
+                    lastMatches.put(match.getPlayer2Id(), match);
+                }
+            });
+        }
+        logger.info("Looked up the archived matches of {} players up to {} in {} ms", missing.size(), dateTime,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
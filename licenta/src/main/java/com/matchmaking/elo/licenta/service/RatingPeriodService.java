@@ -0,0 +1,14 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.RatingPeriod;
+
+import java.util.Optional;
+
+/**
+ * Service interface for the rating periods of periodic rating engines.
+ */
+public interface RatingPeriodService {
+    RatingPeriod closePeriod();
+
+    Optional<RatingPeriod> getLastPeriod();
+}
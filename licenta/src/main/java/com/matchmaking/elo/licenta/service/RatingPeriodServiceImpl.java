@@ -0,0 +1,146 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.RatingPeriod;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.GameResult;
+import com.matchmaking.elo.licenta.rating.Rating;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingPeriodRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for the rating periods of periodic rating engines such as Glicko-2.
+ * <p>
+ * While a period is open, recorded matches do not change any rating. Closing the period assigns it every
+ * committed match that no period rated yet, so matches that commit out of ID order are rated by the next
+ * period instead of being skipped. It then rates every player who played once from all their games against
+ * the opponents' ratings from the start of the period, and writes each of them once. The players are locked
+ * before they are read, so match counters and activity dates written meanwhile by other writers are kept.
+ * Players who did not play are not written; the periods they missed are applied the next time they are rated.
+ */
+@Service
+public class RatingPeriodServiceImpl implements RatingPeriodService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingPeriodServiceImpl.class);
+
+    private final MatchRepository matchRepository;
+    private final RatingPeriodRepository ratingPeriodRepository;
+    private final UserService userService;
+    private final RatingEngine ratingEngine;
+    private final RatingSeriesService ratingSeriesService;
+
+
+    @Autowired
+    public RatingPeriodServiceImpl(MatchRepository matchRepository, RatingPeriodRepository ratingPeriodRepository,
+                                   UserService userService, RatingEngine ratingEngine,
+                                   RatingSeriesService ratingSeriesService) {
+        this.matchRepository = matchRepository;
+        this.ratingPeriodRepository = ratingPeriodRepository;
+        this.userService = userService;
+        this.ratingEngine = ratingEngine;
+        this.ratingSeriesService = ratingSeriesService;
+    }
+
+    /**
+     * Closes the open rating period on schedule, if the rating engine is periodic.
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.rating.period-ms:3600000}",
+            initialDelayString = "${matchmaking.rating.period-ms:3600000}")
+    @Transactional
+    public void closeScheduledPeriod() {
+        if (ratingEngine.isPeriodic()) {
+            closePeriod();
+        }
+    }
+
+    /**
+     * Closes the open rating period and rates the players who played in it.
+     *
+     * @return the closed period
+     * @throws IllegalStateException if the rating engine is not periodic
+     */
+    @Override
+    @Transactional
+    public RatingPeriod closePeriod() {
+        if (!ratingEngine.isPeriodic()) {
+            throw new IllegalStateException("The " + ratingEngine.getName() + " rating engine has no rating periods");
+        }
+        long start = System.nanoTime();
+        Optional<RatingPeriod> previous = ratingPeriodRepository.findFirstByOrderByNumberDesc();
+        long number = previous.map(RatingPeriod::getNumber).orElse(0L) + 1;
+        long lastMatchId = previous.map(RatingPeriod::getLastMatchId).orElse(0L);
+
+        matchRepository.assignRatingPeriod(number);
+        Map<Long, List<long[]>> gamesByPlayer = new HashMap<>();
+        int matchCount = 0;
+        try (Stream<Object[]> rows = matchRepository.streamScoresInPeriod(number)) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                long player1Id = ((Number) row[1]).longValue();
+                long player2Id = ((Number) row[2]).longValue();
+                int player1Score = ((Number) row[3]).intValue();
+                int player2Score = ((Number) row[4]).intValue();
+                gamesByPlayer.computeIfAbsent(player1Id, id -> new ArrayList<>())
+                        .add(new long[]{player2Id, player1Score, player2Score});
+                gamesByPlayer.computeIfAbsent(player2Id, id -> new ArrayList<>())
+                        .add(new long[]{player1Id, player2Score, player1Score});
+                lastMatchId = Math.max(lastMatchId, ((Number) row[0]).longValue());
+                matchCount++;
+            }
+        }
+
+        List<User> players = userService.lockUsersByIds(gamesByPlayer.keySet());
+        Map<Long, Rating> ratingsAtStart = new HashMap<>();
+        for (User player : players) {
+            long missedPeriods = player.getRatingPeriod() == null ? 0 : number - player.getRatingPeriod() - 1;
+            ratingsAtStart.put(player.getId(), ratingEngine.idle(ratingOf(player), missedPeriods));
+        }
+
+        for (User player : players) {
+            List<GameResult> results = new ArrayList<>();
+            for (long[] game : gamesByPlayer.get(player.getId())) {
+                Rating opponent = ratingsAtStart.get(game[0]);
+                if (opponent != null) {
+                    results.add(GameResult.of(opponent, (int) game[1], (int) game[2]));
+                }
+            }
+            Rating rating = ratingEngine.rate(ratingsAtStart.get(player.getId()), results);
+            player.setEloRating((int) Math.round(rating.rating()));
+            player.setRatingDeviation(rating.deviation());
+            player.setRatingVolatility(rating.volatility());
+            player.setRatingPeriod(number);
+        }
+        userService.saveAll(players);
+        LocalDateTime now = LocalDateTime.now();
+        ratingSeriesService.recordRatings(players, now);
+
+        RatingPeriod period = ratingPeriodRepository.save(new RatingPeriod(number, ratingEngine.getName(),
+                lastMatchId, matchCount, players.size(), now));
+        logger.info("Closed rating period {}: rated {} players from {} matches in {} ms",
+                number, players.size(), matchCount, (System.nanoTime() - start) / 1_000_000);
+        return period;
+    }
+
+    /**
+     * Retrieves the last closed rating period.
+     *
+     * @return the last period, or empty if none was closed yet
+     */
+    @Override
+    public Optional<RatingPeriod> getLastPeriod() {
+        return ratingPeriodRepository.findFirstByOrderByNumberDesc();
+    }
+
+    private static Rating ratingOf(User user) {
+        return new Rating(user.getEloRating(), user.getRatingDeviation(), user.getRatingVolatility());
+    }
+}
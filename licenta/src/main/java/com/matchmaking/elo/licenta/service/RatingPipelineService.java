@@ -0,0 +1,20 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchSubmission;
+import com.matchmaking.elo.licenta.model.RatingPipelineStatus;
+
+import java.util.List;
+
+/**
+ * Service interface for rating match results asynchronously.
+ */
+public interface RatingPipelineService {
+    MatchSubmission submit(MatchResult result);
+
+    RatingPipelineStatus getStatus();
+
+    List<MatchResult> getFailedResults();
+
+    void reload();
+}
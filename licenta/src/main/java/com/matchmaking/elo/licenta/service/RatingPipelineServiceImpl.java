@@ -0,0 +1,516 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchSubmission;
+import com.matchmaking.elo.licenta.model.RatingPipelineStatus;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserBatchRepository.RatingChange;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service implementation for rating match results asynchronously.
+ * <p>
+ * Players are split into partitions by ID and every partition has one worker thread, so the rating of a
+ * player is only ever changed by the worker owning it and needs no locks. A match is queued on the
+ * partitions of both players; queuing happens under one short lock, so all queues hold matches in the
+ * same order. When the players are in different partitions, the first worker to reach the match waits
+ * for the other one, which then rates it. Ratings are kept in memory once read, and every worker writes
+ * its matches and the changed ratings in small batches, when enough are rated or the queue goes quiet.
+ * <p>
+ * Ratings are written as the change each batch made, added to the stored rating, so batches of different
+ * workers can be written in any order and ratings written by other services in the meantime are kept.
+ * When another service writes a player, the player's rating kept in memory is marked stale and read again
+ * on next use, once every change the pipeline made to it is written. A batch that cannot be written is
+ * retried; if it still fails, its results are kept for resubmission and the ratings of its players are
+ * marked stale as well.
+ */
+@Service
+public class RatingPipelineServiceImpl implements RatingPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingPipelineServiceImpl.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    static final int MAX_FLUSH_ATTEMPTS = 3;
+    static final int MAX_FAILED_RESULTS = 1000;
+
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final MatchService matchService;
+    private final HeadToHeadService headToHeadService;
+    private final RecentFormService recentFormService;
+    private final SwissService swissService;
+    private final PlayerResultsService playerResultsService;
+    private final RatingSeriesService ratingSeriesService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int flushSize;
+    private final long flushIntervalMillis;
+
+    private final List<BlockingQueue<PendingMatch>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<Long, PlayerRating> ratings = new ConcurrentHashMap<>();
+    private final Object ingressLock = new Object();
+    private final Deque<MatchResult> failedResults = new ArrayDeque<>();
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public RatingPipelineServiceImpl(MatchRepository matchRepository, UserRepository userRepository,
+                                     MatchService matchService, HeadToHeadService headToHeadService,
+                                     RecentFormService recentFormService, SwissService swissService,
+                                     PlayerResultsService playerResultsService,
+                                     RatingSeriesService ratingSeriesService,
+                                     PlatformTransactionManager transactionManager,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${matchmaking.rating-pipeline.partitions:4}") int partitions,
+                                     @Value("${matchmaking.rating-pipeline.flush-size:64}") int flushSize,
+                                     @Value("${matchmaking.rating-pipeline.flush-interval-ms:50}") long flushIntervalMillis) {
+        if (partitions < 1 || flushSize < 1 || flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("Rating pipeline partitions, flush size and flush interval must be positive");
+        }
+        this.matchRepository = matchRepository;
+        this.userRepository = userRepository;
+        this.matchService = matchService;
+        this.headToHeadService = headToHeadService;
+        this.recentFormService = recentFormService;
+        this.swissService = swissService;
+        this.playerResultsService = playerResultsService;
+        this.ratingSeriesService = ratingSeriesService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.flushSize = flushSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        for (int i = 0; i < partitions; i++) {
+            queues.add(new LinkedBlockingQueue<>());
+        }
+    }
+
+    /**
+     * Starts one worker per partition once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<PendingMatch> queue = queues.get(i);
+            Thread worker = new Thread(() -> work(queue), "rating-" + (workers.size() + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Started rating pipeline with {} partitions", queues.size());
+    }
+
+    /**
+     * Rates the matches still queued, writes them and stops the workers.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        logger.info("Stopped rating pipeline, {} matches persisted", persisted.get());
+    }
+
+    /**
+     * Queues a match result to be rated. The players are looked up when the match is rated;
+     * results with unknown players are then counted as rejected.
+     *
+     * @param result the match result
+     * @return the acknowledgement of the submission
+     * @throws IllegalStateException if the players are missing or the same, the pipeline is not running or
+     * match writes are suspended
+     */
+    @Override
+    public MatchSubmission submit(MatchResult result) {
+        if (result.getPlayer1Id() == null || result.getPlayer2Id() == null) {
+            throw new IllegalStateException("Both players are required");
+        }
+        if (result.getPlayer1Id().equals(result.getPlayer2Id())) {
+            throw new IllegalStateException("A player cannot play against themselves");
+        }
+        if (!running) {
+            throw new IllegalStateException("The rating pipeline is not running");
+        }
+        matchService.checkWritesAllowed();
+
+        Match match = new Match(result.getPlayer1Id(), result.getPlayer2Id());
+        match.setPlayer1Score(result.getPlayer1Score());
+        match.setPlayer2Score(result.getPlayer2Score());
+        match.setWinnerAndLoser();
+        if (result.getMatchDateTime() != null) {
+            match.setMatchDateTime(result.getMatchDateTime());
+        }
+
+        int partition1 = partition(match.getPlayer1Id());
+        int partition2 = partition(match.getPlayer2Id());
+        PendingMatch pending = new PendingMatch(match, partition1 == partition2 ? 1 : 2);
+        long sequence;
+        synchronized (ingressLock) {
+            sequence = submitted.incrementAndGet();
+            queues.get(partition1).add(pending);
+            if (partition2 != partition1) {
+                queues.get(partition2).add(pending);
+            }
+        }
+        return new MatchSubmission(sequence, LocalDateTime.now());
+    }
+
+    /**
+     * Reports how many matches were submitted, rated and written, and how long the oldest
+     * match still waiting has been queued.
+     *
+     * @return the status of the pipeline
+     */
+    @Override
+    public RatingPipelineStatus getStatus() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (BlockingQueue<PendingMatch> queue : queues) {
+            PendingMatch head = queue.peek();
+            if (head != null && head.submittedNanos < oldest) {
+                oldest = head.submittedNanos;
+            }
+        }
+        long done = applied.get() + rejected.get();
+        return new RatingPipelineStatus(queues.size(), submitted.get(), applied.get(), persisted.get(),
+                rejected.get(), failed.get(), Math.max(submitted.get() - done, 0), (now - oldest) / 1_000_000);
+    }
+
+    /**
+     * Retrieves the most recent match results that could not be written, at most
+     * {@value #MAX_FAILED_RESULTS}.
+     *
+     * @return the failed results, oldest first
+     */
+    @Override
+    public List<MatchResult> getFailedResults() {
+        synchronized (failedResults) {
+            return new ArrayList<>(failedResults);
+        }
+    }
+
+    /**
+     * Marks all ratings kept in memory as stale, e.g. after they were recomputed. They are read again on
+     * next use.
+     */
+    @Override
+    public void reload() {
+        ratings.values().forEach(rating -> rating.stale = true);
+    }
+
+    /**
+     * Marks the ratings kept in memory for players written by another service as stale, once the write is
+     * committed.
+     *
+     * @param event the changed players
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlayersChanged(PlayersChangedEvent event) {
+        if (event.getSource() == this) {
+            return;
+        }
+        if (event.isAll()) {
+            reload();
+            return;
+        }
+        for (PlayersChangedEvent.Change change : event.getChanges()) {
+            PlayerRating rating = ratings.get(change.userId());
+            if (rating != null) {
+                rating.stale = true;
+            }
+        }
+    }
+
+    private int partition(long userId) {
+        return Math.floorMod(Long.hashCode(userId), queues.size());
+    }
+
+    private void work(BlockingQueue<PendingMatch> queue) {
+        List<PendingMatch> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            PendingMatch pending;
+            try {
+                pending = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (pending == null) {
+                flush(batch);
+                continue;
+            }
+
+            if (pending.partitions == 1 || pending.arrivals.incrementAndGet() == pending.partitions) {
+                apply(pending, batch);
+                pending.applied.countDown();
+            } else {
+                // The other player's worker rates this match; nothing queued after it may run before that
+                flush(batch);
+                try {
+                    pending.applied.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (batch.size() >= flushSize) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+    }
+
+    private void apply(PendingMatch pending, List<PendingMatch> batch) {
+        Match match = pending.match;
+        PlayerRating player1 = rating(match.getPlayer1Id());
+        PlayerRating player2 = rating(match.getPlayer2Id());
+        if (player1 == null || player2 == null) {
+            rejected.incrementAndGet();
+            logger.warn("Rejected match between {} and {}: player not found", match.getPlayer1Id(), match.getPlayer2Id());
+            return;
+        }
+
+        matchService.rateMatch(match, player1.eloRating, player2.eloRating);
+        player1.unwritten.incrementAndGet();
+        player2.unwritten.incrementAndGet();
+        pending.rating1 = player1;
+        pending.rating2 = player2;
+        player1.eloRating = match.getPlayer1EloAfterMatch();
+        player2.eloRating = match.getPlayer2EloAfterMatch();
+        player1.matchCounter++;
+        player2.matchCounter++;
+        pending.player1 = player1.snapshot();
+        pending.player2 = player2.snapshot();
+        batch.add(pending);
+        applied.incrementAndGet();
+    }
+
+    /**
+     * Gets the rating of a player kept in memory, reading it on first use. A stale rating is read again only
+     * once all its changes are written, as the stored rating does not include the others yet.
+     */
+    private PlayerRating rating(long userId) {
+        PlayerRating rating = ratings.get(userId);
+        if (rating != null && rating.stale && rating.unwritten.get() == 0) {
+            rating.stale = false;
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                ratings.remove(userId);
+                return null;
+            }
+            rating.refresh(user);
+        }
+        if (rating == null) {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            rating = ratings.computeIfAbsent(userId, id -> new PlayerRating(user));
+        }
+        return rating;
+    }
+
+    /**
+     * Writes the rated matches and the rating changes of their players in one transaction.
+     * A failed write is retried up to {@value #MAX_FLUSH_ATTEMPTS} times in all, so later matches of the
+     * partition wait for it. If it keeps failing, the results are kept as failed and the ratings of the
+     * players, which include those results, are read again from the database on next use.
+     */
+    private void flush(List<PendingMatch> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Match> matches = new ArrayList<>(batch.size());
+        Map<Long, User> players = new HashMap<>();
+        // Sorted, so the rows are updated in ID order like the other writers lock them and cannot deadlock.
+        Map<Long, int[]> totals = new TreeMap<>();
+        for (PendingMatch pending : batch) {
+            Match match = pending.match;
+            matches.add(match);
+            players.merge(pending.player1.getId(), pending.player1, PlayerRating::latest);
+            players.merge(pending.player2.getId(), pending.player2, PlayerRating::latest);
+            addChange(totals, match.getPlayer1Id(), match.getPlayer1EloAfterMatch() - match.getPlayer1EloAtMatchTime());
+            addChange(totals, match.getPlayer2Id(), match.getPlayer2EloAfterMatch() - match.getPlayer2EloAtMatchTime());
+        }
+        List<RatingChange> changes = new ArrayList<>(totals.size());
+        totals.forEach((userId, total) -> changes.add(new RatingChange(userId, total[0], total[1])));
+        Map<Long, Integer> newRatings = new HashMap<>();
+        players.forEach((userId, user) -> newRatings.put(userId, user.getEloRating()));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    playerResultsService.recordMatches(matches, players);
+                    matchRepository.insertAll(matches);
+                    userRepository.addRatingChanges(changes);
+                    ratingSeriesService.recordMatches(matches);
+                    eventPublisher.publishEvent(PlayersChangedEvent.ratings(this, newRatings));
+                });
+                break;
+            } catch (RuntimeException e) {
+                if (attempt < MAX_FLUSH_ATTEMPTS && pause(flushIntervalMillis * attempt)) {
+                    logger.warn("Failed to write {} rated matches, attempt {} of {}",
+                            matches.size(), attempt, MAX_FLUSH_ATTEMPTS, e);
+                    continue;
+                }
+                logger.error("Failed to write {} rated matches, keeping them as failed", matches.size(), e);
+                giveUp(batch);
+                return;
+            }
+        }
+        for (PendingMatch pending : batch) {
+            pending.rating1.unwritten.decrementAndGet();
+            pending.rating2.unwritten.decrementAndGet();
+        }
+
+        for (PendingMatch pending : batch) {
+            Match match = pending.match;
+            headToHeadService.recordMatch(match.getPlayer1Id(), match.getPlayer2Id());
+            recentFormService.recordMatch(match);
+            swissService.recordMatch(match, pending.player1.getLeagueId());
+        }
+        persisted.addAndGet(matches.size());
+        batch.clear();
+    }
+
+    private static void addChange(Map<Long, int[]> totals, long userId, int eloRatingDelta) {
+        int[] total = totals.computeIfAbsent(userId, id -> new int[2]);
+        total[0] += eloRatingDelta;
+        total[1]++;
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Keeps the results of a batch that could not be written and marks the ratings of its players, which
+     * include those results, as stale. The results are written to the log too, as only the most recent are kept.
+     */
+    private void giveUp(List<PendingMatch> batch) {
+        failed.addAndGet(batch.size());
+        for (PendingMatch pending : batch) {
+            pending.rating1.stale = true;
+            pending.rating2.stale = true;
+            pending.rating1.unwritten.decrementAndGet();
+            pending.rating2.unwritten.decrementAndGet();
+        }
+        synchronized (failedResults) {
+            for (PendingMatch pending : batch) {
+                Match match = pending.match;
+                logger.error("Failed match result: player1={}, player2={}, score={}-{}, date={}",
+                        match.getPlayer1Id(), match.getPlayer2Id(), match.getPlayer1Score(),
+                        match.getPlayer2Score(), match.getMatchDateTime());
+                failedResults.addLast(new MatchResult(match.getPlayer1Id(), match.getPlayer2Id(),
+                        match.getPlayer1Score(), match.getPlayer2Score(), match.getMatchDateTime()));
+                if (failedResults.size() > MAX_FAILED_RESULTS) {
+                    failedResults.removeFirst();
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * A match waiting in one or two partition queues.
+     */
+    private static final class PendingMatch {
+        final Match match;
+        final int partitions;
+        final AtomicInteger arrivals = new AtomicInteger();
+        final CountDownLatch applied = new CountDownLatch(1);
+        final long submittedNanos = System.nanoTime();
+        User player1;
+        User player2;
+        PlayerRating rating1;
+        PlayerRating rating2;
+
+        PendingMatch(Match match, int partitions) {
+            this.match = match;
+            this.partitions = partitions;
+        }
+    }
+
+    /**
+     * The current rating of a player. Only changed by the worker owning the player, or by the worker
+     * of the opponent while the owner waits for it. Counts the rated matches not written yet.
+     */
+    private static final class PlayerRating {
+        final long userId;
+        Long leagueId;
+        int eloRating;
+        long matchCounter;
+        final AtomicInteger unwritten = new AtomicInteger();
+        volatile boolean stale;
+
+        PlayerRating(User user) {
+            this.userId = user.getId();
+            refresh(user);
+        }
+
+        void refresh(User user) {
+            this.leagueId = user.getLeagueId();
+            this.eloRating = user.getEloRating();
+            this.matchCounter = user.getMatchCounter();
+        }
+
+        User snapshot() {
+            User user = new User(userId, eloRating);
+            user.setMatchCounter(matchCounter);
+            user.setLeagueId(leagueId);
+            return user;
+        }
+
+        static User latest(User a, User b) {
+            return a.getMatchCounter() >= b.getMatchCounter() ? a : b;
+        }
+    }
+}
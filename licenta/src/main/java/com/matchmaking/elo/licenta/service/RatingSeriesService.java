@@ -0,0 +1,23 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingSeries;
+import com.matchmaking.elo.licenta.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Service interface for the rating histories of players.
+ */
+public interface RatingSeriesService {
+    void recordMatches(Collection<Match> matches);
+
+    void recordRatings(Collection<User> players, LocalDateTime dateTime);
+
+    RatingSeries getSeries(long userId, LocalDateTime from, LocalDateTime to, int maxPoints);
+
+    int rebuild(Collection<Long> userIds);
+
+    int rebuildAll();
+}
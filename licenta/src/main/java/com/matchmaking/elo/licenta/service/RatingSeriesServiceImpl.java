@@ -0,0 +1,356 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.RatingsCorrectedEvent;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingSeries;
+import com.matchmaking.elo.licenta.model.RatingSeriesChunk;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.rating.RatingPoint;
+import com.matchmaking.elo.licenta.rating.RatingSeriesCodec;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingSeriesChunkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for the rating histories of players.
+ * <p>
+ * Every player's history is stored as chunks of up to {@value #POINTS_PER_CHUNK} delta-encoded points, so a
+ * veteran's whole history is a few kilobytes instead of thousands of match rows. New points are appended to
+ * the player's last chunk, locked, in the transaction that rates the matches. Points are kept in the order
+ * they were recorded; a rebuild orders them by match date.
+ * <p>
+ * With an engine such as Elo a point is written for each player of each match. With a periodic engine the
+ * matches do not change ratings, so a point is written for each player rated when a rating period closes.
+ * When ratings are corrected or replayed the histories of the affected players are rebuilt from the matches;
+ * the histories of a periodic engine cannot be rebuilt this way and are left as they are. The points of
+ * archived matches cannot change, so rebuilding a few players keeps them and only reads the MATCHES table,
+ * while rebuilding everyone reads the archive files first. A rebuild inserts the chunks it completes every
+ * {@value #REBUILD_BATCH_SIZE} chunks, so only the open chunk of each player is held while the matches are read.
+ */
+@Service
+public class RatingSeriesServiceImpl implements RatingSeriesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingSeriesServiceImpl.class);
+
+    static final int POINTS_PER_CHUNK = 256;
+    static final int MAX_POINTS = 5000;
+    static final int REBUILD_BATCH_SIZE = 500;
+
+    private final RatingSeriesChunkRepository ratingSeriesChunkRepository;
+    private final MatchRepository matchRepository;
+    private final RatingEngine ratingEngine;
+    private final MatchArchiveService matchArchiveService;
+
+
+    @Autowired
+    public RatingSeriesServiceImpl(RatingSeriesChunkRepository ratingSeriesChunkRepository,
+                                   MatchRepository matchRepository, RatingEngine ratingEngine,
+                                   MatchArchiveService matchArchiveService) {
+        this.ratingSeriesChunkRepository = ratingSeriesChunkRepository;
+        this.matchRepository = matchRepository;
+        this.ratingEngine = ratingEngine;
+        this.matchArchiveService = matchArchiveService;
+    }
+
+    /**
+     * Appends the ratings after rated matches to the histories of their players.
+     * Does nothing with a periodic rating engine.
+     *
+     * @param matches the rated matches, in the order they were rated
+     */
+    @Override
+    public void recordMatches(Collection<Match> matches) {
+        if (ratingEngine.isPeriodic() || matches.isEmpty()) {
+            return;
+        }
+        Map<Long, List<RatingPoint>> points = new LinkedHashMap<>();
+        for (Match match : matches) {
+            long time = epochSecond(match.getMatchDateTime());
+            add(points, match.getPlayer1Id(), new RatingPoint(time, match.getPlayer1EloAfterMatch()));
+            add(points, match.getPlayer2Id(), new RatingPoint(time, match.getPlayer2EloAfterMatch()));
+        }
+        append(points);
+    }
+
+    /**
+     * Appends the current ratings of players to their histories, e.g. when a rating period closes.
+     *
+     * @param players the rated players
+     * @param dateTime the time of the new ratings
+     */
+    @Override
+    public void recordRatings(Collection<User> players, LocalDateTime dateTime) {
+        if (players.isEmpty()) {
+            return;
+        }
+        long time = epochSecond(dateTime);
+        Map<Long, List<RatingPoint>> points = new LinkedHashMap<>();
+        for (User player : players) {
+            add(points, player.getId(), new RatingPoint(time, player.getEloRating()));
+        }
+        append(points);
+    }
+
+    /**
+     * Retrieves the rating history of a player over a date range. Longer histories are reduced with the
+     * largest-triangle-three-buckets algorithm, which keeps the peaks and drops that shape a chart.
+     *
+     * @param userId the ID of the player
+     * @param from the start of the range, inclusive, or null for the first point
+     * @param to the end of the range, inclusive, or null for the last point
+     * @param maxPoints the maximum number of points to return
+     * @return the points in the range, at most {@code maxPoints} of them
+     * @throws IllegalStateException if {@code maxPoints} is below 2 or above {@value #MAX_POINTS}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RatingSeries getSeries(long userId, LocalDateTime from, LocalDateTime to, int maxPoints) {
+        if (maxPoints < 2 || maxPoints > MAX_POINTS) {
+            throw new IllegalStateException("The number of points must be between 2 and " + MAX_POINTS);
+        }
+        long fromTime = from != null ? epochSecond(from) : Long.MIN_VALUE;
+        long toTime = to != null ? epochSecond(to) : Long.MAX_VALUE;
+        List<RatingPoint> points = new ArrayList<>();
+        for (RatingSeriesChunk chunk : ratingSeriesChunkRepository.findByUserIdOrderById(userId)) {
+            RatingPoint first = new RatingPoint(epochSecond(chunk.getFirstTime()), chunk.getFirstRating());
+            for (RatingPoint point : RatingSeriesCodec.read(first, chunk.getData())) {
+                if (point.time() >= fromTime && point.time() <= toTime) {
+                    points.add(point);
+                }
+            }
+        }
+
+        List<RatingPoint> sampled = downsample(points, maxPoints);
+        List<LocalDateTime> times = new ArrayList<>(sampled.size());
+        int[] ratings = new int[sampled.size()];
+        for (int i = 0; i < sampled.size(); i++) {
+            times.add(LocalDateTime.ofEpochSecond(sampled.get(i).time(), 0, ZoneOffset.UTC));
+            ratings[i] = sampled.get(i).rating();
+        }
+        return new RatingSeries(userId, points.size(), times, ratings);
+    }
+
+    /**
+     * Rebuilds the histories of players from their matches, ordered by match date.
+     * Does nothing with a periodic rating engine.
+     *
+     * @param userIds the IDs of the players
+     * @return the number of points written
+     */
+    @Override
+    @Transactional
+    public int rebuild(Collection<Long> userIds) {
+        if (ratingEngine.isPeriodic() || userIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<RatingPoint>> archived = new HashMap<>();
+        LocalDateTime archivedBefore = matchArchiveService.getArchivedBefore();
+        if (archivedBefore != null) {
+            long before = epochSecond(archivedBefore);
+            for (RatingSeriesChunk chunk : ratingSeriesChunkRepository.findByUserIdInOrderById(userIds)) {
+                RatingPoint first = new RatingPoint(epochSecond(chunk.getFirstTime()), chunk.getFirstRating());
+                for (RatingPoint point : RatingSeriesCodec.read(first, chunk.getData())) {
+                    if (point.time() < before) {
+                        add(archived, chunk.getUserId(), point);
+                    }
+                }
+            }
+        }
+        ratingSeriesChunkRepository.deleteByUserIdIn(userIds);
+        try (Stream<Object[]> rows = matchRepository.streamRatingHistories(userIds)) {
+            return rebuild(rows, new HashSet<>(userIds), archived);
+        }
+    }
+
+    /**
+     * Rebuilds the histories of all players from the match history.
+     * Does nothing with a periodic rating engine.
+     *
+     * @return the number of points written
+     */
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        if (ratingEngine.isPeriodic()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        ratingSeriesChunkRepository.deleteAllInBatch();
+        int points;
+        try (Stream<Object[]> rows = Stream.concat(
+                matchArchiveService.streamArchivedMatches().map(m -> new Object[]{m.getPlayer1Id(), m.getPlayer2Id(),
+                        m.getPlayer1EloAfterMatch(), m.getPlayer2EloAfterMatch(), m.getMatchDateTime()}),
+                matchRepository.streamRatingHistories())) {
+            points = rebuild(rows, null, Map.of());
+        }
+        logger.info("Rebuilt {} rating history points in {} ms", points, (System.nanoTime() - start) / 1_000_000);
+        return points;
+    }
+
+    /**
+     * Rebuilds the histories of players whose ratings were corrected, before the correction commits.
+     *
+     * @param event the corrected players
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRatingsCorrected(RatingsCorrectedEvent event) {
+        rebuild(event.getUserIds());
+    }
+
+    /**
+     * Keeps only the points that best preserve the shape of the series, always including the first and last.
+     * The points between them are split into equal buckets; from each bucket the point forming the largest
+     * triangle with the previously chosen point and the average of the next bucket is kept.
+     */
+    static List<RatingPoint> downsample(List<RatingPoint> points, int maxPoints) {
+        if (points.size() <= maxPoints) {
+            return points;
+        }
+        List<RatingPoint> sampled = new ArrayList<>(maxPoints);
+        double bucketSize = (double) (points.size() - 2) / (maxPoints - 2);
+        RatingPoint previous = points.get(0);
+        sampled.add(previous);
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, points.size());
+
+            double averageTime = 0;
+            double averageRating = 0;
+            for (int i = end; i < nextEnd; i++) {
+                averageTime += points.get(i).time();
+                averageRating += points.get(i).rating();
+            }
+            averageTime /= nextEnd - end;
+            averageRating /= nextEnd - end;
+
+            RatingPoint chosen = points.get(start);
+            double largestArea = -1;
+            for (int i = start; i < end; i++) {
+                RatingPoint point = points.get(i);
+                double area = Math.abs((previous.time() - averageTime) * (point.rating() - previous.rating())
+                        - (previous.time() - point.time()) * (averageRating - previous.rating()));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = point;
+                }
+            }
+            sampled.add(chosen);
+            previous = chosen;
+        }
+        sampled.add(points.get(points.size() - 1));
+        return sampled;
+    }
+
+    private void append(Map<Long, List<RatingPoint>> points) {
+        Map<Long, RatingSeriesChunk> lastChunks = new HashMap<>();
+        for (RatingSeriesChunk chunk : ratingSeriesChunkRepository.findLastChunksForUpdate(points.keySet())) {
+            lastChunks.put(chunk.getUserId(), chunk);
+        }
+        List<RatingSeriesChunk> written = new ArrayList<>();
+        points.forEach((userId, userPoints) -> {
+            ChunkWriter writer = new ChunkWriter(userId, lastChunks.get(userId), written::add);
+            userPoints.forEach(writer::add);
+            writer.finish();
+        });
+        ratingSeriesChunkRepository.saveAll(written);
+    }
+
+    private int rebuild(Stream<Object[]> rows, Set<Long> userIds, Map<Long, List<RatingPoint>> kept) {
+        Map<Long, ChunkWriter> writers = new HashMap<>();
+        List<RatingSeriesChunk> written = new ArrayList<>(REBUILD_BATCH_SIZE);
+        Consumer<RatingSeriesChunk> insert = chunk -> {
+            written.add(chunk);
+            if (written.size() >= REBUILD_BATCH_SIZE) {
+                ratingSeriesChunkRepository.insertAll(written);
+                written.clear();
+            }
+        };
+        int count = 0;
+        for (Map.Entry<Long, List<RatingPoint>> entry : kept.entrySet()) {
+            ChunkWriter writer = new ChunkWriter(entry.getKey(), null, insert);
+            entry.getValue().forEach(writer::add);
+            writers.put(entry.getKey(), writer);
+            count += entry.getValue().size();
+        }
+        for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+            long time = epochSecond((LocalDateTime) row[4]);
+            for (int side = 0; side < 2; side++) {
+                long userId = ((Number) row[side]).longValue();
+                if (userIds == null || userIds.contains(userId)) {
+                    writers.computeIfAbsent(userId, id -> new ChunkWriter(id, null, insert))
+                            .add(new RatingPoint(time, ((Number) row[2 + side]).intValue()));
+                    count++;
+                }
+            }
+        }
+        writers.values().forEach(ChunkWriter::finish);
+        ratingSeriesChunkRepository.insertAll(written);
+        return count;
+    }
+
+    private static void add(Map<Long, List<RatingPoint>> points, long userId, RatingPoint point) {
+        points.computeIfAbsent(userId, id -> new ArrayList<>()).add(point);
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Appends points to a player's last chunk, starting a new chunk whenever the current one is full.
+     * Each chunk is handed over once it is complete, so the chunks of a player are handed over in order.
+     */
+    private static final class ChunkWriter {
+        final long userId;
+        final Consumer<RatingSeriesChunk> written;
+        RatingSeriesChunk chunk;
+        ByteArrayOutputStream data;
+
+        ChunkWriter(long userId, RatingSeriesChunk lastChunk, Consumer<RatingSeriesChunk> written) {
+            this.userId = userId;
+            this.written = written;
+            if (lastChunk != null && lastChunk.getPointCount() < POINTS_PER_CHUNK) {
+                chunk = lastChunk;
+                data = new ByteArrayOutputStream();
+                data.writeBytes(lastChunk.getData());
+            }
+        }
+
+        void add(RatingPoint point) {
+            if (chunk == null || chunk.getPointCount() >= POINTS_PER_CHUNK) {
+                finish();
+                chunk = new RatingSeriesChunk(userId, LocalDateTime.ofEpochSecond(point.time(), 0, ZoneOffset.UTC),
+                        point.rating());
+                data = new ByteArrayOutputStream();
+                return;
+            }
+            RatingSeriesCodec.write(data, new RatingPoint(epochSecond(chunk.getLastTime()), chunk.getLastRating()), point);
+            chunk.setLastTime(LocalDateTime.ofEpochSecond(point.time(), 0, ZoneOffset.UTC));
+            chunk.setLastRating(point.rating());
+            chunk.setPointCount(chunk.getPointCount() + 1);
+        }
+
+        void finish() {
+            if (chunk != null) {
+                chunk.setData(data.toByteArray());
+                written.accept(chunk);
+                chunk = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+
+/**
+ * Service interface for tracking the recent results of players.
+ */
+public interface RecentFormService {
+    int RECENT_MATCHES = 5;
+
+    int getRecentWins(long userId);
+
+    void recordMatch(Match match);
+
+    void reloadPlayer(long userId);
+
+    void reload();
+}
@@ -0,0 +1,111 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.matchmaking.RecentResultsBuffer;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for tracking the recent results of players.
+ * Each player has a ring buffer of their last {@link #RECENT_MATCHES} results. The buffers are filled
+ * once at startup by streaming the MATCHES table in ID order and are appended to as matches are saved.
+ */
+@Service
+public class RecentFormServiceImpl implements RecentFormService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentFormServiceImpl.class);
+
+    private final MatchRepository matchRepository;
+
+    private final Map<Long, RecentResultsBuffer> recentResults = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public RecentFormServiceImpl(MatchRepository matchRepository) {
+        this.matchRepository = matchRepository;
+    }
+
+    /**
+     * Fills the recent results once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Gets the number of wins of a player in their recent matches.
+     *
+     * @param userId the ID of the player
+     * @return the number of wins in the last {@link #RECENT_MATCHES} matches
+     */
+    @Override
+    public int getRecentWins(long userId) {
+        RecentResultsBuffer buffer = recentResults.get(userId);
+        return buffer == null ? 0 : buffer.getWins();
+    }
+
+    /**
+     * Appends the result of a match to the recent results of both players.
+     *
+     * @param match the recorded match
+     */
+    @Override
+    public void recordMatch(Match match) {
+        addResult(match.getPlayer1Id(), match.getWinnerId());
+        addResult(match.getPlayer2Id(), match.getWinnerId());
+    }
+
+    /**
+     * Rebuilds the recent results of a single player, e.g. after one of their matches was deleted.
+     *
+     * @param userId the ID of the player
+     */
+    @Override
+    public void reloadPlayer(long userId) {
+        List<Match> latestMatches = matchRepository.findTop5ByPlayer1IdOrPlayer2IdOrderByIdDesc(userId, userId);
+        RecentResultsBuffer buffer = new RecentResultsBuffer(RECENT_MATCHES);
+        for (int i = latestMatches.size() - 1; i >= 0; i--) {
+            Long winnerId = latestMatches.get(i).getWinnerId();
+            buffer.add(winnerId != null && winnerId == userId);
+        }
+        recentResults.put(userId, buffer);
+    }
+
+    /**
+     * Rebuilds the recent results of all players by streaming the MATCHES table in ID order.
+     * Only the last {@link #RECENT_MATCHES} results of each player are kept in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void reload() {
+        recentResults.clear();
+        long matchCount = 0;
+        try (Stream<Object[]> results = matchRepository.streamResultsOrderById()) {
+            for (Object[] row : (Iterable<Object[]>) results::iterator) {
+                Long winnerId = row[2] == null ? null : ((Number) row[2]).longValue();
+                addResult(((Number) row[0]).longValue(), winnerId);
+                addResult(((Number) row[1]).longValue(), winnerId);
+                matchCount++;
+            }
+        }
+        logger.info("Loaded recent results of {} players from {} matches", recentResults.size(), matchCount);
+    }
+
+    private void addResult(long userId, Long winnerId) {
+        recentResults.computeIfAbsent(userId, id -> new RecentResultsBuffer(RECENT_MATCHES))
+                .add(winnerId != null && winnerId == userId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.Round;
+
+import java.util.Optional;
+
+/**
+ * Service interface for managing the pairing rounds of divisions.
+ */
+public interface RoundService {
+    Optional<Round> getCurrentRound(long divisionId);
+
+    Round createRound(long divisionId, PairingStrategy strategy);
+}
@@ -0,0 +1,93 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.Round;
+import com.matchmaking.elo.licenta.repository.RoundRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for managing the pairing rounds of divisions.
+ * The current round of each division is cached after it is first read, so serving it again does not
+ * touch the database or recompute the pairing. The cache entry is only replaced when a new round is created.
+ * Rounds of one division are created one at a time under a lock of that division; the pairing and the
+ * insert run outside the cache's own locking, so other divisions are never held up by them.
+ */
+@Service
+public class RoundServiceImpl implements RoundService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoundServiceImpl.class);
+
+    private final RoundRepository roundRepository;
+    private final DivisionService divisionService;
+
+    private final Map<Long, Round> currentRounds = new ConcurrentHashMap<>();
+    private final Map<Long, Object> divisionLocks = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public RoundServiceImpl(RoundRepository roundRepository, DivisionService divisionService) {
+        this.roundRepository = roundRepository;
+        this.divisionService = divisionService;
+    }
+
+    /**
+     * Retrieves the current round of a division. No round is created if the division has none.
+     *
+     * @param divisionId the ID of the division
+     * @return an Optional containing the current round, or an empty Optional if the division has no round yet
+     */
+    @Override
+    public Optional<Round> getCurrentRound(long divisionId) {
+        Round cached = currentRounds.get(divisionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return roundRepository.findFirstByDivisionIdOrderByNumberDesc(divisionId)
+                .map(round -> currentRounds.merge(divisionId, round, RoundServiceImpl::later));
+    }
+
+    /**
+     * Creates a new round for a division, replacing the current one.
+     *
+     * @param divisionId the ID of the division
+     * @param strategy the pairing algorithm to use
+     * @return the new round
+     * @throws IllegalStateException if there are not enough players signed in for matchmaking, or if another
+     * instance created the same round meanwhile
+     */
+    @Override
+    public Round createRound(long divisionId, PairingStrategy strategy) {
+        synchronized (divisionLocks.computeIfAbsent(divisionId, id -> new Object())) {
+            Round previous = currentRounds.get(divisionId);
+            if (previous == null) {
+                previous = roundRepository.findFirstByDivisionIdOrderByNumberDesc(divisionId).orElse(null);
+            }
+            List<Pair> pairs = divisionService.matchPlayers(divisionId, strategy);
+            int number = previous == null ? 1 : previous.getNumber() + 1;
+            Round round;
+            try {
+                round = roundRepository.save(new Round(divisionId, number, strategy, pairs));
+            } catch (DataIntegrityViolationException e) {
+                currentRounds.remove(divisionId);
+                throw new IllegalStateException("Round " + number + " of division " + divisionId + " was already created", e);
+            }
+            currentRounds.put(divisionId, round);
+            logger.info("Created round {} for division {} with strategy {}: {} pairs", number, divisionId, strategy, pairs.size());
+            return round;
+        }
+    }
+
+    private static Round later(Round first, Round second) {
+        return first.getNumber() >= second.getNumber() ? first : second;
+    }
+}
@@ -0,0 +1,22 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Season;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for managing league seasons.
+ */
+public interface SeasonService {
+    Season getCurrentSeason(Long leagueId);
+
+    Season startNextSeason(Long leagueId);
+
+    Optional<Season> getSeason(Long seasonId);
+
+    List<Season> getSeasons(Long leagueId);
+
+    Optional<Season> findSeasonAt(Long leagueId, LocalDateTime dateTime);
+}
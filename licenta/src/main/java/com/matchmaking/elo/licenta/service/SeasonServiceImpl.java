@@ -0,0 +1,119 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.repository.SeasonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for managing league seasons.
+ * A league always has one open season; it is created on first use and replaced when the season ends.
+ * The open seasons are kept in memory once looked up, since most lookups are for the present.
+ */
+@Service
+public class SeasonServiceImpl implements SeasonService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeasonServiceImpl.class);
+
+    private final SeasonRepository seasonRepository;
+    private final Map<Long, Season> openSeasons = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public SeasonServiceImpl(SeasonRepository seasonRepository) {
+        this.seasonRepository = seasonRepository;
+    }
+
+    /**
+     * Retrieves the open season of a league, starting the first season if the league has none.
+     *
+     * @param leagueId the ID of the league
+     * @return the open season of the league
+     */
+    @Override
+    @Transactional
+    public Season getCurrentSeason(Long leagueId) {
+        return seasonRepository.findFirstByLeagueIdAndEndDateTimeIsNullOrderByNumberDesc(leagueId)
+                .orElseGet(() -> openSeason(leagueId, LocalDateTime.now()));
+    }
+
+    /**
+     * Ends the open season of a league and starts the next one.
+     *
+     * @param leagueId the ID of the league
+     * @return the new open season
+     */
+    @Override
+    @Transactional
+    public Season startNextSeason(Long leagueId) {
+        LocalDateTime now = LocalDateTime.now();
+        seasonRepository.findFirstByLeagueIdAndEndDateTimeIsNullOrderByNumberDesc(leagueId)
+                .ifPresent(season -> {
+                    season.setEndDateTime(now);
+                    seasonRepository.save(season);
+                    openSeasons.remove(leagueId);
+                    logger.info("Ended season {} of league {}", season.getNumber(), leagueId);
+                });
+        return openSeason(leagueId, now);
+    }
+
+    /**
+     * Retrieves a season by its ID.
+     *
+     * @param seasonId the ID of the season
+     * @return an Optional containing the season if found, or an empty Optional if not found
+     */
+    @Override
+    public Optional<Season> getSeason(Long seasonId) {
+        return seasonRepository.findById(seasonId);
+    }
+
+    /**
+     * Retrieves all seasons of a league, oldest first.
+     *
+     * @param leagueId the ID of the league
+     * @return the seasons of the league
+     */
+    @Override
+    public List<Season> getSeasons(Long leagueId) {
+        return seasonRepository.findByLeagueIdOrderByNumberAsc(leagueId);
+    }
+
+    /**
+     * Finds the season of a league that a point in time falls within.
+     *
+     * @param leagueId the ID of the league
+     * @param dateTime the point in time
+     * @return the season, or empty if the league had no season then
+     */
+    @Override
+    public Optional<Season> findSeasonAt(Long leagueId, LocalDateTime dateTime) {
+        Season open = openSeasons.get(leagueId);
+        if (open != null && open.contains(dateTime)) {
+            return Optional.of(open);
+        }
+        Optional<Season> season = seasonRepository
+                .findFirstByLeagueIdAndStartDateTimeLessThanEqualOrderByStartDateTimeDesc(leagueId, dateTime)
+                .filter(candidate -> candidate.contains(dateTime));
+        season.filter(Season::isOpen).ifPresent(candidate -> openSeasons.put(leagueId, candidate));
+        return season;
+    }
+
+    private Season openSeason(Long leagueId, LocalDateTime start) {
+        int number = seasonRepository.findFirstByLeagueIdOrderByNumberDesc(leagueId)
+                .map(Season::getNumber)
+                .orElse(0) + 1;
+        Season season = seasonRepository.save(new Season(leagueId, number, start));
+        logger.info("Started season {} of league {}", number, leagueId);
+        return season;
+    }
+}
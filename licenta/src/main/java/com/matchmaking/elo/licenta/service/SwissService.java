@@ -0,0 +1,20 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.SwissRound;
+import com.matchmaking.elo.licenta.model.SwissStanding;
+
+import java.util.List;
+
+/**
+ * Service interface for Swiss-system rounds within a league season.
+ */
+public interface SwissService {
+    SwissRound generateRound(long divisionId);
+
+    List<SwissStanding> getStandings(long divisionId);
+
+    void recordMatch(Match match, Long leagueId);
+
+    void reload();
+}
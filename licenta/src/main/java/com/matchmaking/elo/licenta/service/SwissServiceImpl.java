@@ -0,0 +1,299 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.matchmaking.SwissPairer;
+import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.model.SwissRound;
+import com.matchmaking.elo.licenta.model.SwissStanding;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.DivisionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for Swiss-system rounds.
+ * The standings of a league's current season are read from the MATCHES table once, when they are first
+ * needed, and are then kept up to date as matches are saved, so generating the next round does not
+ * re-read the season's matches. Repeat opponents are avoided within the season. Byes and round numbers
+ * are kept in memory with the standings; when the standings are read again after a match was deleted or
+ * edited, they are carried over to the new standings.
+ */
+@Service
+public class SwissServiceImpl implements SwissService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SwissServiceImpl.class);
+
+    private final MatchRepository matchRepository;
+    private final DivisionRepository divisionRepository;
+    private final UserService userService;
+    private final SeasonService seasonService;
+
+    private final SwissPairer swissPairer = new SwissPairer();
+    private final Map<Long, SeasonStandings> standingsByLeague = new ConcurrentHashMap<>();
+
+
+    @Autowired
+    public SwissServiceImpl(MatchRepository matchRepository, DivisionRepository divisionRepository,
+                            UserService userService, SeasonService seasonService) {
+        this.matchRepository = matchRepository;
+        this.divisionRepository = divisionRepository;
+        this.userService = userService;
+        this.seasonService = seasonService;
+    }
+
+    /**
+     * Generates the next Swiss round for the signed-in players of a division.
+     * Players are grouped by their score in the current season and paired by rating within each group.
+     *
+     * @param divisionId the ID of the division
+     * @return the pairs of the round and the player receiving the bye, if any
+     * @throws IllegalStateException if the division is not found, is not in a league,
+     *                               or there are not enough players signed in
+     */
+    @Override
+    @Transactional
+    public SwissRound generateRound(long divisionId) {
+        long start = System.nanoTime();
+        Division division = getDivision(divisionId);
+        List<User> players = userService.getSignedInUsersInDivision(divisionId);
+        if (players.size() < 2) {
+            throw new IllegalStateException("Not enough players signed in for matchmaking in division " + divisionId);
+        }
+
+        SeasonStandings standings = standingsFor(division.getLeagueId());
+        synchronized (standings) {
+            players.sort(standings.ranking());
+            int n = players.size();
+            long[] ids = new long[n];
+            double[] scores = new double[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = players.get(i).getId();
+                scores[i] = standings.record(ids[i]).halfPoints / 2.0;
+            }
+
+            int[] partner = swissPairer.pair(scores, new SwissPairer.History() {
+                @Override
+                public boolean havePlayed(int i, int j) {
+                    return standings.record(ids[i]).opponents.contains(ids[j]);
+                }
+
+                @Override
+                public boolean hadBye(int i) {
+                    return standings.record(ids[i]).byes > 0;
+                }
+            });
+
+            List<Pair> pairs = new ArrayList<>(n / 2);
+            Long byePlayerId = null;
+            int rematches = 0;
+            for (int i = 0; i < n; i++) {
+                if (partner[i] == SwissPairer.BYE) {
+                    byePlayerId = ids[i];
+                } else if (partner[i] > i) {
+                    pairs.add(new Pair(ids[i], ids[partner[i]]));
+                    if (standings.record(ids[i]).opponents.contains(ids[partner[i]])) {
+                        rematches++;
+                    }
+                }
+            }
+            if (byePlayerId != null) {
+                standings.addBye(byePlayerId);
+            }
+            int roundNumber = standings.nextRound(divisionId);
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Generated Swiss round {} for division {}: {} pairs, bye={}, rematches={} in {} ms",
+                    roundNumber, divisionId, pairs.size(), byePlayerId, rematches, elapsedMillis);
+            return new SwissRound(divisionId, standings.seasonId, roundNumber, pairs, byePlayerId, rematches, elapsedMillis);
+        }
+    }
+
+    /**
+     * Retrieves the Swiss standings of all players in a division for the current season.
+     *
+     * @param divisionId the ID of the division
+     * @return the standings, ordered by points and then by ELO rating
+     * @throws IllegalStateException if the division is not found or is not in a league
+     */
+    @Override
+    @Transactional
+    public List<SwissStanding> getStandings(long divisionId) {
+        Division division = getDivision(divisionId);
+        List<User> players = userService.getAllUsersInDivision(divisionId);
+
+        SeasonStandings standings = standingsFor(division.getLeagueId());
+        synchronized (standings) {
+            players.sort(standings.ranking());
+            List<SwissStanding> result = new ArrayList<>(players.size());
+            for (User player : players) {
+                PlayerRecord record = standings.record(player.getId());
+                result.add(new SwissStanding(player, record.halfPoints / 2.0, record.matchesPlayed, record.byes));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Adds a saved match to the standings of the league's current season, if they are loaded.
+     *
+     * @param match the saved match
+     * @param leagueId the ID of the league the players belong to
+     */
+    @Override
+    public void recordMatch(Match match, Long leagueId) {
+        if (leagueId == null || match.getMatchDateTime() == null) {
+            return;
+        }
+        standingsByLeague.computeIfPresent(leagueId, (id, standings) -> {
+            if (!match.getMatchDateTime().isBefore(standings.since)) {
+                standings.addMatch(match.getId(), match.getPlayer1Id(), match.getPlayer2Id(),
+                        match.getPlayer1Score(), match.getPlayer2Score());
+            }
+            return standings;
+        });
+    }
+
+    /**
+     * Marks all loaded standings as stale, e.g. after a match was deleted. Their matches are read again on
+     * next use, while the byes and round numbers are kept.
+     */
+    @Override
+    public void reload() {
+        standingsByLeague.values().forEach(standings -> standings.stale = true);
+    }
+
+    private Division getDivision(long divisionId) {
+        Division division = divisionRepository.findById(divisionId)
+                .orElseThrow(() -> new IllegalStateException("Division not found with id: " + divisionId));
+        if (division.getLeagueId() == null) {
+            throw new IllegalStateException("Division " + divisionId + " is not in a league");
+        }
+        return division;
+    }
+
+    private SeasonStandings standingsFor(Long leagueId) {
+        Season season = seasonService.getCurrentSeason(leagueId);
+        return standingsByLeague.compute(leagueId, (id, current) -> {
+            if (current == null || current.seasonId != season.getId()) {
+                return load(season, null);
+            }
+            return current.stale ? load(season, current) : current;
+        });
+    }
+
+    /**
+     * Reads the standings of a season by streaming its matches in ID order.
+     * The byes and round numbers of stale standings of the same season are carried over.
+     */
+    private SeasonStandings load(Season season, SeasonStandings stale) {
+        SeasonStandings standings = new SeasonStandings(season.getId(), season.getStartDateTime());
+        if (stale != null) {
+            standings.carryOver(stale);
+        }
+        long matchCount = 0;
+        try (Stream<Object[]> scores = matchRepository.streamScoresPlayedSince(season.getStartDateTime())) {
+            for (Object[] row : (Iterable<Object[]>) scores::iterator) {
+                standings.addMatch(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), ((Number) row[3]).intValue(), ((Number) row[4]).intValue());
+                matchCount++;
+            }
+        }
+        logger.info("Loaded Swiss standings of season {} of league {} from {} matches",
+                season.getNumber(), season.getLeagueId(), matchCount);
+        return standings;
+    }
+
+    /**
+     * A player's score, opponents and byes within a season. Points are kept in halves so draws stay exact.
+     */
+    private static final class PlayerRecord {
+        int halfPoints;
+        int matchesPlayed;
+        int byes;
+        final Set<Long> opponents = new HashSet<>();
+    }
+
+    /**
+     * The standings of one season. All access is synchronized on the standings.
+     */
+    private static final class SeasonStandings {
+        private static final PlayerRecord NO_RECORD = new PlayerRecord();
+
+        final long seasonId;
+        final LocalDateTime since;
+        final Map<Long, PlayerRecord> records = new HashMap<>();
+        final Map<Long, Integer> roundsByDivision = new HashMap<>();
+        final Set<Long> matchIds = new HashSet<>();
+        volatile boolean stale;
+
+        SeasonStandings(long seasonId, LocalDateTime since) {
+            this.seasonId = seasonId;
+            this.since = since;
+        }
+
+        /**
+         * Adds a match once; matches already read while loading are skipped. Matches are recognised by ID,
+         * because IDs are not committed in order and a saved match can have a lower ID than one read before.
+         */
+        synchronized void addMatch(long matchId, long player1Id, long player2Id, int player1Score, int player2Score) {
+            if (!matchIds.add(matchId)) {
+                return;
+            }
+            int player1HalfPoints = player1Score > player2Score ? 2 : player1Score == player2Score ? 1 : 0;
+            addResult(player1Id, player2Id, player1HalfPoints);
+            addResult(player2Id, player1Id, 2 - player1HalfPoints);
+        }
+
+        synchronized void addBye(long userId) {
+            PlayerRecord record = records.computeIfAbsent(userId, id -> new PlayerRecord());
+            record.halfPoints += 2;
+            record.byes++;
+        }
+
+        /**
+         * Copies the byes and round numbers of older standings of the same season.
+         */
+        synchronized void carryOver(SeasonStandings previous) {
+            synchronized (previous) {
+                previous.records.forEach((userId, record) -> {
+                    for (int i = 0; i < record.byes; i++) {
+                        addBye(userId);
+                    }
+                });
+                roundsByDivision.putAll(previous.roundsByDivision);
+            }
+        }
+
+        synchronized int nextRound(long divisionId) {
+            return roundsByDivision.merge(divisionId, 1, Integer::sum);
+        }
+
+        PlayerRecord record(long userId) {
+            return records.getOrDefault(userId, NO_RECORD);
+        }
+
+        Comparator<User> ranking() {
+            return Comparator.comparingInt((User user) -> record(user.getId()).halfPoints).reversed()
+                    .thenComparing(Comparator.comparingInt(User::getEloRating).reversed())
+                    .thenComparing(User::getId);
+        }
+
+        private void addResult(long userId, long opponentId, int halfPoints) {
+            PlayerRecord record = records.computeIfAbsent(userId, id -> new PlayerRecord());
+            record.halfPoints += halfPoints;
+            record.matchesPlayed++;
+            record.opponents.add(opponentId);
+        }
+    }
+}
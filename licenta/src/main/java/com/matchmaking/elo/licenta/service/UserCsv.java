@@ -0,0 +1,28 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.User;
+
+/**
+ * One user per line of comma-separated values, as written by the user export.
+ * Names are quoted when they contain a comma, a quote or a line break. Missing values are empty fields.
+ */
+final class UserCsv {
+
+    static final String HEADER = "ID,NAME,LEAGUE_ID,DIVISION_ID,ELO_RATING,RATING_DEVIATION,RATING_VOLATILITY," +
+            "RATING_PERIOD,MATCH_COUNTER,LAST_ACTIVE_DATE,SIGNED_IN";
+
+    private UserCsv() {
+    }
+
+    static String format(User user) {
+        return user.getId() + "," + Csv.quote(user.getName()) + ","
+                + orEmpty(user.getLeagueId()) + "," + orEmpty(user.getDivisionId()) + ","
+                + user.getEloRating() + "," + user.getRatingDeviation() + "," + user.getRatingVolatility() + ","
+                + orEmpty(user.getRatingPeriod()) + "," + user.getMatchCounter() + ","
+                + orEmpty(user.getLastActiveDate()) + "," + user.isSignedIn();
+    }
+
+    private static String orEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -3,6 +3,7 @@ package com.matchmaking.elo.licenta.service;
 import com.matchmaking.elo.licenta.model.User;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,12 @@ public interface UserService {
 
     User save(User user);
 
+    List<User> findUsersByIds(Collection<Long> ids);
+
+    List<User> lockUsersByIds(Collection<Long> ids);
+
+    List<User> saveAll(Collection<User> users);
+
     List<User> findByLeagueId(Long leagueId);
 
     boolean deleteUser(Long id);
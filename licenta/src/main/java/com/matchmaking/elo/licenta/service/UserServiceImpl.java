@@ -1,16 +1,20 @@
 package com.matchmaking.elo.licenta.service;
 
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
 import com.matchmaking.elo.licenta.model.User;
 import com.matchmaking.elo.licenta.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,15 +32,16 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    public final int K_FACTOR_CONSTANT = 32;
-
     private final UserRepository userRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
 
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -67,7 +72,9 @@ public class UserServiceImpl implements UserService {
             user.setSignedIn(updatedUser.isSignedIn());
 
             logger.info("Updated user with ID {}: {}", id, user);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            eventPublisher.publishEvent(PlayersChangedEvent.of(List.of(savedUser)));
+            return savedUser;
         }
         return null;
     }
@@ -86,7 +93,7 @@ public class UserServiceImpl implements UserService {
 
 
     /**
-     * Saves a new or updated user.
+     * Saves a new or updated user and publishes a {@link PlayersChangedEvent}.
      *
      * @param user the user to save
      * @return the saved user
@@ -94,10 +101,49 @@ public class UserServiceImpl implements UserService {
     @Override
     public User save(User user) {
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(PlayersChangedEvent.of(List.of(savedUser)));
         logger.info("Saved new user: {}", savedUser);
         return savedUser;
     }
 
+    /**
+     * Finds users by their IDs with a single query.
+     *
+     * @param ids the IDs of the users
+     * @return the users found, in no particular order
+     */
+    @Override
+    public List<User> findUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+
+    /**
+     * Finds users by their IDs and locks them until the end of the current transaction.
+     * The users are locked in ID order with a single query.
+     *
+     * @param ids the IDs of the users
+     * @return the users found, ordered by ID
+     */
+    @Override
+    public List<User> lockUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllByIdForUpdate(ids);
+    }
+
+    /**
+     * Saves a group of users. Inside a transaction the updates are flushed together in JDBC batches.
+     * One {@link PlayersChangedEvent} is published for the whole group.
+     *
+     * @param users the users to save
+     * @return the saved users
+     */
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        List<User> savedUsers = userRepository.saveAll(users);
+        eventPublisher.publishEvent(PlayersChangedEvent.of(savedUsers));
+        logger.info("Saved {} users", savedUsers.size());
+        return savedUsers;
+    }
+
 
     /**
      * Finds users by league ID.
@@ -121,6 +167,7 @@ public class UserServiceImpl implements UserService {
         Optional<User> user = userRepository.findById(id);
         if (user.isPresent()) {
             userRepository.deleteById(id);
+            eventPublisher.publishEvent(PlayersChangedEvent.removed(id));
             logger.info("Deleted user with ID {}", id);
             return true;
         }
@@ -138,6 +185,7 @@ public class UserServiceImpl implements UserService {
         logger.info("Updating ELO for player {}: currentElo={}, newElo={}", player.getId(), player.getEloRating(), newElo);
         player.setEloRating(newElo);
         userRepository.save(player);
+        eventPublisher.publishEvent(PlayersChangedEvent.of(List.of(player)));
         logger.info("Updated ELO for player {}: new ELO = {}", player.getId(), newElo);
 
     }
@@ -157,7 +205,7 @@ public class UserServiceImpl implements UserService {
 
 
     /**
-     * Signs in a user.
+     * Signs in a user and publishes a {@link PresenceChangedEvent} if they were signed out.
      *
      * @param id the ID of the user
      * @return true if the sign-in was successful, otherwise false
@@ -167,10 +215,14 @@ public class UserServiceImpl implements UserService {
         Optional<User> optionalUser = userRepository.findById(id);
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
+            boolean wasSignedIn = user.isSignedIn();
             user.setSignedIn(true);
             user.setLastActiveDate(LocalDate.now());
             userRepository.save(user);
             logger.info("Signed in user with ID {}", id);
+            if (!wasSignedIn) {
+                eventPublisher.publishEvent(new PresenceChangedEvent(id, user.getDivisionId(), user.getEloRating(), true));
+            }
 
             return true;
         }
@@ -179,7 +231,7 @@ public class UserServiceImpl implements UserService {
 
 
     /**
-     * Signs out a user.
+     * Signs out a user and publishes a {@link PresenceChangedEvent} if they were signed in.
      *
      * @param id the ID of the user
      * @return true if the sign-out was successful, otherwise false
@@ -189,9 +241,13 @@ public class UserServiceImpl implements UserService {
         Optional<User> optionalUser = userRepository.findById(id);
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
+            boolean wasSignedIn = user.isSignedIn();
             user.setSignedIn(false);
             userRepository.save(user);
             logger.info("Signed out user with ID {}", id);
+            if (wasSignedIn) {
+                eventPublisher.publishEvent(new PresenceChangedEvent(id, user.getDivisionId(), user.getEloRating(), false));
+            }
 
             return true;
         }
@@ -227,6 +283,7 @@ public class UserServiceImpl implements UserService {
                 logger.info("Applied ELO decay for user {}: new ELO = {}", user.getId(), newElo);
             }
         }
+        eventPublisher.publishEvent(PlayersChangedEvent.all());
     }
 
 
@@ -242,6 +299,7 @@ public class UserServiceImpl implements UserService {
             userRepository.save(user);
 
         }
+        eventPublisher.publishEvent(PlayersChangedEvent.all());
         logger.info("[END]Hard reset ELO for all users");
 
     }
@@ -261,6 +319,7 @@ public class UserServiceImpl implements UserService {
             user.setEloRating(newElo);
             userRepository.save(user);
         }
+        eventPublisher.publishEvent(PlayersChangedEvent.all());
         logger.info("[END]Soft reset ELO for all users");
 
     }
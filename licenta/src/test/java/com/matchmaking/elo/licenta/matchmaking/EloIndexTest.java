@@ -0,0 +1,61 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EloIndexTest {
+
+    @Test
+    public void testAdd_KeepsPlayersWithEqualRatings() {
+        EloIndex index = new EloIndex();
+        index.add(1L, 1500);
+        index.add(2L, 1500);
+        index.add(3L, 1500);
+
+        assertEquals(3, index.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L), index.idsInRatingOrder());
+    }
+
+    @Test
+    public void testNearest() {
+        EloIndex index = new EloIndex();
+        index.add(1L, 1400);
+        index.add(2L, 1500);
+        index.add(3L, 1530);
+
+        assertEquals(Long.valueOf(3L), index.nearest(2L));
+        assertEquals(Long.valueOf(2L), index.nearest(1L));
+        assertNull(index.nearest(4L));
+    }
+
+    @Test
+    public void testUpdateRating_MovesPlayer() {
+        EloIndex index = new EloIndex();
+        index.add(1L, 1400);
+        index.add(2L, 1500);
+
+        assertTrue(index.updateRating(1L, 1600));
+        assertFalse(index.updateRating(5L, 1600));
+
+        assertEquals(Arrays.asList(2L, 1L), index.idsInRatingOrder());
+        assertEquals(Integer.valueOf(1600), index.getRating(1L));
+    }
+
+    @Test
+    public void testPollFirstAndNeighboursOfRemovedPosition() {
+        EloIndex index = new EloIndex();
+        index.add(1L, 1500);
+        index.add(2L, 1500);
+        index.add(3L, 1600);
+
+        assertEquals(Long.valueOf(1L), index.pollFirst());
+        assertNull(index.lower(1500, 1L));
+        assertEquals(Long.valueOf(2L), index.higher(1500, 1L));
+        assertTrue(index.remove(2L));
+        assertFalse(index.remove(2L));
+        assertEquals(1, index.size());
+    }
+}
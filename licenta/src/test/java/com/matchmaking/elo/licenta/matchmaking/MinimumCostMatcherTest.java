@@ -0,0 +1,45 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MinimumCostMatcherTest {
+
+    private final MinimumCostMatcher matcher = new MinimumCostMatcher();
+
+    @Test
+    public void testMatch_AdjacentPairsWithoutRematches() {
+        double[] scores = {1000, 1010, 1500, 1520};
+
+        int[] partner = matcher.match(scores.length, (i, j) -> Math.abs(scores[i] - scores[j]));
+
+        assertArrayEquals(new int[]{1, 0, 3, 2}, partner);
+    }
+
+    @Test
+    public void testMatch_AvoidsRematch() {
+        double[] scores = {1000, 1010, 1020, 1030};
+
+        int[] partner = matcher.match(scores.length, (i, j) -> Math.abs(scores[i] - scores[j])
+                + ((i == 0 && j == 1) ? 200 : 0));
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, partner);
+    }
+
+    @Test
+    public void testMatch_OddCountGivesOneBye() {
+        double[] scores = {1000, 1400, 1405};
+
+        int[] partner = matcher.match(scores.length, (i, j) -> Math.abs(scores[i] - scores[j]));
+
+        assertEquals(MinimumCostMatcher.BYE, partner[0]);
+        assertEquals(2, partner[1]);
+        assertEquals(1, partner[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_InvalidWindow() {
+        new MinimumCostMatcher(0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.matchmaking.elo.licenta.matchmaking;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SwissPairerTest {
+
+    private final SwissPairer pairer = new SwissPairer();
+
+    @Test
+    public void testPair_TopHalfAgainstBottomHalf() {
+        int[] partner = pairer.pair(new double[]{0, 0, 0, 0}, history(Set.of(), Set.of()));
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, partner);
+    }
+
+    @Test
+    public void testPair_AvoidsRematchWithinGroup() {
+        int[] partner = pairer.pair(new double[]{1, 1, 1, 1}, history(Set.of("0-2"), Set.of()));
+
+        assertArrayEquals(new int[]{3, 2, 1, 0}, partner);
+    }
+
+    @Test
+    public void testPair_FloatsUnpairablePlayersDown() {
+        int[] partner = pairer.pair(new double[]{1, 1, 0, 0}, history(Set.of("0-1"), Set.of()));
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, partner);
+    }
+
+    @Test
+    public void testPair_RepairsAcrossGroupsBeforeRematch() {
+        int[] partner = pairer.pair(new double[]{1, 1, 0, 0}, history(Set.of("2-3"), Set.of()));
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, partner);
+    }
+
+    @Test
+    public void testPair_ByeGoesToLowestPlayerWithoutBye() {
+        int[] partner = pairer.pair(new double[]{2, 1, 0}, history(Set.of(), Set.of(2)));
+
+        assertEquals(SwissPairer.BYE, partner[1]);
+        assertEquals(2, partner[0]);
+        assertEquals(0, partner[2]);
+    }
+
+    @Test
+    public void testPair_RematchOnlyWhenUnavoidable() {
+        int[] partner = pairer.pair(new double[]{1, 1}, history(Set.of("0-1"), Set.of()));
+
+        assertArrayEquals(new int[]{1, 0}, partner);
+    }
+
+    private static SwissPairer.History history(Set<String> played, Set<Integer> byes) {
+        return new SwissPairer.History() {
+            @Override
+            public boolean havePlayed(int i, int j) {
+                return played.contains(Math.min(i, j) + "-" + Math.max(i, j));
+            }
+
+            @Override
+            public boolean hadBye(int i) {
+                return byes.contains(i);
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.matchmaking.elo.licenta.rating;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EloKernelTest {
+
+    @Test
+    public void testNewRating_SameAsPowFormula() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int rating = random.nextInt(5000);
+            int opponentRating = random.nextInt(5000);
+            int halfPoints = random.nextInt(3);
+            double expected = 1 / (1 + Math.pow(10, (opponentRating - rating) / 400.0));
+            int newRating = Math.max((int) (rating + 32 * (halfPoints * 0.5 - expected)), 0);
+
+            assertEquals(newRating, EloKernel.newRating(rating, opponentRating, halfPoints, 32));
+        }
+    }
+
+    @Test
+    public void testRate_AppliesMatchesInOrder() {
+        int[] ratings = {1500, 1500, 1500};
+
+        EloKernel.rate(ratings, new int[]{0, 0}, new int[]{1, 2}, new byte[]{2, 2}, null, null, 2, 32);
+
+        assertEquals(1500 + 16 + 15, ratings[0]);
+        assertEquals(1484, ratings[1]);
+        assertEquals(1484, ratings[2]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.matchmaking.elo.licenta.rating;
+
+import com.matchmaking.elo.licenta.model.User;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class Glicko2RatingEngineTest {
+
+    private final Glicko2RatingEngine engine = new Glicko2RatingEngine(0.5);
+
+    @Test
+    public void testRate_MatchesGlickmanExample() {
+        Rating rating = engine.rate(new Rating(1500, 200, 0.06), List.of(
+                new GameResult(new Rating(1400, 30, 0.06), 1),
+                new GameResult(new Rating(1550, 100, 0.06), 0),
+                new GameResult(new Rating(1700, 300, 0.06), 0)));
+
+        assertEquals(1464.06, rating.rating(), 0.01);
+        assertEquals(151.52, rating.deviation(), 0.01);
+        assertEquals(0.05999, rating.volatility(), 0.00001);
+    }
+
+    @Test
+    public void testIdle_GrowsDeviationUpToNewPlayer() {
+        Rating rating = engine.idle(new Rating(1500, 50, 0.06), 10);
+
+        assertEquals(1500, rating.rating(), 0);
+        assertTrue(rating.deviation() > 50);
+        assertEquals(User.DEFAULT_RATING_DEVIATION, engine.idle(rating, 1_000_000).deviation(), 0);
+    }
+
+    @Test
+    public void testRate_NoGamesOnlyAgesRating() {
+        Rating player = new Rating(1600, 80, 0.06);
+
+        assertEquals(engine.idle(player, 1), engine.rate(player, List.of()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.matchmaking.elo.licenta.rating;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RatingSeriesCodecTest {
+
+    @Test
+    public void testRead_ReturnsWrittenPoints() {
+        Random random = new Random(11);
+        List<RatingPoint> points = new ArrayList<>();
+        points.add(new RatingPoint(1_700_000_000L, 1500));
+        for (int i = 1; i < 10_000; i++) {
+            RatingPoint previous = points.get(i - 1);
+            // Mostly small steps forward, sometimes a match recorded with an earlier date or a large jump.
+            long time = previous.time() + (random.nextInt(10) == 0 ? -random.nextInt(86_400) : random.nextInt(86_400));
+            int rating = Math.max(previous.rating() + random.nextInt(65) - 32 + (i % 1000 == 0 ? 5000 : 0), 0);
+            points.add(new RatingPoint(time, rating));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 1; i < points.size(); i++) {
+            RatingSeriesCodec.write(out, points.get(i - 1), points.get(i));
+        }
+
+        assertEquals(points, RatingSeriesCodec.read(points.get(0), out.toByteArray()));
+        assertTrue(out.size() < points.size() * 5);
+    }
+
+    @Test
+    public void testRead_OnlyFirstPoint() {
+        RatingPoint first = new RatingPoint(0, 1500);
+
+        assertEquals(List.of(first), RatingSeriesCodec.read(first, new byte[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRead_TruncatedData() {
+        RatingSeriesCodec.read(new RatingPoint(0, 1500), new byte[]{(byte) 0x80});
+    }
+}
@@ -0,0 +1,153 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.DivisionRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DivisionServiceImplTest {
+
+    private static final long DIVISION_ID = 2L;
+
+    @Mock
+    private DivisionRepository divisionRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MatchService matchService;
+
+    @Mock
+    private HeadToHeadService headToHeadService;
+
+    @Mock
+    private RatingHistoryService ratingHistoryService;
+
+    @InjectMocks
+    private DivisionServiceImpl divisionService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_PairsEqualRatings() {
+        signedIn(user(1L, 1500), user(2L, 1500), user(3L, 1500), user(4L, 1500));
+
+        List<Pair> pairs = divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        assertEquals(2, pairs.size());
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_ReadsDivisionOnce() {
+        signedIn(user(1L, 1500), user(2L, 1510));
+
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        verify(userService, times(1)).getAllSignedInUsersInDivision(DIVISION_ID);
+    }
+
+    @Test
+    public void testMatchPlayers_PairsGivenPlayersWithoutReadingDivision() {
+        List<User> players = List.of(user(1L, 1500), user(2L, 1700), user(3L, 1510), user(4L, 1710));
+
+        for (PairingStrategy strategy : PairingStrategy.values()) {
+            List<Pair> pairs = divisionService.matchPlayers(DIVISION_ID, players, strategy);
+
+            Set<Long> paired = new HashSet<>();
+            for (Pair pair : pairs) {
+                paired.add(pair.getUser1Id());
+                paired.add(pair.getUser2Id());
+            }
+            assertEquals(strategy.name(), Set.of(1L, 2L, 3L, 4L), paired);
+        }
+        verify(userService, never()).getAllSignedInUsersInDivision(DIVISION_ID);
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_FollowsSignInAndSignOut() {
+        signedIn(user(1L, 1500), user(2L, 1600));
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        divisionService.onPresenceChanged(new PresenceChangedEvent(3L, DIVISION_ID, 1510, true));
+        divisionService.onPresenceChanged(new PresenceChangedEvent(4L, DIVISION_ID, 1590, true));
+        divisionService.onPresenceChanged(new PresenceChangedEvent(2L, DIVISION_ID, 1600, false));
+        List<Pair> pairs = divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        assertPairs(pairs, 1L, 3L);
+        verify(userService, times(1)).getAllSignedInUsersInDivision(DIVISION_ID);
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_UpdatesRatingsInPlace() {
+        signedIn(user(1L, 1500), user(2L, 1510), user(3L, 1700), user(4L, 1710));
+        assertPairs(divisionService.matchPlayersInDivision(DIVISION_ID), 1L, 2L, 3L, 4L);
+
+        divisionService.onPlayersChanged(PlayersChangedEvent.ratings(this, Map.of(2L, 1705, 9L, 1500)));
+        List<Pair> pairs = divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        assertPairs(pairs, 1L, 3L, 2L, 4L);
+        verify(userService, times(1)).getAllSignedInUsersInDivision(DIVISION_ID);
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_MovesPlayersBetweenDivisions() {
+        signedIn(user(1L, 1500), user(2L, 1510), user(3L, 1520));
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        User moved = user(2L, 1510);
+        moved.setDivisionId(DIVISION_ID + 1);
+        divisionService.onPlayersChanged(PlayersChangedEvent.of(List.of(moved)));
+        List<Pair> pairs = divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        assertPairs(pairs, 1L, 3L);
+    }
+
+    @Test
+    public void testMatchPlayersInDivision_RebuildsAfterBulkChange() {
+        signedIn(user(1L, 1500), user(2L, 1510));
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        divisionService.onPlayersChanged(PlayersChangedEvent.all());
+        divisionService.matchPlayersInDivision(DIVISION_ID);
+
+        verify(userService, times(2)).getAllSignedInUsersInDivision(DIVISION_ID);
+    }
+
+    private void signedIn(User... users) {
+        when(userService.getAllSignedInUsersInDivision(DIVISION_ID)).thenReturn(new ArrayList<>(List.of(users)));
+    }
+
+    private static User user(long id, int eloRating) {
+        return User.createUser(id, "User" + id, eloRating, null, DIVISION_ID, 1L, true);
+    }
+
+    private static void assertPairs(List<Pair> pairs, long... ids) {
+        assertEquals(ids.length / 2, pairs.size());
+        for (int i = 0; i < ids.length; i += 2) {
+            Pair pair = pairs.get(i / 2);
+            assertEquals(ids[i], pair.getUser1Id());
+            assertEquals(ids[i + 1], pair.getUser2Id());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.model.EloReplayStatus;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class EloReplayServiceImplTest {
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MatchService matchService;
+
+    @Mock
+    private RecentFormService recentFormService;
+
+    @Mock
+    private RatingPipelineService ratingPipelineService;
+
+    @Mock
+    private RatingCheckpointService ratingCheckpointService;
+
+    @Mock
+    private RatingSeriesService ratingSeriesService;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RatingEngine ratingEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private EloReplayServiceImpl eloReplayService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        eloReplayService = new EloReplayServiceImpl(matchRepository, userRepository, matchService, recentFormService,
+                ratingPipelineService, ratingCheckpointService, ratingSeriesService, matchArchiveService,
+                transactionManager, ratingEngine, eventPublisher, 2);
+        // The winner takes 16 points from the loser.
+        doAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            int player1Elo = invocation.getArgument(1);
+            int player2Elo = invocation.getArgument(2);
+            int delta = match.getPlayer1Score() > match.getPlayer2Score() ? 16
+                    : match.getPlayer1Score() < match.getPlayer2Score() ? -16 : 0;
+            match.setPlayer1EloAtMatchTime(player1Elo);
+            match.setPlayer2EloAtMatchTime(player2Elo);
+            match.setPlayer1EloAfterMatch(player1Elo + delta);
+            match.setPlayer2EloAfterMatch(player2Elo - delta);
+            return null;
+        }).when(matchService).rateMatch(any(Match.class), anyInt(), anyInt());
+        when(matchArchiveService.streamArchivedMatches()).thenAnswer(invocation -> Stream.empty());
+    }
+
+    @Test
+    public void testReplay_RatesComponentsInPlayOrder() throws InterruptedException {
+        // Players 1 and 2 never meet players 3 and 4, so they form two components.
+        when(matchRepository.streamPlayers()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, 2L}, new Object[]{3L, 4L}, new Object[]{2L, 1L}, new Object[]{1L, 2L}));
+        when(matchRepository.streamScoresInPlayOrder()).thenReturn(Stream.<Object[]>of(
+                new Object[]{10L, 1L, 2L, 1, 0},
+                new Object[]{11L, 3L, 4L, 0, 2},
+                new Object[]{12L, 2L, 1L, 3, 0},
+                new Object[]{13L, 1L, 2L, 2, 2}));
+
+        EloReplayStatus status = replay();
+
+        assertNull(status.getError());
+        assertEquals(4, status.getMatchesReplayed());
+        assertEquals(4, status.getPlayersRated());
+        assertEquals(2, status.getComponents());
+        verify(matchService).rateMatch(any(Match.class), eq(1484), eq(1516));
+        verify(matchService, times(3)).rateMatch(any(Match.class), eq(1500), eq(1500));
+
+        ArgumentCaptor<Collection<User>> users = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).replaceRatings(users.capture(), eq(User.DEFAULT_ELO_RATING));
+        Map<Long, User> byId = new HashMap<>();
+        users.getValue().forEach(user -> byId.put(user.getId(), user));
+        assertEquals(1500, byId.get(1L).getEloRating());
+        assertEquals(3, byId.get(1L).getMatchCounter());
+        assertEquals(1500, byId.get(2L).getEloRating());
+        assertEquals(1484, byId.get(3L).getEloRating());
+        assertEquals(1516, byId.get(4L).getEloRating());
+        assertEquals(1, byId.get(4L).getMatchCounter());
+
+        verify(ratingCheckpointService).reset();
+        verify(ratingSeriesService).rebuildAll();
+        verify(ratingPipelineService).reload();
+        ArgumentCaptor<PlayersChangedEvent> event = ArgumentCaptor.forClass(PlayersChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isAll());
+    }
+
+    @Test
+    public void testReplay_KeepsRatingsWhenWritingFails() throws InterruptedException {
+        when(matchRepository.streamPlayers()).thenReturn(Stream.<Object[]>of(new Object[]{1L, 2L}));
+        when(matchRepository.streamScoresInPlayOrder()).thenReturn(Stream.<Object[]>of(new Object[]{10L, 1L, 2L, 1, 0}));
+        doThrow(new IllegalStateException("disk full")).when(matchRepository).updateRatings(anyList());
+
+        EloReplayStatus status = replay();
+
+        assertNotNull(status.getError());
+        verify(userRepository, never()).replaceRatings(anyCollection(), anyInt());
+        verify(ratingCheckpointService, never()).reset();
+        verify(matchService).suspendWrites(EloReplayServiceImpl.REPLAY_ACTIVITY);
+        verify(matchService).resumeWrites();
+    }
+
+    @Test
+    public void testStartReplay_RefusedWhileMatchWritesAreSuspended() {
+        doThrow(new IllegalStateException("Matches cannot be written while matches are archived"))
+                .when(matchService).suspendWrites(anyString());
+
+        try {
+            eloReplayService.startReplay();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Matches cannot be written while matches are archived", e.getMessage());
+        }
+        assertFalse(eloReplayService.getStatus().isRunning());
+        verify(matchService, never()).resumeWrites();
+    }
+
+    @Test
+    public void testStartReplayWithWritesSuspended_ResumesWritesWhenDone() throws InterruptedException {
+        when(matchRepository.streamPlayers()).thenReturn(Stream.<Object[]>of(new Object[]{1L, 2L}));
+        when(matchRepository.streamScoresInPlayOrder()).thenReturn(Stream.<Object[]>of(new Object[]{10L, 1L, 2L, 1, 0}));
+
+        eloReplayService.startReplayWithWritesSuspended();
+        EloReplayStatus status = waitForReplay();
+
+        assertNull(status.getError());
+        verify(matchService, never()).suspendWrites(anyString());
+        verify(matchService).resumeWrites();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartReplay_RejectsPeriodicEngine() {
+        when(ratingEngine.isPeriodic()).thenReturn(true);
+        when(ratingEngine.getName()).thenReturn("glicko2");
+
+        eloReplayService.startReplay();
+    }
+
+    private EloReplayStatus replay() throws InterruptedException {
+        eloReplayService.startReplay();
+        return waitForReplay();
+    }
+
+    private EloReplayStatus waitForReplay() throws InterruptedException {
+        for (int i = 0; i < 400 && eloReplayService.getStatus().isRunning(); i++) {
+            Thread.sleep(5);
+        }
+        EloReplayStatus status = eloReplayService.getStatus();
+        assertFalse("Replay did not finish", status.isRunning());
+        return status;
+    }
+}
@@ -0,0 +1,186 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.ExportFormat;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchExportFilter;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ExportServiceImplTest {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime APRIL = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SeasonService seasonService;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    private ExportServiceImpl exportService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ExportServiceImpl(matchRepository, userRepository, seasonService, matchArchiveService);
+    }
+
+    @Test
+    public void testExportMatches_CsvWritesArchivedMatchesFirst() throws IOException {
+        Match archived = match(1L, 1L, 2L, MARCH.plusDays(1));
+        Match current = match(2L, 2L, 1L, APRIL.plusDays(1));
+        when(matchArchiveService.readArchivedBefore()).thenReturn(APRIL);
+        when(matchArchiveService.streamArchivedMatches(null, APRIL)).thenReturn(Stream.of(archived));
+        stubMatches(null, List.of(current));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportMatches(new MatchExportFilter(), ExportFormat.CSV, false, out);
+
+        assertEquals(2, rows);
+        assertEquals(MatchCsv.HEADER + "\n" + MatchCsv.format(archived) + "\n" + MatchCsv.format(current) + "\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportMatches_GzipNdjsonWithIsoDates() throws IOException {
+        stubMatches(null, List.of(match(2L, 2L, 1L, APRIL.plusDays(1))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportMatches(new MatchExportFilter(), ExportFormat.NDJSON, true, out);
+
+        String content = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals(1, rows);
+        assertEquals(1, content.split("\n").length);
+        assertTrue(content.endsWith("}\n"));
+        assertTrue(content.contains("\"matchDateTime\":\"2024-04-02T00:00:00\""));
+        verify(matchArchiveService, never()).streamArchivedMatches(any(), any());
+    }
+
+    @Test
+    public void testExportMatches_LeagueSkipsArchivedMatchesOfOtherPlayers() throws IOException {
+        Match inLeague = match(1L, 1L, 2L, MARCH.plusDays(1));
+        Match otherLeague = match(2L, 3L, 4L, MARCH.plusDays(2));
+        when(matchArchiveService.readArchivedBefore()).thenReturn(APRIL);
+        when(matchArchiveService.streamArchivedMatches(null, APRIL)).thenReturn(Stream.of(inLeague, otherLeague));
+        when(userRepository.findIdsByLeagueId(7L)).thenReturn(List.of(1L, 2L));
+        stubMatches(7L, List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportMatches(new MatchExportFilter(7L, null, null), ExportFormat.CSV, false, out);
+
+        assertEquals(1, rows);
+        assertEquals(MatchCsv.HEADER + "\n" + MatchCsv.format(inLeague) + "\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportMatches_FailsIfMatchesWereArchivedDuringTheExport() throws IOException {
+        Match archived = match(1L, 1L, 2L, MARCH.plusDays(1));
+        when(matchArchiveService.readArchivedBefore()).thenReturn(MARCH, APRIL);
+        when(matchArchiveService.streamArchivedMatches(null, MARCH)).thenReturn(Stream.of(archived));
+        stubMatches(null, List.of(match(2L, 2L, 1L, APRIL.plusDays(1))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            exportService.exportMatches(new MatchExportFilter(), ExportFormat.CSV, false, out);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Matches were archived during the export, try again.", e.getMessage());
+        }
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains(",2024-04-02T00:00"));
+    }
+
+    @Test
+    public void testResolveMatchFilter_NarrowsRangeToSeason() {
+        Season season = new Season(7L, 2, MARCH);
+        season.setId(5L);
+        season.setEndDateTime(APRIL);
+        when(seasonService.getSeason(5L)).thenReturn(Optional.of(season));
+
+        MatchExportFilter filter = exportService.resolveMatchFilter(null, 5L, null, MARCH.plusDays(10));
+
+        assertEquals(Long.valueOf(7L), filter.getLeagueId());
+        assertEquals(MARCH, filter.getFrom());
+        assertEquals(MARCH.plusDays(10), filter.getTo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResolveMatchFilter_RejectsSeasonOfAnotherLeague() {
+        Season season = new Season(7L, 2, MARCH);
+        season.setId(5L);
+        when(seasonService.getSeason(5L)).thenReturn(Optional.of(season));
+
+        exportService.resolveMatchFilter(8L, 5L, null, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportUsers_CsvQuotesNames() throws IOException {
+        User user = new User(3L);
+        user.setName("Doe, \"Jo\"");
+        user.setEloRating(1620);
+        user.setLeagueId(7L);
+        user.setLastActiveDate(null);
+        when(userRepository.forEachUser(eq(7L), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<User>>getArgument(1).accept(user);
+            return 1L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportUsers(7L, ExportFormat.CSV, false, out);
+
+        assertEquals(1, rows);
+        assertEquals(UserCsv.HEADER + "\n3,\"Doe, \"\"Jo\"\"\",7,,1620,350.0,0.06,,0,,false\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubMatches(Long leagueId, List<Match> matches) {
+        when(matchRepository.forEachMatch(eq(leagueId), any(), any(), any())).thenAnswer(invocation -> {
+            matches.forEach(invocation.<Consumer<Match>>getArgument(3));
+            return (long) matches.size();
+        });
+    }
+
+    private static Match match(Long id, Long player1Id, Long player2Id, LocalDateTime dateTime) {
+        Match match = new Match(player1Id, player2Id);
+        match.setId(id);
+        match.setPlayer1Score(1);
+        match.setPlayer2Score(0);
+        match.setWinnerAndLoser();
+        match.setPlayer1EloAtMatchTime(1500);
+        match.setPlayer2EloAtMatchTime(1500);
+        match.setPlayer1EloAfterMatch(1516);
+        match.setPlayer2EloAfterMatch(1484);
+        match.setMatchDateTime(dateTime);
+        return match;
+    }
+}
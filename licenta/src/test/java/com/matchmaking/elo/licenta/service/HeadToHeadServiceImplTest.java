@@ -0,0 +1,57 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class HeadToHeadServiceImplTest {
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @InjectMocks
+    private HeadToHeadServiceImpl headToHeadService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testReload_CountsBothDirectionsTogether() {
+        when(matchRepository.countMatchesGroupedByPlayers()).thenReturn(Arrays.asList(
+                new Object[]{1L, 2L, 3L},
+                new Object[]{2L, 1L, 2L},
+                new Object[]{1L, 3L, 1L}));
+
+        headToHeadService.reload();
+
+        assertEquals(5, headToHeadService.getMatchCount(1L, 2L));
+        assertEquals(5, headToHeadService.getMatchCount(2L, 1L));
+        assertEquals(1, headToHeadService.getMatchCount(3L, 1L));
+        assertEquals(0, headToHeadService.getMatchCount(2L, 3L));
+    }
+
+    @Test
+    public void testRecordAndRemoveMatch() {
+        headToHeadService.recordMatch(4L, 7L);
+        headToHeadService.recordMatch(7L, 4L);
+
+        assertEquals(2, headToHeadService.getMatchCount(4L, 7L));
+
+        headToHeadService.removeMatch(4L, 7L);
+        headToHeadService.removeMatch(7L, 4L);
+        headToHeadService.removeMatch(7L, 4L);
+
+        assertEquals(0, headToHeadService.getMatchCount(7L, 4L));
+        verifyNoInteractions(matchRepository);
+    }
+}
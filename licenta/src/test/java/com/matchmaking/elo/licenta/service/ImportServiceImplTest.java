@@ -0,0 +1,222 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.ImportJob;
+import com.matchmaking.elo.licenta.model.ImportStatus;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.DivisionRepository;
+import com.matchmaking.elo.licenta.repository.ImportJobRepository;
+import com.matchmaking.elo.licenta.repository.LeagueRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ImportServiceImplTest {
+
+    private static final String HEADER = "PLAYER_1,PLAYER_2,PLAYER_1_SCORE,PLAYER_2_SCORE,MATCH_DATE_TIME\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private LeagueRepository leagueRepository;
+
+    @Mock
+    private DivisionRepository divisionRepository;
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @Mock
+    private PlayerResultsService playerResultsService;
+
+    @Mock
+    private HeadToHeadService headToHeadService;
+
+    @Mock
+    private RecentFormService recentFormService;
+
+    @Mock
+    private SwissService swissService;
+
+    @Mock
+    private RatingSeriesService ratingSeriesService;
+
+    @Mock
+    private RatingCheckpointService ratingCheckpointService;
+
+    @Mock
+    private MatchService matchService;
+
+    @Mock
+    private EloReplayService eloReplayService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImportServiceImpl importService;
+
+    private final List<Match> inserted = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        importService = new ImportServiceImpl(userRepository, matchRepository, leagueRepository, divisionRepository,
+                importJobRepository, matchArchiveService, playerResultsService, headToHeadService, recentFormService,
+                swissService, ratingSeriesService, ratingCheckpointService, matchService, eloReplayService,
+                transactionManager, folder.getRoot().getPath());
+        when(userRepository.forEachUser(eq(null), any())).thenAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(1);
+            action.accept(User.createUser(1L, "Alice", 1600, null, null, null, false));
+            action.accept(User.createUser(2L, "Bob, Jr.", 1400, null, null, null, false));
+            return 2L;
+        });
+        when(importJobRepository.findByFileName(any())).thenReturn(Optional.empty());
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0))).when(matchRepository).insertAll(anyList());
+    }
+
+    @Test
+    public void testImport_ResolvesPlayersByNameAndRejectsInvalidRows() throws Exception {
+        write("matches.csv", HEADER
+                + "Alice,\"Bob, Jr.\",2,1,2019-03-01T10:00:00\n"
+                + "Alice,Carol,1,0,2019-03-02T10:00:00\n"
+                + "Bob,Alice,1,0,not a date\n");
+
+        importService.startImport(null, "matches.csv", true);
+        ImportStatus status = awaitImport();
+
+        assertNull(status.getError());
+        assertEquals(1, status.getRowsImported());
+        assertEquals(2, status.getRowsRejected());
+        assertEquals(4, status.getLinesRead());
+        assertEquals(1, inserted.size());
+        Match match = inserted.get(0);
+        assertEquals(Long.valueOf(1L), match.getPlayer1Id());
+        assertEquals(Long.valueOf(2L), match.getPlayer2Id());
+        assertEquals(Long.valueOf(1L), match.getWinnerId());
+        assertEquals(LocalDateTime.of(2019, 3, 1, 10, 0), match.getMatchDateTime());
+        assertEquals(Long.valueOf(Match.NO_RATING_PERIOD), match.getRatingPeriod());
+        List<String> rejected = Files.readAllLines(folder.getRoot().toPath().resolve("matches.csv.rejected"));
+        assertEquals(List.of("line 3: Player Carol not found", "line 4: Player Bob not found"), rejected);
+        verify(playerResultsService).rebuild();
+        verify(headToHeadService).reload();
+        verify(swissService).reload();
+        verify(eloReplayService).startReplayWithWritesSuspended();
+        verify(ratingSeriesService, never()).rebuildAll();
+        assertTrue(status.isReplayStarted());
+        verify(matchService).suspendWrites(anyString());
+        verify(matchRepository).lockForRewrite();
+        verify(matchService, never()).resumeWrites();
+    }
+
+    @Test
+    public void testImport_ResumesAfterLastLineWritten() throws Exception {
+        Path file = write("matches.csv", HEADER
+                + "Alice,\"Bob, Jr.\",2,1,2019-03-01T10:00:00\n"
+                + "\"Bob, Jr.\",Alice,0,0,2019-03-02\n");
+        ImportJob job = new ImportJob("matches.csv", ImportJob.Kind.MATCHES, Files.size(file), LocalDateTime.now());
+        job.setLinesRead(2);
+        job.setRowsImported(1);
+        when(importJobRepository.findByFileName("matches.csv")).thenReturn(Optional.of(job));
+
+        importService.startImport(null, "matches.csv", false);
+        ImportStatus status = awaitImport();
+
+        assertEquals(2, status.getResumedFromLine());
+        assertEquals(2, status.getRowsImported());
+        assertEquals(1, inserted.size());
+        assertEquals(LocalDateTime.of(2019, 3, 2, 0, 0), inserted.get(0).getMatchDateTime());
+        assertNull(inserted.get(0).getWinnerId());
+        assertTrue(job.isFinished());
+        verify(eloReplayService, never()).startReplayWithWritesSuspended();
+        verify(swissService).reload();
+        verify(ratingSeriesService).rebuildAll();
+        verify(ratingCheckpointService).createCheckpoint();
+        verify(matchService).resumeWrites();
+    }
+
+    @Test
+    public void testImport_ResumesWritesWhenReplayCannotStart() throws Exception {
+        write("matches.csv", HEADER + "Alice,\"Bob, Jr.\",2,1,2019-03-01T10:00:00\n");
+        when(eloReplayService.startReplayWithWritesSuspended()).thenThrow(new IllegalStateException("An ELO replay is already running"));
+
+        importService.startImport(null, "matches.csv", true);
+        ImportStatus status = awaitImport();
+
+        assertEquals("An ELO replay is already running", status.getError());
+        assertFalse(status.isReplayStarted());
+        verify(matchService).resumeWrites();
+    }
+
+    @Test
+    public void testStartImport_RefusedWhileMatchWritesAreSuspended() throws IOException {
+        write("matches.csv", HEADER);
+        doThrow(new IllegalStateException("Matches cannot be written while an ELO replay runs"))
+                .when(matchService).suspendWrites(anyString());
+
+        try {
+            importService.startImport(null, "matches.csv", false);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertFalse(importService.getStatus().isRunning());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartImport_RefusesFileAlreadyImported() throws IOException {
+        Path file = write("matches.csv", HEADER);
+        ImportJob job = new ImportJob("matches.csv", ImportJob.Kind.MATCHES, Files.size(file), LocalDateTime.now());
+        job.setFinishedAt(LocalDateTime.now());
+        when(importJobRepository.findByFileName("matches.csv")).thenReturn(Optional.of(job));
+
+        importService.startImport(null, "matches.csv", false);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartImport_RefusesFileOutsideImportDirectory() {
+        importService.startImport(null, "../matches.csv", false);
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(folder.getRoot().toPath().resolve(name), content);
+    }
+
+    private ImportStatus awaitImport() throws InterruptedException {
+        for (int i = 0; i < 500 && importService.getStatus().isRunning(); i++) {
+            Thread.sleep(10);
+        }
+        return importService.getStatus();
+    }
+}
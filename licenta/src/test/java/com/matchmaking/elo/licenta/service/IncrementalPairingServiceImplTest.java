@@ -0,0 +1,93 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PresenceChangedEvent;
+import com.matchmaking.elo.licenta.model.IncrementalPairing;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingDelta;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class IncrementalPairingServiceImplTest {
+
+    private static final long DIVISION_ID = 3L;
+
+    @Mock
+    private DivisionService divisionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private IncrementalPairingServiceImpl incrementalPairingService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        incrementalPairingService = new IncrementalPairingServiceImpl(divisionService, eventPublisher, 200);
+
+        List<User> signedInUsers = new ArrayList<>();
+        int[] ratings = {1500, 1510, 1600, 1610, 1700};
+        for (int i = 0; i < ratings.length; i++) {
+            signedInUsers.add(User.createUser((long) i + 1, "User" + (i + 1), ratings[i], null, DIVISION_ID, 1L, true));
+        }
+        when(divisionService.getSignedInUsersInDivision(DIVISION_ID)).thenReturn(signedInUsers);
+        when(divisionService.matchPlayers(DIVISION_ID, PairingStrategy.OPTIMAL))
+                .thenReturn(Arrays.asList(new Pair(1L, 2L), new Pair(3L, 4L)));
+    }
+
+    @Test
+    public void testStart_LeavesOddPlayerUnpaired() {
+        IncrementalPairing pairing = incrementalPairingService.start(DIVISION_ID, PairingStrategy.OPTIMAL);
+
+        assertEquals(1, pairing.getVersion());
+        assertEquals(2, pairing.getPairs().size());
+        assertEquals(List.of(5L), pairing.getUnpairedPlayerIds());
+    }
+
+    @Test
+    public void testSignOut_PairsPartnerWithUnpairedPlayer() {
+        incrementalPairingService.start(DIVISION_ID, PairingStrategy.OPTIMAL);
+
+        incrementalPairingService.onPresenceChanged(new PresenceChangedEvent(2L, DIVISION_ID, 1510, false));
+
+        List<PairingDelta> deltas = incrementalPairingService.getDeltas(DIVISION_ID, 1);
+        assertEquals(1, deltas.size());
+        assertEquals(1, deltas.get(0).getRemovedPairs().size());
+        assertEquals(1, deltas.get(0).getAddedPairs().size());
+        assertEquals(5L, deltas.get(0).getAddedPairs().get(0).getUser2Id());
+        assertTrue(deltas.get(0).getUnpairedPlayerIds().isEmpty());
+        verify(eventPublisher, times(2)).publishEvent(any(PairingDelta.class));
+    }
+
+    @Test
+    public void testSignIn_KeepsExistingPairs() {
+        incrementalPairingService.start(DIVISION_ID, PairingStrategy.OPTIMAL);
+
+        incrementalPairingService.onPresenceChanged(new PresenceChangedEvent(6L, DIVISION_ID, 1690, true));
+
+        IncrementalPairing pairing = incrementalPairingService.getPairing(DIVISION_ID).get();
+        assertEquals(3, pairing.getPairs().size());
+        assertTrue(pairing.getUnpairedPlayerIds().isEmpty());
+        List<PairingDelta> deltas = incrementalPairingService.getDeltas(DIVISION_ID, 1);
+        assertTrue(deltas.get(0).getRemovedPairs().isEmpty());
+    }
+
+    @Test
+    public void testPresenceChange_IgnoredWhenNotStarted() {
+        incrementalPairingService.onPresenceChanged(new PresenceChangedEvent(6L, DIVISION_ID, 1690, true));
+
+        assertFalse(incrementalPairingService.getPairing(DIVISION_ID).isPresent());
+        verifyNoInteractions(eventPublisher);
+    }
+}
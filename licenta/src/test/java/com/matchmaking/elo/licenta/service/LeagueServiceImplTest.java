@@ -1,7 +1,12 @@
 package com.matchmaking.elo.licenta.service;
 
+import com.matchmaking.elo.licenta.model.BorderPair;
 import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.DivisionPairing;
 import com.matchmaking.elo.licenta.model.League;
+import com.matchmaking.elo.licenta.model.LeaguePairing;
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
 import com.matchmaking.elo.licenta.model.User;
 import com.matchmaking.elo.licenta.repository.DivisionRepository;
 import com.matchmaking.elo.licenta.repository.LeagueRepository;
@@ -13,10 +18,15 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
@@ -32,6 +42,9 @@ public class LeagueServiceImplTest {
     @Mock
     private DivisionRepository divisionRepository;
 
+    @Mock
+    private DivisionService divisionService;
+
     @InjectMocks
     private LeagueServiceImpl leagueService;
 
@@ -194,7 +207,129 @@ public class LeagueServiceImplTest {
         }
     }
 
+    @Test
+    public void testPairLeague_PairsDivisionsInParallelOrderedByRank() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Division lower = division(2L, 2);
+        Division upper = division(1L, 1);
+        when(divisionService.getAllDivisionsInLeague(1L)).thenReturn(new ArrayList<>(List.of(lower, upper)));
+        players(1L, User.createUser(1L, "User1", 1500, null, 1L, 1L, true), User.createUser(2L, "User2", 1510, null, 1L, 1L, true));
+        players(2L, User.createUser(3L, "User3", 1300, null, 2L, 1L, true), User.createUser(4L, "User4", 1310, null, 2L, 1L, true));
+        for (long divisionId = 1; divisionId <= 2; divisionId++) {
+            Pair pair = divisionId == 1 ? new Pair(1L, 2L) : new Pair(3L, 4L);
+            when(divisionService.matchPlayers(eq(divisionId), anyList(), eq(PairingStrategy.OPTIMAL))).thenAnswer(invocation -> {
+                bothStarted.countDown();
+                assertTrue("divisions were not paired in parallel", bothStarted.await(5, TimeUnit.SECONDS));
+                return List.of(pair);
+            });
+        }
 
+        LeaguePairing pairing = pairLeague();
+
+        assertEquals(2, pairing.getDivisions().size());
+        DivisionPairing first = pairing.getDivisions().get(0);
+        assertEquals(1L, first.getDivisionId());
+        assertEquals(1, first.getPairs().size());
+        assertEquals(1L, first.getPairs().get(0).getUser1Id());
+        assertEquals(2L, first.getPairs().get(0).getUser2Id());
+        assertNull(first.getError());
+        assertEquals(2L, pairing.getDivisions().get(1).getDivisionId());
+        assertTrue(pairing.getBorderPairs().isEmpty());
+        assertTrue(pairing.getUnpairedPlayerIds().isEmpty());
+    }
 
+    @Test
+    public void testPairLeague_ReportsDivisionErrorWithoutFailingLeague() {
+        when(divisionService.getAllDivisionsInLeague(1L)).thenReturn(new ArrayList<>(List.of(division(1L, 1), division(2L, 2))));
+        players(1L, User.createUser(1L, "User1", 1500, null, 1L, 1L, true), User.createUser(2L, "User2", 1510, null, 1L, 1L, true));
+        players(2L);
+        when(divisionService.matchPlayers(eq(1L), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of(new Pair(1L, 2L)));
+        when(divisionService.matchPlayers(eq(2L), anyList(), eq(PairingStrategy.OPTIMAL))).thenThrow(new IllegalStateException("Not enough signed in players"));
+
+        LeaguePairing pairing = pairLeague();
+
+        assertNull(pairing.getDivisions().get(0).getError());
+        assertEquals(1, pairing.getDivisions().get(0).getPairs().size());
+        assertEquals("Not enough signed in players", pairing.getDivisions().get(1).getError());
+        assertTrue(pairing.getDivisions().get(1).getPairs().isEmpty());
+    }
+
+    @Test
+    public void testPairLeague_ReportsUnexpectedDivisionFailureWithoutFailingLeague() {
+        when(divisionService.getAllDivisionsInLeague(1L)).thenReturn(new ArrayList<>(List.of(division(1L, 1), division(2L, 2))));
+        players(1L, User.createUser(1L, "User1", 1500, null, 1L, 1L, true), User.createUser(2L, "User2", 1510, null, 1L, 1L, true));
+        players(2L, User.createUser(3L, "User3", 1300, null, 2L, 1L, true));
+        when(divisionService.matchPlayers(eq(1L), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of(new Pair(1L, 2L)));
+        when(divisionService.matchPlayers(eq(2L), anyList(), eq(PairingStrategy.OPTIMAL))).thenThrow(new IllegalArgumentException("Player 3 not found"));
+
+        LeaguePairing pairing = pairLeague();
+
+        assertEquals(1, pairing.getDivisions().get(0).getPairs().size());
+        assertNotNull(pairing.getDivisions().get(1).getError());
+        assertTrue(pairing.getDivisions().get(1).getError().contains("Player 3 not found"));
+        assertTrue(pairing.getDivisions().get(1).getPairs().isEmpty());
+    }
+
+    @Test
+    public void testPairLeague_PairsLeftoversOfAdjacentDivisionsOnly() {
+        when(divisionService.getAllDivisionsInLeague(1L))
+                .thenReturn(new ArrayList<>(List.of(division(1L, 1), division(2L, 2), division(3L, 3))));
+        players(1L, User.createUser(1L, "User1", 1600, null, 1L, 1L, true), User.createUser(2L, "User2", 1610, null, 1L, 1L, true),
+                User.createUser(3L, "User3", 1500, null, 1L, 1L, true));
+        players(2L, User.createUser(4L, "User4", 1490, null, 2L, 1L, true));
+        players(3L, User.createUser(5L, "User5", 1480, null, 3L, 1L, true));
+        when(divisionService.matchPlayers(eq(1L), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of(new Pair(1L, 2L)));
+        when(divisionService.matchPlayers(eq(2L), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of());
+        when(divisionService.matchPlayers(eq(3L), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of());
+
+        LeaguePairing pairing = pairLeague();
+
+        verify(divisionService, times(1)).getSignedInUsersInDivision(1L);
+        assertEquals(1, pairing.getBorderPairs().size());
+        BorderPair borderPair = pairing.getBorderPairs().get(0);
+        assertEquals(3L, borderPair.getUser1Id());
+        assertEquals(1L, borderPair.getUser1DivisionId());
+        assertEquals(4L, borderPair.getUser2Id());
+        assertEquals(2L, borderPair.getUser2DivisionId());
+        assertEquals(10, borderPair.getEloGap());
+        assertEquals(List.of(5L), pairing.getUnpairedPlayerIds());
+    }
 
+    @Test
+    public void testPairLeague_LeavesLeftoversUnpairedAboveBorderGap() {
+        when(divisionService.getAllDivisionsInLeague(1L)).thenReturn(new ArrayList<>(List.of(division(1L, 1), division(2L, 2))));
+        players(1L, User.createUser(1L, "User1", 1700, null, 1L, 1L, true));
+        players(2L, User.createUser(2L, "User2", 1500, null, 2L, 1L, true));
+        when(divisionService.matchPlayers(anyLong(), anyList(), eq(PairingStrategy.OPTIMAL))).thenReturn(List.of());
+
+        LeaguePairing pairing = pairLeague();
+
+        assertTrue(pairing.getBorderPairs().isEmpty());
+        assertEquals(List.of(1L, 2L), pairing.getUnpairedPlayerIds());
+    }
+
+    private LeaguePairing pairLeague() {
+        League league = new League();
+        league.setId(1L);
+        when(leagueRepository.findById(1L)).thenReturn(Optional.of(league));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            LeagueServiceImpl service = new LeagueServiceImpl(leagueRepository, null, divisionService, null, executor, 150);
+            return service.pairLeague(1L, PairingStrategy.OPTIMAL);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Division division(long id, int rank) {
+        Division division = new Division();
+        division.setId(id);
+        division.setLeagueId(1L);
+        division.setRank(rank);
+        return division;
+    }
+
+    private void players(long divisionId, User... users) {
+        when(divisionService.getSignedInUsersInDivision(divisionId)).thenReturn(List.of(users));
+    }
 }
@@ -0,0 +1,129 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchPartition;
+import com.matchmaking.elo.licenta.repository.MatchPartitionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.SeasonRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MatchArchiveServiceImplTest {
+
+    private static final LocalDateTime MARCH = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime APRIL = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private MatchPartitionRepository matchPartitionRepository;
+
+    @Mock
+    private SeasonRepository seasonRepository;
+
+    @Mock
+    private RatingCheckpointService ratingCheckpointService;
+
+    @Mock
+    private HeadToHeadService headToHeadService;
+
+    @Mock
+    private RecentFormService recentFormService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MatchArchiveServiceImpl matchArchiveService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        matchArchiveService = new MatchArchiveServiceImpl(matchRepository, matchPartitionRepository, seasonRepository,
+                ratingCheckpointService, headToHeadService, recentFormService, transactionManager,
+                folder.getRoot().getPath(), false, 90);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testArchiveBefore_WritesMonthAndReadsItBack() {
+        List<Match> matches = List.of(
+                match(1L, 1L, 2L, 2, 0, MARCH.plusDays(1)),
+                match(2L, 2L, 3L, 1, 1, MARCH.plusDays(2)),
+                match(3L, 3L, 1L, 0, 1, MARCH.plusDays(3)));
+        when(seasonRepository.findEarliestOpenSeasonStart()).thenReturn(APRIL);
+        when(matchRepository.findFirstMatchDateTime()).thenReturn(MARCH.plusDays(1));
+        when(matchRepository.forEachMatchBetween(eq(MARCH), eq(APRIL), any())).thenAnswer(invocation -> {
+            matches.forEach(invocation.<Consumer<Match>>getArgument(2));
+            return 3L;
+        });
+        when(matchRepository.deleteBetween(MARCH, APRIL)).thenReturn(3);
+        when(matchPartitionRepository.save(any(MatchPartition.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<MatchPartition> partitions = matchArchiveService.archiveBefore(APRIL);
+
+        assertEquals(1, partitions.size());
+        MatchPartition partition = partitions.get(0);
+        assertEquals(MARCH, partition.getStartDateTime());
+        assertEquals(APRIL, partition.getEndDateTime());
+        assertEquals(3, partition.getMatchCount());
+        assertEquals(3, partition.getLastMatchId());
+        assertEquals(APRIL, matchArchiveService.getArchivedBefore());
+        verify(matchRepository).lockForRewrite();
+        verify(ratingCheckpointService).createCheckpoint();
+
+        when(matchPartitionRepository.findAllByOrderByStartDateTime()).thenReturn(List.of(partition));
+        when(matchPartitionRepository.findByStartDateTimeLessThanAndEndDateTimeGreaterThanOrderByStartDateTime(
+                any(), any())).thenReturn(List.of(partition));
+        try (Stream<Match> archived = matchArchiveService.streamArchivedMatches()) {
+            List<Match> read = archived.collect(Collectors.toList());
+            assertEquals(matches.stream().map(MatchCsv::format).collect(Collectors.toList()),
+                    read.stream().map(MatchCsv::format).collect(Collectors.toList()));
+            assertNull(read.get(1).getWinnerId());
+            assertEquals(Long.valueOf(1L), read.get(2).getWinnerId());
+        }
+        List<Match> page = matchArchiveService.findHistoryPage(1L, MARCH.plusDays(1), 1L, APRIL, 10);
+        assertEquals(List.of(3L), page.stream().map(Match::getId).collect(Collectors.toList()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testArchiveBefore_RefusesOpenSeason() {
+        when(seasonRepository.findEarliestOpenSeasonStart()).thenReturn(MARCH);
+
+        matchArchiveService.archiveBefore(APRIL);
+    }
+
+    private static Match match(Long id, Long player1Id, Long player2Id, int player1Score, int player2Score,
+                               LocalDateTime dateTime) {
+        Match match = new Match(player1Id, player2Id);
+        match.setId(id);
+        match.setPlayer1Score(player1Score);
+        match.setPlayer2Score(player2Score);
+        match.setWinnerAndLoser();
+        match.setPlayer1EloAtMatchTime(1500);
+        match.setPlayer2EloAtMatchTime(1500);
+        match.setPlayer1EloAfterMatch(1500 + 16 * Integer.compare(player1Score, player2Score));
+        match.setPlayer2EloAfterMatch(1500 - 16 * Integer.compare(player1Score, player2Score));
+        match.setMatchDateTime(dateTime);
+        return match;
+    }
+}
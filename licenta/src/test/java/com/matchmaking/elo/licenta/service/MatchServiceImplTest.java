@@ -1,15 +1,26 @@
 package com.matchmaking.elo.licenta.service;
 
 import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchHistoryPage;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.MatchResultOutcome;
 import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
 import com.matchmaking.elo.licenta.repository.MatchRepository;
-import com.matchmaking.elo.licenta.repository.UserRepository;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,7 +32,31 @@ public class MatchServiceImplTest {
     private MatchRepository matchRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserService userService;
+
+    @Mock
+    private HeadToHeadService headToHeadService;
+
+    @Mock
+    private RecentFormService recentFormService;
+
+    @Mock
+    private SwissService swissService;
+
+    @Mock
+    private PlayerResultsService playerResultsService;
+
+    @Mock
+    private RatingCheckpointService ratingCheckpointService;
+
+    @Mock
+    private RatingSeriesService ratingSeriesService;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @Spy
+    private RatingEngine ratingEngine = new EloRatingEngine();
 
     @InjectMocks
     private MatchServiceImpl matchService;
@@ -30,29 +65,6 @@ public class MatchServiceImplTest {
     public void setup() {
         MockitoAnnotations.openMocks(this);
     }
-    @Test
-    public void testSaveMatch() {
-        Long matchId = 1L;
-        Match match = new Match();
-        match.setId(matchId);
-        match.setPlayer1Id(1L);
-        match.setPlayer2Id(2L);
-
-        User player1 = new User(1L);
-        User player2 = new User(2L);
-
-        when(userRepository.findById(1L)).thenReturn(Optional.of(player1));
-        when(userRepository.findById(2L)).thenReturn(Optional.of(player2));
-        when(matchRepository.save(any(Match.class))).thenReturn(match);
-
-        Match result = matchService.saveMatch(match);
-
-        assertNotNull(result);
-        assertEquals(matchId, result.getId());
-        verify(userRepository, times(2)).save(any(User.class));
-        verify(matchRepository).save(match);
-    }
-
     @Test
     public void testGetMatchById_MatchFound() {
         Long matchId = 1L;
@@ -90,6 +102,34 @@ public class MatchServiceImplTest {
         verify(matchRepository).deleteById(matchId);
     }
 
+    @Test
+    public void testDeleteMatch_CorrectsRatingsOfBothPlayers() {
+        Match match = new Match(3L, 4L);
+        match.setId(7L);
+        when(matchRepository.findById(7L)).thenReturn(Optional.of(match));
+
+        matchService.deleteMatch(7L);
+
+        verify(matchRepository).lockForRewrite();
+        verify(ratingCheckpointService).correctRatings(7L, match.getMatchDateTime(), List.of(3L, 4L));
+    }
+
+    @Test
+    public void testRecordResult_RefusedWhileWritesAreSuspended() {
+        matchService.suspendWrites("matches are imported");
+
+        try {
+            matchService.recordResult(new MatchResult(1L, 2L, 1, 0, null));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Matches cannot be written while matches are imported", e.getMessage());
+        }
+        verify(userService, never()).lockUsersByIds(anyCollection());
+
+        matchService.resumeWrites();
+        matchService.checkWritesAllowed();
+    }
+
     @Test
     public void testDeleteMatch_MatchDoesNotExist() {
         Long matchId = 1L;
@@ -116,7 +156,169 @@ public class MatchServiceImplTest {
         verify(matchRepository).save(match);
     }
 
+    @Test
+    public void testRecordResult_LocksPlayersOnceAndUpdatesThemTogether() {
+        User player1 = new User(1L, 1200);
+        User player2 = new User(2L, 1200);
+        MatchResult matchResult = new MatchResult();
+        matchResult.setPlayer1Id(2L);
+        matchResult.setPlayer2Id(1L);
+        matchResult.setPlayer1Score(3);
+        matchResult.setPlayer2Score(1);
+
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(player1, player2));
+        when(matchRepository.save(any(Match.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Match result = matchService.recordResult(matchResult);
+
+        assertEquals(2L, result.getPlayer1Id());
+        assertTrue(player2.getEloRating() > 1200);
+        assertTrue(player1.getEloRating() < 1200);
+        assertEquals(1, player1.getMatchCounter());
+        assertEquals(1, player2.getMatchCounter());
+        assertEquals(LocalDate.now(), player1.getLastActiveDate());
+        verify(matchRepository).lockForInsert();
+        verify(userService, times(1)).lockUsersByIds(anyCollection());
+        verify(userService, never()).findUserById(any());
+        verify(matchRepository).save(result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRecordResult_PlayerNotFound() {
+        MatchResult matchResult = new MatchResult();
+        matchResult.setPlayer1Id(1L);
+        matchResult.setPlayer2Id(2L);
+
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(new User(1L, 1200)));
+
+        matchService.recordResult(matchResult);
+    }
+
+    @Test
+    public void testGetMatchHistory_OrdersTiesOnTheSameDateById() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 18, 0);
+        when(matchRepository.findPlayer1HistoryPage(eq(1L), eq(date), eq(5L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(match(8L, 1L, 2L, date), match(9L, 1L, 3L, date.plusHours(1))));
+        when(matchRepository.findPlayer2HistoryPage(eq(1L), eq(date), eq(5L), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(match(6L, 4L, 1L, date)));
+
+        MatchHistoryPage page = matchService.getMatchHistory(1L, null, null, date, 5L, 2);
+
+        assertEquals(List.of(6L, 8L), page.getMatches().stream().map(Match::getId).toList());
+        assertEquals(date, page.getNextAfterDateTime());
+        assertEquals(8L, page.getNextAfterId());
+    }
 
+    @Test
+    public void testGetMatchHistory_ReturnsMatchFoundInBothIndexesOnce() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 18, 0);
+        Match match = match(6L, 1L, 1L, date);
+        when(matchRepository.findPlayer1HistoryPage(eq(1L), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(match));
+        when(matchRepository.findPlayer2HistoryPage(eq(1L), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(match));
+
+        MatchHistoryPage page = matchService.getMatchHistory(1L, null, null, null, null, 10);
+
+        assertEquals(1, page.getMatches().size());
+        assertNull(page.getNextAfterId());
+    }
 
+    @Test
+    public void testGetMatchHistory_CapsPageSize() {
+        when(matchRepository.findPlayer1HistoryPage(eq(1L), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(matchRepository.findPlayer2HistoryPage(eq(1L), any(LocalDateTime.class), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        matchService.getMatchHistory(1L, null, null, null, null, 50_000);
+        matchService.getMatchHistory(1L, null, null, null, null, 0);
+
+        ArgumentCaptor<Pageable> pages = ArgumentCaptor.forClass(Pageable.class);
+        verify(matchRepository, times(2)).findPlayer1HistoryPage(eq(1L), any(LocalDateTime.class), anyLong(),
+                any(LocalDateTime.class), pages.capture());
+        assertEquals(MatchServiceImpl.MAX_HISTORY_PAGE_SIZE + 1, pages.getAllValues().get(0).getPageSize());
+        assertEquals(2, pages.getAllValues().get(1).getPageSize());
+    }
+
+    @Test
+    public void testSaveMatches_AppliesResultsInPlayOrder() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 18, 0);
+        User player1 = new User(1L, 1500);
+        User player2 = new User(2L, 1500);
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(player1, player2));
+
+        List<MatchResultOutcome> outcomes = matchService.saveMatches(List.of(
+                new MatchResult(1L, 2L, 1, 0, date.plusDays(1)),
+                new MatchResult(2L, 1L, 1, 0, date)));
+
+        ArgumentCaptor<List<Match>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(matchRepository).insertAll(inserted.capture());
+        List<Match> matches = inserted.getValue();
+        assertEquals(date, matches.get(0).getMatchDateTime());
+        assertEquals(1500, matches.get(0).getPlayer1EloAtMatchTime());
+        assertEquals(matches.get(0).getPlayer1EloAfterMatch(), matches.get(1).getPlayer2EloAtMatchTime());
+        assertEquals(0, outcomes.get(0).getIndex());
+        assertEquals(matches.get(1).getPlayer1EloAfterMatch(), outcomes.get(0).getPlayer1EloAfterMatch());
+        assertEquals(matches.get(0).getPlayer1EloAfterMatch(), outcomes.get(1).getPlayer1EloAfterMatch());
+        assertEquals(LocalDate.now(), player1.getLastActiveDate());
+        assertEquals(2, player2.getMatchCounter());
+        verify(userService, never()).findUsersByIds(anyCollection());
+    }
 
+    @Test
+    public void testSaveMatches_RejectsInvalidResultsWithoutAffectingOthers() {
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(new User(1L, 1500), new User(2L, 1500)));
+
+        List<MatchResultOutcome> outcomes = matchService.saveMatches(List.of(
+                new MatchResult(null, 2L, 1, 0, null),
+                new MatchResult(1L, 1L, 1, 0, null),
+                new MatchResult(1L, 9L, 1, 0, null),
+                new MatchResult(1L, 2L, 1, 0, null)));
+
+        assertEquals("Both players are required", outcomes.get(0).getError());
+        assertEquals("A player cannot play against themselves", outcomes.get(1).getError());
+        assertEquals("Player 2 not found", outcomes.get(2).getError());
+        assertNull(outcomes.get(3).getError());
+        ArgumentCaptor<List<Match>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(matchRepository).insertAll(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+    }
+
+    @Test
+    public void testSaveMatches_RejectsBatchAboveLimit() {
+        List<MatchResult> results = new ArrayList<>();
+        for (int i = 0; i <= MatchServiceImpl.MAX_BATCH_SIZE; i++) {
+            results.add(new MatchResult(1L, 2L, 1, 0, null));
+        }
+
+        assertThrows(IllegalStateException.class, () -> matchService.saveMatches(results));
+
+        verify(userService, never()).lockUsersByIds(anyCollection());
+        verify(matchRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testCalculateNewElo_DrawBetweenEqualPlayersKeepsRatings() {
+        assertEquals(1500, matchService.calculateNewElo(1500, 1500, 2, 2));
+    }
+
+    @Test
+    public void testSetWinnerAndLoser_DrawHasNoWinner() {
+        Match match = new Match(1L, 2L);
+        match.setPlayer1Score(1);
+        match.setPlayer2Score(1);
+
+        match.setWinnerAndLoser();
+
+        assertNull(match.getWinnerId());
+        assertNull(match.getLoserId());
+    }
+
+    private static Match match(long id, long player1Id, long player2Id, LocalDateTime dateTime) {
+        Match match = new Match(player1Id, player2Id);
+        match.setId(id);
+        match.setMatchDateTime(dateTime);
+        return match;
+    }
 }
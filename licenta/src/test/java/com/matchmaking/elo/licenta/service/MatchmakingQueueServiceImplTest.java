@@ -0,0 +1,200 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.QueueStats;
+import com.matchmaking.elo.licenta.model.QueueTicket;
+import com.matchmaking.elo.licenta.model.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MatchmakingQueueServiceImplTest {
+
+    private static final long DIVISION_ID = 3L;
+
+    @Mock
+    private UserService userService;
+
+    private MutableClock clock;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock();
+    }
+
+    @Test
+    public void testMatch_PairsPlayersInsideInitialWindow() {
+        MatchmakingQueueServiceImpl queue = queue(0);
+        player(1L, 1500);
+        player(2L, 1540);
+
+        queue.join(1L);
+        queue.join(2L);
+        queue.matchWaitingPlayers();
+
+        assertMatched(queue, 1L, 2L);
+        QueueStats stats = queue.getStats(DIVISION_ID);
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(1, stats.getMatchedTotal());
+    }
+
+    @Test
+    public void testMatch_PrefersNearestOpponent() {
+        MatchmakingQueueServiceImpl queue = queue(0);
+        player(1L, 1500);
+        player(2L, 1540);
+        player(3L, 1510);
+
+        queue.join(1L);
+        queue.join(2L);
+        queue.join(3L);
+        queue.matchWaitingPlayers();
+
+        assertMatched(queue, 1L, 3L);
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(2L).get().getStatus());
+    }
+
+    @Test
+    public void testMatch_WaitsWhileGapIsOutsideWindow() {
+        MatchmakingQueueServiceImpl queue = queue(0);
+        player(1L, 1500);
+        player(2L, 1600);
+
+        queue.join(1L);
+        queue.join(2L);
+        queue.matchWaitingPlayers();
+
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(1L).get().getStatus());
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(2L).get().getStatus());
+        assertEquals(2, queue.getStats(DIVISION_ID).getQueueDepth());
+    }
+
+    @Test
+    public void testMatch_WidensWindowWithWaitingTime() {
+        MatchmakingQueueServiceImpl queue = queue(150);
+        player(1L, 1500);
+        player(2L, 1650);
+
+        queue.join(1L);
+        queue.join(2L);
+        queue.matchWaitingPlayers();
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(1L).get().getStatus());
+
+        clock.advance(Duration.ofSeconds(1));
+        queue.matchWaitingPlayers();
+
+        assertMatched(queue, 1L, 2L);
+    }
+
+    @Test
+    public void testMatch_RequiresGapInsideBothWindows() {
+        MatchmakingQueueServiceImpl queue = queue(150);
+        player(1L, 1500);
+        player(2L, 1650);
+
+        queue.join(1L);
+        queue.matchWaitingPlayers();
+        clock.advance(Duration.ofSeconds(1));
+        queue.join(2L);
+        queue.matchWaitingPlayers();
+
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(1L).get().getStatus());
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(2L).get().getStatus());
+    }
+
+    @Test
+    public void testMatch_StopsWideningAtMaxWindow() {
+        MatchmakingQueueServiceImpl queue = new MatchmakingQueueServiceImpl(userService, clock, 200, 50, 100, 400);
+        player(1L, 1500);
+        player(2L, 1950);
+
+        queue.join(1L);
+        queue.join(2L);
+        clock.advance(Duration.ofSeconds(60));
+        queue.matchWaitingPlayers();
+
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(1L).get().getStatus());
+        assertEquals(QueueTicket.Status.WAITING, queue.getTicket(2L).get().getStatus());
+    }
+
+    @Test
+    public void testMatch_SkipsPlayerWhoLeft() {
+        MatchmakingQueueServiceImpl queue = queue(0);
+        player(1L, 1500);
+        player(2L, 1510);
+        player(3L, 1530);
+
+        queue.join(1L);
+        queue.join(2L);
+        queue.join(3L);
+        assertTrue(queue.leave(2L));
+        queue.matchWaitingPlayers();
+
+        assertMatched(queue, 1L, 3L);
+        assertFalse(queue.getTicket(2L).isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testJoin_RejectsPlayerWithoutDivision() {
+        MatchmakingQueueServiceImpl queue = queue(0);
+        when(userService.findUserById(1L))
+                .thenReturn(Optional.of(User.createUser(1L, "User1", 1500, null, null, 1L, true)));
+
+        queue.join(1L);
+    }
+
+    private MatchmakingQueueServiceImpl queue(double widenPerSecond) {
+        return new MatchmakingQueueServiceImpl(userService, clock, 200, 50, widenPerSecond, 400);
+    }
+
+    private void player(long id, int eloRating) {
+        when(userService.findUserById(id))
+                .thenReturn(Optional.of(User.createUser(id, "User" + id, eloRating, null, DIVISION_ID, 1L, true)));
+    }
+
+    private static void assertMatched(MatchmakingQueueServiceImpl queue, long userId, long opponentId) {
+        QueueTicket ticket = queue.getTicket(userId).get();
+        QueueTicket opponentTicket = queue.getTicket(opponentId).get();
+        assertEquals(QueueTicket.Status.MATCHED, ticket.getStatus());
+        assertEquals(Long.valueOf(opponentId), ticket.getOpponentId());
+        assertEquals(QueueTicket.Status.MATCHED, opponentTicket.getStatus());
+        assertEquals(Long.valueOf(userId), opponentTicket.getOpponentId());
+    }
+
+    /**
+     * A clock that only moves when the test advances it.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
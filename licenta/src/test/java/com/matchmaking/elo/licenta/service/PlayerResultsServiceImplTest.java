@@ -0,0 +1,162 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.PlayerResults;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.PlayerResultsRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PlayerResultsServiceImplTest {
+
+    private static final LocalDateTime MATCH_DATE_TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private PlayerResultsRepository playerResultsRepository;
+
+    @Mock
+    private SeasonService seasonService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @InjectMocks
+    private PlayerResultsServiceImpl playerResultsService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testRecordMatches_CountsWinsLossesAndDrawsPerSeason() {
+        Season season = new Season(7L, 1, MATCH_DATE_TIME.minusDays(10));
+        season.setId(3L);
+        when(seasonService.findSeasonAt(7L, MATCH_DATE_TIME)).thenReturn(Optional.of(season));
+
+        playerResultsService.recordMatches(
+                List.of(match(1L, 2L, 3, 1), match(1L, 2L, 2, 2), match(2L, 1L, 5, 0)),
+                players(player(1L, 7L), player(2L, 7L)));
+
+        Map<List<Long>, PlayerResults> changes = captureChanges();
+        assertEquals(4, changes.size());
+        assertCounts(changes.get(List.of(1L, PlayerResults.ALL_TIME)), 1, 1, 1);
+        assertCounts(changes.get(List.of(2L, PlayerResults.ALL_TIME)), 1, 1, 1);
+        assertCounts(changes.get(List.of(1L, 3L)), 1, 1, 1);
+        assertCounts(changes.get(List.of(2L, 3L)), 1, 1, 1);
+    }
+
+    @Test
+    public void testRecordMatches_WithoutLeagueOnlyCountsAllTime() {
+        playerResultsService.recordMatches(List.of(match(1L, 2L, 1, 0)), players(player(1L, null), player(2L, null)));
+
+        Map<List<Long>, PlayerResults> changes = captureChanges();
+        assertEquals(2, changes.size());
+        assertCounts(changes.get(List.of(1L, PlayerResults.ALL_TIME)), 1, 0, 0);
+        assertCounts(changes.get(List.of(2L, PlayerResults.ALL_TIME)), 0, 1, 0);
+        verify(seasonService, never()).findSeasonAt(any(), any());
+    }
+
+    @Test
+    public void testRecordMatches_StoresTheSeasonsOnTheMatch() {
+        Season season = new Season(7L, 1, MATCH_DATE_TIME.minusDays(10));
+        season.setId(3L);
+        when(seasonService.findSeasonAt(7L, MATCH_DATE_TIME)).thenReturn(Optional.of(season));
+        Match match = match(1L, 2L, 1, 0);
+
+        playerResultsService.recordMatches(List.of(match), players(player(1L, 7L), player(2L, null)));
+
+        assertEquals(Long.valueOf(3L), match.getPlayer1SeasonId());
+        assertNull(match.getPlayer2SeasonId());
+    }
+
+    @Test
+    public void testRemoveMatch_SubtractsTheResult() {
+        playerResultsService.removeMatch(match(1L, 2L, 0, 4));
+
+        Map<List<Long>, PlayerResults> changes = captureChanges();
+        assertEquals(2, changes.size());
+        assertCounts(changes.get(List.of(1L, PlayerResults.ALL_TIME)), 0, -1, 0);
+        assertCounts(changes.get(List.of(2L, PlayerResults.ALL_TIME)), -1, 0, 0);
+    }
+
+    @Test
+    public void testRemoveMatch_UsesTheStoredSeasonsNotTheCurrentLeagues() {
+        Match match = match(1L, 2L, 2, 1);
+        match.setPlayer1SeasonId(3L);
+        match.setPlayer2SeasonId(5L);
+
+        playerResultsService.removeMatch(match);
+
+        Map<List<Long>, PlayerResults> changes = captureChanges();
+        assertEquals(4, changes.size());
+        assertCounts(changes.get(List.of(1L, 3L)), -1, 0, 0);
+        assertCounts(changes.get(List.of(2L, 5L)), 0, -1, 0);
+        verifyNoInteractions(seasonService, userService);
+    }
+
+    @Test
+    public void testGetResults_WithoutRowReturnsZeros() {
+        when(playerResultsRepository.findByUserIdAndSeasonId(1L, PlayerResults.ALL_TIME)).thenReturn(Optional.empty());
+
+        PlayerResults results = playerResultsService.getResults(1L, null);
+
+        assertEquals(1L, results.getUserId());
+        assertCounts(results, 0, 0, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<List<Long>, PlayerResults> captureChanges() {
+        ArgumentCaptor<Collection<PlayerResults>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(playerResultsRepository).addResults(captor.capture());
+        Map<List<Long>, PlayerResults> changes = new HashMap<>();
+        for (PlayerResults change : captor.getValue()) {
+            changes.put(List.of(change.getUserId(), change.getSeasonId()), change);
+        }
+        return changes;
+    }
+
+    private static void assertCounts(PlayerResults results, long wins, long losses, long draws) {
+        assertNotNull(results);
+        assertEquals(wins, results.getWins());
+        assertEquals(losses, results.getLosses());
+        assertEquals(draws, results.getDraws());
+    }
+
+    private static Match match(Long player1Id, Long player2Id, int player1Score, int player2Score) {
+        Match match = new Match(player1Id, player2Id);
+        match.setPlayer1Score(player1Score);
+        match.setPlayer2Score(player2Score);
+        match.setMatchDateTime(MATCH_DATE_TIME);
+        return match;
+    }
+
+    private static User player(Long id, Long leagueId) {
+        User user = new User(id);
+        user.setLeagueId(leagueId);
+        return user;
+    }
+
+    private static Map<Long, User> players(User... users) {
+        Map<Long, User> players = new HashMap<>();
+        for (User user : users) {
+            players.put(user.getId(), user);
+        }
+        return players;
+    }
+}
@@ -0,0 +1,173 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.event.RatingsCorrectedEvent;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchPartitionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingCheckpointRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RatingCheckpointServiceImplTest {
+
+    @Mock
+    private RatingCheckpointRepository ratingCheckpointRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private MatchPartitionRepository matchPartitionRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final EloRatingEngine ratingEngine = new EloRatingEngine();
+
+    private RatingCheckpointServiceImpl ratingCheckpointService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        ratingCheckpointService = new RatingCheckpointServiceImpl(ratingCheckpointRepository, matchRepository,
+                matchPartitionRepository, userService, ratingEngine, eventPublisher, 10_000, 3, 365);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCorrectRatings_RestoresPlayersAndCorrectsLaterOpponents() {
+        RatingCheckpoint checkpoint = mock(RatingCheckpoint.class);
+        when(checkpoint.getId()).thenReturn(9L);
+        when(checkpoint.getLastMatchId()).thenReturn(10L);
+        when(ratingCheckpointRepository.findFirstByLastMatchIdLessThanOrderByLastMatchIdDescIdDesc(12L))
+                .thenReturn(Optional.of(checkpoint));
+        when(ratingCheckpointRepository.findRatings(eq(9L), anyCollection()))
+                .thenReturn(List.of(user(1L, 1500, 5), user(2L, 1500, 5)));
+        // Match 12, won by player 1 against player 2, was deleted.
+        when(matchRepository.streamRatingsInPlayOrderAfter(10L)).thenReturn(Stream.of(
+                row(11L, 1L, 3L, 2, 0, 1500, 1500, 1516, 1484),
+                row(13L, 2L, 3L, 1, 1, 1484, 1484, 1484, 1484),
+                row(14L, 4L, 5L, 0, 3, 1500, 1500, 1484, 1516)));
+        User player1 = user(1L, 1500, 7);
+        User player2 = user(2L, 1484, 7);
+        User player3 = user(3L, 1484, 9);
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(player1, player2, player3));
+
+        int corrected = ratingCheckpointService.correctRatings(12L, playedAt(12L), List.of(1L, 2L));
+
+        int player2Elo = ratingEngine.rate(1500, 1484, 0.5);
+        int player3Elo = ratingEngine.rate(1484, 1500, 0.5);
+        assertEquals(3, corrected);
+        assertEquals(1516, player1.getEloRating());
+        assertEquals(6, player1.getMatchCounter());
+        assertEquals(player2Elo, player2.getEloRating());
+        assertEquals(6, player2.getMatchCounter());
+        assertEquals(player3Elo, player3.getEloRating());
+        assertEquals(9, player3.getMatchCounter());
+
+        ArgumentCaptor<List<Match>> changed = ArgumentCaptor.forClass(List.class);
+        verify(matchRepository).updateRatings(changed.capture());
+        assertEquals(1, changed.getValue().size());
+        Match match = changed.getValue().get(0);
+        assertEquals(Long.valueOf(13L), match.getId());
+        assertEquals(1500, match.getPlayer1EloAtMatchTime());
+        assertEquals(1484, match.getPlayer2EloAtMatchTime());
+        assertEquals(player2Elo, match.getPlayer1EloAfterMatch());
+        assertEquals(player3Elo, match.getPlayer2EloAfterMatch());
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        RatingsCorrectedEvent correctedEvent = (RatingsCorrectedEvent) events.getAllValues().get(0);
+        assertEquals(Set.of(1L, 2L, 3L), correctedEvent.getUserIds());
+        PlayersChangedEvent changedPlayers = (PlayersChangedEvent) events.getAllValues().get(1);
+        assertEquals(3, changedPlayers.getChanges().size());
+        verify(matchRepository).lockForRewrite();
+    }
+
+    @Test
+    public void testCorrectRatings_LeavesOpponentsPlayedBeforeTheChangedMatch() {
+        RatingCheckpoint checkpoint = mock(RatingCheckpoint.class);
+        when(checkpoint.getId()).thenReturn(9L);
+        when(checkpoint.getLastMatchId()).thenReturn(10L);
+        when(ratingCheckpointRepository.findFirstByLastMatchIdLessThanOrderByLastMatchIdDescIdDesc(12L))
+                .thenReturn(Optional.of(checkpoint));
+        when(ratingCheckpointRepository.findRatings(eq(9L), anyCollection()))
+                .thenReturn(List.of(user(1L, 1500, 5), user(2L, 1500, 5)));
+        // Match 13 was recorded after match 12 but played before it, so it was rated before match 12 in play order.
+        Object[] backdated = row(13L, 2L, 3L, 1, 1, 1500, 1500, 1500, 1500);
+        backdated[9] = playedAt(11L);
+        when(matchRepository.streamRatingsInPlayOrderAfter(10L)).thenReturn(Stream.<Object[]>of(backdated));
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(user(1L, 1516, 6), user(2L, 1484, 6)));
+
+        int corrected = ratingCheckpointService.correctRatings(12L, playedAt(12L), List.of(1L, 2L));
+
+        assertEquals(2, corrected);
+        verify(userService).lockUsersByIds(Set.of(1L, 2L));
+    }
+
+    @Test
+    public void testCorrectRatings_RefusedWhenLaterMatchesWereArchived() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 0, 0);
+        RatingCheckpoint checkpoint = new RatingCheckpoint(10L, createdAt, true);
+        when(ratingCheckpointRepository.findFirstByLastMatchIdLessThanOrderByLastMatchIdDescIdDesc(12L))
+                .thenReturn(Optional.of(checkpoint));
+        when(matchPartitionRepository.findLastMatchIdArchivedAfter(createdAt)).thenReturn(11L);
+
+        try {
+            ratingCheckpointService.correctRatings(12L, playedAt(12L), List.of(1L, 2L));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            verify(matchRepository, never()).streamRatingsInPlayOrderAfter(anyLong());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+    }
+
+    @Test
+    public void testCreateCheckpoint_WithoutNewMatchesReturnsLastCheckpoint() {
+        RatingCheckpoint last = new RatingCheckpoint(42L, LocalDateTime.now(), false);
+        when(matchRepository.findLastMatchId()).thenReturn(42L);
+        when(ratingCheckpointRepository.findFirstByOrderByLastMatchIdDescIdDesc()).thenReturn(Optional.of(last));
+
+        assertSame(last, ratingCheckpointService.createCheckpoint());
+        verify(ratingCheckpointRepository, never()).save(any());
+        verify(ratingCheckpointRepository, never()).copyRatings(anyLong());
+    }
+
+    private static User user(long id, int eloRating, long matchCounter) {
+        User user = new User(id, eloRating);
+        user.setMatchCounter(matchCounter);
+        return user;
+    }
+
+    private static Object[] row(long matchId, long player1Id, long player2Id, int player1Score, int player2Score,
+                                int player1Before, int player2Before, int player1After, int player2After) {
+        return new Object[]{matchId, player1Id, player2Id, player1Score, player2Score,
+                player1Before, player2Before, player1After, player2After, playedAt(matchId)};
+    }
+
+    private static LocalDateTime playedAt(long matchId) {
+        return LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(matchId);
+    }
+}
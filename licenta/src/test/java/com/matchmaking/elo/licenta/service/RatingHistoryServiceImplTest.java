@@ -0,0 +1,131 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.HistoricalStanding;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingCheckpoint;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingCheckpointRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RatingHistoryServiceImplTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private RatingCheckpointRepository ratingCheckpointRepository;
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @InjectMocks
+    private RatingHistoryServiceImpl ratingHistoryService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testGetStandingsAt_UsesTheLaterOfLastMatchAndCheckpoint() {
+        RatingCheckpoint checkpoint = mock(RatingCheckpoint.class);
+        when(checkpoint.getId()).thenReturn(4L);
+        when(checkpoint.getLastMatchId()).thenReturn(100L);
+        when(checkpoint.getCreatedAt()).thenReturn(DATE_TIME.minusDays(1));
+        when(ratingCheckpointRepository.findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(DATE_TIME))
+                .thenReturn(Optional.of(checkpoint));
+        when(ratingCheckpointRepository.findRatings(eq(4L), anyCollection()))
+                .thenReturn(List.of(new User(1L, 1490), new User(2L, 1470)));
+        // Player 1 played after the checkpoint, player 2 only before it, player 3 never.
+        when(matchRepository.findLastMatches(anyCollection(), eq(DATE_TIME))).thenReturn(Map.of(
+                1L, match(120L, 3L, 1L, 1530, 1560, DATE_TIME.minusHours(1)),
+                2L, match(90L, 2L, 3L, 1480, 1500, DATE_TIME.minusDays(2))));
+
+        List<HistoricalStanding> standings = ratingHistoryService.getStandingsAt(
+                List.of(new User(1L, 1600), new User(2L, 1600), new User(3L, 1600)), DATE_TIME);
+
+        assertEquals(3, standings.size());
+        assertStanding(standings.get(0), 1L, 1560, DATE_TIME.minusHours(1));
+        assertStanding(standings.get(1), 3L, User.DEFAULT_ELO_RATING, null);
+        assertStanding(standings.get(2), 2L, 1470, DATE_TIME.minusDays(1));
+    }
+
+    @Test
+    public void testGetStandingsAt_WithoutCheckpointUsesMatches() {
+        when(ratingCheckpointRepository.findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(DATE_TIME))
+                .thenReturn(Optional.empty());
+        when(matchRepository.findLastMatches(anyCollection(), eq(DATE_TIME))).thenReturn(Map.of(
+                2L, match(7L, 2L, 5L, 1516, 1484, DATE_TIME)));
+
+        List<HistoricalStanding> standings = ratingHistoryService.getStandingsAt(List.of(new User(2L, 1400)), DATE_TIME);
+
+        assertStanding(standings.get(0), 2L, 1516, DATE_TIME);
+        verify(ratingCheckpointRepository, never()).findRatings(anyLong(), anyCollection());
+    }
+
+    @Test
+    public void testGetStandingsAt_ReadsArchivedMatchesOfPlayersWithoutMatchInTable() {
+        LocalDateTime archivedBefore = DATE_TIME.minusMonths(1);
+        when(ratingCheckpointRepository.findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(DATE_TIME))
+                .thenReturn(Optional.empty());
+        when(matchArchiveService.getArchivedBefore()).thenReturn(archivedBefore);
+        when(matchRepository.findLastMatches(anyCollection(), eq(DATE_TIME))).thenReturn(Map.of(
+                1L, match(50L, 1L, 3L, 1600, 1400, DATE_TIME.minusDays(1))));
+        when(matchArchiveService.streamArchivedMatches(null, DATE_TIME.plusNanos(1))).thenReturn(Stream.of(
+                match(10L, 2L, 1L, 1516, 1484, archivedBefore.minusDays(3)),
+                match(11L, 1L, 2L, 1500, 1500, archivedBefore.minusDays(2))));
+
+        List<HistoricalStanding> standings = ratingHistoryService.getStandingsAt(
+                List.of(new User(1L, 1600), new User(2L, 1600)), DATE_TIME);
+
+        assertStanding(standings.get(0), 1L, 1600, DATE_TIME.minusDays(1));
+        assertStanding(standings.get(1), 2L, 1500, archivedBefore.minusDays(2));
+    }
+
+    @Test
+    public void testGetStandingsAt_SkipsArchiveWhenEveryPlayerHasMatchInTable() {
+        when(ratingCheckpointRepository.findFirstByCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(DATE_TIME))
+                .thenReturn(Optional.empty());
+        when(matchArchiveService.getArchivedBefore()).thenReturn(DATE_TIME.minusMonths(1));
+        when(matchRepository.findLastMatches(anyCollection(), eq(DATE_TIME))).thenReturn(Map.of(
+                2L, match(7L, 2L, 5L, 1516, 1484, DATE_TIME)));
+
+        ratingHistoryService.getStandingsAt(List.of(new User(2L, 1400)), DATE_TIME);
+
+        verify(matchArchiveService, never()).streamArchivedMatches(any(), any());
+    }
+
+    private static void assertStanding(HistoricalStanding standing, long userId, int eloRating, LocalDateTime ratedAt) {
+        assertEquals(userId, standing.getUserId());
+        assertEquals(eloRating, standing.getEloRating());
+        assertEquals(ratedAt, standing.getRatedAt());
+    }
+
+    private static Match match(long id, long player1Id, long player2Id, int player1EloAfter, int player2EloAfter,
+                               LocalDateTime dateTime) {
+        Match match = new Match(player1Id, player2Id);
+        match.setId(id);
+        match.setPlayer1EloAfterMatch(player1EloAfter);
+        match.setPlayer2EloAfterMatch(player2EloAfter);
+        match.setMatchDateTime(dateTime);
+        return match;
+    }
+}
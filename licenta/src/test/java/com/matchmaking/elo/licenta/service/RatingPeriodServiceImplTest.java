@@ -0,0 +1,97 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.RatingPeriod;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.GameResult;
+import com.matchmaking.elo.licenta.rating.Rating;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingPeriodRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RatingPeriodServiceImplTest {
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private RatingPeriodRepository ratingPeriodRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private RatingEngine ratingEngine;
+
+    @Mock
+    private RatingSeriesService ratingSeriesService;
+
+    @InjectMocks
+    private RatingPeriodServiceImpl ratingPeriodService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(ratingEngine.isPeriodic()).thenReturn(true);
+        when(ratingEngine.getName()).thenReturn("glicko2");
+        when(ratingEngine.idle(any(Rating.class), anyLong())).thenAnswer(invocation -> invocation.getArgument(0));
+        // Every game won moves the rating up by 10 points.
+        when(ratingEngine.rate(any(Rating.class), anyList())).thenAnswer(invocation -> {
+            Rating rating = invocation.getArgument(0);
+            List<GameResult> results = invocation.getArgument(1);
+            double change = results.stream().mapToDouble(result -> (result.score() - 0.5) * 20).sum();
+            return new Rating(rating.rating() + change, 50, 0.06);
+        });
+        when(ratingPeriodRepository.save(any(RatingPeriod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testClosePeriod_RatesMatchesAssignedToThePeriod() {
+        RatingPeriod previous = new RatingPeriod(3, "glicko2", 20L, 5, 4, null);
+        when(ratingPeriodRepository.findFirstByOrderByNumberDesc()).thenReturn(Optional.of(previous));
+        // Match 12 committed after the previous period closed, so it is rated now despite its lower ID.
+        when(matchRepository.streamScoresInPeriod(4L)).thenReturn(Stream.<Object[]>of(
+                new Object[]{12L, 1L, 2L, 1, 0},
+                new Object[]{21L, 1L, 2L, 2, 1}));
+        when(userService.lockUsersByIds(anyCollection())).thenReturn(List.of(user(1L), user(2L)));
+
+        RatingPeriod period = ratingPeriodService.closePeriod();
+
+        verify(matchRepository).assignRatingPeriod(4L);
+        assertEquals(4, period.getNumber());
+        assertEquals(2, period.getMatchCount());
+        assertEquals(21L, period.getLastMatchId());
+
+        ArgumentCaptor<Collection<User>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(userService).saveAll(saved.capture());
+        List<User> players = List.copyOf(saved.getValue());
+        assertEquals(1520, players.get(0).getEloRating());
+        assertEquals(1480, players.get(1).getEloRating());
+        assertEquals(Long.valueOf(4L), players.get(0).getRatingPeriod());
+        verify(userService, never()).findUsersByIds(anyCollection());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosePeriod_RejectsEloEngine() {
+        when(ratingEngine.isPeriodic()).thenReturn(false);
+
+        ratingPeriodService.closePeriod();
+    }
+
+    private static User user(long id) {
+        return User.createUser(id, "User" + id, 1500, null, 1L, 1L, true);
+    }
+}
@@ -0,0 +1,205 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.event.PlayersChangedEvent;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.MatchResult;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.UserBatchRepository.RatingChange;
+import com.matchmaking.elo.licenta.repository.UserRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RatingPipelineServiceImplTest {
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MatchService matchService;
+
+    @Mock
+    private HeadToHeadService headToHeadService;
+
+    @Mock
+    private RecentFormService recentFormService;
+
+    @Mock
+    private SwissService swissService;
+
+    @Mock
+    private PlayerResultsService playerResultsService;
+
+    @Mock
+    private RatingSeriesService ratingSeriesService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private RatingPipelineServiceImpl pipeline;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        pipeline = new RatingPipelineServiceImpl(matchRepository, userRepository, matchService, headToHeadService,
+                recentFormService, swissService, playerResultsService, ratingSeriesService, transactionManager,
+                eventPublisher, 1, 64, 5);
+        // The winner takes 16 points from the loser.
+        doAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            int player1Elo = invocation.getArgument(1);
+            int player2Elo = invocation.getArgument(2);
+            int delta = match.getPlayer1Score() > match.getPlayer2Score() ? 16 : -16;
+            match.setPlayer1EloAtMatchTime(player1Elo);
+            match.setPlayer2EloAtMatchTime(player2Elo);
+            match.setPlayer1EloAfterMatch(player1Elo + delta);
+            match.setPlayer2EloAfterMatch(player2Elo - delta);
+            return null;
+        }).when(matchService).rateMatch(any(Match.class), anyInt(), anyInt());
+        player(1L, 1500);
+        player(2L, 1500);
+        pipeline.start();
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    public void testFlush_WritesRatingChangesAsIncrements() {
+        pipeline.submit(result(1L, 2L, 1, 0));
+        pipeline.submit(result(1L, 2L, 2, 0));
+        pipeline.stop();
+
+        ArgumentCaptor<Collection<RatingChange>> changes = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository, atLeastOnce()).addRatingChanges(changes.capture());
+        int player1Delta = 0;
+        int player1Matches = 0;
+        int player2Delta = 0;
+        for (Collection<RatingChange> batch : changes.getAllValues()) {
+            for (RatingChange change : batch) {
+                if (change.userId() == 1L) {
+                    player1Delta += change.eloRatingDelta();
+                    player1Matches += change.matches();
+                } else {
+                    player2Delta += change.eloRatingDelta();
+                }
+            }
+        }
+        assertEquals(32, player1Delta);
+        assertEquals(2, player1Matches);
+        assertEquals(-32, player2Delta);
+        assertEquals(2, pipeline.getStatus().getPersisted());
+    }
+
+    @Test
+    public void testFlush_RetriesFailedWrite() {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection lost");
+            }
+            return null;
+        }).when(matchRepository).insertAll(anyList());
+
+        pipeline.submit(result(1L, 2L, 1, 0));
+        pipeline.stop();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, pipeline.getStatus().getPersisted());
+        assertEquals(0, pipeline.getStatus().getFailed());
+        assertTrue(pipeline.getFailedResults().isEmpty());
+    }
+
+    @Test
+    public void testFlush_KeepsResultsThatCannotBeWrittenAndReadsRatingsAgain() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() <= RatingPipelineServiceImpl.MAX_FLUSH_ATTEMPTS) {
+                throw new IllegalStateException("connection lost");
+            }
+            return null;
+        }).when(matchRepository).insertAll(anyList());
+
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(0, 1);
+        List<MatchResult> failedResults = pipeline.getFailedResults();
+        assertEquals(1, failedResults.size());
+        assertEquals(Long.valueOf(1L), failedResults.get(0).getPlayer1Id());
+
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(1, 1);
+
+        verify(userRepository, times(2)).findById(1L);
+        verify(matchService, times(2)).rateMatch(any(Match.class), eq(1500), eq(1500));
+    }
+
+    @Test
+    public void testOnPlayersChanged_ReadsRatingWrittenElsewhere() throws InterruptedException {
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(1, 0);
+
+        pipeline.onPlayersChanged(PlayersChangedEvent.ratings(pipeline, Map.of(1L, 1516)));
+        player(1L, 1700);
+        pipeline.onPlayersChanged(PlayersChangedEvent.ratings(new Object(), Map.of(1L, 1700)));
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(2, 0);
+
+        verify(matchService).rateMatch(any(Match.class), eq(1700), eq(1484));
+    }
+
+    @Test
+    public void testOnPlayersChanged_IgnoresOwnWrites() throws InterruptedException {
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(1, 0);
+
+        pipeline.onPlayersChanged(PlayersChangedEvent.ratings(pipeline, Map.of(1L, 1516, 2L, 1484)));
+        pipeline.submit(result(1L, 2L, 1, 0));
+        awaitDone(2, 0);
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(matchService).rateMatch(any(Match.class), eq(1516), eq(1484));
+    }
+
+    private void player(long id, int eloRating) {
+        when(userRepository.findById(id))
+                .thenReturn(Optional.of(User.createUser(id, "User" + id, eloRating, null, 1L, 1L, true)));
+    }
+
+    private static MatchResult result(long player1Id, long player2Id, int player1Score, int player2Score) {
+        return new MatchResult(player1Id, player2Id, player1Score, player2Score, LocalDateTime.of(2024, 1, 1, 10, 0));
+    }
+
+    private void awaitDone(long persisted, long failed) throws InterruptedException {
+        for (int i = 0; i < 400; i++) {
+            if (pipeline.getStatus().getPersisted() == persisted && pipeline.getStatus().getFailed() == failed) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Pipeline did not persist " + persisted + " and fail " + failed + " matches: " + pipeline.getStatus());
+    }
+}
@@ -0,0 +1,155 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.RatingSeries;
+import com.matchmaking.elo.licenta.model.RatingSeriesChunk;
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
+import com.matchmaking.elo.licenta.rating.RatingEngine;
+import com.matchmaking.elo.licenta.rating.RatingPoint;
+import com.matchmaking.elo.licenta.rating.RatingSeriesCodec;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import com.matchmaking.elo.licenta.repository.RatingSeriesChunkRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class RatingSeriesServiceImplTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private RatingSeriesChunkRepository ratingSeriesChunkRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Spy
+    private RatingEngine ratingEngine = new EloRatingEngine();
+
+    @Mock
+    private MatchArchiveService matchArchiveService;
+
+    @InjectMocks
+    private RatingSeriesServiceImpl ratingSeriesService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecordMatches_AppendsToLastChunkOrStartsNewOne() {
+        RatingSeriesChunk lastChunk = new RatingSeriesChunk(1L, DATE_TIME, 1500);
+        when(ratingSeriesChunkRepository.findLastChunksForUpdate(anyCollection())).thenReturn(List.of(lastChunk));
+
+        ratingSeriesService.recordMatches(List.of(match(1L, 2L, 1516, 1484, DATE_TIME.plusHours(1))));
+
+        ArgumentCaptor<List<RatingSeriesChunk>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ratingSeriesChunkRepository).saveAll(captor.capture());
+        List<RatingSeriesChunk> saved = captor.getValue();
+        assertEquals(2, saved.size());
+        assertSame(lastChunk, saved.get(0));
+        assertEquals(2, lastChunk.getPointCount());
+        assertEquals(1516, lastChunk.getLastRating());
+        assertEquals(List.of(new RatingPoint(epochSecond(DATE_TIME), 1500),
+                        new RatingPoint(epochSecond(DATE_TIME.plusHours(1)), 1516)),
+                RatingSeriesCodec.read(new RatingPoint(epochSecond(DATE_TIME), 1500), lastChunk.getData()));
+        assertEquals(2L, saved.get(1).getUserId());
+        assertEquals(1, saved.get(1).getPointCount());
+        assertEquals(1484, saved.get(1).getFirstRating());
+    }
+
+    @Test
+    public void testRebuildAll_InsertsChunksInBatches() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(new Object[]{1L, 2L, 1500 + i, 1500 - i, DATE_TIME.plusMinutes(i)});
+        }
+        for (long i = 0; i < 300; i++) {
+            rows.add(new Object[]{1000 + 2 * i, 1001 + 2 * i, 1516, 1484, DATE_TIME.plusDays(1)});
+        }
+        when(matchArchiveService.streamArchivedMatches()).thenReturn(Stream.empty());
+        when(matchRepository.streamRatingHistories()).thenReturn(rows.stream());
+        List<List<RatingSeriesChunk>> batches = new ArrayList<>();
+        doAnswer(invocation -> batches.add(new ArrayList<>(invocation.getArgument(0))))
+                .when(ratingSeriesChunkRepository).insertAll(anyList());
+
+        int points = ratingSeriesService.rebuildAll();
+
+        assertEquals(1200, points);
+        assertEquals(List.of(RatingSeriesServiceImpl.REBUILD_BATCH_SIZE, 104),
+                batches.stream().map(List::size).toList());
+        List<RatingSeriesChunk> player1 = batches.stream().flatMap(List::stream)
+                .filter(chunk -> chunk.getUserId() == 1L).toList();
+        assertEquals(2, player1.size());
+        assertEquals(RatingSeriesServiceImpl.POINTS_PER_CHUNK, player1.get(0).getPointCount());
+        assertEquals(300 - RatingSeriesServiceImpl.POINTS_PER_CHUNK, player1.get(1).getPointCount());
+        assertEquals(1799, player1.get(1).getLastRating());
+        verify(ratingSeriesChunkRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testGetSeries_FiltersRangeAndDownsamples() {
+        RatingSeriesChunk chunk = new RatingSeriesChunk(1L, DATE_TIME, 1500);
+        List<RatingPoint> points = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new RatingPoint(epochSecond(DATE_TIME.plusDays(i)), 1500 + (i == 50 ? 300 : i)));
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int i = 1; i < points.size(); i++) {
+            RatingSeriesCodec.write(data, points.get(i - 1), points.get(i));
+        }
+        chunk.setData(data.toByteArray());
+        chunk.setPointCount(points.size());
+        when(ratingSeriesChunkRepository.findByUserIdOrderById(1L)).thenReturn(List.of(chunk));
+
+        RatingSeries series = ratingSeriesService.getSeries(1L, DATE_TIME.plusDays(10), null, 10);
+
+        assertEquals(90, series.getTotalPoints());
+        assertEquals(10, series.getRatings().length);
+        assertEquals(DATE_TIME.plusDays(10), series.getTimes().get(0));
+        assertEquals(DATE_TIME.plusDays(99), series.getTimes().get(9));
+        // The spike is kept.
+        assertTrue(series.getTimes().contains(DATE_TIME.plusDays(50)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetSeries_TooManyPoints() {
+        ratingSeriesService.getSeries(1L, null, null, RatingSeriesServiceImpl.MAX_POINTS + 1);
+    }
+
+    @Test
+    public void testDownsample_ShortSeriesUnchanged() {
+        List<RatingPoint> points = List.of(new RatingPoint(0, 1500), new RatingPoint(1, 1510), new RatingPoint(2, 1490));
+
+        assertSame(points, RatingSeriesServiceImpl.downsample(points, 3));
+    }
+
+    private static Match match(Long player1Id, Long player2Id, int player1After, int player2After, LocalDateTime dateTime) {
+        Match match = new Match(player1Id, player2Id);
+        match.setPlayer1EloAfterMatch(player1After);
+        match.setPlayer2EloAfterMatch(player2After);
+        match.setMatchDateTime(dateTime);
+        return match;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
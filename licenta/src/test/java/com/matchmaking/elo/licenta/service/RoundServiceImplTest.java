@@ -0,0 +1,99 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Pair;
+import com.matchmaking.elo.licenta.model.PairingStrategy;
+import com.matchmaking.elo.licenta.model.Round;
+import com.matchmaking.elo.licenta.repository.RoundRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RoundServiceImplTest {
+
+    @Mock
+    private RoundRepository roundRepository;
+
+    @Mock
+    private DivisionService divisionService;
+
+    @InjectMocks
+    private RoundServiceImpl roundService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(roundRepository.save(any(Round.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testGetCurrentRound_DoesNotCreateMissingRound() {
+        when(roundRepository.findFirstByDivisionIdOrderByNumberDesc(1L)).thenReturn(Optional.empty());
+
+        assertFalse(roundService.getCurrentRound(1L).isPresent());
+
+        verify(divisionService, never()).matchPlayers(anyLong(), any(PairingStrategy.class));
+        verify(roundRepository, never()).save(any(Round.class));
+    }
+
+    @Test
+    public void testGetCurrentRound_CachesStoredRound() {
+        Round stored = new Round(1L, 4, PairingStrategy.NEAREST, List.of(new Pair(1L, 2L)));
+        when(roundRepository.findFirstByDivisionIdOrderByNumberDesc(1L)).thenReturn(Optional.of(stored));
+
+        assertSame(stored, roundService.getCurrentRound(1L).get());
+        assertSame(stored, roundService.getCurrentRound(1L).get());
+
+        verify(roundRepository, times(1)).findFirstByDivisionIdOrderByNumberDesc(1L);
+    }
+
+    @Test
+    public void testCreateRound_CreatesFirstRound() {
+        when(roundRepository.findFirstByDivisionIdOrderByNumberDesc(1L)).thenReturn(Optional.empty());
+        when(divisionService.matchPlayers(1L, PairingStrategy.NEAREST)).thenReturn(List.of(new Pair(1L, 2L)));
+
+        Round created = roundService.createRound(1L, PairingStrategy.NEAREST);
+
+        assertEquals(1, created.getNumber());
+        assertEquals(1, created.getPairs().size());
+        assertSame(created, roundService.getCurrentRound(1L).get());
+    }
+
+    @Test
+    public void testCreateRound_ReplacesStoredRound() {
+        Round stored = new Round(1L, 4, PairingStrategy.NEAREST, List.of(new Pair(1L, 2L)));
+        when(roundRepository.findFirstByDivisionIdOrderByNumberDesc(1L)).thenReturn(Optional.of(stored));
+        when(divisionService.matchPlayers(1L, PairingStrategy.EXACT)).thenReturn(List.of(new Pair(1L, 3L)));
+
+        assertSame(stored, roundService.getCurrentRound(1L).get());
+        Round created = roundService.createRound(1L, PairingStrategy.EXACT);
+
+        assertEquals(5, created.getNumber());
+        assertSame(created, roundService.getCurrentRound(1L).get());
+        verify(divisionService, never()).matchPlayers(1L, PairingStrategy.NEAREST);
+    }
+
+    @Test
+    public void testCreateRound_RejectsRoundCreatedElsewhere() {
+        when(roundRepository.findFirstByDivisionIdOrderByNumberDesc(1L)).thenReturn(Optional.empty());
+        when(divisionService.matchPlayers(1L, PairingStrategy.NEAREST)).thenReturn(List.of(new Pair(1L, 2L)));
+        when(roundRepository.save(any(Round.class))).thenThrow(new DataIntegrityViolationException("UK_ROUNDS_DIVISION_NUMBER"));
+
+        try {
+            roundService.createRound(1L, PairingStrategy.NEAREST);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("Round 1 of division 1 was already created", e.getMessage());
+        }
+        assertFalse(roundService.getCurrentRound(1L).isPresent());
+    }
+}
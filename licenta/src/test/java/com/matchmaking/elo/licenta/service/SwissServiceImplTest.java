@@ -0,0 +1,110 @@
+package com.matchmaking.elo.licenta.service;
+
+import com.matchmaking.elo.licenta.model.Division;
+import com.matchmaking.elo.licenta.model.Match;
+import com.matchmaking.elo.licenta.model.Season;
+import com.matchmaking.elo.licenta.model.SwissRound;
+import com.matchmaking.elo.licenta.model.SwissStanding;
+import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.repository.DivisionRepository;
+import com.matchmaking.elo.licenta.repository.MatchRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SwissServiceImplTest {
+
+    private static final long DIVISION_ID = 2L;
+    private static final long LEAGUE_ID = 1L;
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private DivisionRepository divisionRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private SeasonService seasonService;
+
+    @InjectMocks
+    private SwissServiceImpl swissService;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        Division division = new Division();
+        division.setId(DIVISION_ID);
+        division.setLeagueId(LEAGUE_ID);
+        when(divisionRepository.findById(DIVISION_ID)).thenReturn(Optional.of(division));
+        Season season = new Season(LEAGUE_ID, 1, SEASON_START);
+        season.setId(5L);
+        when(seasonService.getCurrentSeason(LEAGUE_ID)).thenReturn(season);
+    }
+
+    @Test
+    public void testRecordMatch_CountsMatchWithLowerIdThanLoaded() {
+        players(user(1L, 1500), user(2L, 1500));
+        when(matchRepository.streamScoresPlayedSince(SEASON_START)).thenReturn(Stream.<Object[]>of(
+                new Object[]{10L, 1L, 2L, 1, 0}));
+        swissService.getStandings(DIVISION_ID);
+
+        swissService.recordMatch(match(9L, 2L, 1L, 1, 0), LEAGUE_ID);
+        swissService.recordMatch(match(10L, 1L, 2L, 1, 0), LEAGUE_ID);
+        List<SwissStanding> standings = swissService.getStandings(DIVISION_ID);
+
+        assertEquals(2, standings.get(0).getMatchesPlayed());
+        assertEquals(1.0, standings.get(0).getPoints(), 0.0);
+        assertEquals(1.0, standings.get(1).getPoints(), 0.0);
+    }
+
+    @Test
+    public void testReload_KeepsByesAndRoundNumbers() {
+        players(user(1L, 1500), user(2L, 1490), user(3L, 1480));
+        when(matchRepository.streamScoresPlayedSince(SEASON_START))
+                .thenReturn(Stream.empty(), Stream.empty());
+        SwissRound first = swissService.generateRound(DIVISION_ID);
+        assertNotNull(first.getByePlayerId());
+
+        swissService.reload();
+        SwissRound second = swissService.generateRound(DIVISION_ID);
+
+        assertEquals(2, second.getRoundNumber());
+        assertNotEquals(first.getByePlayerId(), second.getByePlayerId());
+        verify(matchRepository, times(2)).streamScoresPlayedSince(SEASON_START);
+        SwissStanding leader = swissService.getStandings(DIVISION_ID).get(0);
+        assertEquals(1, leader.getByes());
+    }
+
+    private void players(User... users) {
+        when(userService.getSignedInUsersInDivision(DIVISION_ID)).thenAnswer(invocation -> new ArrayList<>(List.of(users)));
+        when(userService.getAllUsersInDivision(DIVISION_ID)).thenAnswer(invocation -> new ArrayList<>(List.of(users)));
+    }
+
+    private static User user(long id, int eloRating) {
+        return User.createUser(id, "User" + id, eloRating, null, DIVISION_ID, LEAGUE_ID, true);
+    }
+
+    private static Match match(long id, long player1Id, long player2Id, int player1Score, int player2Score) {
+        Match match = new Match(player1Id, player2Id);
+        match.setId(id);
+        match.setPlayer1Score(player1Score);
+        match.setPlayer2Score(player2Score);
+        match.setMatchDateTime(SEASON_START.plusDays(1));
+        return match;
+    }
+}
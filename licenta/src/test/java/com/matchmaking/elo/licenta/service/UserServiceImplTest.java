@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 
 import com.matchmaking.elo.licenta.model.Match;
 import com.matchmaking.elo.licenta.model.User;
+import com.matchmaking.elo.licenta.rating.EloRatingEngine;
 import com.matchmaking.elo.licenta.repository.MatchRepository;
 import com.matchmaking.elo.licenta.repository.UserRepository;
 import org.junit.Before;
@@ -12,6 +13,7 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +23,9 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -123,7 +128,7 @@ public class UserServiceImplTest {
 //        userService.updatePlayerEloRating(player, opponent, playerWon);
 
         double playerExpectation = 1 / (1 + Math.pow(10, (1200 - 1000) / 400.0));
-        int expectedElo = (int) (1000 + userService.K_FACTOR_CONSTANT * (1 - playerExpectation));
+        int expectedElo = (int) (1000 + EloRatingEngine.K_FACTOR * (1 - playerExpectation));
         expectedElo = Math.max(expectedElo, 0); // Asiguram că ELO nu scade sub zero
 
         assertEquals(expectedElo, player.getEloRating());
@@ -145,7 +150,7 @@ public class UserServiceImplTest {
 //        userService.updatePlayerEloRating(player, opponent, playerWon);
 
         double playerExpectation = 1 / (1 + Math.pow(10, (1200 - 1000) / 400.0));
-        int expectedElo = (int) (1000 + userService.K_FACTOR_CONSTANT * (0 - playerExpectation));
+        int expectedElo = (int) (1000 + EloRatingEngine.K_FACTOR * (0 - playerExpectation));
         expectedElo = Math.max(expectedElo, 0);
 
         assertEquals(expectedElo, player.getEloRating());